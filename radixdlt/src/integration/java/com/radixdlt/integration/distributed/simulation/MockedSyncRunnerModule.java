@@ -21,6 +21,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Key;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.MapBinder;
 import com.google.inject.multibindings.ProvidesIntoSet;
@@ -30,10 +31,12 @@ import com.radixdlt.environment.ProcessWithSyncRunner;
 import com.radixdlt.environment.RemoteEventProcessor;
 import com.radixdlt.ledger.DtoCommandsAndProof;
 import com.radixdlt.ledger.LedgerUpdate;
+import com.radixdlt.ledger.VerifiedCommandsAndProof;
 import com.radixdlt.sync.LocalSyncRequest;
 import com.radixdlt.sync.LocalSyncServiceAccumulatorProcessor;
 import com.radixdlt.sync.LocalSyncServiceAccumulatorProcessor.SyncInProgress;
 import com.radixdlt.sync.RemoteSyncResponseValidatorSetVerifier;
+import com.radixdlt.sync.SyncExecutors;
 import com.radixdlt.sync.SyncServiceRunner;
 
 /**
@@ -68,4 +71,17 @@ public class MockedSyncRunnerModule extends AbstractModule {
 	) {
 		return localSyncServiceAccumulatorProcessor.syncTimeoutProcessor();
 	}
+
+	@Provides
+	@Singleton
+	private SyncExecutors syncExecutors() {
+		return SyncExecutors.create(Runtime.getRuntime().availableProcessors());
+	}
+
+	@Provides
+	private EventProcessor<VerifiedCommandsAndProof> verifiedSyncResponseProcessor(
+		LocalSyncServiceAccumulatorProcessor localSyncServiceAccumulatorProcessor
+	) {
+		return localSyncServiceAccumulatorProcessor.verifiedSyncResponseProcessor();
+	}
 }
@@ -170,7 +170,12 @@ public class SimulationNetwork {
 
 		@Override
 		public void sendGetVerticesRequest(BFTNode node, LocalGetVerticesRequest request) {
-			final GetVerticesRequest getVerticesRequest = new GetVerticesRequest(thisNode, request.getVertexId(), request.getCount());
+			final GetVerticesRequest getVerticesRequest = new GetVerticesRequest(
+				thisNode,
+				request.getVertexId(),
+				request.getCount(),
+				request.allowsPartial()
+			);
 			receivedMessages.onNext(MessageInTransit.newMessage(getVerticesRequest, thisNode, node));
 		}
 
@@ -139,12 +139,17 @@ public class NettyTCPTransportRTTTest {
 	}
 
 	private void outboundReceiver(InboundMessage message) {
-		this.obc2.send(message.message());
+		try {
+			this.obc2.send(message.message());
+		} finally {
+			message.release();
+		}
 	}
 
 	private void inboundReceiver(InboundMessage message) {
 		long rxTime = System.nanoTime();
 		byte[] msg = message.message();
+		message.release();
 		if (msg == null || msg.length != Long.BYTES) {
 			throw new IllegalArgumentException("Unexpected message type");
 		}
@@ -179,6 +184,36 @@ public class NettyTCPTransportRTTTest {
 			public boolean debugData(boolean defaultValue) {
 				return false;
 			}
+
+			@Override
+			public int flushThreshold(int defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int workerThreads(int defaultValue) {
+				return 1;
+			}
+
+			@Override
+			public boolean useNativeTransport(boolean defaultValue) {
+				return false;
+			}
+
+			@Override
+			public boolean pooledBuffers(boolean defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int outboundQueueMaxBytes(int defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int outboundQueueMaxMessages(int defaultValue) {
+				return defaultValue;
+			}
 		};
 		Module systemCounterModule = new AbstractModule() {
 			@Override
@@ -146,10 +146,12 @@ public class NettyTCPTransportTest {
 
 	private void handleMessage(InboundMessage message) {
 		packetCounter.incrementAndGet();
-		byteCounter.addAndGet(message.message().length);
+		byteCounter.addAndGet(message.length());
+		message.release();
 	}
 
 	private void unexpectedMessage(InboundMessage message) {
+		message.release();
 		throw new IllegalStateException("Unexpected message");
 	}
 
@@ -179,6 +181,36 @@ public class NettyTCPTransportTest {
 			public boolean debugData(boolean defaultValue) {
 				return false;
 			}
+
+			@Override
+			public int flushThreshold(int defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int workerThreads(int defaultValue) {
+				return 1;
+			}
+
+			@Override
+			public boolean useNativeTransport(boolean defaultValue) {
+				return false;
+			}
+
+			@Override
+			public boolean pooledBuffers(boolean defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int outboundQueueMaxBytes(int defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int outboundQueueMaxMessages(int defaultValue) {
+				return defaultValue;
+			}
 		};
 		Module systemCounterModule = new AbstractModule() {
 			@Override
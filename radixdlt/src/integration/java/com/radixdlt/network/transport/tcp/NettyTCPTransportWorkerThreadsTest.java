@@ -0,0 +1,194 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.transport.tcp;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.google.common.collect.Lists;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.network.messaging.InboundMessage;
+import com.radixdlt.network.transport.SendResult;
+import com.radixdlt.network.transport.TransportOutboundConnection;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks that a TCP transport with multiple worker threads, using both the
+ * NIO and (where available) native transports, receives all messages from
+ * several peers, and services those peers from more than one thread.
+ */
+@RunWith(Parameterized.class)
+public class NettyTCPTransportWorkerThreadsTest {
+	private static final int SERVER_WORKER_THREADS = 4;
+	private static final int NUM_CLIENTS = 4;
+	private static final int MESSAGES_PER_CLIENT = 1000;
+
+	@Parameters(name = "native={0}")
+	public static Collection<Object[]> parameters() {
+		return List.of(new Object[][] {
+			{false}, {true}
+		});
+	}
+
+	private final boolean useNativeTransport;
+	private final List<NettyTCPTransport> transports = Lists.newArrayList();
+	private final Set<String> receivingThreads = ConcurrentHashMap.newKeySet();
+	private final CountDownLatch received = new CountDownLatch(NUM_CLIENTS * MESSAGES_PER_CLIENT);
+
+	public NettyTCPTransportWorkerThreadsTest(boolean useNativeTransport) {
+		this.useNativeTransport = useNativeTransport;
+	}
+
+	@After
+	public void teardown() throws IOException, InterruptedException {
+		for (NettyTCPTransport transport : this.transports) {
+			transport.close();
+		}
+		// Delay to allow O/S to transition sockets through FIN_WAIT
+		Thread.sleep(500);
+	}
+
+	@Test
+	public void all_messages_received_by_multiple_worker_threads()
+		throws InterruptedException, ExecutionException, TimeoutException, IOException {
+		int basePort = this.useNativeTransport ? 34560 : 34660;
+		NettyTCPTransport server = createTransport("127.0.0.1", basePort, SERVER_WORKER_THREADS);
+		server.start(this::handleMessage);
+
+		List<CompletableFuture<SendResult>> results = Lists.newArrayList();
+		List<TransportOutboundConnection> connections = Lists.newArrayList();
+		for (int i = 1; i <= NUM_CLIENTS; ++i) {
+			NettyTCPTransport client = createTransport("127.0.0.1", basePort + i, 1);
+			client.start(this::unexpectedMessage);
+			connections.add(client.control().open(server.localMetadata()).get());
+		}
+
+		byte[] packet = new byte[128];
+		for (int n = 0; n < MESSAGES_PER_CLIENT; ++n) {
+			for (TransportOutboundConnection connection : connections) {
+				results.add(connection.send(packet));
+			}
+		}
+
+		for (CompletableFuture<SendResult> result : results) {
+			assertTrue(result.get(10, TimeUnit.SECONDS).isComplete());
+		}
+		assertTrue(this.received.await(10, TimeUnit.SECONDS));
+		assertTrue(this.receivingThreads.size() > 1);
+	}
+
+	private void handleMessage(InboundMessage message) {
+		this.receivingThreads.add(Thread.currentThread().getName());
+		message.release();
+		this.received.countDown();
+	}
+
+	private void unexpectedMessage(InboundMessage message) {
+		message.release();
+		throw new IllegalStateException("Unexpected message");
+	}
+
+	private NettyTCPTransport createTransport(String host, int port, int workerThreads) {
+		TCPConfiguration config = new TCPConfiguration() {
+			@Override
+			public int networkPort(int defaultValue) {
+				return port;
+			}
+
+			@Override
+			public String networkAddress(String defaultValue) {
+				return host;
+			}
+
+			@Override
+			public int maxChannelCount(int defaultValue) {
+				return 1024;
+			}
+
+			@Override
+			public int priority(int defaultValue) {
+				return 0;
+			}
+
+			@Override
+			public boolean debugData(boolean defaultValue) {
+				return false;
+			}
+
+			@Override
+			public int flushThreshold(int defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int workerThreads(int defaultValue) {
+				return workerThreads;
+			}
+
+			@Override
+			public boolean useNativeTransport(boolean defaultValue) {
+				return useNativeTransport;
+			}
+
+			@Override
+			public boolean pooledBuffers(boolean defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int outboundQueueMaxBytes(int defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int outboundQueueMaxMessages(int defaultValue) {
+				return defaultValue;
+			}
+		};
+		Module systemCounterModule = new AbstractModule() {
+			@Override
+			protected void configure() {
+				bind(SystemCounters.class).toInstance(mock(SystemCounters.class));
+			}
+		};
+		Injector injector = Guice.createInjector(new TCPTransportModule(config), systemCounterModule);
+		NettyTCPTransport transport = injector.getInstance(NettyTCPTransport.class);
+		this.transports.add(transport);
+		return transport;
+	}
+}
@@ -140,10 +140,12 @@ public class NettyUDPTransportTest {
 
 	private void handleMessage(InboundMessage message) {
 		packetCounter.incrementAndGet();
-		byteCounter.addAndGet(message.message().length);
+		byteCounter.addAndGet(message.length());
+		message.release();
 	}
 
 	private void unexpectedMessage(InboundMessage message) {
+		message.release();
 		throw new IllegalStateException("Unexpected message");
 	}
 
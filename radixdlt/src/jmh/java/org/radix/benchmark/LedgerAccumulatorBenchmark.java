@@ -0,0 +1,185 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.ledger.AccumulatorState;
+import com.radixdlt.ledger.MerkleLedgerAccumulatorAndVerifier;
+import com.radixdlt.ledger.SimpleLedgerAccumulatorAndVerifier;
+import com.radixdlt.properties.RuntimeProperties;
+import com.radixdlt.store.berkeley.BerkeleyMerkleFrontierStore;
+import org.radix.database.DatabaseEnvironment;
+
+/**
+ * Some JMH driven benchmarks comparing the hash chain and Merkle tree
+ * ledger accumulators, accumulating single commands and verifying
+ * batches of commands as received when syncing.
+ * <p>
+ * Batches start from a state version which is not a power of two, so
+ * that Merkle batches are not hashed as a single perfect subtree. The
+ * Merkle accumulator persists committed states to a Berkeley DB store in
+ * a temporary directory, and committing a batch on top of the ledger is
+ * measured as well.
+ * <p>
+ * Note that the build system has been set up to make it easier to
+ * run these performance tests under gradle.  Using gradle, it should
+ * be possible to execute:
+ * <pre>
+ *    $ gradle clean jmh
+ * </pre>
+ * from the RadixCode/radixdlt directory.  Note that the JMH plugin
+ * does not appear to be super robust, and changes to benchmark tests
+ * and other code are not always re-instrumented correctly by gradle
+ * daemons.  This can be worked around by avoiding the gradle daemon:
+ * <pre>
+ *    $ gradle --no-daemon clean jmh
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class LedgerAccumulatorBenchmark {
+	private static final int START_VERSION = 3;
+
+	@Param({"1", "100", "10000"})
+	private int batchSize;
+
+	private Path dbDirectory;
+	private DatabaseEnvironment dbEnv;
+	private BerkeleyMerkleFrontierStore frontierStore;
+
+	private SimpleLedgerAccumulatorAndVerifier hashChain;
+	private MerkleLedgerAccumulatorAndVerifier merkle;
+	private ImmutableList<HashCode> batch;
+
+	private AccumulatorState hashChainStart;
+	private AccumulatorState hashChainEnd;
+	private AccumulatorState merkleStart;
+	private AccumulatorState merkleEnd;
+	private AccumulatorState merkleCommitted;
+
+	@Setup
+	public void setup() throws IOException {
+		this.dbDirectory = Files.createTempDirectory("ledger-accumulator-benchmark");
+		RuntimeProperties properties = new RuntimeProperties(new JSONObject(), new String[0]);
+		properties.set("db.location", this.dbDirectory.toString());
+		this.dbEnv = new DatabaseEnvironment(properties);
+		this.frontierStore = new BerkeleyMerkleFrontierStore(this.dbEnv);
+
+		Hasher hasher = Sha256Hasher.withDefaultSerialization();
+		this.hashChain = new SimpleLedgerAccumulatorAndVerifier(hasher);
+		this.merkle = new MerkleLedgerAccumulatorAndVerifier(hasher, this.frontierStore);
+
+		this.batch = IntStream.range(0, batchSize)
+			.mapToObj(i -> HashUtils.random256())
+			.collect(ImmutableList.toImmutableList());
+
+		AccumulatorState genesis = new AccumulatorState(0, HashUtils.zero256());
+		this.hashChainStart = genesis;
+		this.merkleStart = genesis;
+		ImmutableList.Builder<HashCode> startHashes = ImmutableList.builder();
+		for (int i = 0; i < START_VERSION; i++) {
+			HashCode hash = HashUtils.random256();
+			startHashes.add(hash);
+			this.hashChainStart = this.hashChain.accumulate(this.hashChainStart, hash);
+			this.merkleStart = this.merkle.accumulate(this.merkleStart, hash);
+		}
+		this.merkle.commit(startHashes.build(), this.merkleStart);
+		this.merkleCommitted = this.merkleStart;
+
+		this.hashChainEnd = this.hashChainStart;
+		this.merkleEnd = this.merkleStart;
+		for (HashCode hash : batch) {
+			this.hashChainEnd = this.hashChain.accumulate(this.hashChainEnd, hash);
+			this.merkleEnd = this.merkle.accumulate(this.merkleEnd, hash);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		this.frontierStore.close();
+		this.dbEnv.stop();
+		try (Stream<Path> paths = Files.walk(this.dbDirectory)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Benchmark
+	public void hashChainAccumulate(Blackhole bh) {
+		bh.consume(hashChain.accumulate(hashChainStart, batch.get(0)));
+	}
+
+	@Benchmark
+	public void merkleAccumulate(Blackhole bh) {
+		bh.consume(merkle.accumulate(merkleStart, batch.get(0)));
+	}
+
+	@Benchmark
+	public void hashChainVerify(Blackhole bh) {
+		bh.consume(hashChain.verify(hashChainStart, batch, hashChainEnd));
+	}
+
+	@Benchmark
+	public void merkleVerify(Blackhole bh) {
+		bh.consume(merkle.verify(merkleStart, batch, merkleEnd));
+	}
+
+	/**
+	 * Prepares a batch on top of the committed ledger one command at a time,
+	 * then verifies and commits it as the ledger does, growing the ledger.
+	 */
+	@Benchmark
+	public void merkleCommit(Blackhole bh) {
+		AccumulatorState end = merkleCommitted;
+		for (HashCode hash : batch) {
+			end = merkle.accumulate(end, hash);
+		}
+		bh.consume(merkle.verify(merkleCommitted, batch, end));
+		merkle.commit(batch, end);
+		merkleCommitted = end;
+	}
+}
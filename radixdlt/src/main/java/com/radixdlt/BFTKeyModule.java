@@ -26,6 +26,7 @@ import com.radixdlt.consensus.bft.PersistedBFTKeyManager;
 import com.radixdlt.consensus.bft.Self;
 import com.radixdlt.counters.SystemCounters;
 import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.network.messaging.NodeKeyAgreement;
 import com.radixdlt.properties.RuntimeProperties;
 
 /**
@@ -56,4 +57,10 @@ public final class BFTKeyModule extends AbstractModule {
 			return bftKeyManager.sign(hash);
 		};
 	}
+
+	@Provides
+	@Singleton
+	NodeKeyAgreement nodeKeyAgreement(PersistedBFTKeyManager bftKeyManager) {
+		return bftKeyManager::sharedSecret;
+	}
 }
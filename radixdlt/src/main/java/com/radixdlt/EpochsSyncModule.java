@@ -80,6 +80,13 @@ public class EpochsSyncModule extends AbstractModule {
 		return epochsLocalSyncServiceProcessor.syncTimeoutProcessor();
 	}
 
+	@Provides
+	private EventProcessor<VerifiedCommandsAndProof> verifiedSyncResponseProcessor(
+		EpochsLocalSyncServiceProcessor epochsLocalSyncServiceProcessor
+	) {
+		return epochsLocalSyncServiceProcessor.verifiedSyncResponseProcessor();
+	}
+
 	@Provides
 	private RemoteEventProcessor<DtoCommandsAndProof> syncResponseProcessor(EpochsRemoteSyncResponseProcessor processor) {
 		return processor.syncResponseProcessor();
@@ -21,18 +21,43 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.radixdlt.crypto.Hasher;
+import com.radixdlt.mempool.EmptyMempoolJournal;
+import com.radixdlt.mempool.FileMempoolJournal;
 import com.radixdlt.mempool.LocalMempool;
+import com.radixdlt.mempool.MempoolJournal;
+import java.nio.file.Paths;
 
 public class LedgerLocalMempoolModule extends AbstractModule {
 	private final int maxSize;
+	private final String journalFile;
+	private final int journalCompactionThreshold;
 
 	public LedgerLocalMempoolModule(int maxSize) {
+		this(maxSize, "", 0);
+	}
+
+	/**
+	 * Creates a module for a local mempool which is journalled to the
+	 * specified file.  An empty {@code journalFile} disables the journal.
+	 */
+	public LedgerLocalMempoolModule(int maxSize, String journalFile, int journalCompactionThreshold) {
 		this.maxSize = maxSize;
+		this.journalFile = journalFile;
+		this.journalCompactionThreshold = journalCompactionThreshold;
+	}
+
+	@Provides
+	@Singleton
+	MempoolJournal mempoolJournal() {
+		if (journalFile.isEmpty()) {
+			return new EmptyMempoolJournal();
+		}
+		return new FileMempoolJournal(Paths.get(journalFile), journalCompactionThreshold);
 	}
 
 	@Provides
 	@Singleton
-	LocalMempool localMempool(Hasher hasher) {
-		return new LocalMempool(maxSize, hasher);
+	LocalMempool localMempool(Hasher hasher, MempoolJournal journal) {
+		return new LocalMempool(maxSize, hasher, journal);
 	}
 }
@@ -21,6 +21,7 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
+import com.google.inject.multibindings.Multibinder;
 import com.google.inject.multibindings.ProvidesIntoSet;
 import com.radixdlt.consensus.Ledger;
 import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
@@ -33,8 +34,10 @@ import com.radixdlt.environment.ProcessOnDispatch;
 import com.radixdlt.ledger.AccumulatorState;
 import com.radixdlt.ledger.LedgerAccumulator;
 import com.radixdlt.ledger.LedgerAccumulatorVerifier;
+import com.radixdlt.ledger.MerkleLedgerAccumulatorAndVerifier;
 import com.radixdlt.ledger.SimpleLedgerAccumulatorAndVerifier;
 import com.radixdlt.ledger.StateComputerLedger;
+import com.radixdlt.ledger.StateComputerLedger.LedgerUpdateSender;
 import com.radixdlt.mempool.Mempool;
 import com.radixdlt.utils.Pair;
 import java.util.Comparator;
@@ -43,12 +46,36 @@ import java.util.Comparator;
  * Module which manages ledger state and synchronization of updates to ledger state
  */
 public class LedgerModule extends AbstractModule {
+	private final boolean merkleAccumulator;
+
+	public LedgerModule() {
+		this(false);
+	}
+
+	/**
+	 * Creates a module which accumulates commands into the roots of a Merkle tree
+	 * if {@code merkleAccumulator} is set, or into a hash chain otherwise.
+	 * Accumulator hashes are part of ledger headers, so all nodes of a network
+	 * must use the same accumulator.
+	 */
+	public LedgerModule(boolean merkleAccumulator) {
+		this.merkleAccumulator = merkleAccumulator;
+	}
+
 	@Override
 	protected void configure() {
 		bind(Ledger.class).to(StateComputerLedger.class);
 		bind(new TypeLiteral<Comparator<VerifiedLedgerHeaderAndProof>>() { }).to(OrderByEpochAndVersionComparator.class).in(Scopes.SINGLETON);
-		bind(LedgerAccumulator.class).to(SimpleLedgerAccumulatorAndVerifier.class);
-		bind(LedgerAccumulatorVerifier.class).to(SimpleLedgerAccumulatorAndVerifier.class);
+		if (merkleAccumulator) {
+			bind(MerkleLedgerAccumulatorAndVerifier.class).in(Scopes.SINGLETON);
+			bind(LedgerAccumulator.class).to(MerkleLedgerAccumulatorAndVerifier.class);
+			bind(LedgerAccumulatorVerifier.class).to(MerkleLedgerAccumulatorAndVerifier.class);
+			// Only committed states are persisted
+			Multibinder.newSetBinder(binder(), LedgerUpdateSender.class).addBinding().to(MerkleLedgerAccumulatorAndVerifier.class);
+		} else {
+			bind(LedgerAccumulator.class).to(SimpleLedgerAccumulatorAndVerifier.class);
+			bind(LedgerAccumulatorVerifier.class).to(SimpleLedgerAccumulatorAndVerifier.class);
+		}
 		bind(StateComputerLedger.class).in(Scopes.SINGLETON);
 	}
 
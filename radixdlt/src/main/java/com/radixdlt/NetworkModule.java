@@ -73,6 +73,9 @@ public final class NetworkModule extends AbstractModule {
 		bind(ProposalBroadcaster.class).to(MessageCentralBFTNetwork.class);
 		bind(VoteSender.class).to(MessageCentralBFTNetwork.class);
 		bind(BFTEventsRx.class).to(MessageCentralBFTNetwork.class);
+
+		// Network ledger sync messages
+		bind(MessageCentralLedgerSync.class).in(Scopes.SINGLETON);
 	}
 
 	@ProvidesIntoSet
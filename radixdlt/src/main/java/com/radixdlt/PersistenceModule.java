@@ -28,9 +28,11 @@ import com.radixdlt.consensus.safety.PersistentSafetyStateStore;
 import com.radixdlt.consensus.bft.PersistentVertexStore;
 import com.radixdlt.environment.EventProcessor;
 import com.radixdlt.environment.ProcessOnDispatch;
+import com.radixdlt.ledger.MerkleFrontierStore;
 import com.radixdlt.properties.RuntimeProperties;
 import com.radixdlt.store.LedgerEntryStore;
 import com.radixdlt.store.LedgerEntryStoreView;
+import com.radixdlt.store.berkeley.BerkeleyMerkleFrontierStore;
 import com.radixdlt.store.berkeley.BerkeleySafetyStateStore;
 import com.radixdlt.store.berkeley.BerkeleyLedgerEntryStore;
 import org.radix.database.DatabaseEnvironment;
@@ -47,6 +49,8 @@ public class PersistenceModule extends AbstractModule {
 		bind(PersistentVertexStore.class).to(BerkeleyLedgerEntryStore.class);
 		bind(PersistentSafetyStateStore.class).to(BerkeleySafetyStateStore.class);
 		bind(BerkeleySafetyStateStore.class).in(Scopes.SINGLETON);
+		bind(MerkleFrontierStore.class).to(BerkeleyMerkleFrontierStore.class);
+		bind(BerkeleyMerkleFrontierStore.class).in(Scopes.SINGLETON);
 	}
 
 	@Provides
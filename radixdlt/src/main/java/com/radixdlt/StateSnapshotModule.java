@@ -0,0 +1,115 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.radixdlt.api.CommittedAtomsRx;
+import com.radixdlt.consensus.HashVerifier;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.ledger.VerifiedCommandsAndProof;
+import com.radixdlt.middleware2.network.MessageCentralStateSnapshotSync;
+import com.radixdlt.middleware2.store.CommittedAtomsStore;
+import com.radixdlt.network.addressbook.AddressBook;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.sync.StateSnapshotProducer;
+import com.radixdlt.sync.StateSnapshotServer;
+import com.radixdlt.sync.StateSnapshotSync;
+
+/**
+ * Module which produces and serves state snapshots at epoch changes and
+ * onboards empty nodes from them
+ */
+public class StateSnapshotModule extends AbstractModule {
+	private static final int DEFAULT_CHUNK_SIZE = 128;
+	private static final int DEFAULT_MIN_PEERS = 2;
+	private static final long DEFAULT_REQUEST_TIMEOUT_MS = 10_000L;
+	private static final long DEFAULT_DISCOVERY_TIMEOUT_MS = 60_000L;
+
+	private final int chunkSize;
+	private final int minPeers;
+	private final long requestTimeoutMs;
+	private final long discoveryTimeoutMs;
+
+	public StateSnapshotModule() {
+		this(DEFAULT_CHUNK_SIZE, DEFAULT_MIN_PEERS, DEFAULT_REQUEST_TIMEOUT_MS, DEFAULT_DISCOVERY_TIMEOUT_MS);
+	}
+
+	/**
+	 * Creates a module which splits snapshots into chunks of {@code chunkSize} particles
+	 * and onboards from one once {@code minPeers} peers are found to ask for it, waiting
+	 * at most {@code discoveryTimeoutMs} for that many peers and {@code requestTimeoutMs}
+	 * for any single response.
+	 */
+	public StateSnapshotModule(int chunkSize, int minPeers, long requestTimeoutMs, long discoveryTimeoutMs) {
+		this.chunkSize = chunkSize;
+		this.minPeers = minPeers;
+		this.requestTimeoutMs = requestTimeoutMs;
+		this.discoveryTimeoutMs = discoveryTimeoutMs;
+	}
+
+	@Provides
+	@Singleton
+	private StateSnapshotProducer stateSnapshotProducer(
+		CommittedAtomsStore store,
+		CommittedAtomsRx committedAtomsRx,
+		Serialization serialization,
+		Hasher hasher
+	) {
+		return new StateSnapshotProducer(store, committedAtomsRx, serialization, hasher, chunkSize);
+	}
+
+	@Provides
+	@Singleton
+	private StateSnapshotServer stateSnapshotServer(
+		StateSnapshotProducer producer,
+		MessageCentralStateSnapshotSync network,
+		SystemCounters counters
+	) {
+		return new StateSnapshotServer(producer, network, counters);
+	}
+
+	@Provides
+	@Singleton
+	private StateSnapshotSync stateSnapshotSync(
+		MessageCentralStateSnapshotSync network,
+		AddressBook addressBook,
+		CommittedAtomsStore store,
+		VerifiedCommandsAndProof genesisCheckpoint,
+		Serialization serialization,
+		Hasher hasher,
+		HashVerifier hashVerifier,
+		SystemCounters counters
+	) {
+		return new StateSnapshotSync(
+			network,
+			addressBook,
+			store,
+			genesisCheckpoint,
+			serialization,
+			hasher,
+			hashVerifier,
+			counters,
+			minPeers,
+			requestTimeoutMs,
+			discoveryTimeoutMs
+		);
+	}
+}
@@ -19,9 +19,12 @@ package com.radixdlt;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Key;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.MapBinder;
 import com.radixdlt.epochs.EpochsLedgerUpdate;
+import com.radixdlt.sync.SyncExecutors;
 import com.radixdlt.sync.SyncServiceRunner;
 
 public class SyncRunnerModule extends AbstractModule {
@@ -30,4 +33,10 @@ public class SyncRunnerModule extends AbstractModule {
 		MapBinder.newMapBinder(binder(), String.class, ModuleRunner.class)
 			.addBinding("sync").to(Key.get(new TypeLiteral<SyncServiceRunner<EpochsLedgerUpdate>>() { }));
 	}
+
+	@Provides
+	@Singleton
+	private SyncExecutors syncExecutors() {
+		return SyncExecutors.create(Runtime.getRuntime().availableProcessors());
+	}
 }
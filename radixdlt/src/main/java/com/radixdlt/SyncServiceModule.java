@@ -28,6 +28,7 @@ import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
 import com.radixdlt.counters.SystemCounters;
 import com.radixdlt.counters.SystemCounters.CounterType;
 import com.radixdlt.environment.RemoteEventDispatcher;
+import com.radixdlt.environment.EventProcessor;
 import com.radixdlt.environment.RemoteEventProcessor;
 import com.radixdlt.ledger.DtoCommandsAndProof;
 import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
@@ -44,17 +45,63 @@ import com.radixdlt.sync.RemoteSyncResponseValidatorSetVerifier.InvalidValidator
 import com.radixdlt.sync.RemoteSyncResponseValidatorSetVerifier.VerifiedValidatorSetSender;
 import com.radixdlt.sync.RemoteSyncServiceProcessor;
 import com.radixdlt.sync.LocalSyncServiceAccumulatorProcessor;
+import com.radixdlt.sync.SyncResponseCache;
+import com.radixdlt.sync.SyncServingBudget;
+import com.radixdlt.sync.SyncServingExecutor;
 
 /**
  * Module which manages synchronization of committed atoms across of nodes
  */
 public class SyncServiceModule extends AbstractModule {
 	private static final int BATCH_SIZE = 100;
+	private static final int DEFAULT_SERVING_THREADS = 2;
+	private static final int DEFAULT_SERVING_QUEUE_SIZE = 64;
+	private static final double DEFAULT_REQUESTS_PER_SECOND_PER_REQUESTER = 20.0;
+	private static final long DEFAULT_MAX_SERVED_BYTES_PER_SECOND = 16L * 1024 * 1024;
+	private static final long DEFAULT_MAX_CACHED_BYTES = 32L * 1024 * 1024;
+
+	private final int servingThreads;
+	private final int servingQueueSize;
+	private final double requestsPerSecondPerRequester;
+	private final long maxServedBytesPerSecond;
+	private final long maxCachedBytes;
+
+	public SyncServiceModule() {
+		this(
+			DEFAULT_SERVING_THREADS,
+			DEFAULT_SERVING_QUEUE_SIZE,
+			DEFAULT_REQUESTS_PER_SECOND_PER_REQUESTER,
+			DEFAULT_MAX_SERVED_BYTES_PER_SECOND,
+			DEFAULT_MAX_CACHED_BYTES
+		);
+	}
+
+	/**
+	 * Creates a module which serves remote sync requests on {@code servingThreads}
+	 * threads of its own, queueing at most {@code servingQueueSize} requests, accepting
+	 * at most {@code requestsPerSecondPerRequester} requests from any one node and
+	 * sending at most {@code maxServedBytesPerSecond} bytes of commands in responses
+	 * and caching responses holding at most {@code maxCachedBytes} bytes of commands.
+	 */
+	public SyncServiceModule(
+		int servingThreads,
+		int servingQueueSize,
+		double requestsPerSecondPerRequester,
+		long maxServedBytesPerSecond,
+		long maxCachedBytes
+	) {
+		this.servingThreads = servingThreads;
+		this.servingQueueSize = servingQueueSize;
+		this.requestsPerSecondPerRequester = requestsPerSecondPerRequester;
+		this.maxServedBytesPerSecond = maxServedBytesPerSecond;
+		this.maxCachedBytes = maxCachedBytes;
+	}
 
 	@Override
 	public void configure() {
 		bind(new TypeLiteral<RemoteEventProcessor<DtoLedgerHeaderAndProof>>() { }).to(RemoteSyncServiceProcessor.class);
 		bind(LocalSyncServiceAccumulatorProcessor.class).in(Scopes.SINGLETON);
+		bind(RemoteSyncResponseSignaturesVerifier.class).in(Scopes.SINGLETON);
 	}
 
 	@Provides
@@ -83,7 +130,11 @@ public class SyncServiceModule extends AbstractModule {
 	}
 
 	@Provides
-	private VerifiedAccumulatorSender verifiedSyncedCommandsSender(SystemCounters counters, Ledger ledger) {
+	private VerifiedAccumulatorSender verifiedSyncedCommandsSender(
+		SystemCounters counters,
+		Ledger ledger,
+		EventProcessor<VerifiedCommandsAndProof> verifiedSyncResponseProcessor
+	) {
 		return resp -> {
 			DtoCommandsAndProof commandsAndProof = resp.getCommandsAndProof();
 			// TODO: Stateful ledger header verification:
@@ -103,6 +154,8 @@ public class SyncServiceModule extends AbstractModule {
 			);
 
 			counters.add(CounterType.SYNC_PROCESSED, verified.getCommands().size());
+			// Let the next window be requested before this one is committed
+			verifiedSyncResponseProcessor.process(verified);
 			ledger.commit(verified);
 		};
 	}
@@ -111,15 +164,34 @@ public class SyncServiceModule extends AbstractModule {
 	@Singleton
 	private RemoteSyncServiceProcessor remoteSyncServiceProcessor(
 		CommittedReader committedReader,
-		RemoteEventDispatcher<DtoCommandsAndProof> syncResponseDispatcher
+		RemoteEventDispatcher<DtoCommandsAndProof> syncResponseDispatcher,
+		SystemCounters counters
 	) {
 		return new RemoteSyncServiceProcessor(
 			committedReader,
 			syncResponseDispatcher,
+			new SyncResponseCache(maxCachedBytes, counters),
+			new SyncServingBudget(maxServedBytesPerSecond),
+			counters,
 			BATCH_SIZE
 		);
 	}
 
+	@Provides
+	@Singleton
+	private SyncServingExecutor syncServingExecutor(
+		RemoteEventProcessor<DtoLedgerHeaderAndProof> remoteSyncServiceProcessor,
+		SystemCounters counters
+	) {
+		return new SyncServingExecutor(
+			remoteSyncServiceProcessor,
+			servingThreads,
+			servingQueueSize,
+			requestsPerSecondPerRequester,
+			counters
+		);
+	}
+
 	@Provides
 	RemoteSyncResponseValidatorSetVerifier validatorSetVerifier(
 		VerifiedValidatorSetSender verifiedValidatorSetSender,
@@ -36,6 +36,7 @@ import com.radixdlt.consensus.QuorumCertificate;
 import com.radixdlt.consensus.epoch.EpochView;
 import com.radixdlt.middleware2.InfoSupplier;
 import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.network.transport.tcp.TCPOutboundQueues;
 import com.radixdlt.properties.RuntimeProperties;
 
 import org.radix.Radix;
@@ -84,7 +85,8 @@ public class SystemInfoModule extends AbstractModule {
 	@Singleton
 	private InfoSupplier infoSupplier(
 		SystemCounters counters,
-		InMemorySystemInfo infoStateManager
+		InMemorySystemInfo infoStateManager,
+		TCPOutboundQueues tcpOutboundQueues
 	) {
 		return () -> {
 			EpochView currentEpochView = infoStateManager.getCurrentView();
@@ -111,6 +113,7 @@ public class SystemInfoModule extends AbstractModule {
 					: ImmutableMap.of()
 				),
 				"counters", counters.toMap(),
+				"tcp_outbound_queues", tcpOutboundQueues.toMap(),
 				"system_version", Radix.systemVersionInfo()
 			);
 		};
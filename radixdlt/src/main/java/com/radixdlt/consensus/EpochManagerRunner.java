@@ -55,6 +55,8 @@ public final class EpochManagerRunner implements ModuleRunner {
 	private final Object lock = new Object();
 	private final ExecutorService singleThreadExecutor;
 	private final Scheduler singleThreadScheduler;
+	private final ExecutorService syncServingExecutor;
+	private final Scheduler syncServingScheduler;
 	private final EpochManager epochManager;
 	private Disposable disposable;
 
@@ -78,9 +80,13 @@ public final class EpochManagerRunner implements ModuleRunner {
 		this.epochManager = Objects.requireNonNull(epochManager);
 		this.singleThreadExecutor = Executors.newSingleThreadExecutor(ThreadFactories.daemonThreads("ConsensusRunner"));
 		this.singleThreadScheduler = Schedulers.from(this.singleThreadExecutor);
+		this.syncServingExecutor = Executors.newSingleThreadExecutor(ThreadFactories.daemonThreads("BFTSyncServer"));
+		this.syncServingScheduler = Schedulers.from(this.syncServingExecutor);
 
 		// It is important that all of these events are executed on the same thread
-		// as all logic is dependent on this assumption
+		// as all logic is dependent on this assumption. The exception is serving vertices
+		// to syncing peers, which only reads a vertex store snapshot and is kept off the
+		// consensus thread so that it cannot delay our own voting.
 		final Observable<Object> eventCoordinatorEvents = Observable.merge(Arrays.asList(
 			ledgerUpdates
 				.observeOn(singleThreadScheduler)
@@ -104,7 +110,7 @@ public final class EpochManagerRunner implements ModuleRunner {
 				.observeOn(singleThreadScheduler)
 				.doOnNext(epochManager::processConsensusEvent),
 			rpcRx.requests()
-				.observeOn(singleThreadScheduler)
+				.observeOn(syncServingScheduler)
 				.doOnNext(epochManager::processGetVerticesRequest),
 			rpcRx.responses()
 				.observeOn(singleThreadScheduler)
@@ -177,6 +183,8 @@ public final class EpochManagerRunner implements ModuleRunner {
 			stop();
 			this.singleThreadScheduler.shutdown(); // Doesn't appear to do much
 			this.singleThreadExecutor.shutdown();
+			this.syncServingScheduler.shutdown();
+			this.syncServingExecutor.shutdown();
 			try {
 				this.singleThreadExecutor.awaitTermination(10L, TimeUnit.SECONDS);
 			} catch (InterruptedException e) {
@@ -0,0 +1,172 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.consensus.bft;
+
+import com.google.common.hash.HashCode;
+import java.util.Objects;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An immutable map from hashes to values, whose versions share structure, so that
+ * a version with an entry added or removed is created in O(log n) time rather than
+ * by copying the whole map.
+ * <p>
+ * Entries are the leaves of a binary trie on the bits of their keys, which being
+ * hashes are uniformly distributed, keeping the trie balanced.
+ *
+ * @param <V> the type of values
+ */
+@Immutable
+final class HashTrieMap<V> {
+	private static final HashTrieMap<?> EMPTY = new HashTrieMap<>(null, 0);
+
+	private interface Node<V> {
+	}
+
+	private static final class Leaf<V> implements Node<V> {
+		private final HashCode key;
+		private final byte[] bits;
+		private final V value;
+
+		private Leaf(HashCode key, byte[] bits, V value) {
+			this.key = key;
+			this.bits = bits;
+			this.value = value;
+		}
+	}
+
+	private static final class Branch<V> implements Node<V> {
+		private final Node<V> zero;
+		private final Node<V> one;
+
+		private Branch(Node<V> zero, Node<V> one) {
+			this.zero = zero;
+			this.one = one;
+		}
+
+		private Node<V> child(boolean bit) {
+			return bit ? one : zero;
+		}
+
+		private Branch<V> withChild(boolean bit, Node<V> child) {
+			return bit ? new Branch<>(zero, child) : new Branch<>(child, one);
+		}
+	}
+
+	private final Node<V> root;
+	private final int size;
+
+	private HashTrieMap(Node<V> root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	@SuppressWarnings("unchecked")
+	static <V> HashTrieMap<V> empty() {
+		return (HashTrieMap<V>) EMPTY;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return the value for the key, or {@code null} if there is none
+	 */
+	V get(HashCode key) {
+		byte[] bits = key.asBytes();
+		Node<V> node = root;
+		for (int depth = 0; node instanceof Branch; depth++) {
+			node = ((Branch<V>) node).child(bit(bits, depth));
+		}
+		if (node != null && ((Leaf<V>) node).key.equals(key)) {
+			return ((Leaf<V>) node).value;
+		}
+		return null;
+	}
+
+	/**
+	 * @return a version of this map in which the key maps to the value
+	 */
+	HashTrieMap<V> with(HashCode key, V value) {
+		Objects.requireNonNull(value);
+		int newSize = get(key) == null ? size + 1 : size;
+		return new HashTrieMap<>(with(root, new Leaf<>(key, key.asBytes(), value), 0), newSize);
+	}
+
+	/**
+	 * @return a version of this map without the key
+	 */
+	HashTrieMap<V> without(HashCode key) {
+		if (get(key) == null) {
+			return this;
+		}
+		return new HashTrieMap<>(without(root, key, key.asBytes(), 0), size - 1);
+	}
+
+	private static <V> Node<V> with(Node<V> node, Leaf<V> leaf, int depth) {
+		if (node == null) {
+			return leaf;
+		}
+		if (node instanceof Branch) {
+			Branch<V> branch = (Branch<V>) node;
+			boolean bit = bit(leaf.bits, depth);
+			return branch.withChild(bit, with(branch.child(bit), leaf, depth + 1));
+		}
+		Leaf<V> existing = (Leaf<V>) node;
+		if (existing.key.equals(leaf.key)) {
+			return leaf;
+		}
+		return split(existing, leaf, depth);
+	}
+
+	private static <V> Node<V> split(Leaf<V> a, Leaf<V> b, int depth) {
+		if (depth >= Byte.SIZE * Math.max(a.bits.length, b.bits.length)) {
+			throw new IllegalArgumentException(String.format("Keys %s and %s differ only in length", a.key, b.key));
+		}
+		boolean aBit = bit(a.bits, depth);
+		boolean bBit = bit(b.bits, depth);
+		if (aBit == bBit) {
+			Node<V> below = split(a, b, depth + 1);
+			return aBit ? new Branch<>(null, below) : new Branch<>(below, null);
+		}
+		return aBit ? new Branch<>(b, a) : new Branch<>(a, b);
+	}
+
+	private static <V> Node<V> without(Node<V> node, HashCode key, byte[] bits, int depth) {
+		if (node instanceof Leaf) {
+			return null;
+		}
+		Branch<V> branch = (Branch<V>) node;
+		boolean bit = bit(bits, depth);
+		Node<V> child = without(branch.child(bit), key, bits, depth + 1);
+		Node<V> sibling = branch.child(!bit);
+		// A lone leaf can move up, as lookups stop at the first leaf and compare its key
+		if (child == null && (sibling == null || sibling instanceof Leaf)) {
+			return sibling;
+		}
+		if (sibling == null && child instanceof Leaf) {
+			return child;
+		}
+		return branch.withChild(bit, child);
+	}
+
+	private static boolean bit(byte[] bits, int index) {
+		int byteIndex = index >>> 3;
+		return byteIndex < bits.length && (bits[byteIndex] & (1 << (index & 7))) != 0;
+	}
+}
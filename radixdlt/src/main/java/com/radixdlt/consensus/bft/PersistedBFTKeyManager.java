@@ -19,8 +19,10 @@ package com.radixdlt.consensus.bft;
 
 import com.radixdlt.crypto.ECDSASignature;
 import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.crypto.ECPublicKey;
 import com.radixdlt.crypto.exception.CryptoException;
 import com.radixdlt.keys.Keys;
+import com.radixdlt.network.messaging.NodeKeyAgreement;
 import com.radixdlt.utils.Bytes;
 
 import java.io.IOException;
@@ -65,6 +67,10 @@ public final class PersistedBFTKeyManager {
 		return ecKeyPair.sign(hash);
 	}
 
+	public byte[] sharedSecret(ECPublicKey remoteKey) {
+		return NodeKeyAgreement.sharedSecret(ecKeyPair, remoteKey);
+	}
+
 	public BFTNode self() {
 		return BFTNode.create(ecKeyPair.getPublicKey());
 	}
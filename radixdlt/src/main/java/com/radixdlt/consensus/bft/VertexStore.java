@@ -60,6 +60,11 @@ public final class VertexStore {
 	private QuorumCertificate highestQC;
 	private QuorumCertificate highestCommittedQC;
 
+	// Kept up to date with vertices incrementally, so that publishing a snapshot doesn't copy them
+	private HashTrieMap<VerifiedVertex> publishedVertices = HashTrieMap.empty();
+	// Republished on every change, for readers off the consensus thread
+	private volatile VertexStoreSnapshot snapshot;
+
 	private VertexStore(
 		Ledger ledger,
 		VerifiedVertex rootVertex,
@@ -79,6 +84,7 @@ public final class VertexStore {
 		this.highestQC = Objects.requireNonNull(highestQC);
 		this.highestCommittedQC = Objects.requireNonNull(commitQC);
 		this.vertexChildren.put(rootVertex.getId(), new HashSet<>());
+		publishSnapshot();
 	}
 
 	public static VertexStore create(
@@ -117,13 +123,14 @@ public final class VertexStore {
 				break;
 			} else {
 				PreparedVertex preparedVertex = preparedVertexMaybe.get();
-				vertexStore.vertices.put(preparedVertex.getId(), preparedVertex);
+				vertexStore.putVertex(preparedVertex);
 				vertexStore.vertexChildren.put(preparedVertex.getId(), new HashSet<>());
 				Set<HashCode> siblings = vertexStore.vertexChildren.get(preparedVertex.getParentId());
 				siblings.add(preparedVertex.getId());
 			}
 		}
 
+		vertexStore.publishSnapshot();
 		return vertexStore;
 	}
 
@@ -148,16 +155,18 @@ public final class VertexStore {
 		this.highestCommittedQC = vertexStoreState.getHighQC().highestCommittedQC();
 		this.highestQC = vertexStoreState.getHighQC().highestQC();
 		this.vertices.clear();
+		this.publishedVertices = HashTrieMap.empty();
 		this.vertexChildren.clear();
 		this.vertexChildren.put(rootVertex.getId(), new HashSet<>());
 
 		for (PreparedVertex preparedVertex : prepared) {
-			this.vertices.put(preparedVertex.getId(), preparedVertex);
+			putVertex(preparedVertex);
 			this.vertexChildren.put(preparedVertex.getId(), new HashSet<>());
 			Set<HashCode> siblings = vertexChildren.get(preparedVertex.getParentId());
 			siblings.add(preparedVertex.getId());
 		}
 
+		publishSnapshot();
 		bftRebuildDispatcher.dispatch(BFTRebuildUpdate.create(vertexStoreState));
 		return true;
 	}
@@ -194,6 +203,7 @@ public final class VertexStore {
 
 		if (isHighQC) {
 			highestQC = qc;
+			publishSnapshot();
 		}
 
 		if (isHighCommit) {
@@ -256,10 +266,11 @@ public final class VertexStore {
 		LinkedList<PreparedVertex> previous = getPathFromRoot(vertex.getParentId());
 		Optional<PreparedVertex> preparedVertexMaybe = ledger.prepare(previous, vertex);
 		preparedVertexMaybe.ifPresent(preparedVertex -> {
-			vertices.put(preparedVertex.getId(), preparedVertex);
+			putVertex(preparedVertex);
 			vertexChildren.put(preparedVertex.getId(), new HashSet<>());
 			Set<HashCode> siblings = vertexChildren.get(preparedVertex.getParentId());
 			siblings.add(preparedVertex.getId());
+			publishSnapshot();
 
 			VerifiedVertexStoreState vertexStoreState = getState();
 			BFTInsertUpdate update = BFTInsertUpdate.insertedVertex(preparedVertex, siblings.size(), vertexStoreState);
@@ -267,8 +278,14 @@ public final class VertexStore {
 		});
 	}
 
+	private void putVertex(PreparedVertex preparedVertex) {
+		this.vertices.put(preparedVertex.getId(), preparedVertex);
+		this.publishedVertices = this.publishedVertices.with(preparedVertex.getId(), preparedVertex.getVertex());
+	}
+
 	private void removeVertexAndPruneInternal(HashCode vertexId, HashCode skip, Builder<HashCode> prunedVerticesBuilder) {
 		vertices.remove(vertexId);
+		publishedVertices = publishedVertices.without(vertexId);
 
 		if (this.rootVertex.getId().equals(vertexId)) {
 			return;
@@ -311,6 +328,7 @@ public final class VertexStore {
 			this.removeVertexAndPruneInternal(path.get(i).getId(), prev, prunedSetBuilder);
 			prev = path.get(i).getId();
 		}
+		publishSnapshot();
 
 		VerifiedVertexStoreState vertexStoreState = getState();
 		ImmutableSet<HashCode> pruned = prunedSetBuilder.build();
@@ -338,6 +356,16 @@ public final class VertexStore {
 		return HighQC.from(this.highestQC, this.highestCommittedQC);
 	}
 
+	/**
+	 * Retrieves an immutable snapshot of the vertices in the store as of its
+	 * last change. Unlike the rest of the store, this may be called from any thread.
+	 *
+	 * @return the latest published snapshot
+	 */
+	public VertexStoreSnapshot snapshot() {
+		return snapshot;
+	}
+
 	/**
 	 * Retrieves list of vertices starting with the given vertexId and
 	 * then proceeding to its ancestors.
@@ -350,23 +378,23 @@ public final class VertexStore {
 	 * @return the list of vertices if all found, otherwise an empty list
 	 */
 	public Optional<ImmutableList<VerifiedVertex>> getVertices(HashCode vertexId, int count) {
-		HashCode nextId = vertexId;
-		ImmutableList.Builder<VerifiedVertex> builder = ImmutableList.builderWithExpectedSize(count);
-		for (int i = 0; i < count; i++) {
-			final VerifiedVertex verifiedVertex;
-			if (nextId.equals(rootVertex.getId())) {
-				verifiedVertex = rootVertex;
-			} else if (this.vertices.containsKey(nextId)) {
-				final PreparedVertex preparedVertex = this.vertices.get(nextId);
-				verifiedVertex = preparedVertex.getVertex();
-			} else {
-				return Optional.empty();
-			}
+		return snapshot.getVertices(vertexId, count);
+	}
 
-			builder.add(verifiedVertex);
-			nextId = verifiedVertex.getParentId();
-		}
+	/**
+	 * Retrieves list of vertices starting with the given vertexId and
+	 * then proceeding to as many of its ancestors as are available, up
+	 * to and including the root vertex.
+	 *
+	 * @param vertexId the id of the vertex
+	 * @param maxCount the maximum number of vertices to retrieve
+	 * @return the list of vertices, or empty if the store does not contain the vertex
+	 */
+	public Optional<ImmutableList<VerifiedVertex>> getAncestors(HashCode vertexId, int maxCount) {
+		return snapshot.getAncestors(vertexId, maxCount);
+	}
 
-		return Optional.of(builder.build());
+	private void publishSnapshot() {
+		this.snapshot = new VertexStoreSnapshot(this.rootVertex, this.publishedVertices, this.highQC());
 	}
 }
@@ -0,0 +1,120 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.consensus.bft;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.HighQC;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An immutable view of the vertices in a {@link VertexStore} as of its last
+ * change, which can safely be read from threads other than the consensus thread.
+ */
+@Immutable
+public final class VertexStoreSnapshot {
+	private final VerifiedVertex rootVertex;
+	private final HashTrieMap<VerifiedVertex> vertices;
+	private final HighQC highQC;
+
+	VertexStoreSnapshot(VerifiedVertex rootVertex, HashTrieMap<VerifiedVertex> vertices, HighQC highQC) {
+		this.rootVertex = Objects.requireNonNull(rootVertex);
+		this.vertices = Objects.requireNonNull(vertices);
+		this.highQC = Objects.requireNonNull(highQC);
+	}
+
+	public VerifiedVertex getRoot() {
+		return rootVertex;
+	}
+
+	/**
+	 * Retrieves the highest QC and highest committed QC in the snapshot.
+	 *
+	 * @return the highest QCs
+	 */
+	public HighQC highQC() {
+		return highQC;
+	}
+
+	/**
+	 * Retrieves list of vertices starting with the given vertexId and
+	 * then proceeding to its ancestors.
+	 *
+	 * if the snapshot does not contain some vertex then will return an empty
+	 * list.
+	 *
+	 * @param vertexId the id of the vertex
+	 * @param count the number of vertices to retrieve
+	 * @return the list of vertices if all found, otherwise an empty list
+	 */
+	public Optional<ImmutableList<VerifiedVertex>> getVertices(HashCode vertexId, int count) {
+		HashCode nextId = vertexId;
+		ImmutableList.Builder<VerifiedVertex> builder = ImmutableList.builderWithExpectedSize(count);
+		for (int i = 0; i < count; i++) {
+			final VerifiedVertex verifiedVertex = getVertex(nextId);
+			if (verifiedVertex == null) {
+				return Optional.empty();
+			}
+
+			builder.add(verifiedVertex);
+			nextId = verifiedVertex.getParentId();
+		}
+
+		return Optional.of(builder.build());
+	}
+
+	/**
+	 * Retrieves list of vertices starting with the given vertexId and
+	 * then proceeding to as many of its ancestors as are available, up
+	 * to and including the root vertex.
+	 *
+	 * @param vertexId the id of the vertex
+	 * @param maxCount the maximum number of vertices to retrieve
+	 * @return the list of vertices, or empty if the snapshot does not contain the vertex
+	 */
+	public Optional<ImmutableList<VerifiedVertex>> getAncestors(HashCode vertexId, int maxCount) {
+		HashCode nextId = vertexId;
+		ImmutableList.Builder<VerifiedVertex> builder = ImmutableList.builder();
+		for (int i = 0; i < maxCount; i++) {
+			final VerifiedVertex verifiedVertex = getVertex(nextId);
+			if (verifiedVertex == null) {
+				break;
+			}
+
+			builder.add(verifiedVertex);
+			if (verifiedVertex == rootVertex) {
+				break;
+			}
+			nextId = verifiedVertex.getParentId();
+		}
+
+		ImmutableList<VerifiedVertex> ancestors = builder.build();
+		return ancestors.isEmpty() ? Optional.empty() : Optional.of(ancestors);
+	}
+
+	private VerifiedVertex getVertex(HashCode vertexId) {
+		return vertexId.equals(rootVertex.getId()) ? rootVertex : vertices.get(vertexId);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s{root=%s vertices=%s highQC=%s}",
+			getClass().getSimpleName(), rootVertex.getId(), vertices.size(), highQC);
+	}
+}
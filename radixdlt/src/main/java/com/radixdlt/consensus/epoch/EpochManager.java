@@ -132,7 +132,8 @@ public final class EpochManager implements BFTSyncRequestProcessor {
 	private BFTSyncResponseProcessor syncBFTResponseProcessor;
 	private EventProcessor<LocalGetVerticesRequest> syncTimeoutProcessor;
 	private LedgerUpdateProcessor<LedgerUpdate> syncLedgerUpdateProcessor;
-	private BFTSyncRequestProcessor syncRequestProcessor;
+	// Read by the vertex sync serving thread, see EpochManagerRunner
+	private volatile BFTSyncRequestProcessor syncRequestProcessor;
 	private BFTEventProcessor bftEventProcessor;
 
 	private Set<EventProcessor<BFTInsertUpdate>> bftUpdateProcessors;
@@ -129,6 +129,10 @@ public final class BFTSync implements BFTSyncResponseProcessor, BFTSyncer, Ledge
 	}
 
 	private static final Logger log = LogManager.getLogger();
+	// Upper bound on the number of ancestors requested in one GetVerticesRequest
+	private static final int MAX_ANCESTOR_WINDOW = 64;
+	// Number of QC signers each GetVerticesRequest is sent to at once
+	private static final int SPECULATIVE_REQUESTS = 2;
 	private final VertexStore vertexStore;
 	private final PacemakerReducer pacemakerReducer;
 	private final Map<HashCode, SyncState> syncing = new HashMap<>();
@@ -236,7 +240,18 @@ public final class BFTSync implements BFTSyncResponseProcessor, BFTSyncer, Ledge
 			syncState.highQC().highestQC().getSigners().filter(n -> !n.equals(syncState.author))
 		).collect(ImmutableList.toImmutableList());
 
-		this.sendBFTSyncRequest(syncState.highQC().highestQC().getProposed().getVertexId(), 1, authors, syncState.localSyncId);
+		BFTHeader proposed = syncState.highQC().highestQC().getProposed();
+		this.sendBFTSyncRequest(proposed.getVertexId(), ancestorWindow(proposed.getView()), true, authors, syncState.localSyncId);
+	}
+
+	/**
+	 * Number of vertices to request for a missing vertex at the given view, so as to reach
+	 * back to the common ancestor with the local vertex store in one request. There can be no
+	 * more missing vertices than there are views between the vertex and the local root.
+	 */
+	private int ancestorWindow(View view) {
+		long views = view.number() - vertexStore.getRoot().getView().number();
+		return (int) Math.max(1L, Math.min(MAX_ANCESTOR_WINDOW, views));
 	}
 
 	private void doCommittedSync(SyncState syncState) {
@@ -250,7 +265,8 @@ public final class BFTSync implements BFTSyncResponseProcessor, BFTSyncer, Ledge
 			syncState.highQC().highestCommittedQC().getSigners().filter(n -> !n.equals(syncState.author))
 		).collect(ImmutableList.toImmutableList());
 
-		this.sendBFTSyncRequest(committedQCId, 3, authors, syncState.localSyncId);
+		// All three are needed, so a response cut short at the responder's root is no use
+		this.sendBFTSyncRequest(committedQCId, 3, false, authors, syncState.localSyncId);
 	}
 
 	public void processGetVerticesLocalTimeout(LocalGetVerticesRequest request) {
@@ -271,12 +287,21 @@ public final class BFTSync implements BFTSyncResponseProcessor, BFTSyncer, Ledge
 		}
 	}
 
-	private void sendBFTSyncRequest(HashCode vertexId, int count, ImmutableList<BFTNode> authors, HashCode syncId) {
-		LocalGetVerticesRequest request = new LocalGetVerticesRequest(vertexId, count);
+	private void sendBFTSyncRequest(
+		HashCode vertexId,
+		int count,
+		boolean allowPartial,
+		ImmutableList<BFTNode> authors,
+		HashCode syncId
+	) {
+		LocalGetVerticesRequest request = new LocalGetVerticesRequest(vertexId, count, allowPartial);
 		SyncRequestState syncRequestState = bftSyncing.getOrDefault(request, new SyncRequestState(authors));
 		if (syncRequestState.syncIds.isEmpty()) {
 			this.timeoutDispatcher.dispatch(request, bftSyncPatienceMillis);
-			this.requestSender.sendGetVerticesRequest(authors.get(0), request);
+			// Ask several signers at once, the first response wins and the rest are ignored
+			authors.stream()
+				.limit(SPECULATIVE_REQUESTS)
+				.forEach(author -> this.requestSender.sendGetVerticesRequest(author, request));
 			this.bftSyncing.put(request, syncRequestState);
 		}
 		syncRequestState.syncIds.add(syncId);
@@ -339,26 +364,36 @@ public final class BFTSync implements BFTSyncResponseProcessor, BFTSyncer, Ledge
 	}
 
 	private void processVerticesResponseForQCSync(SyncState syncState, GetVerticesResponse response) {
-		VerifiedVertex vertex = response.getVertices().get(0);
-		syncState.fetched.addFirst(vertex);
-		HashCode parentId = vertex.getParentId();
-
-		if (vertexStore.containsVertex(parentId)) {
-			vertexStore.insertVertexChain(VerifiedVertexChain.create(syncState.fetched));
-			// Finish it off
-			this.syncing.remove(syncState.localSyncId);
-			this.syncToQC(syncState.highQC, syncState.author);
-		} else {
-			log.debug("SYNC_VERTICES: Sending further GetVerticesRequest for {} fetched={} root={}",
-				syncState.highQC(), syncState.fetched.size(), vertexStore.getRoot());
+		// Vertices are ordered from the requested vertex down through its ancestors
+		VerifiedVertex vertex = null;
+		HashCode expectedId = response.getVertices().get(0).getId();
+		for (VerifiedVertex next : response.getVertices()) {
+			if (!next.getId().equals(expectedId)) {
+				break;
+			}
+			vertex = next;
+			syncState.fetched.addFirst(vertex);
+			if (vertexStore.containsVertex(vertex.getParentId())) {
+				vertexStore.insertVertexChain(VerifiedVertexChain.create(syncState.fetched));
+				// Finish it off
+				this.syncing.remove(syncState.localSyncId);
+				this.syncToQC(syncState.highQC, syncState.author);
+				return;
+			}
+			expectedId = vertex.getParentId();
+		}
 
-			ImmutableList<BFTNode> authors = Stream.concat(
-				Stream.of(syncState.author),
-				vertex.getQC().getSigners().filter(n -> !n.equals(syncState.author))
-			).collect(ImmutableList.toImmutableList());
+		log.debug("SYNC_VERTICES: Sending further GetVerticesRequest for {} fetched={} root={}",
+			syncState.highQC(), syncState.fetched.size(), vertexStore.getRoot());
 
-			this.sendBFTSyncRequest(parentId, 1, authors, syncState.localSyncId);
-		}
+		final VerifiedVertex oldestFetched = vertex;
+		ImmutableList<BFTNode> authors = Stream.concat(
+			Stream.of(syncState.author),
+			oldestFetched.getQC().getSigners().filter(n -> !n.equals(syncState.author))
+		).collect(ImmutableList.toImmutableList());
+
+		BFTHeader parent = oldestFetched.getQC().getProposed();
+		this.sendBFTSyncRequest(parent.getVertexId(), ancestorWindow(parent.getView()), true, authors, syncState.localSyncId);
 	}
 
 	@Override
@@ -380,8 +415,14 @@ public final class BFTSync implements BFTSyncResponseProcessor, BFTSyncer, Ledge
 		log.debug("SYNC_VERTICES: Received GetVerticesResponse {}", response);
 
 		VerifiedVertex firstVertex = response.getVertices().get(0);
-		LocalGetVerticesRequest requestInfo = new LocalGetVerticesRequest(firstVertex.getId(), response.getVertices().size());
-		SyncRequestState syncRequestState = bftSyncing.remove(requestInfo);
+		int size = response.getVertices().size();
+		SyncRequestState syncRequestState = bftSyncing.remove(new LocalGetVerticesRequest(firstVertex.getId(), size, false));
+		if (syncRequestState == null) {
+			syncRequestState = bftSyncing.remove(new LocalGetVerticesRequest(firstVertex.getId(), size, true));
+		}
+		if (syncRequestState == null) {
+			syncRequestState = removeTruncatedRequest(firstVertex.getId(), size);
+		}
 		if (syncRequestState != null) {
 			for (HashCode syncTo : syncRequestState.syncIds) {
 				SyncState syncState = syncing.get(syncTo);
@@ -402,6 +443,22 @@ public final class BFTSync implements BFTSyncResponseProcessor, BFTSyncer, Ledge
 		}
 	}
 
+	/**
+	 * Ancestor windows of QC syncs allow the responding node to cut them short at its root.
+	 * Such a shorter response still satisfies them, as they request further ancestors as needed.
+	 */
+	@Nullable
+	private SyncRequestState removeTruncatedRequest(HashCode vertexId, int count) {
+		for (Map.Entry<LocalGetVerticesRequest, SyncRequestState> entry : bftSyncing.entrySet()) {
+			LocalGetVerticesRequest request = entry.getKey();
+			if (request.allowsPartial() && request.getVertexId().equals(vertexId) && request.getCount() > count) {
+				bftSyncing.remove(request);
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
 	public void processBFTUpdate(BFTInsertUpdate update) {
 	}
 
@@ -28,11 +28,17 @@ public final class GetVerticesRequest {
 	private final BFTNode sender;
 	private final HashCode vertexId;
 	private final int count;
+	private final boolean allowPartial;
 
 	public GetVerticesRequest(BFTNode sender, HashCode vertexId, int count) {
+		this(sender, vertexId, count, false);
+	}
+
+	public GetVerticesRequest(BFTNode sender, HashCode vertexId, int count, boolean allowPartial) {
 		this.sender = Objects.requireNonNull(sender);
 		this.vertexId = Objects.requireNonNull(vertexId);
 		this.count = count;
+		this.allowPartial = allowPartial;
 	}
 
 	public BFTNode getSender() {
@@ -47,8 +53,17 @@ public final class GetVerticesRequest {
 		return count;
 	}
 
+	/**
+	 * @return whether the requester accepts fewer than {@link #getCount()} vertices
+	 */
+	public boolean allowsPartial() {
+		return allowPartial;
+	}
+
 	@Override
 	public String toString() {
-		return String.format("%s{id=%s count=%s}", this.getClass().getSimpleName(), this.vertexId, this.count);
+		return String.format(
+			"%s{id=%s count=%s partial=%s}", this.getClass().getSimpleName(), this.vertexId, this.count, this.allowPartial
+		);
 	}
 }
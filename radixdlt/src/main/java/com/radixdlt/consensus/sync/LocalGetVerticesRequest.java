@@ -26,10 +26,22 @@ import java.util.Objects;
 public final class LocalGetVerticesRequest {
 	private final HashCode vertexId;
 	private final int count;
+	private final boolean allowPartial;
 
 	public LocalGetVerticesRequest(HashCode vertexId, int count) {
+		this(vertexId, count, false);
+	}
+
+	/**
+	 * @param vertexId the id of the first vertex to get
+	 * @param count the number of vertices to get, the first vertex and its ancestors
+	 * @param allowPartial whether a response with fewer than {@code count} vertices,
+	 * 	cut short at the responder's root, is acceptable
+	 */
+	public LocalGetVerticesRequest(HashCode vertexId, int count, boolean allowPartial) {
 		this.vertexId = Objects.requireNonNull(vertexId);
 		this.count = count;
+		this.allowPartial = allowPartial;
 	}
 
 	public HashCode getVertexId() {
@@ -40,9 +52,13 @@ public final class LocalGetVerticesRequest {
 		return count;
 	}
 
+	public boolean allowsPartial() {
+		return allowPartial;
+	}
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(vertexId, count);
+		return Objects.hash(vertexId, count, allowPartial);
 	}
 
 	@Override
@@ -53,11 +69,14 @@ public final class LocalGetVerticesRequest {
 		LocalGetVerticesRequest other = (LocalGetVerticesRequest) o;
 
 		return Objects.equals(other.vertexId, this.vertexId)
-			&& other.count == this.count;
+			&& other.count == this.count
+			&& other.allowPartial == this.allowPartial;
 	}
 
 	@Override
 	public String toString() {
-		return String.format("%s{id=%s count=%s}", this.getClass().getSimpleName(), this.vertexId, this.count);
+		return String.format(
+			"%s{id=%s count=%s partial=%s}", this.getClass().getSimpleName(), this.vertexId, this.count, this.allowPartial
+		);
 	}
 }
@@ -24,13 +24,15 @@ import com.radixdlt.consensus.bft.BFTNode;
 import com.radixdlt.consensus.bft.BFTSyncRequestProcessor;
 import com.radixdlt.consensus.bft.VerifiedVertex;
 import com.radixdlt.consensus.bft.VertexStore;
+import com.radixdlt.consensus.bft.VertexStoreSnapshot;
 import java.util.Objects;
 import java.util.Optional;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
- * Processor of sync requests and responds with info from a VertexStore
+ * Processor of sync requests and responds with info from a VertexStore.
+ * Only reads the published snapshot of the store, so is safe to run off the consensus thread.
  */
 public final class VertexStoreBFTSyncRequestProcessor implements BFTSyncRequestProcessor {
 	private static final Logger log = LogManager.getLogger();
@@ -67,15 +69,21 @@ public final class VertexStoreBFTSyncRequestProcessor implements BFTSyncRequestP
 		// TODO: Handle nodes trying to DDOS this endpoint
 
 		log.debug("SYNC_VERTICES: Received GetVerticesRequest {}", request);
-		Optional<ImmutableList<VerifiedVertex>> verticesMaybe = vertexStore.getVertices(request.getVertexId(), request.getCount());
+		// Read from an immutable snapshot, as requests may be served off the consensus thread
+		final VertexStoreSnapshot snapshot = vertexStore.snapshot();
+		Optional<ImmutableList<VerifiedVertex>> verticesMaybe = snapshot.getVertices(request.getVertexId(), request.getCount());
+		if (verticesMaybe.isEmpty() && request.allowsPartial()) {
+			// Ancestor windows may reach past our root, in which case send what we have
+			verticesMaybe = snapshot.getAncestors(request.getVertexId(), request.getCount());
+		}
 		verticesMaybe.ifPresentOrElse(
 			fetched -> {
 				log.debug("SYNC_VERTICES: Sending Response {}", fetched);
 				this.syncVerticesResponseSender.sendGetVerticesResponse(request.getSender(), fetched);
 			},
 			() -> {
-				log.debug("SYNC_VERTICES: Sending error response {}", vertexStore.highQC());
-				this.syncVerticesResponseSender.sendGetVerticesErrorResponse(request.getSender(), vertexStore.highQC());
+				log.debug("SYNC_VERTICES: Sending error response {}", snapshot.highQC());
+				this.syncVerticesResponseSender.sendGetVerticesErrorResponse(request.getSender(), snapshot.highQC());
 			}
 		);
 	}
@@ -27,6 +27,9 @@ public interface SystemCounters {
 	enum CounterType {
 		// Please keep these sorted
 
+		/** JSON-RPC requests over HTTP rejected as the request queue was full. */
+		API_RPC_REQUESTS_REJECTED("api.rpc.requests_rejected"),
+
 		BFT_INDIRECT_PARENT("bft.indirect_parent"),
 		BFT_PROCESSED("bft.processed"),
 		BFT_PROPOSALS_MADE("bft.proposals_made"),
@@ -53,22 +56,66 @@ public interface SystemCounters {
 
 		SYNC_INVALID_COMMANDS_RECEIVED("sync.invalid_commands_received"),
 		SYNC_PROCESSED("sync.processed"),
+		/** Bytes of commands sent in responses to remote sync requests. */
+		SYNC_SERVER_BYTES_SERVED("sync.server.bytes_served"),
+		/** Bytes of commands held in cached responses to remote sync requests. */
+		SYNC_SERVER_CACHE_BYTES("sync.server.cache.bytes"),
+		/** Remote sync requests answered from the response cache. */
+		SYNC_SERVER_CACHE_HITS("sync.server.cache.hits"),
+		/** Remote sync requests not found in the response cache. */
+		SYNC_SERVER_CACHE_MISSES("sync.server.cache.misses"),
+		/** Remote sync requests dropped by rate, concurrency or served bytes limits. */
+		SYNC_SERVER_REQUESTS_DROPPED("sync.server.requests_dropped"),
+		/** Remote sync requests answered with a response. */
+		SYNC_SERVER_REQUESTS_SERVED("sync.server.requests_served"),
+		/** State snapshot chunks sent in responses to remote snapshot requests. */
+		SYNC_SNAPSHOT_CHUNKS_SERVED("sync.snapshot.chunks_served"),
+		/** State snapshot chunks received which matched their manifest. */
+		SYNC_SNAPSHOT_CHUNKS_RECEIVED("sync.snapshot.chunks_received"),
+		/** State snapshot chunks received which didn't match their manifest. */
+		SYNC_SNAPSHOT_INVALID_CHUNKS_RECEIVED("sync.snapshot.invalid_chunks_received"),
+		/** State snapshot manifests received whose proof didn't verify from genesis. */
+		SYNC_SNAPSHOT_INVALID_MANIFESTS_RECEIVED("sync.snapshot.invalid_manifests_received"),
 
 		MEMPOOL_COUNT("mempool.count"),
 		MEMPOOL_MAXCOUNT("mempool.maxcount"),
 
 		MESSAGES_INBOUND_BADSIGNATURE("messages.inbound.badsignature"),
+		/** Time spent decompressing inbound messages, in nanoseconds. */
+		MESSAGES_INBOUND_DECOMPRESSION_TIME_NS("messages.inbound.decompression.time_ns"),
 		MESSAGES_INBOUND_DISCARDED("messages.inbound.discarded"),
+		MESSAGES_INBOUND_LANE_CONSENSUS_DROPPED("messages.inbound.lane.consensus.dropped"),
+		MESSAGES_INBOUND_LANE_CONSENSUS_PENDING("messages.inbound.lane.consensus.pending"),
+		MESSAGES_INBOUND_LANE_BFT_SYNC_DROPPED("messages.inbound.lane.bft_sync.dropped"),
+		MESSAGES_INBOUND_LANE_BFT_SYNC_PENDING("messages.inbound.lane.bft_sync.pending"),
+		MESSAGES_INBOUND_LANE_LEDGER_SYNC_DROPPED("messages.inbound.lane.ledger_sync.dropped"),
+		MESSAGES_INBOUND_LANE_LEDGER_SYNC_PENDING("messages.inbound.lane.ledger_sync.pending"),
+		MESSAGES_INBOUND_LANE_MEMPOOL_DROPPED("messages.inbound.lane.mempool.dropped"),
+		MESSAGES_INBOUND_LANE_MEMPOOL_PENDING("messages.inbound.lane.mempool.pending"),
+		MESSAGES_INBOUND_LANE_DISCOVERY_DROPPED("messages.inbound.lane.discovery.dropped"),
+		MESSAGES_INBOUND_LANE_DISCOVERY_PENDING("messages.inbound.lane.discovery.pending"),
+		MESSAGES_INBOUND_LANE_OTHER_DROPPED("messages.inbound.lane.other.dropped"),
+		MESSAGES_INBOUND_LANE_OTHER_PENDING("messages.inbound.lane.other.pending"),
 		MESSAGES_INBOUND_PENDING("messages.inbound.pending"),
 		MESSAGES_INBOUND_PROCESSED("messages.inbound.processed"),
 		MESSAGES_INBOUND_RECEIVED("messages.inbound.received"),
 		MESSAGES_OUTBOUND_ABORTED("messages.outbound.aborted"),
+		/** Bytes saved by compressing outbound messages. */
+		MESSAGES_OUTBOUND_COMPRESSION_SAVED_BYTES("messages.outbound.compression.saved_bytes"),
+		/** Number of outbound messages not compressed due to size or previous poor compression. */
+		MESSAGES_OUTBOUND_COMPRESSION_SKIPPED("messages.outbound.compression.skipped"),
+		/** Time spent compressing outbound messages, in nanoseconds. */
+		MESSAGES_OUTBOUND_COMPRESSION_TIME_NS("messages.outbound.compression.time_ns"),
 		MESSAGES_OUTBOUND_PENDING("messages.outbound.pending"),
 		MESSAGES_OUTBOUND_PROCESSED("messages.outbound.processed"),
 		MESSAGES_OUTBOUND_SENT("messages.outbound.sent"),
 
 		NETWORKING_TCP_OPENED("networking.tcp.opened"),
 		NETWORKING_TCP_CLOSED("networking.tcp.closed"),
+		/** Number of outbound TCP messages dropped because a peer's outbound queue was full. */
+		NETWORKING_TCP_OUTBOUND_DROPPED("networking.tcp.outbound.dropped"),
+		/** Number of bytes queued for sending on TCP channels, across all peers. */
+		NETWORKING_TCP_OUTBOUND_QUEUED_BYTES("networking.tcp.outbound.queued_bytes"),
 		NETWORKING_SENT_BYTES("networking.sent_bytes"),
 		NETWORKING_RECEIVED_BYTES("networking.received_bytes"),
 
@@ -24,6 +24,7 @@ import com.radixdlt.consensus.epoch.EpochChange;
 import com.radixdlt.environment.EventProcessor;
 import com.radixdlt.environment.RemoteEventDispatcher;
 import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
+import com.radixdlt.ledger.VerifiedCommandsAndProof;
 import com.radixdlt.store.LastProof;
 import com.radixdlt.sync.LocalSyncServiceAccumulatorProcessor;
 import com.radixdlt.sync.LocalSyncServiceAccumulatorProcessor.SyncInProgress;
@@ -126,6 +127,14 @@ public class EpochsLocalSyncServiceProcessor {
 		localSyncServiceProcessor.localSyncRequestEventProcessor().process(request);
 	}
 
+	public EventProcessor<VerifiedCommandsAndProof> verifiedSyncResponseProcessor() {
+		return verifiedResponse -> {
+			if (verifiedResponse.getHeader().getEpoch() == this.currentEpoch.getEpoch()) {
+				localSyncServiceProcessor.verifiedSyncResponseProcessor().process(verifiedResponse);
+			}
+		};
+	}
+
 	public EventProcessor<SyncInProgress> syncTimeoutProcessor() {
 		return syncTimeout -> {
 			if (syncTimeout.getTargetHeader().getEpoch() == this.currentEpoch.getEpoch()) {
@@ -0,0 +1,312 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.ledger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.utils.Longs;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Frontier of an append only Merkle tree over the hashes of all commands in the
+ * ledger, in order of state version.
+ * <p>
+ * The frontier consists of the roots of the perfect subtrees which together
+ * cover all leaves, one for every bit set in the number of leaves, which is
+ * enough to append further leaves and compute the root of the tree. The root is
+ * bound to the state version and to the base hash of the ledger at version zero,
+ * which is the root itself while the tree has no leaves.
+ * <p>
+ * Leaves, interior nodes and roots are hashed with distinct prefixes, so that
+ * none can be passed off as another.
+ */
+@Immutable
+public final class MerkleFrontier {
+	private static final byte LEAF_PREFIX = 0;
+	private static final byte NODE_PREFIX = 1;
+	private static final byte ROOT_PREFIX = 2;
+
+	// Perfect subtrees of at least this many leaves are hashed in parallel
+	private static final int PARALLEL_LEAVES = 1024;
+
+	private static final Consumer<MerkleNode> IGNORE_NODES = node -> { };
+
+	private final long leafCount;
+	private final HashCode base;
+	// Roots of the perfect subtrees, from the lowest to the highest
+	private final ImmutableList<HashCode> peaks;
+
+	private MerkleFrontier(long leafCount, HashCode base, ImmutableList<HashCode> peaks) {
+		if (leafCount < 0 || Long.bitCount(leafCount) != peaks.size()) {
+			throw new IllegalArgumentException(
+				String.format("Frontier of %s leaves can't have %s peaks", leafCount, peaks.size())
+			);
+		}
+		this.leafCount = leafCount;
+		this.base = Objects.requireNonNull(base);
+		this.peaks = peaks;
+	}
+
+	/**
+	 * Returns the frontier of an empty tree on top of the ledger with the given
+	 * accumulator hash at version zero.
+	 *
+	 * @param base the accumulator hash at version zero
+	 * @return the frontier of an empty tree
+	 */
+	public static MerkleFrontier genesis(HashCode base) {
+		return new MerkleFrontier(0, base, ImmutableList.of());
+	}
+
+	public long getLeafCount() {
+		return leafCount;
+	}
+
+	public HashCode getBase() {
+		return base;
+	}
+
+	/**
+	 * Returns the frontier after appending a single command hash.
+	 *
+	 * @param hasher the hasher for tree nodes
+	 * @param hash the command hash
+	 * @return the frontier with the command hash appended
+	 */
+	public MerkleFrontier append(Hasher hasher, HashCode hash) {
+		return appendSubtree(hasher, leaf(hasher, hash), 0, IGNORE_NODES);
+	}
+
+	/**
+	 * Returns the frontier after appending the given command hashes in order.
+	 * <p>
+	 * The hashes are split into the largest perfect subtrees the tree will hold,
+	 * and large subtrees are hashed in parallel.
+	 *
+	 * @param hasher the hasher for tree nodes
+	 * @param hashes the command hashes
+	 * @return the frontier with the command hashes appended
+	 */
+	public MerkleFrontier appendAll(Hasher hasher, List<HashCode> hashes) {
+		return appendAll(hasher, hashes, IGNORE_NODES);
+	}
+
+	/**
+	 * Returns the frontier after appending the given command hashes in order,
+	 * passing every node of the tree which is completed on the way to {@code nodes}.
+	 *
+	 * @param hasher the hasher for tree nodes
+	 * @param hashes the command hashes
+	 * @param nodes the consumer of completed nodes
+	 * @return the frontier with the command hashes appended
+	 */
+	public MerkleFrontier appendAll(Hasher hasher, List<HashCode> hashes, Consumer<MerkleNode> nodes) {
+		MerkleFrontier frontier = this;
+		int offset = 0;
+		while (offset < hashes.size()) {
+			int height = 0;
+			// Subtree must fit in the remaining hashes, and start at a multiple of its size
+			while (height < Integer.SIZE - 2
+				&& (1 << (height + 1)) <= hashes.size() - offset
+				&& (frontier.leafCount & ((1L << (height + 1)) - 1)) == 0) {
+				height++;
+			}
+			int size = 1 << height;
+			HashCode subtreeRoot = subtreeRoot(hasher, hashes.subList(offset, offset + size), frontier.leafCount, nodes);
+			frontier = frontier.appendSubtree(hasher, subtreeRoot, height, nodes);
+			offset += size;
+		}
+		return frontier;
+	}
+
+	/**
+	 * Returns the root of the tree, which is the accumulator hash at its version.
+	 *
+	 * @param hasher the hasher for tree nodes
+	 * @return the root of the tree
+	 */
+	public HashCode root(Hasher hasher) {
+		return root(hasher, leafCount, base, peaks);
+	}
+
+	static HashCode root(Hasher hasher, long leafCount, HashCode base, List<HashCode> peaks) {
+		if (leafCount == 0) {
+			return base;
+		}
+		byte[] baseBytes = base.asBytes();
+		int hashLength = baseBytes.length;
+		byte[] bytes = new byte[1 + Long.BYTES + hashLength * (peaks.size() + 1)];
+		bytes[0] = ROOT_PREFIX;
+		Longs.copyTo(leafCount, bytes, 1);
+		System.arraycopy(baseBytes, 0, bytes, 1 + Long.BYTES, hashLength);
+		for (int i = 0; i < peaks.size(); i++) {
+			peaks.get(i).writeBytesTo(bytes, 1 + Long.BYTES + hashLength * (i + 1), hashLength);
+		}
+		return hasher.hashBytes(bytes);
+	}
+
+	/**
+	 * Returns the accumulator state of the tree.
+	 *
+	 * @param hasher the hasher for tree nodes
+	 * @return the accumulator state of the tree
+	 */
+	public AccumulatorState toAccumulatorState(Hasher hasher) {
+		return new AccumulatorState(leafCount, root(hasher));
+	}
+
+	/**
+	 * Returns the frontier as bytes for persisting, the leaf count followed by
+	 * the base and the peaks.
+	 *
+	 * @return the frontier as bytes
+	 */
+	public byte[] toBytes() {
+		int hashLength = base.bits() / Byte.SIZE;
+		byte[] bytes = new byte[Long.BYTES + hashLength * (peaks.size() + 1)];
+		Longs.copyTo(leafCount, bytes, 0);
+		base.writeBytesTo(bytes, Long.BYTES, hashLength);
+		for (int i = 0; i < peaks.size(); i++) {
+			peaks.get(i).writeBytesTo(bytes, Long.BYTES + hashLength * (i + 1), hashLength);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Returns the frontier persisted as bytes by {@link #toBytes()}.
+	 *
+	 * @param bytes the frontier as bytes
+	 * @return the frontier
+	 * @throws IllegalArgumentException if the bytes are not a valid frontier
+	 */
+	public static MerkleFrontier fromBytes(byte[] bytes) {
+		if (bytes.length < Long.BYTES) {
+			throw new IllegalArgumentException("Frontier too short: " + bytes.length);
+		}
+		long leafCount = Longs.fromByteArray(bytes, 0);
+		int hashCount = Long.bitCount(leafCount) + 1;
+		int hashesLength = bytes.length - Long.BYTES;
+		if (hashesLength == 0 || hashesLength % hashCount != 0) {
+			throw new IllegalArgumentException(String.format("Invalid frontier of %s leaves in %s bytes", leafCount, bytes.length));
+		}
+		int hashLength = hashesLength / hashCount;
+		ImmutableList<HashCode> hashes = IntStream.range(0, hashCount)
+			.mapToObj(i -> HashCode.fromBytes(copyOfRange(bytes, Long.BYTES + hashLength * i, hashLength)))
+			.collect(ImmutableList.toImmutableList());
+		return new MerkleFrontier(leafCount, hashes.get(0), hashes.subList(1, hashCount));
+	}
+
+	// Caller ensures that the leaf count is a multiple of the size of the subtree
+	private MerkleFrontier appendSubtree(Hasher hasher, HashCode subtreeRoot, int height, Consumer<MerkleNode> nodes) {
+		HashCode carry = subtreeRoot;
+		int merged = 0;
+		while ((leafCount >>> (height + merged) & 1L) == 1L) {
+			carry = node(hasher, peaks.get(merged), carry);
+			merged++;
+			int carryHeight = height + merged;
+			nodes.accept(new MerkleNode(carryHeight, leafCount >>> carryHeight, carry));
+		}
+		ImmutableList<HashCode> nextPeaks = ImmutableList.<HashCode>builder()
+			.add(carry)
+			.addAll(peaks.subList(merged, peaks.size()))
+			.build();
+		return new MerkleFrontier(leafCount + (1L << height), base, nextPeaks);
+	}
+
+	private static HashCode subtreeRoot(Hasher hasher, List<HashCode> hashes, long firstLeaf, Consumer<MerkleNode> nodes) {
+		HashCode[] level = new HashCode[hashes.size()];
+		parallelIfLarge(level.length).forEach(i -> level[i] = leaf(hasher, hashes.get(i)));
+		HashCode[] current = level;
+		int height = 0;
+		reportLevel(current, height, firstLeaf, nodes);
+		while (current.length > 1) {
+			HashCode[] lower = current;
+			HashCode[] upper = new HashCode[lower.length / 2];
+			parallelIfLarge(upper.length).forEach(i -> upper[i] = node(hasher, lower[2 * i], lower[2 * i + 1]));
+			current = upper;
+			height++;
+			reportLevel(current, height, firstLeaf, nodes);
+		}
+		return current[0];
+	}
+
+	private static void reportLevel(HashCode[] level, int height, long firstLeaf, Consumer<MerkleNode> nodes) {
+		if (nodes == IGNORE_NODES) {
+			return;
+		}
+		long firstIndex = firstLeaf >>> height;
+		for (int i = 0; i < level.length; i++) {
+			nodes.accept(new MerkleNode(height, firstIndex + i, level[i]));
+		}
+	}
+
+	private static IntStream parallelIfLarge(int size) {
+		IntStream indices = IntStream.range(0, size);
+		return size >= PARALLEL_LEAVES ? indices.parallel() : indices;
+	}
+
+	static HashCode leaf(Hasher hasher, HashCode hash) {
+		byte[] hashBytes = hash.asBytes();
+		byte[] bytes = new byte[1 + hashBytes.length];
+		bytes[0] = LEAF_PREFIX;
+		System.arraycopy(hashBytes, 0, bytes, 1, hashBytes.length);
+		return hasher.hashBytes(bytes);
+	}
+
+	static HashCode node(Hasher hasher, HashCode left, HashCode right) {
+		byte[] leftBytes = left.asBytes();
+		byte[] rightBytes = right.asBytes();
+		byte[] bytes = new byte[1 + leftBytes.length + rightBytes.length];
+		bytes[0] = NODE_PREFIX;
+		System.arraycopy(leftBytes, 0, bytes, 1, leftBytes.length);
+		System.arraycopy(rightBytes, 0, bytes, 1 + leftBytes.length, rightBytes.length);
+		return hasher.hashBytes(bytes);
+	}
+
+	private static byte[] copyOfRange(byte[] bytes, int offset, int length) {
+		byte[] copy = new byte[length];
+		System.arraycopy(bytes, offset, copy, 0, length);
+		return copy;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(leafCount, base, peaks);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof MerkleFrontier)) {
+			return false;
+		}
+		MerkleFrontier other = (MerkleFrontier) o;
+		return this.leafCount == other.leafCount
+			&& Objects.equals(this.base, other.base)
+			&& Objects.equals(this.peaks, other.peaks);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s{leaves=%s peaks=%s}", getClass().getSimpleName(), leafCount, peaks.size());
+	}
+}
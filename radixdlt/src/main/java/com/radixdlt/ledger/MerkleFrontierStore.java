@@ -0,0 +1,56 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.ledger;
+
+import com.google.common.hash.HashCode;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Store of the Merkle ledger accumulator's tree as of the last committed state:
+ * its frontier, so that further commands can be accumulated after a restart, and
+ * the nodes of its perfect subtrees, from which proofs are built. Only the frontier
+ * of the last committed state is kept.
+ */
+public interface MerkleFrontierStore extends MerkleProof.NodeSource {
+	/**
+	 * Returns the frontier of the tree at the last committed state, if any.
+	 *
+	 * @return the frontier, or empty if nothing was committed yet
+	 */
+	Optional<MerkleFrontier> getCommitted();
+
+	/**
+	 * Returns the root of the committed perfect subtree of the given height and index, if stored.
+	 *
+	 * @param height the height of the subtree
+	 * @param index the index of the subtree among those of its height
+	 * @return the root of the subtree, or empty if not stored
+	 */
+	@Override
+	Optional<HashCode> getNode(int height, long index);
+
+	/**
+	 * Stores the frontier of the tree at a newly committed state in place of the
+	 * previous one, together with the nodes completed since that state.
+	 *
+	 * @param frontier the frontier of the tree at the committed state
+	 * @param nodes the nodes completed since the previous committed state
+	 */
+	void commit(MerkleFrontier frontier, List<MerkleNode> nodes);
+}
@@ -0,0 +1,238 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.ledger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.inject.Inject;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.ledger.StateComputerLedger.LedgerUpdateSender;
+import com.radixdlt.utils.Pair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Merkle tree accumulator and verifier.
+ * <p>
+ * Accumulator hashes are roots of an append only Merkle tree over all command
+ * hashes, see {@link MerkleFrontier}. Unlike a hash chain, a batch of commands
+ * is hashed as perfect subtrees which are independent of each other, and large
+ * batches are hashed in parallel.
+ * <p>
+ * Accumulating on top of a state needs the frontier of its tree. Frontiers of
+ * states computed or verified are only cached in memory, as most of them belong to
+ * vertices or sync responses which may never be committed. Once a state is committed,
+ * its frontier and the nodes of the tree completed since the previous committed state
+ * are persisted in a {@link MerkleFrontierStore}, from which {@link MerkleProof}s of
+ * committed commands are built. The frontier at version zero is always known.
+ */
+@ThreadSafe
+public final class MerkleLedgerAccumulatorAndVerifier implements LedgerAccumulator, LedgerAccumulatorVerifier, LedgerUpdateSender {
+	private static final Logger log = LogManager.getLogger();
+	private static final int CACHED_FRONTIERS = 1024;
+
+	private final Hasher hasher;
+	private final MerkleFrontierStore frontierStore;
+	private final Cache<AccumulatorState, MerkleFrontier> frontiers = CacheBuilder.newBuilder()
+		.maximumSize(CACHED_FRONTIERS)
+		.build();
+	private final Object commitLock = new Object();
+	private volatile Pair<AccumulatorState, MerkleFrontier> committed;
+
+	@Inject
+	public MerkleLedgerAccumulatorAndVerifier(Hasher hasher, MerkleFrontierStore frontierStore) {
+		this.hasher = Objects.requireNonNull(hasher);
+		this.frontierStore = Objects.requireNonNull(frontierStore);
+		this.committed = frontierStore.getCommitted()
+			.map(frontier -> Pair.of(frontier.toAccumulatorState(hasher), frontier))
+			.orElse(null);
+	}
+
+	@Override
+	public AccumulatorState accumulate(AccumulatorState parent, HashCode hash) {
+		MerkleFrontier frontier = frontier(parent)
+			.orElseThrow(() -> new IllegalStateException("No Merkle frontier for " + parent));
+		MerkleFrontier next = frontier.append(hasher, hash);
+		AccumulatorState state = next.toAccumulatorState(hasher);
+		this.frontiers.put(state, next);
+		return state;
+	}
+
+	@Override
+	public boolean verify(AccumulatorState start, ImmutableList<HashCode> hashes, AccumulatorState end) {
+		Optional<MerkleFrontier> startFrontier = frontier(start);
+		if (startFrontier.isEmpty()) {
+			// Can't tell whether a state we've never computed is extended
+			return false;
+		}
+		MerkleFrontier endFrontier = startFrontier.get().appendAll(hasher, hashes);
+		if (!Objects.equals(endFrontier.toAccumulatorState(hasher), end)) {
+			return false;
+		}
+		// Only keep frontiers of states which are known to extend our own
+		this.frontiers.put(end, endFrontier);
+		return true;
+	}
+
+	@Override
+	public <T> Optional<ImmutableList<T>> verifyAndGetExtension(
+		AccumulatorState current,
+		ImmutableList<T> commands,
+		Function<T, HashCode> hashCodeMapper,
+		AccumulatorState tail
+	) {
+		if (tail.getStateVersion() < current.getStateVersion()) {
+			throw new IllegalArgumentException(String.format("Tail %s is has lower state version than current %s", tail, current));
+		}
+
+		final long firstVersion = tail.getStateVersion() - commands.size() + 1;
+		if (current.getStateVersion() + 1 < firstVersion) {
+			// Missing versions
+			return Optional.empty();
+		}
+
+		if (commands.isEmpty()) {
+			return Objects.equals(current, tail) ? Optional.of(ImmutableList.of()) : Optional.empty();
+		}
+
+		final int startIndex = (int) (current.getStateVersion() + 1 - firstVersion);
+		final ImmutableList<T> extension = commands.subList(startIndex, commands.size());
+		final ImmutableList<HashCode> hashes = extension.stream().map(hashCodeMapper::apply).collect(ImmutableList.toImmutableList());
+		if (!verify(current, hashes, tail)) {
+			// Does not extend
+			return Optional.empty();
+		}
+
+		return Optional.of(extension);
+	}
+
+	/**
+	 * Persists the tree at the state committed by a ledger update.
+	 */
+	@Override
+	public void sendLedgerUpdate(LedgerUpdate ledgerUpdate) {
+		ImmutableList<HashCode> hashes = ledgerUpdate.getNewCommands().stream()
+			.map(hasher::hash)
+			.collect(ImmutableList.toImmutableList());
+		commit(hashes, ledgerUpdate.getTail().getAccumulatorState());
+	}
+
+	/**
+	 * Persists the frontier of a newly committed state and the nodes of the tree
+	 * completed since the previous committed state, which the given command hashes
+	 * are appended to. States at or below the last committed state are ignored.
+	 *
+	 * @param hashes the hashes of the commands committed since the previous committed state
+	 * @param state the newly committed state
+	 * @throws IllegalStateException if the commands don't lead to the committed state
+	 */
+	public void commit(List<HashCode> hashes, AccumulatorState state) {
+		synchronized (this.commitLock) {
+			final Pair<AccumulatorState, MerkleFrontier> previous = this.committed;
+			final long startVersion = state.getStateVersion() - hashes.size();
+			final MerkleFrontier start;
+			if (previous != null) {
+				if (state.getStateVersion() <= previous.getFirst().getStateVersion()) {
+					return;
+				}
+				start = previous.getFirst().getStateVersion() == startVersion ? previous.getSecond() : null;
+			} else {
+				start = startVersion == 0
+					? frontier(state).map(frontier -> MerkleFrontier.genesis(frontier.getBase())).orElse(null)
+					: null;
+			}
+
+			if (start == null) {
+				// Happens if the ledger was committed to without this accumulator, e.g. from a snapshot
+				MerkleFrontier frontier = frontier(state)
+					.orElseThrow(() -> new IllegalStateException("No Merkle frontier for committed " + state));
+				log.warn("Committed {} without the tree below it, commands before it can't be proven", state);
+				this.frontierStore.commit(frontier, ImmutableList.of());
+				this.committed = Pair.of(state, frontier);
+				return;
+			}
+
+			final List<MerkleNode> nodes = new ArrayList<>();
+			final MerkleFrontier frontier = start.appendAll(hasher, hashes, nodes::add);
+			if (!frontier.toAccumulatorState(hasher).equals(state)) {
+				throw new IllegalStateException(String.format("Commands from %s don't lead to committed %s", startVersion, state));
+			}
+			this.frontierStore.commit(frontier, nodes);
+			this.frontiers.put(state, frontier);
+			this.committed = Pair.of(state, frontier);
+		}
+	}
+
+	/**
+	 * Builds a proof that the {@code count} commands from version {@code firstVersion}
+	 * onwards are part of the ledger at a committed state.
+	 *
+	 * @param state a state at or below the last committed state
+	 * @param firstVersion the state version of the first command
+	 * @param count the number of commands
+	 * @return the proof, or empty if the state isn't committed or the commands aren't persisted
+	 */
+	public Optional<MerkleProof> proveRange(AccumulatorState state, long firstVersion, int count) {
+		final Pair<AccumulatorState, MerkleFrontier> last = this.committed;
+		if (last == null
+			|| state.getStateVersion() > last.getFirst().getStateVersion()
+			|| count <= 0
+			|| firstVersion <= 0
+			|| firstVersion - 1 + count > state.getStateVersion()) {
+			return Optional.empty();
+		}
+		return MerkleProof.build(state.getStateVersion(), last.getSecond().getBase(), firstVersion - 1, count, frontierStore)
+			// A state on a fork of the committed ledger has the same version but a different root
+			.filter(proof -> proof.hasRoot(hasher, state));
+	}
+
+	/**
+	 * Builds a proof that the command at version {@code version} is part of the ledger
+	 * at a committed state.
+	 *
+	 * @param state a state at or below the last committed state
+	 * @param version the state version of the command
+	 * @return the proof, or empty if the state isn't committed or the command isn't persisted
+	 */
+	public Optional<MerkleProof> proveInclusion(AccumulatorState state, long version) {
+		return proveRange(state, version, 1);
+	}
+
+	private Optional<MerkleFrontier> frontier(AccumulatorState state) {
+		if (state.getStateVersion() == 0) {
+			return Optional.of(MerkleFrontier.genesis(state.getAccumulatorHash()));
+		}
+		MerkleFrontier cached = this.frontiers.getIfPresent(state);
+		if (cached != null) {
+			return Optional.of(cached);
+		}
+		final Pair<AccumulatorState, MerkleFrontier> last = this.committed;
+		if (last != null && last.getFirst().equals(state)) {
+			return Optional.of(last.getSecond());
+		}
+		return Optional.empty();
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.ledger;
+
+import com.google.common.hash.HashCode;
+import java.util.Objects;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Root of a perfect subtree of the Merkle ledger accumulator's tree, see
+ * {@link MerkleFrontier}. The subtree of height {@code h} and index {@code i}
+ * covers the {@code 2^h} leaves from leaf {@code i * 2^h} onwards, so leaves
+ * themselves are the nodes of height zero.
+ */
+@Immutable
+public final class MerkleNode {
+	private final int height;
+	private final long index;
+	private final HashCode hash;
+
+	public MerkleNode(int height, long index, HashCode hash) {
+		if (height < 0 || index < 0) {
+			throw new IllegalArgumentException(String.format("Invalid node of height %s at %s", height, index));
+		}
+		this.height = height;
+		this.index = index;
+		this.hash = Objects.requireNonNull(hash);
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public long getIndex() {
+		return index;
+	}
+
+	public HashCode getHash() {
+		return hash;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(height, index, hash);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof MerkleNode)) {
+			return false;
+		}
+		MerkleNode other = (MerkleNode) o;
+		return this.height == other.height
+			&& this.index == other.index
+			&& Objects.equals(this.hash, other.hash);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s{height=%s index=%s hash=%s}", getClass().getSimpleName(), height, index, hash);
+	}
+}
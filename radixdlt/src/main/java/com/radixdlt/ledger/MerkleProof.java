@@ -0,0 +1,270 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.ledger;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.radixdlt.crypto.Hasher;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Proof that a range of consecutive commands is part of the ledger at a given
+ * accumulator state of the Merkle ledger accumulator, see {@link MerkleFrontier}.
+ * <p>
+ * Besides the peaks of the tree, the proof holds the siblings along the left and
+ * right edges of the range within each peak the range touches. Only the first and
+ * the last peak touched have such siblings, so a proof holds at most about two
+ * hashes per level of the tree whatever the size of the range. A proof of a single
+ * command is an inclusion proof.
+ */
+@Immutable
+public final class MerkleProof {
+	/**
+	 * Source of the nodes of a tree to build proofs from.
+	 */
+	@FunctionalInterface
+	public interface NodeSource {
+		/**
+		 * Returns the root of the perfect subtree of the given height and index, if known.
+		 *
+		 * @param height the height of the subtree
+		 * @param index the index of the subtree among those of its height
+		 * @return the root of the subtree, or empty if not known
+		 */
+		Optional<HashCode> getNode(int height, long index);
+	}
+
+	private final long leafCount;
+	private final HashCode base;
+	// Roots of the perfect subtrees, from the lowest to the highest
+	private final ImmutableList<HashCode> peaks;
+	private final long firstLeaf;
+	private final int rangeSize;
+	// In order of peaks from the first leaf onwards, then of levels from the leaves up, left before right
+	private final ImmutableList<HashCode> siblings;
+
+	private MerkleProof(
+		long leafCount,
+		HashCode base,
+		ImmutableList<HashCode> peaks,
+		long firstLeaf,
+		int rangeSize,
+		ImmutableList<HashCode> siblings
+	) {
+		this.leafCount = leafCount;
+		this.base = Objects.requireNonNull(base);
+		this.peaks = Objects.requireNonNull(peaks);
+		this.firstLeaf = firstLeaf;
+		this.rangeSize = rangeSize;
+		this.siblings = Objects.requireNonNull(siblings);
+	}
+
+	/**
+	 * Builds a proof that the {@code rangeSize} leaves from {@code firstLeaf} onwards are
+	 * part of the tree with {@code leafCount} leaves on top of {@code base}.
+	 *
+	 * @param leafCount the number of leaves of the tree
+	 * @param base the accumulator hash at version zero
+	 * @param firstLeaf the index of the first leaf of the range
+	 * @param rangeSize the number of leaves in the range
+	 * @param nodes the source of the nodes of the tree
+	 * @return the proof, or empty if any node needed is not known
+	 */
+	public static Optional<MerkleProof> build(long leafCount, HashCode base, long firstLeaf, int rangeSize, NodeSource nodes) {
+		if (rangeSize <= 0 || firstLeaf < 0 || firstLeaf + rangeSize > leafCount) {
+			throw new IllegalArgumentException(
+				String.format("Range of %s leaves from %s is not within %s leaves", rangeSize, firstLeaf, leafCount)
+			);
+		}
+
+		final HashCode[] peaks = new HashCode[Long.bitCount(leafCount)];
+		final List<HashCode> siblings = new ArrayList<>();
+		long start = 0;
+		for (int height = Long.SIZE - 2; height >= 0; height--) {
+			if ((leafCount >>> height & 1L) == 0) {
+				continue;
+			}
+			final long end = start + (1L << height);
+			final Optional<HashCode> peak = nodes.getNode(height, start >>> height);
+			if (peak.isEmpty()) {
+				return Optional.empty();
+			}
+			peaks[peakIndex(leafCount, height)] = peak.get();
+
+			final long from = Math.max(start, firstLeaf);
+			final long to = Math.min(end, firstLeaf + rangeSize);
+			if (from < to) {
+				// Offset and size of the range within the peak, at each level
+				long offset = from - start;
+				long size = to - from;
+				for (int level = 0; level < height; level++) {
+					final long levelStart = start >>> level;
+					if ((offset & 1L) == 1L) {
+						final Optional<HashCode> left = nodes.getNode(level, levelStart + offset - 1);
+						if (left.isEmpty()) {
+							return Optional.empty();
+						}
+						siblings.add(left.get());
+						offset--;
+						size++;
+					}
+					if ((size & 1L) == 1L) {
+						final Optional<HashCode> right = nodes.getNode(level, levelStart + offset + size);
+						if (right.isEmpty()) {
+							return Optional.empty();
+						}
+						siblings.add(right.get());
+						size++;
+					}
+					offset >>>= 1;
+					size >>>= 1;
+				}
+			}
+			start = end;
+		}
+
+		return Optional.of(new MerkleProof(
+			leafCount,
+			base,
+			ImmutableList.copyOf(peaks),
+			firstLeaf,
+			rangeSize,
+			ImmutableList.copyOf(siblings)
+		));
+	}
+
+	/**
+	 * Returns the state version of the first command of the range proven.
+	 */
+	public long getFirstVersion() {
+		return firstLeaf + 1;
+	}
+
+	/**
+	 * Returns the number of commands in the range proven.
+	 */
+	public int getRangeSize() {
+		return rangeSize;
+	}
+
+	/**
+	 * Verifies that the given command hashes are those of the range proven, in order,
+	 * in the ledger at the given accumulator state.
+	 *
+	 * @param hasher the hasher for tree nodes
+	 * @param hashes the hashes of the commands in the range
+	 * @param state the accumulator state of the ledger
+	 * @return {@code true} if the commands are part of the ledger at that state
+	 */
+	public boolean verify(Hasher hasher, List<HashCode> hashes, AccumulatorState state) {
+		if (hashes.size() != rangeSize || !hasRoot(hasher, state)) {
+			return false;
+		}
+
+		final Iterator<HashCode> remainingSiblings = siblings.iterator();
+		long start = 0;
+		for (int height = Long.SIZE - 2; height >= 0; height--) {
+			if ((leafCount >>> height & 1L) == 0) {
+				continue;
+			}
+			final long end = start + (1L << height);
+			final long from = Math.max(start, firstLeaf);
+			final long to = Math.min(end, firstLeaf + rangeSize);
+			if (from < to) {
+				List<HashCode> level = new ArrayList<>();
+				for (HashCode hash : hashes.subList((int) (from - firstLeaf), (int) (to - firstLeaf))) {
+					level.add(MerkleFrontier.leaf(hasher, hash));
+				}
+				long offset = from - start;
+				for (int i = 0; i < height; i++) {
+					if ((offset & 1L) == 1L) {
+						if (!remainingSiblings.hasNext()) {
+							return false;
+						}
+						level.add(0, remainingSiblings.next());
+						offset--;
+					}
+					if ((level.size() & 1) == 1) {
+						if (!remainingSiblings.hasNext()) {
+							return false;
+						}
+						level.add(remainingSiblings.next());
+					}
+					final List<HashCode> upper = new ArrayList<>(level.size() / 2);
+					for (int j = 0; j < level.size(); j += 2) {
+						upper.add(MerkleFrontier.node(hasher, level.get(j), level.get(j + 1)));
+					}
+					level = upper;
+					offset >>>= 1;
+				}
+				if (!level.get(0).equals(peaks.get(peakIndex(leafCount, height)))) {
+					return false;
+				}
+			}
+			start = end;
+		}
+		return !remainingSiblings.hasNext();
+	}
+
+	/**
+	 * Checks whether the proof is against the tree with the given accumulator state.
+	 *
+	 * @param hasher the hasher for tree nodes
+	 * @param state the accumulator state of the ledger
+	 * @return {@code true} if the proof's tree has that state
+	 */
+	public boolean hasRoot(Hasher hasher, AccumulatorState state) {
+		return state.getStateVersion() == leafCount
+			&& MerkleFrontier.root(hasher, leafCount, base, peaks).equals(state.getAccumulatorHash());
+	}
+
+	// Peaks are ordered from the lowest, so a peak's index is the number of lower peaks
+	private static int peakIndex(long leafCount, int height) {
+		return Long.bitCount(leafCount & ((1L << height) - 1));
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(leafCount, base, peaks, firstLeaf, rangeSize, siblings);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof MerkleProof)) {
+			return false;
+		}
+		MerkleProof other = (MerkleProof) o;
+		return this.leafCount == other.leafCount
+			&& this.firstLeaf == other.firstLeaf
+			&& this.rangeSize == other.rangeSize
+			&& Objects.equals(this.base, other.base)
+			&& Objects.equals(this.peaks, other.peaks)
+			&& Objects.equals(this.siblings, other.siblings);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s{leaves=%s range=[%s, %s) siblings=%s}",
+			getClass().getSimpleName(), leafCount, firstLeaf, firstLeaf + rangeSize, siblings.size());
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.mempool;
+
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.Command;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Mempool journal which records nothing
+ */
+public class EmptyMempoolJournal implements MempoolJournal {
+	@Override
+	public void added(HashCode cmdHash, Command command) {
+		// No-op
+	}
+
+	@Override
+	public void removed(HashCode cmdHash) {
+		// No-op
+	}
+
+	@Override
+	public boolean compactionRequired(int liveCount) {
+		return false;
+	}
+
+	@Override
+	public void compact(Supplier<Map<HashCode, Command>> liveCommands) {
+		// No-op
+	}
+
+	@Override
+	public List<Command> replay() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public void close() {
+		// No-op
+	}
+}
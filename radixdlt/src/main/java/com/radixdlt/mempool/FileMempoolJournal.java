@@ -0,0 +1,344 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.mempool;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.utils.ThreadFactories;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Append-only, file based mempool journal.
+ * <p>
+ * Each addition and removal is queued as a record, and the queued records are
+ * appended to the journal file by a single writer thread, which flushes and
+ * syncs the file to storage once per batch rather than once per record.
+ * Compaction, which rewrites the file with only the live commands, also runs
+ * on the writer thread.
+ * <p>
+ * Records are written asynchronously, so records queued shortly before a
+ * crash may be lost, but records are written in order, and a truncated
+ * trailing record, as left by an unclean shutdown, is ignored on replay.
+ * Records queued before {@link #close()} are written before it returns.
+ */
+public final class FileMempoolJournal implements MempoolJournal {
+	private static final Logger log = LogManager.getLogger();
+
+	private static final byte RECORD_ADDED = 1;
+	private static final byte RECORD_REMOVED = 2;
+
+	// Sanity limit on record sizes, to avoid huge allocations from a corrupt journal
+	private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+	// Maximum number of records written between flushes
+	private static final int MAX_BATCH_SIZE = 1024;
+
+	private interface JournalTask {
+		void run(FileMempoolJournal journal) throws IOException;
+	}
+
+	private final Path journalFile;
+	private final int compactionThreshold;
+	private final BlockingQueue<JournalTask> pending = new LinkedBlockingQueue<>();
+	private final AtomicInteger recordCount = new AtomicInteger();
+	private final AtomicBoolean compactionPending = new AtomicBoolean();
+	private final Thread writer;
+
+	// Guards queueing of tasks against close
+	private final Object lock = new Object();
+	private boolean closed;
+
+	// Only accessed by the writer thread once started
+	private FileOutputStream file;
+	private DataOutputStream output;
+	private boolean stopped;
+
+	/**
+	 * Opens or creates a journal at the specified location.
+	 *
+	 * @param journalFile The path of the journal file
+	 * @param compactionThreshold The number of obsolete records tolerated before compaction
+	 */
+	public FileMempoolJournal(Path journalFile, int compactionThreshold) {
+		if (compactionThreshold <= 0) {
+			throw new IllegalArgumentException("mempool.journal.compaction_threshold must be positive: " + compactionThreshold);
+		}
+		this.journalFile = Objects.requireNonNull(journalFile);
+		this.compactionThreshold = compactionThreshold;
+		final Map<HashCode, Command> live = readRecords();
+		openOutput();
+		// Rewrite on open to discard any truncated or unreadable trailing records
+		rewrite(live);
+
+		this.writer = ThreadFactories.daemonThreads("MempoolJournal").newThread(this::writeLoop);
+		this.writer.start();
+	}
+
+	@Override
+	public void added(HashCode cmdHash, Command command) {
+		if (queue(journal -> writeAdded(journal.output, cmdHash, command))) {
+			this.recordCount.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void removed(HashCode cmdHash) {
+		if (queue(journal -> writeRemoved(journal.output, cmdHash))) {
+			this.recordCount.incrementAndGet();
+		}
+	}
+
+	@Override
+	public boolean compactionRequired(int liveCount) {
+		return !this.compactionPending.get() && this.recordCount.get() - liveCount > this.compactionThreshold;
+	}
+
+	@Override
+	public void compact(Supplier<Map<HashCode, Command>> liveCommands) {
+		// Coalesce requests made while a compaction is already queued
+		if (this.compactionPending.compareAndSet(false, true)) {
+			queue(journal -> {
+				journal.compactionPending.set(false);
+				journal.output.flush();
+				journal.rewrite(liveCommands.get());
+			});
+		}
+	}
+
+	@Override
+	public List<Command> replay() {
+		flush();
+		return ImmutableList.copyOf(readRecords().values());
+	}
+
+	/**
+	 * Waits until all records and compactions queued before this call have been written.
+	 */
+	void flush() {
+		final CountDownLatch written = new CountDownLatch(1);
+		if (!queue(journal -> written.countDown())) {
+			return;
+		}
+		try {
+			written.await();
+		} catch (InterruptedException e) {
+			// Not going to deal with this here
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes all queued records, stops the writer thread and closes the journal file.
+	 * Records requested after this call are discarded.
+	 */
+	@Override
+	public void close() {
+		synchronized (this.lock) {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			// Queued under the lock, so no task can be queued after it
+			this.pending.add(journal -> journal.stopped = true);
+		}
+		try {
+			this.writer.join();
+		} catch (InterruptedException e) {
+			// Not going to deal with this here
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private boolean queue(JournalTask task) {
+		synchronized (this.lock) {
+			if (this.closed) {
+				log.debug("Ignoring mempool journal request after close");
+				return false;
+			}
+			this.pending.add(task);
+			return true;
+		}
+	}
+
+	private void writeLoop() {
+		final List<JournalTask> batch = Lists.newArrayListWithCapacity(MAX_BATCH_SIZE);
+		while (!this.stopped) {
+			try {
+				batch.add(this.pending.take());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			this.pending.drainTo(batch, MAX_BATCH_SIZE - 1);
+			writeBatch(batch);
+			batch.clear();
+		}
+		closeOutput();
+	}
+
+	private void writeBatch(List<JournalTask> batch) {
+		// Tasks are run even after an error, so that flush waiters are released
+		boolean failed = false;
+		for (JournalTask task : batch) {
+			try {
+				task.run(this);
+			} catch (IOException e) {
+				failed = true;
+				log.warn("Unable to write mempool journal {}: {}", this.journalFile, e.getMessage());
+			}
+		}
+		try {
+			this.output.flush();
+			this.file.getChannel().force(false);
+		} catch (IOException e) {
+			failed = true;
+			log.warn("Unable to flush mempool journal {}: {}", this.journalFile, e.getMessage());
+		}
+		if (failed) {
+			log.warn("Some of {} mempool journal records may not have been written", batch.size());
+		}
+	}
+
+	// Called from the writer thread, or from the constructor before it starts
+	private void rewrite(Map<HashCode, Command> live) {
+		Path tempFile = this.journalFile.resolveSibling(this.journalFile.getFileName() + ".tmp");
+		try {
+			try (FileOutputStream tempFileOutput = new FileOutputStream(tempFile.toFile());
+				DataOutputStream tempOutput = new DataOutputStream(new BufferedOutputStream(tempFileOutput))) {
+				for (Map.Entry<HashCode, Command> e : live.entrySet()) {
+					writeAdded(tempOutput, e.getKey(), e.getValue());
+				}
+				tempOutput.flush();
+				// Make sure the contents are stored before replacing the journal with them
+				tempFileOutput.getChannel().force(false);
+			}
+			closeOutput();
+			Files.move(tempFile, this.journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			this.recordCount.set(live.size() + this.pending.size());
+		} catch (IOException e) {
+			log.warn("Unable to compact mempool journal {}: {}", this.journalFile, e.getMessage());
+		} finally {
+			closeOutput();
+			openOutput();
+		}
+	}
+
+	private LinkedHashMap<HashCode, Command> readRecords() {
+		final LinkedHashMap<HashCode, Command> live = Maps.newLinkedHashMap();
+		int records = 0;
+		try (InputStream is = Files.newInputStream(this.journalFile);
+			DataInputStream input = new DataInputStream(new BufferedInputStream(is))) {
+			while (true) {
+				byte recordType = input.readByte();
+				HashCode cmdHash = HashCode.fromBytes(readBytes(input));
+				if (recordType == RECORD_ADDED) {
+					live.put(cmdHash, new Command(readBytes(input)));
+				} else if (recordType == RECORD_REMOVED) {
+					live.remove(cmdHash);
+				} else {
+					log.warn("Unknown record type {} in mempool journal {} after {} records, ignoring remainder",
+						recordType, this.journalFile, records);
+					break;
+				}
+				records += 1;
+			}
+		} catch (NoSuchFileException e) {
+			// Nothing journalled yet
+		} catch (EOFException e) {
+			// End of journal, or truncated final record
+		} catch (IOException e) {
+			log.warn("Error reading mempool journal {} after {} records: {}", this.journalFile, records, e.getMessage());
+		}
+		return live;
+	}
+
+	private void openOutput() {
+		try {
+			this.file = new FileOutputStream(this.journalFile.toFile(), true);
+			this.output = new DataOutputStream(new BufferedOutputStream(this.file));
+		} catch (IOException e) {
+			throw new IllegalStateException("While opening mempool journal " + this.journalFile, e);
+		}
+	}
+
+	private void closeOutput() {
+		try {
+			this.output.close();
+		} catch (IOException e) {
+			log.warn("Error closing mempool journal {}: {}", this.journalFile, e.getMessage());
+		}
+	}
+
+	private static void writeAdded(DataOutputStream output, HashCode cmdHash, Command command) throws IOException {
+		byte[] hashBytes = cmdHash.asBytes();
+		byte[] payload = command.getPayload();
+		output.writeByte(RECORD_ADDED);
+		output.writeInt(hashBytes.length);
+		output.write(hashBytes);
+		output.writeInt(payload.length);
+		output.write(payload);
+	}
+
+	private static void writeRemoved(DataOutputStream output, HashCode cmdHash) throws IOException {
+		byte[] hashBytes = cmdHash.asBytes();
+		output.writeByte(RECORD_REMOVED);
+		output.writeInt(hashBytes.length);
+		output.write(hashBytes);
+	}
+
+	private static byte[] readBytes(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length <= 0 || length > MAX_RECORD_SIZE) {
+			throw new IOException("Invalid record length " + length);
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return bytes;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s]", getClass().getSimpleName(), this.journalFile);
+	}
+}
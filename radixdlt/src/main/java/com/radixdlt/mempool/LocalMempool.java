@@ -18,12 +18,18 @@ package com.radixdlt.mempool;
 
 import com.google.common.hash.HashCode;
 import com.radixdlt.consensus.Command;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import javax.annotation.concurrent.GuardedBy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -34,40 +40,135 @@ import com.radixdlt.crypto.Hasher;
  * <p>
  * Performs no validation and does not share contents with
  * network.  Threadsafe.
+ * <p>
+ * Commands are indexed by hash in a concurrent map and ordered by
+ * insertion sequence in a concurrent skip list, so that submitters
+ * and consensus proposal generation do not contend on a common lock.
+ * Both structures are updated inside the hash map's per-key compute,
+ * so that adding and removing a given command are linearizable.
+ * Each command's hash is computed once on insertion and stored alongside
+ * the command, so that selection does not need to rehash commands.
+ * <p>
+ * Selection keeps a cursor past the commands found in flight by the
+ * previous selection, so that it does not walk over them again while
+ * they remain in flight.
  */
 public final class LocalMempool implements Mempool {
-	private final Object lock = new Object();
-	@GuardedBy("lock")
-	private final LinkedHashMap<HashCode, Command> data = Maps.newLinkedHashMap();
+	private final ConcurrentMap<HashCode, MempoolEntry> data = new ConcurrentHashMap<>();
+	private final ConcurrentSkipListMap<Long, MempoolEntry> ordered = new ConcurrentSkipListMap<>();
+	private final AtomicLong sequence = new AtomicLong();
+	private final AtomicInteger size = new AtomicInteger();
+	// Number of adds which may have taken a sequence number without yet being ordered
+	private final AtomicInteger addsInProgress = new AtomicInteger();
+	private volatile SelectionCursor cursor = SelectionCursor.START;
 
 	private final int maxSize;
 
 	private final Hasher hasher;
 
+	private final MempoolJournal journal;
+
+	private static final class MempoolEntry {
+		private final long sequence;
+		private final HashCode hash;
+		private final Command command;
+
+		MempoolEntry(long sequence, HashCode hash, Command command) {
+			this.sequence = sequence;
+			this.hash = hash;
+			this.command = command;
+		}
+	}
+
+	/**
+	 * Where the previous selection stopped: every entry ordered before {@code resumeFrom}
+	 * is in {@code skipped}, and was in flight at the time.
+	 */
+	private static final class SelectionCursor {
+		private static final SelectionCursor START = new SelectionCursor(0L, Collections.emptyList());
+
+		private final long resumeFrom;
+		private final List<MempoolEntry> skipped;
+
+		SelectionCursor(long resumeFrom, List<MempoolEntry> skipped) {
+			this.resumeFrom = resumeFrom;
+			this.skipped = skipped;
+		}
+	}
+
 	public LocalMempool(int maxSize, Hasher hasher) {
+		this(maxSize, hasher, new EmptyMempoolJournal());
+	}
+
+	public LocalMempool(int maxSize, Hasher hasher, MempoolJournal journal) {
 		if (maxSize <= 0) {
 			throw new IllegalArgumentException("mempool.maxSize must be positive: " + maxSize);
 		}
 		this.maxSize = maxSize;
 		this.hasher = hasher;
+		this.journal = Objects.requireNonNull(journal);
 	}
 
 	@Override
 	public void add(Command command) throws MempoolFullException, MempoolDuplicateException {
-		synchronized (this.lock) {
-			if (this.data.size() >= this.maxSize) {
-				throw new MempoolFullException(command, String.format("Mempool full: %s of %s items", this.data.size(), this.maxSize));
-			}
-			if (null != this.data.put(hasher.hash(command), command)) {
-				throw new MempoolDuplicateException(command, String.format("Mempool already has command %s", hasher.hash(command)));
-			}
+		add(command, true);
+	}
+
+	/**
+	 * Adds a command restored from the journal, without journalling it again.
+	 */
+	void restore(Command command) throws MempoolFullException, MempoolDuplicateException {
+		add(command, false);
+	}
+
+	private void add(Command command, boolean journalled) throws MempoolFullException, MempoolDuplicateException {
+		final HashCode hash = hasher.hash(command);
+		final MempoolEntry[] added = new MempoolEntry[1];
+		final boolean[] full = new boolean[1];
+		this.addsInProgress.incrementAndGet();
+		try {
+			this.data.compute(hash, (h, existing) -> {
+				if (existing != null) {
+					return existing;
+				}
+				// Reserve a slot before inserting so that maxSize is never exceeded
+				if (this.size.incrementAndGet() > this.maxSize) {
+					this.size.decrementAndGet();
+					full[0] = true;
+					return null;
+				}
+				final MempoolEntry entry = new MempoolEntry(this.sequence.getAndIncrement(), h, command);
+				this.ordered.put(entry.sequence, entry);
+				if (journalled) {
+					this.journal.added(h, command);
+				}
+				added[0] = entry;
+				return entry;
+			});
+		} finally {
+			this.addsInProgress.decrementAndGet();
+		}
+		if (full[0]) {
+			throw new MempoolFullException(command, String.format("Mempool full: %s of %s items", this.size.get(), this.maxSize));
+		}
+		if (added[0] == null) {
+			throw new MempoolDuplicateException(command, String.format("Mempool already has command %s", hash));
 		}
 	}
 
 	@Override
 	public void removeCommitted(HashCode cmdHash) {
-		synchronized (this.lock) {
-			this.data.remove(cmdHash);
+		final boolean[] removed = new boolean[1];
+		this.data.computeIfPresent(cmdHash, (h, entry) -> {
+			this.ordered.remove(entry.sequence);
+			this.size.decrementAndGet();
+			this.journal.removed(h);
+			removed[0] = true;
+			return null;
+		});
+		// Compaction is queued to the journal rather than run inline
+		if (removed[0] && this.journal.compactionRequired(this.size.get())) {
+			compactJournal();
 		}
 	}
 
@@ -81,29 +182,61 @@ public final class LocalMempool implements Mempool {
 
 	@Override
 	public List<Command> getCommands(int count, Set<HashCode> seen) {
-		synchronized (this.lock) {
-			int size = Math.min(count, this.data.size());
-			if (size > 0) {
-				List<Command> commands = Lists.newArrayList();
-				Iterator<Command> i = this.data.values().iterator();
-				while (commands.size() < size && i.hasNext()) {
-					Command a = i.next();
-					if (seen.add(hasher.hash(a))) {
-						commands.add(a);
-					}
+		if (count <= 0 || this.size.get() <= 0) {
+			return Collections.emptyList();
+		}
+
+		// Entries with lower sequence numbers are all ordered if no add is in progress
+		final long orderedBefore = this.sequence.get();
+		final boolean noAddsInProgress = this.addsInProgress.get() == 0;
+
+		// Resume past the previously skipped entries if they are all still in flight or gone
+		final SelectionCursor previous = this.cursor;
+		List<MempoolEntry> skipped = new ArrayList<>();
+		long resumeFrom = previous.resumeFrom;
+		for (MempoolEntry entry : previous.skipped) {
+			if (this.data.get(entry.hash) != entry) {
+				continue;
+			}
+			if (!seen.contains(entry.hash)) {
+				skipped = new ArrayList<>();
+				resumeFrom = 0L;
+				break;
+			}
+			skipped.add(entry);
+		}
+
+		final List<Command> commands = Lists.newArrayListWithCapacity(Math.min(count, this.size.get()));
+		long next = resumeFrom;
+		// Weakly consistent iteration, does not block concurrent add/remove
+		Iterator<MempoolEntry> i = this.ordered.tailMap(resumeFrom).values().iterator();
+		while (commands.size() < count && i.hasNext()) {
+			MempoolEntry entry = i.next();
+			if (seen.contains(entry.hash)) {
+				if (commands.isEmpty()) {
+					skipped.add(entry);
+					next = entry.sequence + 1;
 				}
-				return commands;
 			} else {
-				return Collections.emptyList();
+				if (commands.isEmpty()) {
+					next = entry.sequence;
+				}
+				commands.add(entry.command);
 			}
 		}
+
+		// Only advance past entries which cannot be joined by a late add with a lower sequence
+		if (noAddsInProgress && next <= orderedBefore) {
+			this.cursor = new SelectionCursor(next, skipped);
+		} else if (resumeFrom == 0L) {
+			this.cursor = SelectionCursor.START;
+		}
+		return commands;
 	}
 
 	@Override
 	public int count() {
-		synchronized (this.lock) {
-			return this.data.size();
-		}
+		return this.size.get();
 	}
 
 	// Used by SharedMempool
@@ -111,6 +244,17 @@ public final class LocalMempool implements Mempool {
 		return this.maxSize;
 	}
 
+	// Used by MempoolJournalReplayer
+	void compactJournal() {
+		this.journal.compact(() -> {
+			LinkedHashMap<HashCode, Command> live = Maps.newLinkedHashMap();
+			for (MempoolEntry entry : this.ordered.values()) {
+				live.put(entry.hash, entry.command);
+			}
+			return live;
+		});
+	}
+
 	@Override
 	public String toString() {
 		return String.format("%s[%x:%s/%s]",
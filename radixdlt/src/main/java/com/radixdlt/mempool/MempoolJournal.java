@@ -0,0 +1,83 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.mempool;
+
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.Command;
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Persistent record of mempool contents, used to restore the mempool
+ * after a restart.
+ * <p>
+ * Implementations are expected to be thread safe.  Records may be written
+ * asynchronously, but are written in the order in which they are requested.
+ */
+public interface MempoolJournal extends Closeable {
+	/**
+	 * Record that a command has been added to the mempool.
+	 *
+	 * @param cmdHash The hash of the added command
+	 * @param command The added command
+	 */
+	void added(HashCode cmdHash, Command command);
+
+	/**
+	 * Record that a command has been removed from the mempool.
+	 *
+	 * @param cmdHash The hash of the removed command
+	 */
+	void removed(HashCode cmdHash);
+
+	/**
+	 * Returns {@code true} if the journal has accumulated enough
+	 * obsolete records that it should be compacted.
+	 *
+	 * @param liveCount The number of commands currently in the mempool
+	 */
+	boolean compactionRequired(int liveCount);
+
+	/**
+	 * Request that the contents of the journal be replaced with the live commands.
+	 * <p>
+	 * Compaction may happen asynchronously, after records already requested have
+	 * been written.  Records requested after the supplier has been called are
+	 * written after the compacted contents, so that records for concurrent
+	 * additions and removals are not lost.
+	 *
+	 * @param liveCommands Supplier of the commands currently in the mempool, in mempool order
+	 */
+	void compact(Supplier<Map<HashCode, Command>> liveCommands);
+
+	/**
+	 * Read back the commands recorded as live in the journal, in the
+	 * order in which they were added.
+	 *
+	 * @return The commands recorded as live
+	 */
+	List<Command> replay();
+
+	/**
+	 * Write any outstanding records and release the resources held by the journal.
+	 * Records requested after the journal is closed are discarded.
+	 */
+	@Override
+	void close();
+}
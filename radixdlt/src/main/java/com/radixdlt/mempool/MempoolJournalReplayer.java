@@ -0,0 +1,158 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.mempool;
+
+import com.google.inject.Inject;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.engine.RadixEngine;
+import com.radixdlt.engine.RadixEngineException;
+import com.radixdlt.middleware2.ClientAtom;
+import com.radixdlt.middleware2.LedgerAtom;
+import com.radixdlt.serialization.DeserializeException;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.utils.ThreadFactories;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Restores mempool contents from the {@link MempoolJournal} on startup.
+ * <p>
+ * Journalled commands are revalidated in parallel and then restored directly
+ * into the {@link LocalMempool} in journal order.  They are neither gossiped to peers, who
+ * will have seen them before the restart, nor journalled again.
+ */
+public final class MempoolJournalReplayer {
+	private static final Logger log = LogManager.getLogger();
+
+	private final MempoolJournal journal;
+	private final LocalMempool localMempool;
+	private final RadixEngine<LedgerAtom> radixEngine;
+	private final Serialization serialization;
+
+	@Inject
+	public MempoolJournalReplayer(
+		MempoolJournal journal,
+		LocalMempool localMempool,
+		RadixEngine<LedgerAtom> radixEngine,
+		Serialization serialization
+	) {
+		this.journal = Objects.requireNonNull(journal);
+		this.localMempool = Objects.requireNonNull(localMempool);
+		this.radixEngine = Objects.requireNonNull(radixEngine);
+		this.serialization = Objects.requireNonNull(serialization);
+	}
+
+	/**
+	 * Restores all valid journalled commands, in journal order.
+	 */
+	public void replay() {
+		final List<Command> commands = this.journal.replay();
+		if (commands.isEmpty()) {
+			return;
+		}
+
+		// Validate in parallel, but restore in journal order, so that the mempool order,
+		// and the journal order compacted from it, are preserved
+		final List<Callable<Boolean>> validations = commands.stream()
+			.<Callable<Boolean>>map(command -> () -> isValid(command))
+			.collect(Collectors.toList());
+		final int threads = Math.min(commands.size(), Runtime.getRuntime().availableProcessors());
+		final ExecutorService executor = Executors.newFixedThreadPool(threads, ThreadFactories.daemonThreads("MempoolReplay-%d"));
+		final List<Future<Boolean>> results;
+		try {
+			results = executor.invokeAll(validations, 1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			// Not going to deal with this here
+			Thread.currentThread().interrupt();
+			return;
+		} finally {
+			executor.shutdownNow();
+		}
+
+		int restored = 0;
+		for (int i = 0; i < commands.size(); ++i) {
+			if (validated(commands.get(i), results.get(i)) && restore(commands.get(i))) {
+				restored += 1;
+			}
+		}
+
+		// Drop records for commands that failed revalidation
+		this.localMempool.compactJournal();
+		log.info("Restored {} of {} journalled mempool commands", restored, commands.size());
+	}
+
+	private boolean validated(Command command, Future<Boolean> result) {
+		if (result.isCancelled()) {
+			log.warn("Timed out validating journalled command {}", command);
+			return false;
+		}
+		try {
+			return result.get();
+		} catch (ExecutionException e) {
+			log.warn("Error validating journalled command {}", command, e.getCause());
+			return false;
+		} catch (InterruptedException e) {
+			// Not going to deal with this here
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private boolean isValid(Command command) {
+		final ClientAtom atom = command.map(payload -> {
+			try {
+				return this.serialization.fromDson(payload, ClientAtom.class);
+			} catch (DeserializeException e) {
+				return null;
+			}
+		});
+		if (atom == null) {
+			log.debug("Journalled command {} could not be deserialized", command);
+			return false;
+		}
+		try {
+			this.radixEngine.staticCheck(atom);
+			return true;
+		} catch (RadixEngineException e) {
+			log.debug("Journalled command {} rejected: {}", command, e.getMessage());
+			return false;
+		} catch (RuntimeException e) {
+			log.warn("Error validating journalled command {}", command, e);
+			return false;
+		}
+	}
+
+	private boolean restore(Command command) {
+		try {
+			this.localMempool.restore(command);
+			return true;
+		} catch (MempoolRejectedException e) {
+			log.debug("Journalled command {} rejected: {}", command, e.getMessage());
+			return false;
+		}
+	}
+}
@@ -38,17 +38,27 @@ public final class GetVerticesRequestMessage extends Message {
 	@DsonOutput(Output.ALL)
 	private final int count;
 
+	@JsonProperty("allowPartial")
+	@DsonOutput(Output.ALL)
+	private final boolean allowPartial;
+
 	GetVerticesRequestMessage() {
 		// Serializer only
 		super(0);
 		this.vertexId = null;
 		this.count = 0;
+		this.allowPartial = false;
 	}
 
 	GetVerticesRequestMessage(int magic, HashCode vertexId, int count) {
+		this(magic, vertexId, count, false);
+	}
+
+	GetVerticesRequestMessage(int magic, HashCode vertexId, int count, boolean allowPartial) {
 		super(magic);
 		this.vertexId = Objects.requireNonNull(vertexId);
 		this.count = count;
+		this.allowPartial = allowPartial;
 	}
 
 	public HashCode getVertexId() {
@@ -59,6 +69,10 @@ public final class GetVerticesRequestMessage extends Message {
 		return count;
 	}
 
+	public boolean allowsPartial() {
+		return allowPartial;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("%s[%s]", getClass().getSimpleName(), vertexId);
@@ -74,6 +88,7 @@ public final class GetVerticesRequestMessage extends Message {
 		}
 		GetVerticesRequestMessage that = (GetVerticesRequestMessage) o;
 		return count == that.count
+				&& allowPartial == that.allowPartial
 				&& Objects.equals(vertexId, that.vertexId)
 				&& Objects.equals(getTimestamp(), that.getTimestamp())
 				&& Objects.equals(getMagic(), that.getMagic());
@@ -81,6 +96,6 @@ public final class GetVerticesRequestMessage extends Message {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(vertexId, count, getTimestamp(), getMagic());
+		return Objects.hash(vertexId, count, allowPartial, getTimestamp(), getMagic());
 	}
 }
@@ -17,6 +17,7 @@
 
 package com.radixdlt.middleware2.network;
 
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.radixdlt.consensus.bft.BFTNode;
 import com.radixdlt.consensus.bft.Self;
@@ -25,6 +26,7 @@ import com.radixdlt.consensus.liveness.ProposalBroadcaster;
 
 import com.radixdlt.environment.RemoteEventDispatcher;
 import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.List;
 import java.util.Objects;
 
 import java.util.Optional;
@@ -86,26 +88,32 @@ public final class MessageCentralBFTNetwork implements ProposalBroadcaster, Vote
 
 	@Override
 	public void broadcastProposal(Proposal proposal, Set<BFTNode> nodes) {
-		for (BFTNode node : nodes) {
-			if (this.self.equals(node)) {
-				this.localMessages.onNext(proposal);
-			} else {
-				ConsensusEventMessage message = new ConsensusEventMessage(this.magic, proposal);
-				send(message, node);
-			}
-		}
+		broadcast(proposal, nodes);
 	}
 
 	@Override
 	public void broadcastViewTimeout(ViewTimeout viewTimeout, Set<BFTNode> nodes) {
+		broadcast(viewTimeout, nodes);
+	}
+
+	private void broadcast(ConsensusEvent event, Set<BFTNode> nodes) {
+		final List<PeerWithSystem> peers = Lists.newArrayListWithCapacity(nodes.size());
 		for (BFTNode node : nodes) {
 			if (this.self.equals(node)) {
-				this.localMessages.onNext(viewTimeout);
+				this.localMessages.onNext(event);
 			} else {
-				ConsensusEventMessage message = new ConsensusEventMessage(this.magic, viewTimeout);
-				send(message, node);
+				Optional<PeerWithSystem> peer = this.addressBook.peer(node.getKey().euid());
+				if (peer.isPresent()) {
+					peers.add(peer.get());
+				} else {
+					log.error("{}: Peer {} not present", this.self, node);
+				}
 			}
 		}
+		if (!peers.isEmpty()) {
+			ConsensusEventMessage message = new ConsensusEventMessage(this.magic, event);
+			this.messageCentral.broadcast(message, peers);
+		}
 	}
 
 	public RemoteEventDispatcher<Vote> voteDispatcher() {
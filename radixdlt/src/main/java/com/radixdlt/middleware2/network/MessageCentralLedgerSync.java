@@ -17,6 +17,8 @@
 
 package com.radixdlt.middleware2.network;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.radixdlt.consensus.bft.BFTNode;
 import com.radixdlt.environment.RemoteEventDispatcher;
 import com.radixdlt.environment.rx.RemoteEvent;
@@ -37,6 +39,11 @@ public final class MessageCentralLedgerSync {
 	private final int magic;
 	private final MessageCentral messageCentral;
 	private final AddressBook addressBook;
+	// Responses served from the sync response cache are the same instances, so
+	// their serialized form is kept for as long as the response is referenced
+	private final Cache<DtoCommandsAndProof, byte[]> serializedResponses = CacheBuilder.newBuilder()
+		.weakKeys()
+		.build();
 
 	@Inject
 	public MessageCentralLedgerSync(
@@ -96,8 +103,11 @@ public final class MessageCentralLedgerSync {
 	private void sendSyncResponse(BFTNode node, DtoCommandsAndProof commands) {
 		addressBook.peer(node.getKey().euid()).ifPresent(peer -> {
 			if (peer.hasSystem()) {
+				// The timestamp is not sent, so the serialized form only depends on the commands
 				final SyncResponseMessage syncResponseMessage = new SyncResponseMessage(this.magic, commands);
-				this.messageCentral.send(peer, syncResponseMessage);
+				final byte[] serializedMessage = this.serializedResponses.asMap()
+					.computeIfAbsent(commands, c -> this.messageCentral.serialize(syncResponseMessage));
+				this.messageCentral.send(peer, syncResponseMessage, serializedMessage);
 			}
 		});
 	}
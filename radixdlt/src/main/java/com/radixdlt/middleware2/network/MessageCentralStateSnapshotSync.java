@@ -0,0 +1,129 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.middleware2.network;
+
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.environment.rx.RemoteEvent;
+import com.radixdlt.network.addressbook.AddressBook;
+import com.radixdlt.network.messaging.MessageCentral;
+import com.radixdlt.network.messaging.MessageListener;
+import com.radixdlt.sync.StateSnapshotChunk;
+import com.radixdlt.sync.StateSnapshotChunkRequest;
+import com.radixdlt.sync.StateSnapshotManifest;
+import com.radixdlt.universe.Universe;
+import io.reactivex.rxjava3.core.Observable;
+import java.util.Objects;
+import javax.inject.Inject;
+import org.radix.network.messaging.Message;
+
+/**
+ * Network interface for syncing state snapshots using the MessageCentral
+ */
+public final class MessageCentralStateSnapshotSync {
+	private final int magic;
+	private final MessageCentral messageCentral;
+	private final AddressBook addressBook;
+
+	@Inject
+	public MessageCentralStateSnapshotSync(
+		Universe universe,
+		AddressBook addressBook,
+		MessageCentral messageCentral
+	) {
+		this.magic = universe.getMagic();
+		this.addressBook = Objects.requireNonNull(addressBook);
+		this.messageCentral = Objects.requireNonNull(messageCentral);
+	}
+
+	public Observable<BFTNode> manifestRequests() {
+		return Observable.create(emitter -> {
+			MessageListener<StateSnapshotManifestRequestMessage> listener = (src, msg) -> {
+				if (src.hasSystem()) {
+					emitter.onNext(BFTNode.create(src.getSystem().getKey()));
+				}
+			};
+			this.messageCentral.addListener(StateSnapshotManifestRequestMessage.class, listener);
+			emitter.setCancellable(() -> this.messageCentral.removeListener(listener));
+		});
+	}
+
+	public Observable<RemoteEvent<StateSnapshotManifest>> manifestResponses() {
+		return Observable.create(emitter -> {
+			MessageListener<StateSnapshotManifestResponseMessage> listener = (src, msg) -> {
+				if (src.hasSystem()) {
+					BFTNode node = BFTNode.create(src.getSystem().getKey());
+					emitter.onNext(RemoteEvent.create(node, msg.getManifest(), StateSnapshotManifest.class));
+				}
+			};
+			this.messageCentral.addListener(StateSnapshotManifestResponseMessage.class, listener);
+			emitter.setCancellable(() -> this.messageCentral.removeListener(listener));
+		});
+	}
+
+	public Observable<RemoteEvent<StateSnapshotChunkRequest>> chunkRequests() {
+		return Observable.create(emitter -> {
+			MessageListener<StateSnapshotChunkRequestMessage> listener = (src, msg) -> {
+				if (src.hasSystem()) {
+					BFTNode node = BFTNode.create(src.getSystem().getKey());
+					StateSnapshotChunkRequest request = new StateSnapshotChunkRequest(msg.getManifestHash(), msg.getIndex());
+					emitter.onNext(RemoteEvent.create(node, request, StateSnapshotChunkRequest.class));
+				}
+			};
+			this.messageCentral.addListener(StateSnapshotChunkRequestMessage.class, listener);
+			emitter.setCancellable(() -> this.messageCentral.removeListener(listener));
+		});
+	}
+
+	public Observable<RemoteEvent<StateSnapshotChunk>> chunkResponses() {
+		return Observable.create(emitter -> {
+			MessageListener<StateSnapshotChunkResponseMessage> listener = (src, msg) -> {
+				if (src.hasSystem()) {
+					BFTNode node = BFTNode.create(src.getSystem().getKey());
+					emitter.onNext(RemoteEvent.create(node, msg.getChunk(), StateSnapshotChunk.class));
+				}
+			};
+			this.messageCentral.addListener(StateSnapshotChunkResponseMessage.class, listener);
+			emitter.setCancellable(() -> this.messageCentral.removeListener(listener));
+		});
+	}
+
+	public void sendManifestRequest(BFTNode node) {
+		send(node, new StateSnapshotManifestRequestMessage(this.magic));
+	}
+
+	public void sendManifest(BFTNode node, StateSnapshotManifest manifest) {
+		send(node, new StateSnapshotManifestResponseMessage(this.magic, manifest));
+	}
+
+	public void sendChunkRequest(BFTNode node, HashCode manifestHash, int index) {
+		send(node, new StateSnapshotChunkRequestMessage(this.magic, manifestHash, index));
+	}
+
+	public void sendChunk(BFTNode node, StateSnapshotChunk chunk) {
+		send(node, new StateSnapshotChunkResponseMessage(this.magic, chunk));
+	}
+
+	private void send(BFTNode node, Message message) {
+		addressBook.peer(node.getKey().euid()).ifPresent(peer -> {
+			if (peer.hasSystem()) {
+				this.messageCentral.send(peer, message);
+			}
+		});
+	}
+}
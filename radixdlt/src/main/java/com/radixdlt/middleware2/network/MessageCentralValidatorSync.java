@@ -101,7 +101,12 @@ public class MessageCentralValidatorSync implements SyncVerticesRequestSender, S
 			return;
 		}
 
-		final GetVerticesRequestMessage vertexRequest = new GetVerticesRequestMessage(this.magic, request.getVertexId(), request.getCount());
+		final GetVerticesRequestMessage vertexRequest = new GetVerticesRequestMessage(
+			this.magic,
+			request.getVertexId(),
+			request.getCount(),
+			request.allowsPartial()
+		);
 		this.messageCentral.send(peer.get(), vertexRequest);
 	}
 
@@ -140,7 +145,7 @@ public class MessageCentralValidatorSync implements SyncVerticesRequestSender, S
 				}
 
 				final BFTNode node = BFTNode.create(peer.getSystem().getKey());
-				return new GetVerticesRequest(node, msg.getVertexId(), msg.getCount());
+				return new GetVerticesRequest(node, msg.getVertexId(), msg.getCount(), msg.allowsPartial());
 			}
 		);
 	}
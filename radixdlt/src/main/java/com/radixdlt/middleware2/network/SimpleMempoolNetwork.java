@@ -20,7 +20,9 @@ package com.radixdlt.middleware2.network;
 import com.radixdlt.consensus.Command;
 import com.radixdlt.mempool.MempoolNetworkRx;
 import com.radixdlt.mempool.MempoolNetworkTx;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
@@ -71,10 +73,13 @@ public class SimpleMempoolNetwork implements MempoolNetworkRx, MempoolNetworkTx
 	public void sendMempoolSubmission(Command command) {
 		MempoolAtomAddedMessage message = new MempoolAtomAddedMessage(this.magic, command);
 		final EUID self = this.localPeer.getNID();
-		this.addressBook.peers()
+		final List<PeerWithSystem> peers = this.addressBook.peers()
 			.filter(Peer::hasSystem) // Only peers with systems (and therefore transports)
 			.filter(p -> !self.equals(p.getNID())) // Exclude self, already sent
-			.forEach(peer -> this.messageCentral.send(peer, message));
+			.collect(Collectors.toList());
+		if (!peers.isEmpty()) {
+			this.messageCentral.broadcast(message, peers);
+		}
 	}
 
 	@Override
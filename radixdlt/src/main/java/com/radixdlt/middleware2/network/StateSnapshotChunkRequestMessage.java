@@ -0,0 +1,88 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.middleware2.network;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.hash.HashCode;
+import com.radixdlt.serialization.DsonOutput;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.SerializerId2;
+import org.radix.network.messaging.Message;
+
+import java.util.Objects;
+
+/**
+ * Message to request a single chunk of a state snapshot
+ */
+@SerializerId2("message.sync.state_snapshot_chunk_request")
+public final class StateSnapshotChunkRequestMessage extends Message {
+
+	@JsonProperty("manifestHash")
+	@DsonOutput(Output.ALL)
+	private final HashCode manifestHash;
+
+	@JsonProperty("index")
+	@DsonOutput(Output.ALL)
+	private final int index;
+
+	StateSnapshotChunkRequestMessage() {
+		// Serializer only
+		super(0);
+		this.manifestHash = null;
+		this.index = 0;
+	}
+
+	public StateSnapshotChunkRequestMessage(int magic, HashCode manifestHash, int index) {
+		super(magic);
+		this.manifestHash = Objects.requireNonNull(manifestHash);
+		this.index = index;
+	}
+
+	public HashCode getManifestHash() {
+		return manifestHash;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s{manifest=%s index=%s}", getClass().getSimpleName(), manifestHash, index);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		StateSnapshotChunkRequestMessage that = (StateSnapshotChunkRequestMessage) o;
+		return index == that.index
+				&& Objects.equals(manifestHash, that.manifestHash)
+				&& Objects.equals(getTimestamp(), that.getTimestamp())
+				&& Objects.equals(getMagic(), that.getMagic());
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(manifestHash, index, getTimestamp(), getMagic());
+	}
+}
@@ -49,11 +49,17 @@ import com.radixdlt.store.StoreIndex.LedgerIndexType;
 import com.radixdlt.store.berkeley.NextCommittedLimitReachedException;
 import com.radixdlt.sync.CommittedReader;
 import com.radixdlt.utils.Longs;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.Optional;
 
 public final class CommittedAtomsStore implements EngineStore<CommittedAtom>, CommittedReader {
+	private static final int SNAPSHOT_SCAN_BATCH_SIZE = 1024;
+
 	private final Serialization serialization;
 	private final AtomIndexer atomIndexer;
 	private final LedgerEntryStore store;
@@ -207,6 +213,98 @@ public final class CommittedAtomsStore implements EngineStore<CommittedAtom>, Co
 		);
 	}
 
+	/**
+	 * Retrieves the atoms committed with the first proof after the given state version,
+	 * each along with the state version it was committed at.
+	 */
+	public ImmutableList<CommittedAtom> getNextCommittedAtoms(long stateVersion, int batchSize) throws NextCommittedLimitReachedException {
+		return store.getNextCommittedLedgerEntries(stateVersion, batchSize).stream()
+			.map(e -> {
+				StoredCommittedCommand committedCommand = commandToBinaryConverter.toCommand(e.getContent());
+				ClientAtom clientAtom = committedCommand.getCommand().map(clientAtomToBinaryConverter::toAtom);
+				return new CommittedAtom(clientAtom, e.getStateVersion(), committedCommand.getStateAndProof());
+			})
+			.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Installs the live particles of a state snapshot into a store which holds nothing
+	 * beyond genesis, as if they had all been committed with the snapshot's proof.
+	 * Particles already up in the store are kept as they are and those which are no
+	 * longer live according to the snapshot are spun down, so that {@link #compute}
+	 * and {@link #getSpin} reflect the snapshot's state afterwards.
+	 *
+	 * @param proof the epoch change proof the snapshot was taken at
+	 * @param chunks atoms pushing up the snapshot's live particles
+	 */
+	public void installSnapshot(VerifiedLedgerHeaderAndProof proof, ImmutableList<ClientAtom> chunks) {
+		final Map<EUID, Particle> existingUp = new HashMap<>();
+		long stateVersion = -1;
+		while (true) {
+			final ImmutableList<CommittedAtom> atoms;
+			try {
+				atoms = getNextCommittedAtoms(stateVersion, SNAPSHOT_SCAN_BATCH_SIZE);
+			} catch (NextCommittedLimitReachedException e) {
+				throw new IllegalStateException("Unable to scan store before installing snapshot", e);
+			}
+			if (atoms.isEmpty()) {
+				break;
+			}
+			for (CommittedAtom atom : atoms) {
+				if (atom.getStateVersion() >= proof.getStateVersion()) {
+					throw new IllegalStateException(
+						String.format("Store is already at version %s, snapshot is at %s", atom.getStateVersion(), proof.getStateVersion())
+					);
+				}
+				pushedUp(atom.getClientAtom()).stream()
+					.filter(p -> getSpin(p) == Spin.UP)
+					.forEach(p -> existingUp.put(Particle.euidOf(p, hasher), p));
+				stateVersion = atom.getStateVersion();
+			}
+		}
+
+		final Set<EUID> live = new HashSet<>();
+		for (ClientAtom chunk : chunks) {
+			final ImmutableList.Builder<CMMicroInstruction> instructions = ImmutableList.builder();
+			for (Particle particle : pushedUp(chunk)) {
+				final EUID euid = Particle.euidOf(particle, hasher);
+				if (live.add(euid) && !existingUp.containsKey(euid)) {
+					instructions.add(CMMicroInstruction.checkSpinAndPush(particle, Spin.NEUTRAL));
+				}
+			}
+			storeSnapshotAtom(instructions.build(), proof);
+		}
+
+		final ImmutableList.Builder<CMMicroInstruction> retired = ImmutableList.builder();
+		existingUp.forEach((euid, particle) -> {
+			if (!live.contains(euid)) {
+				retired.add(CMMicroInstruction.checkSpinAndPush(particle, Spin.UP));
+			}
+		});
+		storeSnapshotAtom(retired.build(), proof);
+	}
+
+	private void storeSnapshotAtom(ImmutableList<CMMicroInstruction> instructions, VerifiedLedgerHeaderAndProof proof) {
+		if (instructions.isEmpty()) {
+			return;
+		}
+		final ClientAtom clientAtom = ClientAtom.create(
+			ImmutableList.<CMMicroInstruction>builder()
+				.addAll(instructions)
+				.add(CMMicroInstruction.particleGroup())
+				.build(),
+			hasher
+		);
+		this.storeAtom(new CommittedAtom(clientAtom, proof.getStateVersion(), proof));
+	}
+
+	private static ImmutableList<Particle> pushedUp(ClientAtom clientAtom) {
+		return clientAtom.getCMInstruction().getMicroInstructions().stream()
+			.filter(i -> i.isCheckSpin() && i.getCheckSpin() == Spin.NEUTRAL)
+			.map(CMMicroInstruction::getParticle)
+			.collect(ImmutableList.toImmutableList());
+	}
+
 	@Override
 	public VerifiedCommandsAndProof getNextCommittedCommands(DtoLedgerHeaderAndProof start, int batchSize) throws NextCommittedLimitReachedException {
 		// TODO: verify start
@@ -152,7 +152,7 @@ public final class StandardFilters {
 	private static boolean acceptableProtocol(Peer peer) {
 		if (peer.hasSystem()) {
 			RadixSystem system = peer.getSystem();
-			if (system.getProtocolVersion() != 0 && system.getProtocolVersion() < Radix.PROTOCOL_VERSION) {
+			if (system.getProtocolVersion() != 0 && system.getProtocolVersion() < Radix.MIN_PROTOCOL_VERSION) {
 				return false;
 			}
 
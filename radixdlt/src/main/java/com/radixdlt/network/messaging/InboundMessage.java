@@ -17,7 +17,7 @@
 
 package com.radixdlt.network.messaging;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 import com.radixdlt.network.transport.TransportInfo;
@@ -25,10 +25,18 @@ import com.radixdlt.utils.Bytes;
 
 /**
  * A raw message received by a transport, before decoding.
+ * <p>
+ * Transports may supply the message as a view over a buffer that they own,
+ * together with a callback to return the buffer once the message has been
+ * decoded.  Consumers must call {@link #release()} exactly once when they
+ * have finished with the message contents.
  */
 public final class InboundMessage {
+	private static final Runnable NO_RELEASE = () -> { };
+
 	private final TransportInfo source;
-	private final byte[] message;
+	private final ByteBuffer message;
+	private final Runnable releaser;
 
 	/**
 	 * Creates an inbound message with the specified source and message.
@@ -38,13 +46,29 @@ public final class InboundMessage {
 	 * @return a constructed {@code InboundMessage}
 	 */
 	public static InboundMessage of(TransportInfo source, byte[] message) {
-		return new InboundMessage(source, message);
+		return new InboundMessage(source, ByteBuffer.wrap(message), NO_RELEASE);
 	}
 
-	private InboundMessage(TransportInfo source, byte[] message) {
+	/**
+	 * Creates an inbound message with the specified source and message
+	 * buffer.  The message consists of the bytes between the buffer's
+	 * position and limit.  The buffer is not copied, and must remain valid
+	 * until {@code releaser} is called.
+	 *
+	 * @param source The source of the message.
+	 * @param message The buffer containing the message received.
+	 * @param releaser Called when the contents of {@code message} are no longer required.
+	 * @return a constructed {@code InboundMessage}
+	 */
+	public static InboundMessage of(TransportInfo source, ByteBuffer message, Runnable releaser) {
+		return new InboundMessage(source, message, releaser);
+	}
+
+	private InboundMessage(TransportInfo source, ByteBuffer message, Runnable releaser) {
 		// Null checking not performed for high-frequency interface
 		this.source = source;
 		this.message = message;
+		this.releaser = releaser;
 	}
 
 	/**
@@ -57,17 +81,47 @@ public final class InboundMessage {
 	}
 
 	/**
-	 * Returns the message.
+	 * Returns a copy of the message.
 	 *
 	 * @return the message.
+	 * @see #buffer()
 	 */
 	public byte[] message() {
-		return message;
+		byte[] bytes = new byte[message.remaining()];
+		message.duplicate().get(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Returns a view of the message buffer, without copying.  The position
+	 * and limit of the returned buffer are independent of this message.
+	 * The buffer contents are only valid until {@link #release()} is called.
+	 *
+	 * @return a view of the message buffer.
+	 */
+	public ByteBuffer buffer() {
+		return message.duplicate();
+	}
+
+	/**
+	 * Returns the length of the message in bytes.
+	 *
+	 * @return the length of the message in bytes.
+	 */
+	public int length() {
+		return message.remaining();
+	}
+
+	/**
+	 * Releases any resources held by the message.
+	 */
+	public void release() {
+		releaser.run();
 	}
 
 	@Override
 	public int hashCode() {
-		return Arrays.hashCode(message) * 31 + Objects.hashCode(source);
+		return Objects.hash(message, source);
 	}
 
 	@Override
@@ -77,13 +131,13 @@ public final class InboundMessage {
 		}
 		if (obj instanceof InboundMessage) {
 			InboundMessage other = (InboundMessage) obj;
-			return Objects.equals(this.source, other.source) && Arrays.equals(this.message, other.message);
+			return Objects.equals(this.source, other.source) && Objects.equals(this.message, other.message);
 		}
 		return false;
 	}
 
 	@Override
 	public String toString() {
-		return String.format("%s[%s:%s]", getClass().getSimpleName(), source, Bytes.toHexString(message));
+		return String.format("%s[%s:%s]", getClass().getSimpleName(), source, Bytes.toHexString(message()));
 	}
 }
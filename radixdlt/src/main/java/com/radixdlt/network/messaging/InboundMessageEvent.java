@@ -29,12 +29,18 @@ import com.google.common.collect.ImmutableMap;
 import com.radixdlt.network.transport.TransportInfo;
 
 /**
- * Inbound message wrapper with priority, time and destination.
+ * Inbound message wrapper with priority, lane, time and destination.
  * <p>
  * Note that priority is calculated from a fixed table of priorities for
  * specific message types, and cannot be specified by the user.
  * <p>
  * Time is number of nanoseconds since some arbitrary baseline.
+ * <p>
+ * Events for messages received from the network may be created with the
+ * raw, undecoded {@link InboundMessage}, so that decoding can be deferred to
+ * the thread that processes the event.  As the type of such messages is not
+ * yet known, they are prioritised by the {@link MessageLane} declared in their
+ * frame header, ahead of decoded messages with the default priority.
  */
 public final class InboundMessageEvent {
 
@@ -50,15 +56,36 @@ public final class InboundMessageEvent {
 	}
 
 	private final int priority;
+	private final MessageLane lane;
 	private final long nanoTimeDiff;
 	private final TransportInfo source;
 	private final Message message;
+	private final InboundMessage rawMessage;
+	private final boolean authenticated;
 
 	InboundMessageEvent(TransportInfo source, Message message, long nanoTimeDiff) {
+		this(source, message, nanoTimeDiff, false);
+	}
+
+	InboundMessageEvent(TransportInfo source, Message message, long nanoTimeDiff, boolean authenticated) {
 		this.priority = MESSAGE_PRIORITIES.getOrDefault(message.getClass(), DEFAULT_PRIORITY);
+		this.lane = MessageLane.forMessage(message);
 		this.nanoTimeDiff = nanoTimeDiff;
 		this.source = source;
 		this.message = message;
+		this.rawMessage = null;
+		this.authenticated = authenticated;
+	}
+
+	InboundMessageEvent(InboundMessage rawMessage, MessageLane lane, long nanoTimeDiff) {
+		// Lanes are ordered highest priority first
+		this.priority = Integer.MIN_VALUE + lane.outboundPriority();
+		this.lane = Objects.requireNonNull(lane);
+		this.nanoTimeDiff = nanoTimeDiff;
+		this.source = rawMessage.source();
+		this.message = null;
+		this.rawMessage = rawMessage;
+		this.authenticated = false;
 	}
 
 	/**
@@ -70,6 +97,16 @@ public final class InboundMessageEvent {
 		return priority;
 	}
 
+	/**
+	 * Returns the lane the message is to be processed in.  For messages not
+	 * yet decoded, this is the lane declared by the sender.
+	 *
+	 * @return the lane of the message
+	 */
+	public MessageLane lane() {
+		return lane;
+	}
+
 	/**
 	 * Returns the time this event was created as a number of nanoseconds
 	 * since some arbitrary baseline.
@@ -90,17 +127,39 @@ public final class InboundMessageEvent {
 	}
 
 	/**
-	 * Returns the message.
+	 * Returns the message, or {@code null} if the message has not yet
+	 * been decoded.
 	 *
 	 * @return the message.
+	 * @see #rawMessage()
 	 */
 	public Message message() {
 		return message;
 	}
 
+	/**
+	 * Returns the raw message, or {@code null} if this event was
+	 * created with a decoded message.
+	 *
+	 * @return the raw message.
+	 */
+	public InboundMessage rawMessage() {
+		return rawMessage;
+	}
+
+	/**
+	 * Returns {@code true} if the message was received with a session MAC
+	 * that has already been verified, and so needs no further authentication.
+	 *
+	 * @return {@code true} if the message has been authenticated
+	 */
+	public boolean authenticated() {
+		return authenticated;
+	}
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.priority, this.nanoTimeDiff, this.source, this.message);
+		return Objects.hash(this.priority, this.lane, this.nanoTimeDiff, this.source, this.message, this.rawMessage, this.authenticated);
 	}
 
 	@Override
@@ -111,16 +170,19 @@ public final class InboundMessageEvent {
 		if (obj instanceof InboundMessageEvent) {
 			InboundMessageEvent that = (InboundMessageEvent) obj;
 			return this.priority == that.priority
+				&& this.lane == that.lane
 				&& this.nanoTimeDiff == that.nanoTimeDiff
+				&& this.authenticated == that.authenticated
 				&& Objects.equals(this.source, that.source)
-				&& Objects.equals(this.message, that.message);
+				&& Objects.equals(this.message, that.message)
+				&& Objects.equals(this.rawMessage, that.rawMessage);
 		}
 		return false;
 	}
 
 	@Override
 	public String toString() {
-		return String.format("%s[priority=%s, nanoTime=%s, peer=%s, message=%s]",
-			getClass().getSimpleName(), priority, nanoTimeDiff, source, message);
+		return String.format("%s[priority=%s, lane=%s, nanoTime=%s, peer=%s, message=%s]",
+			getClass().getSimpleName(), priority, lane, nanoTimeDiff, source, message);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Queue of inbound messages for a single processing shard.
+ * <p>
+ * Messages are held in a separate bounded {@link MessageLaneQueue} for each
+ * {@link MessageLane}, selected when the message is offered.  Messages are
+ * taken from the highest priority non-empty lane first, so that a flood of
+ * messages in one lane cannot cause the loss of messages in another lane,
+ * and consensus messages are not delayed behind other traffic.  Within a
+ * lane, messages are taken in the order they were offered.
+ */
+final class InboundShardQueue implements SimpleBlockingQueue<InboundMessageEvent> {
+	private final Map<MessageLane, MessageLaneQueue> lanes = new EnumMap<>(MessageLane.class);
+	private final Lock lock = new ReentrantLock();
+	private final Condition notEmpty = this.lock.newCondition();
+
+	InboundShardQueue(Function<MessageLane, MessageLaneQueue> laneQueueFactory) {
+		for (MessageLane lane : MessageLane.values()) {
+			this.lanes.put(lane, Objects.requireNonNull(laneQueueFactory.apply(lane)));
+		}
+	}
+
+	@Override
+	public InboundMessageEvent take() throws InterruptedException {
+		this.lock.lockInterruptibly();
+		try {
+			while (true) {
+				// EnumMap iterates in lane declaration order, which is highest priority first
+				for (MessageLaneQueue laneQueue : this.lanes.values()) {
+					InboundMessageEvent event = laneQueue.poll();
+					if (event != null) {
+						return event;
+					}
+				}
+				this.notEmpty.await();
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Offers the specified message to the queue for its lane.
+	 *
+	 * @param item the message to add
+	 * @return {@code true} if {@code item} was queued, {@code false} if
+	 * 		the lane was full and {@code item} was discarded
+	 */
+	@Override
+	public boolean offer(InboundMessageEvent item) {
+		this.lock.lock();
+		try {
+			if (this.lanes.get(item.lane()).offer(item)) {
+				this.notEmpty.signal();
+				return true;
+			}
+			return false;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		return this.lanes.values().stream().mapToInt(MessageLaneQueue::size).sum();
+	}
+
+	@Override
+	public int drainTo(Collection<? super InboundMessageEvent> c) {
+		this.lock.lock();
+		try {
+			return this.lanes.values().stream().mapToInt(laneQueue -> laneQueue.drainTo(c)).sum();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s%s", getClass().getSimpleName(), this.lanes.values());
+	}
+}
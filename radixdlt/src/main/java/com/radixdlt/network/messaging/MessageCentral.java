@@ -18,6 +18,7 @@
 package com.radixdlt.network.messaging;
 
 import java.io.IOException;
+import java.util.Collection;
 
 import org.radix.network.messaging.Message;
 import org.radix.universe.system.SystemMessage;
@@ -41,6 +42,40 @@ public interface MessageCentral {
 	 */
 	void send(Peer peer, Message message) throws TransportException;
 
+	/**
+	 * Sends a single message to a peer, using bytes previously obtained from
+	 * {@link #serialize(Message)} for an equal message, rather than serializing
+	 * the message again.
+	 * <p>
+	 * Messages which are authenticated per peer are still serialized for the
+	 * specific peer.
+	 *
+	 * @param peer The peer to send the message to
+	 * @param message The message to send
+	 * @param serializedMessage The serialized message
+	 */
+	void send(Peer peer, Message message, byte[] serializedMessage);
+
+	/**
+	 * Signs, if required, and serializes a message ready to be sent any number
+	 * of times with {@link #send(Peer, Message, byte[])}.
+	 *
+	 * @param message The message to serialize
+	 * @return The serialized message
+	 */
+	byte[] serialize(Message message);
+
+	/**
+	 * Sends a single message to a number of peers.
+	 * <p>
+	 * The message is signed, if required, and serialized once only, and the
+	 * resulting bytes are sent to each of the peers.
+	 *
+	 * @param message The message to send
+	 * @param peers The peers to send the message to
+	 */
+	void broadcast(Message message, Collection<? extends Peer> peers);
+
 	/**
 	 * Sends a {@link SystemMessage} to a specific transport.
 	 * This method can be used to allow a node to introduce itself to another
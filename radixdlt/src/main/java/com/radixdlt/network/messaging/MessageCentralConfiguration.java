@@ -17,6 +17,9 @@
 
 package com.radixdlt.network.messaging;
 
+import java.util.Locale;
+
+import com.radixdlt.network.messaging.MessageLane.DropPolicy;
 import com.radixdlt.properties.RuntimeProperties;
 
 /**
@@ -25,13 +28,34 @@ import com.radixdlt.properties.RuntimeProperties;
 public interface MessageCentralConfiguration {
 
 	/**
-	 * Retrieves the maximum queue depth for inbound messages before
-	 * incoming messages will be dropped.
+	 * Retrieves the number of threads used to decode and process inbound
+	 * messages.  Messages from any one sender are always processed in order
+	 * by the same thread.
 	 *
 	 * @param defaultValue a default value if no special configuration value is set
-	 * @return The maximum queue depth
+	 * @return The number of inbound processing threads
+	 */
+	int messagingInboundThreads(int defaultValue);
+
+	/**
+	 * Retrieves the maximum number of messages that may be queued for
+	 * processing in the specified inbound lane, across all inbound threads.
+	 *
+	 * @param lane the lane to retrieve the capacity for
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return The maximum queue depth for the lane
 	 */
-	int messagingInboundQueueMax(int defaultValue);
+	int messagingInboundLaneCapacity(MessageLane lane, int defaultValue);
+
+	/**
+	 * Retrieves the policy for discarding messages when the specified
+	 * inbound lane is full.
+	 *
+	 * @param lane the lane to retrieve the drop policy for
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return The drop policy for the lane
+	 */
+	DropPolicy messagingInboundLaneDropPolicy(MessageLane lane, DropPolicy defaultValue);
 
 	/**
 	 * Retrieves the maximum queue depth for outbound messages before
@@ -52,6 +76,44 @@ public interface MessageCentralConfiguration {
 	 */
 	long messagingTimeToLive(long defaultValue);
 
+	/**
+	 * Retrieves whether signed messages to peers that have offered a session
+	 * should be authenticated with a MAC keyed by the session key, rather than
+	 * with an ECDSA signature.  Both forms are always accepted from peers.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return {@code true} if session MACs should be used for outbound messages
+	 */
+	boolean messagingSessionMac(boolean defaultValue);
+
+	/**
+	 * Retrieves the compression algorithm to use for outbound messages.
+	 * Inbound messages are decoded using the algorithm chosen by the sender.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return The compression algorithm for outbound messages
+	 */
+	MessageCompression messagingCompression(MessageCompression defaultValue);
+
+	/**
+	 * Retrieves the serialized size in bytes below which outbound messages
+	 * are not compressed.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return The minimum size of messages to compress
+	 */
+	int messagingCompressionMinSize(int defaultValue);
+
+	/**
+	 * Retrieves the minimum saving, as a percentage of the serialized size,
+	 * that compression must achieve for an outbound message to be sent
+	 * compressed.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return The minimum percentage saving for compressed messages
+	 */
+	int messagingCompressionMinSavingPercent(int defaultValue);
+
 	/**
 	 * Create a configuration from specified {@link RuntimeProperties}.
 	 *
@@ -61,8 +123,29 @@ public interface MessageCentralConfiguration {
 	static MessageCentralConfiguration fromRuntimeProperties(RuntimeProperties properties) {
 		return new MessageCentralConfiguration() {
 			@Override
-			public int messagingInboundQueueMax(int defaultValue) {
-				return properties.get("messaging.inbound.queue_max", defaultValue);
+			public int messagingInboundThreads(int defaultValue) {
+				return properties.get("messaging.inbound.threads", defaultValue);
+			}
+
+			@Override
+			public int messagingInboundLaneCapacity(MessageLane lane, int defaultValue) {
+				return properties.get("messaging.inbound.lane." + lane.configName() + ".capacity", defaultValue);
+			}
+
+			@Override
+			public DropPolicy messagingInboundLaneDropPolicy(MessageLane lane, DropPolicy defaultValue) {
+				String key = "messaging.inbound.lane." + lane.configName() + ".drop_policy";
+				String value = properties.get(key, "").trim().toLowerCase(Locale.ROOT);
+				switch (value) {
+					case "":
+						return defaultValue;
+					case "oldest":
+						return DropPolicy.DROP_OLDEST;
+					case "newest":
+						return DropPolicy.DROP_NEWEST;
+					default:
+						throw new IllegalArgumentException(String.format("Invalid value for %s: %s", key, value));
+				}
 			}
 
 			@Override
@@ -74,6 +157,27 @@ public interface MessageCentralConfiguration {
 			public long messagingTimeToLive(long defaultValue) {
 				return properties.get("messaging.time_to_live", defaultValue);
 			}
+
+			@Override
+			public boolean messagingSessionMac(boolean defaultValue) {
+				return properties.get("messaging.session_mac", defaultValue);
+			}
+
+			@Override
+			public MessageCompression messagingCompression(MessageCompression defaultValue) {
+				String value = properties.get("messaging.compression.algorithm", "");
+				return value.trim().isEmpty() ? defaultValue : MessageCompression.fromName(value);
+			}
+
+			@Override
+			public int messagingCompressionMinSize(int defaultValue) {
+				return properties.get("messaging.compression.min_size", defaultValue);
+			}
+
+			@Override
+			public int messagingCompressionMinSavingPercent(int defaultValue) {
+				return properties.get("messaging.compression.min_saving_percent", defaultValue);
+			}
 		};
 	}
 }
@@ -20,8 +20,13 @@ package com.radixdlt.network.messaging;
 import com.radixdlt.consensus.HashSigner;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.radixdlt.crypto.Hasher;
@@ -31,7 +36,6 @@ import org.radix.network.messaging.Message;
 import org.radix.universe.system.LocalSystem;
 import org.radix.universe.system.SystemMessage;
 import org.radix.utils.SimpleThreadPool;
-import org.xerial.snappy.Snappy;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
@@ -52,8 +56,13 @@ final class MessageCentralImpl implements MessageCentral {
 
 	private static final MessageListenerList EMPTY_MESSAGE_LISTENER_LIST = new MessageListenerList();
 
+	// Smallest capacity of each lane in each shard, unless the lane is configured smaller,
+	// so that lanes do not become too small to absorb a burst on hosts with many cores
+	private static final int MIN_SHARD_LANE_CAPACITY = 64;
+
 	// Dependencies
 	private final Serialization serialization;
+	private final MessageCodec codec;
 	private final TransportManager connectionManager;
 	private final AddressBook addressBook;
 	private final SystemCounters counters;
@@ -76,9 +85,10 @@ final class MessageCentralImpl implements MessageCentral {
 	private final RateLimiter inboundLogRateLimiter = RateLimiter.create(1.0);
 	private final RateLimiter outboundLogRateLimiter = RateLimiter.create(1.0);
 
-	// Inbound message handling
-	private final SimpleBlockingQueue<InboundMessageEvent> inboundQueue;
-	private final SimpleThreadPool<InboundMessageEvent> inboundThreadPool;
+	// Inbound message handling, sharded by message source to preserve per-sender ordering,
+	// and separated by traffic class within each shard
+	private final List<InboundShardQueue> inboundQueues;
+	private final List<SimpleThreadPool<InboundMessageEvent>> inboundThreadPools;
 
 	// Outbound message handling
 	private final SimpleBlockingQueue<OutboundMessageEvent> outboundQueue;
@@ -92,18 +102,32 @@ final class MessageCentralImpl implements MessageCentral {
 		TransportManager transportManager,
 		AddressBook addressBook,
 		TimeSupplier timeSource,
-		EventQueueFactory<InboundMessageEvent> inboundEventQueueFactory,
 		EventQueueFactory<OutboundMessageEvent> outboundEventQueueFactory,
 		LocalSystem localSystem,
 		SystemCounters counters,
 		Hasher hasher,
-		HashSigner hashSigner
+		HashSigner hashSigner,
+		NodeKeyAgreement keyAgreement
 	) {
 		this.counters = Objects.requireNonNull(counters);
-		this.inboundQueue = inboundEventQueueFactory.createEventQueue(config.messagingInboundQueueMax(8192), InboundMessageEvent.comparator());
+		final int inboundThreads = Math.max(1, config.messagingInboundThreads(Runtime.getRuntime().availableProcessors()));
+		// Lane capacities are for all shards together, but each shard gets enough to absorb a burst
+		final Map<MessageLane, Integer> laneCapacities = new EnumMap<>(MessageLane.class);
+		final Map<MessageLane, MessageLane.DropPolicy> laneDropPolicies = new EnumMap<>(MessageLane.class);
+		for (MessageLane lane : MessageLane.values()) {
+			laneCapacities.put(lane, shardLaneCapacity(config.messagingInboundLaneCapacity(lane, lane.defaultCapacity()), inboundThreads));
+			laneDropPolicies.put(lane, config.messagingInboundLaneDropPolicy(lane, lane.defaultDropPolicy()));
+		}
+		this.inboundQueues = Lists.newArrayListWithCapacity(inboundThreads);
+		for (int i = 0; i < inboundThreads; ++i) {
+			this.inboundQueues.add(new InboundShardQueue(lane ->
+				new MessageLaneQueue(lane, laneCapacities.get(lane), laneDropPolicies.get(lane), counters, this::releaseDiscarded)
+			));
+		}
 		this.outboundQueue = outboundEventQueueFactory.createEventQueue(config.messagingOutboundQueueMax(16384), OutboundMessageEvent.comparator());
 
 		this.serialization = Objects.requireNonNull(serialization);
+		this.codec = new MessageCodec(config, counters);
 		this.connectionManager = Objects.requireNonNull(transportManager);
 		this.addressBook = Objects.requireNonNull(addressBook);
 
@@ -112,24 +136,31 @@ final class MessageCentralImpl implements MessageCentral {
 			counters,
 			config,
 			serialization,
+			this.codec,
 			timeSource,
 			localSystem,
 			this.addressBook,
 			hasher,
-			hashSigner
+			hashSigner,
+			keyAgreement,
+			this::send
 		);
 
 		this.transports = Lists.newArrayList(transportManager.transports());
 
-		// Start inbound processing thread
-		this.inboundThreadPool = new SimpleThreadPool<>(
-			"Inbound message processing",
-			1, // Ensure messages processed in-order
-			inboundQueue::take,
-			this::inboundMessageProcessor,
-			log
-		);
-		this.inboundThreadPool.start();
+		// Start inbound processing threads, one per shard
+		this.inboundThreadPools = Lists.newArrayListWithCapacity(inboundThreads);
+		for (int i = 0; i < inboundThreads; ++i) {
+			SimpleThreadPool<InboundMessageEvent> inboundThreadPool = new SimpleThreadPool<>(
+				"Inbound message processing " + i,
+				1, // Ensure messages from each sender processed in-order within a lane
+				this.inboundQueues.get(i)::take,
+				this::inboundMessageProcessor,
+				log
+			);
+			inboundThreadPool.start();
+			this.inboundThreadPools.add(inboundThreadPool);
+		}
 
 		// Start outbound processing thread
 		this.outboundThreadPool = new SimpleThreadPool<>(
@@ -145,13 +176,24 @@ final class MessageCentralImpl implements MessageCentral {
 		this.transports.forEach(tl -> tl.start(this::inboundMessage));
 	}
 
+	@VisibleForTesting
+	static int shardLaneCapacity(int laneCapacity, int shards) {
+		int capacity = Math.max(1, laneCapacity);
+		return Math.min(capacity, Math.max(capacity / shards, MIN_SHARD_LANE_CAPACITY));
+	}
+
 	@Override
 	public void close() {
 		this.transports.forEach(this::closeWithLog);
 		this.transports.clear();
 
-		inboundThreadPool.stop();
+		inboundThreadPools.forEach(SimpleThreadPool::stop);
 		outboundThreadPool.stop();
+
+		// Return any transport buffers still held by undecoded messages
+		List<InboundMessageEvent> discarded = Lists.newArrayList();
+		this.inboundQueues.forEach(queue -> queue.drainTo(discarded));
+		discarded.forEach(this::releaseDiscarded);
 	}
 
 	@Override
@@ -171,10 +213,41 @@ final class MessageCentralImpl implements MessageCentral {
 		}
 	}
 
+	@Override
+	public void send(Peer peer, Message message, byte[] serializedMessage) {
+		OutboundMessageEvent event = new OutboundMessageEvent(
+			peer,
+			message,
+			System.nanoTime() - timeBase,
+			this.messageDispatcher.prepare(message, serializedMessage)
+		);
+		if (!outboundQueue.offer(event) && outboundLogRateLimiter.tryAcquire()) {
+			log.error("Outbound message to {} dropped", peer);
+		}
+	}
+
+	@Override
+	public byte[] serialize(Message message) {
+		return this.messageDispatcher.prepare(message).framed();
+	}
+
+	@Override
+	public void broadcast(Message message, Collection<? extends Peer> peers) {
+		final long nanoTimeDiff = System.nanoTime() - timeBase;
+		// Shared between all recipients, so message is only signed and serialized once in each form
+		final PreparedMessage prepared = this.messageDispatcher.prepare(message);
+		for (Peer peer : peers) {
+			OutboundMessageEvent event = new OutboundMessageEvent(peer, message, nanoTimeDiff, prepared);
+			if (!outboundQueue.offer(event) && outboundLogRateLimiter.tryAcquire()) {
+				log.error("Outbound message to {} dropped", peer);
+			}
+		}
+	}
+
 	@Override
 	public void inject(TransportInfo source, Message message) {
 		InboundMessageEvent event = new InboundMessageEvent(source, message, System.nanoTime() - timeBase);
-		if (!inboundQueue.offer(event) && inboundLogRateLimiter.tryAcquire()) {
+		if (!inboundQueue(source).offer(event) && inboundLogRateLimiter.tryAcquire()) {
 			log.error("Injected message from {} dropped", source);
 		}
 	}
@@ -201,29 +274,85 @@ final class MessageCentralImpl implements MessageCentral {
 		return listeners.values().stream().mapToInt(MessageListenerList::size).sum();
 	}
 
+	private InboundShardQueue inboundQueue(TransportInfo source) {
+		return this.inboundQueues.get(Math.floorMod(Objects.hashCode(source), this.inboundQueues.size()));
+	}
+
+	// Called on transport threads, so defer decoding to the inbound processing threads.
+	// Messages are classified using the lane from the frame header, which is cheap to read,
+	// so that they are queued in their own lane without being decoded.
 	private void inboundMessage(InboundMessage inboundMessage) {
-		byte[] messageBytes = inboundMessage.message();
-		this.counters.add(CounterType.NETWORKING_RECEIVED_BYTES, messageBytes.length);
-		Message message = deserialize(messageBytes);
-		inject(inboundMessage.source(), message);
+		TransportInfo source = inboundMessage.source();
+		this.counters.add(CounterType.NETWORKING_RECEIVED_BYTES, inboundMessage.length());
+		MessageLane lane = MessageCodec.lane(inboundMessage.buffer());
+		InboundMessageEvent event = new InboundMessageEvent(inboundMessage, lane, System.nanoTime() - timeBase);
+		if (!inboundQueue(source).offer(event)) {
+			inboundMessage.release();
+			if (inboundLogRateLimiter.tryAcquire()) {
+				log.error("Inbound {} message from {} dropped", lane.configName(), source);
+			}
+		}
 	}
 
-	private void inboundMessageProcessor(InboundMessageEvent inbound) {
-		this.counters.set(CounterType.MESSAGES_INBOUND_PENDING, inboundQueue.size());
+	private void inboundMessageProcessor(InboundMessageEvent event) {
+		final InboundMessageEvent inbound;
+		if (event.message() == null) {
+			InboundMessage rawMessage = event.rawMessage();
+			final InboundMessageEvent decoded;
+			try {
+				Message message = deserialize(rawMessage.buffer());
+				decoded = new InboundMessageEvent(event.source(), message, event.nanoTimeDiff());
+			} catch (UncheckedIOException e) {
+				this.counters.increment(CounterType.MESSAGES_INBOUND_DISCARDED);
+				if (inboundLogRateLimiter.tryAcquire()) {
+					log.error(String.format("Unable to decode message from %s", event.source()), e);
+				}
+				return;
+			} finally {
+				rawMessage.release();
+			}
+			// Messages authenticated with a session MAC carry the message that determines the lane
+			Optional<InboundMessageEvent> opened = this.messageDispatcher.open(decoded);
+			if (!opened.isPresent()) {
+				return;
+			}
+			inbound = opened.get();
+			// Senders that do not declare lanes have all messages in the "other" lane.
+			// Messages declared in any other lane must actually belong there, and senders
+			// that misdeclare lanes, possibly to crowd out other traffic, are banned.
+			if (event.lane() != MessageLane.OTHER && event.lane() != inbound.lane()) {
+				this.counters.increment(CounterType.MESSAGES_INBOUND_DISCARDED);
+				String reason = String.format("%s message declared in %s lane", inbound.lane().configName(), event.lane().configName());
+				this.addressBook.peer(event.source()).ifPresent(peer -> peer.ban(reason));
+				if (inboundLogRateLimiter.tryAcquire()) {
+					log.error("Discarding {} from {}", reason, event.source());
+				}
+				return;
+			}
+		} else {
+			inbound = event;
+		}
 		MessageListenerList ls = this.listeners.getOrDefault(inbound.message().getClass(), EMPTY_MESSAGE_LISTENER_LIST);
 		messageDispatcher.receive(ls, inbound);
 	}
 
+	// Messages discarded from queues without processing may hold transport buffers
+	private void releaseDiscarded(InboundMessageEvent event) {
+		if (event.rawMessage() != null) {
+			event.rawMessage().release();
+		}
+	}
+
 	private void outboundMessageProcessor(OutboundMessageEvent outbound) {
 		this.counters.set(CounterType.MESSAGES_OUTBOUND_PENDING, outboundQueue.size());
 		messageDispatcher.send(connectionManager, outbound);
 	}
 
-	private Message deserialize(byte[] in) {
+	private Message deserialize(ByteBuffer in) {
 		try {
-			byte[] uncompressed = Snappy.uncompress(in);
+			byte[] serialized = codec.decode(in);
 
-			return serialization.fromDson(uncompressed, Message.class);
+			return serialization.fromDson(serialized, Message.class);
 
 		} catch (IOException e) {
 			throw new UncheckedIOException("While deserializing message", e);
@@ -0,0 +1,288 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.xerial.snappy.Snappy;
+
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+
+/**
+ * Frames serialized messages for the wire, compressing them when worthwhile.
+ * <p>
+ * Each frame starts with a zero marker byte followed by a header byte.  The
+ * low four bits of the header identify the {@link MessageCompression} used for
+ * the rest of the frame, so that receivers decode whichever compression the
+ * sender chose, and nodes may be configured with different settings.  The high
+ * four bits identify the {@link MessageLane} of the message, so that receivers
+ * can classify and prioritise messages before decoding them.
+ * <p>
+ * Nodes using protocol versions before {@link #FRAMED_PROTOCOL_VERSION} send
+ * and expect unframed messages, which are serialized messages compressed with
+ * Snappy.  These start with the uncompressed length as a varint, and so never
+ * start with a zero byte, allowing receivers to accept both forms.  Messages
+ * are only sent framed to peers that have advertised a protocol version that
+ * supports frames.
+ * <p>
+ * Messages smaller than a configured threshold are sent uncompressed, as are
+ * messages where compression does not save at least a configured fraction of
+ * the uncompressed size.  Once a message of a given type compresses poorly,
+ * a number of further messages of that type are sent uncompressed before
+ * compression is tried again.
+ */
+final class MessageCodec {
+	// Number of messages of a poorly compressing type sent uncompressed before compression is retried
+	private static final int POOR_RATIO_SKIP_COUNT = 64;
+
+	/**
+	 * Earliest protocol version of peers that accept framed messages.
+	 */
+	static final int FRAMED_PROTOCOL_VERSION = 101;
+
+	private static final byte FRAME_MARKER = 0;
+	private static final int HEADER_LENGTH = 2;
+	private static final int COMPRESSION_MASK = 0x0F;
+	private static final int LANE_SHIFT = 4;
+
+	// Largest compression or decompression buffer retained by each thread
+	private static final int MAX_RETAINED_BUFFER = 1 << 20;
+
+	private final SystemCounters counters;
+	private final MessageCompression compression;
+	private final int minimumSize;
+	private final int minimumSavingPercent;
+
+	// Per message type count of messages to send before compression is retried
+	private final Map<Class<?>, AtomicInteger> skipCounts = new ConcurrentHashMap<>();
+
+	// Reusable direct buffer for decompressing messages received in direct buffers
+	private final ThreadLocal<ByteBuffer> uncompressedBuffers = new ThreadLocal<>();
+	// Reusable buffer for compressing outbound messages into, after the frame header, and for
+	// copying inbound compressed messages which cannot be decompressed in place
+	private final ThreadLocal<byte[]> compressedBuffers = new ThreadLocal<>();
+
+	MessageCodec(MessageCentralConfiguration config, SystemCounters counters) {
+		this.counters = counters;
+		this.compression = config.messagingCompression(MessageCompression.SNAPPY);
+		this.minimumSize = Math.max(0, config.messagingCompressionMinSize(256));
+		this.minimumSavingPercent = Math.max(0, Math.min(100, config.messagingCompressionMinSavingPercent(10)));
+	}
+
+	/**
+	 * Frames the specified serialized message for the wire.
+	 *
+	 * @param messageType the type of the message, used to track compression ratios
+	 * @param serialized the serialized message
+	 * @return the framed message
+	 * @throws IOException if compression fails
+	 */
+	byte[] encode(Class<?> messageType, byte[] serialized) throws IOException {
+		final MessageLane lane = MessageLane.forMessageType(messageType);
+		if (this.compression == MessageCompression.NONE || serialized.length < this.minimumSize || skipCompression(messageType)) {
+			this.counters.increment(CounterType.MESSAGES_OUTBOUND_COMPRESSION_SKIPPED);
+			return frame(MessageCompression.NONE, lane, serialized, serialized.length);
+		}
+
+		final long start = System.nanoTime();
+		// Compressed in place after the header, so that the frame is complete once trimmed to size
+		final byte[] compressed = compressedBuffer(HEADER_LENGTH + Snappy.maxCompressedLength(serialized.length));
+		final int compressedLength = Snappy.compress(serialized, 0, serialized.length, compressed, HEADER_LENGTH);
+		this.counters.add(CounterType.MESSAGES_OUTBOUND_COMPRESSION_TIME_NS, System.nanoTime() - start);
+
+		final long saving = (long) serialized.length - compressedLength;
+		if (saving * 100L < (long) serialized.length * this.minimumSavingPercent) {
+			this.skipCounts.computeIfAbsent(messageType, k -> new AtomicInteger()).set(POOR_RATIO_SKIP_COUNT);
+			return frame(MessageCompression.NONE, lane, serialized, serialized.length);
+		}
+		this.counters.add(CounterType.MESSAGES_OUTBOUND_COMPRESSION_SAVED_BYTES, saving);
+		writeHeader(compressed, MessageCompression.SNAPPY, lane);
+		return Arrays.copyOf(compressed, HEADER_LENGTH + compressedLength);
+	}
+
+	/**
+	 * Frames the specified serialized message for the wire without compressing it,
+	 * for messages that carry an already compressed payload.
+	 *
+	 * @param messageType the type of the message, used to choose its lane
+	 * @param serialized the serialized message
+	 * @return the framed message
+	 */
+	byte[] encodeUncompressed(Class<?> messageType, byte[] serialized) {
+		return frame(MessageCompression.NONE, MessageLane.forMessageType(messageType), serialized, serialized.length);
+	}
+
+	/**
+	 * Converts a framed message to the unframed form expected by peers using
+	 * protocol versions before {@link #FRAMED_PROTOCOL_VERSION}.
+	 *
+	 * @param framed the framed message
+	 * @return the serialized message, compressed with Snappy
+	 * @throws IOException if the frame is invalid or compression fails
+	 */
+	byte[] unframe(byte[] framed) throws IOException {
+		if (framed.length < HEADER_LENGTH || framed[0] != FRAME_MARKER) {
+			throw new IOException("Invalid message frame");
+		}
+		final int length = framed.length - HEADER_LENGTH;
+		if (MessageCompression.fromFlag((byte) (framed[1] & COMPRESSION_MASK)) == MessageCompression.SNAPPY) {
+			// Already in the unframed form once the header is removed
+			return Arrays.copyOfRange(framed, HEADER_LENGTH, framed.length);
+		}
+		final byte[] compressed = new byte[Snappy.maxCompressedLength(length)];
+		final int compressedLength = Snappy.compress(framed, HEADER_LENGTH, length, compressed, 0);
+		return Arrays.copyOf(compressed, compressedLength);
+	}
+
+	/**
+	 * Decodes a framed message received from the wire into its serialized form.
+	 * The position of the specified buffer is advanced past the frame.
+	 * <p>
+	 * The deserializer only accepts exactly sized arrays, so each message is
+	 * decoded into one newly allocated array of its serialized size.  No other
+	 * per message arrays are allocated: compressed frames are decompressed
+	 * from the transport's buffer, or from a reused copy of it.
+	 *
+	 * @param in the framed message
+	 * @return the serialized message
+	 * @throws IOException if the frame is invalid or cannot be decompressed
+	 */
+	byte[] decode(ByteBuffer in) throws IOException {
+		if (!in.hasRemaining()) {
+			throw new IOException("Empty message frame");
+		}
+		final MessageCompression frameCompression;
+		if (in.get(in.position()) == FRAME_MARKER) {
+			if (in.remaining() < HEADER_LENGTH) {
+				throw new IOException("Truncated message frame");
+			}
+			in.get();
+			frameCompression = MessageCompression.fromFlag((byte) (in.get() & COMPRESSION_MASK));
+		} else {
+			// Unframed message from a peer using an earlier protocol version
+			frameCompression = MessageCompression.SNAPPY;
+		}
+		if (frameCompression == MessageCompression.NONE) {
+			final byte[] serialized = new byte[in.remaining()];
+			in.get(serialized);
+			return serialized;
+		}
+
+		final long start = System.nanoTime();
+		try {
+			return uncompress(in);
+		} finally {
+			this.counters.add(CounterType.MESSAGES_INBOUND_DECOMPRESSION_TIME_NS, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Returns the lane of a framed message received from the wire, as declared
+	 * by the sender, without decoding it.  The position of the specified buffer
+	 * is not changed.
+	 *
+	 * @param in the framed message
+	 * @return the lane declared for the message, or {@link MessageLane#OTHER} if none
+	 */
+	static MessageLane lane(ByteBuffer in) {
+		if (in.remaining() < HEADER_LENGTH || in.get(in.position()) != FRAME_MARKER) {
+			return MessageLane.OTHER;
+		}
+		return MessageLane.fromWireId((in.get(in.position() + 1) & 0xFF) >>> LANE_SHIFT);
+	}
+
+	private boolean skipCompression(Class<?> messageType) {
+		final AtomicInteger skipCount = this.skipCounts.get(messageType);
+		return skipCount != null && skipCount.getAndUpdate(n -> Math.max(0, n - 1)) > 0;
+	}
+
+	private static byte[] frame(MessageCompression frameCompression, MessageLane lane, byte[] data, int length) {
+		final byte[] framed = new byte[HEADER_LENGTH + length];
+		writeHeader(framed, frameCompression, lane);
+		System.arraycopy(data, 0, framed, HEADER_LENGTH, length);
+		return framed;
+	}
+
+	private static void writeHeader(byte[] framed, MessageCompression frameCompression, MessageLane lane) {
+		framed[0] = FRAME_MARKER;
+		framed[1] = (byte) (frameCompression.flag() | (lane.wireId() << LANE_SHIFT));
+	}
+
+	private byte[] compressedBuffer(int minimumCapacity) {
+		byte[] buffer = this.compressedBuffers.get();
+		if (buffer == null || buffer.length < minimumCapacity) {
+			buffer = new byte[minimumCapacity];
+			// Unusually large messages are compressed into a buffer that is not retained
+			if (minimumCapacity <= MAX_RETAINED_BUFFER) {
+				this.compressedBuffers.set(buffer);
+			}
+		}
+		return buffer;
+	}
+
+	// Decompresses directly from the transport's buffer where possible, otherwise from a
+	// reused copy of it.  The only allocation is the array handed to the deserializer.
+	private byte[] uncompress(ByteBuffer in) throws IOException {
+		if (in.hasArray()) {
+			final byte[] compressed = in.array();
+			final int offset = in.arrayOffset() + in.position();
+			final int length = in.remaining();
+			final byte[] uncompressed = new byte[Snappy.uncompressedLength(compressed, offset, length)];
+			Snappy.uncompress(compressed, offset, length, uncompressed, 0);
+			in.position(in.limit());
+			return uncompressed;
+		}
+		if (in.isDirect()) {
+			final int uncompressedLength = Snappy.uncompressedLength(in);
+			if (uncompressedLength <= MAX_RETAINED_BUFFER) {
+				final ByteBuffer scratch = uncompressedBuffer(uncompressedLength);
+				Snappy.uncompress(in, scratch);
+				final byte[] uncompressed = new byte[scratch.remaining()];
+				scratch.get(uncompressed);
+				return uncompressed;
+			}
+		}
+		// Unusually large or read-only message, decompressed from a copy
+		final int length = in.remaining();
+		final byte[] compressed = compressedBuffer(length);
+		in.get(compressed, 0, length);
+		final byte[] uncompressed = new byte[Snappy.uncompressedLength(compressed, 0, length)];
+		Snappy.uncompress(compressed, 0, length, uncompressed, 0);
+		return uncompressed;
+	}
+
+	private ByteBuffer uncompressedBuffer(int minimumCapacity) {
+		ByteBuffer buffer = this.uncompressedBuffers.get();
+		if (buffer == null || buffer.capacity() < minimumCapacity) {
+			int capacity = buffer == null ? 4096 : buffer.capacity();
+			while (capacity < minimumCapacity) {
+				capacity <<= 1;
+			}
+			buffer = ByteBuffer.allocateDirect(Math.min(capacity, MAX_RETAINED_BUFFER));
+			this.uncompressedBuffers.set(buffer);
+		}
+		buffer.clear();
+		return buffer;
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Compression algorithms that can be used for messages on the wire.
+ * <p>
+ * Each framed message identifies the algorithm used with a flag in its header,
+ * so that any node can decode messages from any other node, regardless of
+ * the algorithm the sender is configured to use.
+ */
+public enum MessageCompression {
+	/**
+	 * Message is not compressed.
+	 */
+	NONE((byte) 0),
+	/**
+	 * Message is compressed using Snappy.
+	 */
+	SNAPPY((byte) 1);
+
+	private final byte flag;
+
+	MessageCompression(byte flag) {
+		this.flag = flag;
+	}
+
+	byte flag() {
+		return this.flag;
+	}
+
+	static MessageCompression fromFlag(byte flag) throws IOException {
+		for (MessageCompression compression : values()) {
+			if (compression.flag == flag) {
+				return compression;
+			}
+		}
+		throw new IOException(String.format("Unknown compression flag %s", flag));
+	}
+
+	static MessageCompression fromName(String name) {
+		try {
+			return valueOf(name.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(String.format("Unknown compression algorithm: %s", name), e);
+		}
+	}
+}
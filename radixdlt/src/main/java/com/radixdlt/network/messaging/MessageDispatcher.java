@@ -20,10 +20,13 @@ package com.radixdlt.network.messaging;
 import com.radixdlt.consensus.HashSigner;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 import com.google.common.hash.HashCode;
+import com.radixdlt.crypto.ECPublicKey;
 import com.radixdlt.crypto.Hasher;
 import org.radix.Radix;
 
@@ -38,18 +41,20 @@ import com.radixdlt.network.transport.SendResult;
 import com.radixdlt.network.transport.Transport;
 import com.radixdlt.network.transport.TransportInfo;
 import com.radixdlt.network.transport.TransportOutboundConnection;
+import com.radixdlt.serialization.DeserializeException;
 import com.radixdlt.serialization.Serialization;
 import com.radixdlt.serialization.DsonOutput.Output;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.radix.network.messages.AuthenticatedMessage;
+import org.radix.network.messages.SessionOfferMessage;
 import org.radix.network.messaging.Message;
 import org.radix.network.messaging.SignedMessage;
 import org.radix.time.Timestamps;
 import org.radix.universe.system.LocalSystem;
 import org.radix.universe.system.RadixSystem;
 import org.radix.universe.system.SystemMessage;
-import org.xerial.snappy.Snappy;
 
 /*
  * This could be moved into MessageCentralImpl at some stage, but has been
@@ -62,30 +67,41 @@ class MessageDispatcher {
 	private final long messageTtlMs;
 	private final SystemCounters counters;
 	private final Serialization serialization;
+	private final MessageCodec codec;
 	private final TimeSupplier timeSource;
 	private final LocalSystem localSystem;
 	private final AddressBook addressBook;
 	private final Hasher hasher;
 	private final HashSigner hashSigner;
+	private final SessionMacs sessionMacs;
+	private final boolean useSessionMacs;
+	private final BiConsumer<Peer, Message> sender;
 
 	MessageDispatcher(
 		SystemCounters counters,
 		MessageCentralConfiguration config,
 		Serialization serialization,
+		MessageCodec codec,
 		TimeSupplier timeSource,
 		LocalSystem localSystem,
 		AddressBook addressBook,
 		Hasher hasher,
-		HashSigner hashSigner
+		HashSigner hashSigner,
+		NodeKeyAgreement keyAgreement,
+		BiConsumer<Peer, Message> sender
 	) {
 		this.messageTtlMs = config.messagingTimeToLive(30_000L);
 		this.counters = counters;
 		this.serialization = serialization;
+		this.codec = codec;
 		this.timeSource = timeSource;
 		this.localSystem = localSystem;
 		this.addressBook = addressBook;
 		this.hasher = hasher;
 		this.hashSigner = hashSigner;
+		this.sessionMacs = new SessionMacs(localSystem.getKey(), keyAgreement);
+		this.useSessionMacs = config.messagingSessionMac(true);
+		this.sender = sender;
 	}
 
 	CompletableFuture<SendResult> send(TransportManager transportManager, final OutboundMessageEvent outboundMessage) {
@@ -99,6 +115,77 @@ class MessageDispatcher {
 			return CompletableFuture.completedFuture(SendResult.failure(new IOException(msg)));
 		}
 
+		final PreparedMessage prepared = outboundMessage.prepared() == null ? prepare(message) : outboundMessage.prepared();
+		final byte[] bytes = serialize(prepared, message, peer);
+		return findTransportAndOpenConnection(transportManager, peer, bytes)
+			.thenCompose(conn -> send(conn, message, bytes))
+			.thenApply(this::updateStatistics)
+			.exceptionally(t -> completionException(t, peer, message));
+	}
+
+	/**
+	 * Prepares the specified message for sending to one or more peers.  The
+	 * message is signed, if required, and serialized in each of the forms
+	 * recipients need the first time one of them needs it, and the same
+	 * serialized bytes are used for all subsequent recipients.
+	 *
+	 * @param message the message to prepare for sending
+	 * @return the prepared message
+	 */
+	PreparedMessage prepare(Message message) {
+		return new PreparedMessage(() -> signAndSerialize(message), this::unframe, () -> serialize(message));
+	}
+
+	/**
+	 * Prepares the specified message for sending, using the specified signed,
+	 * if required, and framed serialized form of it.
+	 *
+	 * @param message the message to prepare for sending
+	 * @param serializedMessage the message signed and framed
+	 * @return the prepared message
+	 */
+	PreparedMessage prepare(Message message, byte[] serializedMessage) {
+		return new PreparedMessage(() -> serializedMessage, this::unframe, () -> serializedMessage);
+	}
+
+	private byte[] serialize(PreparedMessage prepared, Message message, Peer peer) {
+		if (!framedProtocol(peer)) {
+			return prepared.unframed();
+		}
+		if (this.useSessionMacs && message instanceof SignedMessage) {
+			Optional<byte[]> authenticated = authenticate(prepared, message, peer.getSystem().getKey());
+			if (authenticated.isPresent()) {
+				return authenticated.get();
+			}
+		}
+		return prepared.framed();
+	}
+
+	// Peers using earlier protocol versions, or whose version is not yet known, accept neither frames nor sessions
+	private static boolean framedProtocol(Peer peer) {
+		return peer.hasSystem() && peer.getSystem().getProtocolVersion() >= MessageCodec.FRAMED_PROTOCOL_VERSION;
+	}
+
+	private Optional<byte[]> authenticate(PreparedMessage prepared, Message message, ECPublicKey peerKey) {
+		if (!this.sessionMacs.hasSession(peerKey)) {
+			return Optional.empty();
+		}
+		// MACs are specific to the receiving peer, so only the MAC and its envelope are produced
+		// per peer.  The payload is serialized and compressed once for all recipients, and the
+		// envelope is not compressed again.
+		return this.sessionMacs.seal(peerKey, MessageLane.forMessage(message), message.getMagic(), prepared.payload())
+			.map(authenticated -> this.codec.encodeUncompressed(message.getClass(), toDson(authenticated)));
+	}
+
+	private byte[] unframe(byte[] framed) {
+		try {
+			return this.codec.unframe(framed);
+		} catch (IOException e) {
+			throw new UncheckedIOException("While serializing message", e);
+		}
+	}
+
+	private byte[] signAndSerialize(Message message) {
 		if (message instanceof SignedMessage) {
 			SignedMessage signedMessage = (SignedMessage) message;
 			if (signedMessage.getSignature() == null) {
@@ -106,18 +193,13 @@ class MessageDispatcher {
 				signedMessage.setSignature(hashSigner.sign(hash));
 			}
 		}
-
-		byte[] bytes = serialize(message);
-		return findTransportAndOpenConnection(transportManager, peer, bytes)
-			.thenCompose(conn -> send(conn, message, bytes))
-			.thenApply(this::updateStatistics)
-			.exceptionally(t -> completionException(t, peer, message));
+		return serialize(message);
 	}
 
 	private CompletableFuture<SendResult> send(TransportOutboundConnection conn, Message message, byte[] bytes) {
 		log.trace("Sending to {}: {}", conn, message);
 		this.counters.add(CounterType.NETWORKING_SENT_BYTES, bytes.length);
-		return conn.send(bytes);
+		return conn.send(bytes, MessageLane.forMessage(message).outboundPriority());
 	}
 
 	private SendResult completionException(Throwable cause, Peer receiver, Message message) {
@@ -126,6 +208,56 @@ class MessageDispatcher {
 		return SendResult.failure(new IOException(msg, cause));
 	}
 
+	/**
+	 * Opens a message authenticated with a session MAC, returning an event for
+	 * the message it carries.  Other messages are returned unchanged.
+	 * <p>
+	 * Authenticated messages that do not verify in the current session with the
+	 * sending peer, or that have been seen before, are discarded, and the peer is
+	 * offered a new session.
+	 *
+	 * @param inboundMessage the received message
+	 * @return the message to process, or empty if the message is to be discarded
+	 */
+	Optional<InboundMessageEvent> open(final InboundMessageEvent inboundMessage) {
+		if (!(inboundMessage.message() instanceof AuthenticatedMessage)) {
+			return Optional.of(inboundMessage);
+		}
+		final AuthenticatedMessage message = (AuthenticatedMessage) inboundMessage.message();
+		final TransportInfo source = inboundMessage.source();
+		final Optional<PeerWithSystem> peer = this.addressBook.peer(source);
+		if (!peer.isPresent()) {
+			log.debug("Ignoring authenticated message from unknown peer {}", source);
+			this.counters.increment(CounterType.MESSAGES_INBOUND_DISCARDED);
+			return Optional.empty();
+		}
+		final ECPublicKey peerKey = peer.get().getSystem().getKey();
+		final Optional<byte[]> payload = this.sessionMacs.open(peerKey, message);
+		if (!payload.isPresent()) {
+			log.debug("Ignoring authenticated message from {} - not valid in current session", peer.get());
+			this.counters.increment(CounterType.MESSAGES_INBOUND_BADSIGNATURE);
+			this.sessionMacs.renew(peerKey, this.timeSource.currentTime())
+				.ifPresent(nonce -> sendSessionOffer(peer.get(), message.getMagic(), nonce));
+			return Optional.empty();
+		}
+		final Message authenticated;
+		try {
+			authenticated = this.serialization.fromDson(this.codec.decode(ByteBuffer.wrap(payload.get())), Message.class);
+		} catch (DeserializeException | IOException e) {
+			log.debug(String.format("Unable to decode authenticated message from %s", peer.get()), e);
+			this.counters.increment(CounterType.MESSAGES_INBOUND_DISCARDED);
+			return Optional.empty();
+		}
+		// System messages are self-signed, so must be for the key they were authenticated with
+		if (authenticated instanceof AuthenticatedMessage
+			|| (authenticated instanceof SystemMessage && !peerKey.equals(((SystemMessage) authenticated).getSystem().getKey()))) {
+			log.warn("Ignoring {} message from {} - not valid in session", authenticated.getClass().getSimpleName(), peer.get());
+			this.counters.increment(CounterType.MESSAGES_INBOUND_BADSIGNATURE);
+			return Optional.empty();
+		}
+		return Optional.of(new InboundMessageEvent(source, authenticated, inboundMessage.nanoTimeDiff(), true));
+	}
+
 	void receive(MessageListenerList listeners, final InboundMessageEvent inboundMessage) {
 		final TransportInfo source = inboundMessage.source();
 		final Message message = inboundMessage.message();
@@ -142,13 +274,17 @@ class MessageDispatcher {
 			return;
 		}
 
+		final boolean authenticated = inboundMessage.authenticated();
 		try {
 			if (message instanceof SystemMessage) {
-				peer = handleSystemMessage(peer, source, (SystemMessage) message);
+				peer = handleSystemMessage(peer, source, (SystemMessage) message, authenticated);
 				if (!peer.isPresent()) {
 					return;
 				}
-			} else if (message instanceof SignedMessage && !handleSignedMessage(peer, (SignedMessage) message)) {
+			} else if (message instanceof SignedMessage && !handleSignedMessage(peer, (SignedMessage) message, authenticated)) {
+				return;
+			}
+			if (message instanceof SignedMessage && peer.isPresent() && handleSession(peer.get(), (SignedMessage) message, authenticated)) {
 				return;
 			}
 		} catch (Exception ex) {
@@ -169,11 +305,12 @@ class MessageDispatcher {
 	private Optional<PeerWithSystem> handleSystemMessage(
 		Optional<PeerWithSystem> oldPeer,
 		TransportInfo source,
-		SystemMessage systemMessage
+		SystemMessage systemMessage,
+		boolean authenticated
 	) {
 		String messageType = systemMessage.getClass().getSimpleName();
 		RadixSystem system = systemMessage.getSystem();
-		if (checkSignature(systemMessage, system)) {
+		if (authenticated || checkSignature(systemMessage, system)) {
 			PeerWithSystem peer = this.addressBook.addOrUpdatePeer(oldPeer, system, source);
 			log.trace("Good signature on {} from {}", messageType, peer);
 			if (system.getNID() == null || EUID.ZERO.equals(system.getNID())) {
@@ -199,10 +336,10 @@ class MessageDispatcher {
 		return Optional.empty();
 	}
 
-	private boolean handleSignedMessage(Optional<PeerWithSystem> peer, SignedMessage signedMessage) {
+	private boolean handleSignedMessage(Optional<PeerWithSystem> peer, SignedMessage signedMessage, boolean authenticated) {
 		String messageType = signedMessage.getClass().getSimpleName();
 		return peer.map(p -> {
-			if (!checkSignature(signedMessage, p.getSystem())) {
+			if (!authenticated && !checkSignature(signedMessage, p.getSystem())) {
 				log.warn("Ignoring {} message from {} - bad signature", messageType, peer);
 				this.counters.increment(CounterType.MESSAGES_INBOUND_BADSIGNATURE);
 				return false;
@@ -212,6 +349,30 @@ class MessageDispatcher {
 		}).orElse(false);
 	}
 
+	/**
+	 * Handles session management for an authentic signed message from the
+	 * specified peer, returning {@code true} if the message was consumed.
+	 */
+	private boolean handleSession(PeerWithSystem peer, SignedMessage message, boolean authenticated) {
+		ECPublicKey peerKey = peer.getSystem().getKey();
+		if (message instanceof SessionOfferMessage) {
+			this.sessionMacs.accept(peerKey, ((SessionOfferMessage) message).getNonce());
+			log.trace("Accepted session offered by {}", peer);
+			return true;
+		}
+		if (!authenticated && framedProtocol(peer)) {
+			// Peer is signing messages, so may not have been offered a session yet
+			this.sessionMacs.offer(peerKey, this.timeSource.currentTime())
+				.ifPresent(nonce -> sendSessionOffer(peer, message.getMagic(), nonce));
+		}
+		return false;
+	}
+
+	private void sendSessionOffer(Peer peer, int magic, byte[] nonce) {
+		log.trace("Offering session to {}", peer);
+		this.sender.accept(peer, new SessionOfferMessage(magic, nonce));
+	}
+
 	private boolean checkSignature(SignedMessage message, RadixSystem system) {
 		HashCode hash = hasher.hash(message);
 		return system.getKey().verify(hash, message.getSignature());
@@ -238,13 +399,16 @@ class MessageDispatcher {
 
 	private byte[] serialize(Message out) {
 		try {
-			byte[] uncompressed = serialization.toDson(out, Output.WIRE);
-			return Snappy.compress(uncompressed);
+			return codec.encode(out.getClass(), toDson(out));
 		} catch (IOException e) {
 			throw new UncheckedIOException("While serializing message", e);
 		}
 	}
 
+	private byte[] toDson(Message out) {
+		return serialization.toDson(out, Output.WIRE);
+	}
+
 	private String hostId(Optional<PeerWithSystem> peer) {
 		return peer.map(this::hostId).orElse("Unknown");
 	}
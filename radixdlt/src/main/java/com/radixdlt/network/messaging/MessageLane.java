@@ -0,0 +1,224 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import java.util.Map;
+
+import org.radix.network.messages.GetPeersMessage;
+import org.radix.network.messages.PeerPingMessage;
+import org.radix.network.messages.PeerPongMessage;
+import org.radix.network.messages.PeersMessage;
+import org.radix.network.messages.SessionOfferMessage;
+import org.radix.network.messaging.Message;
+
+import com.google.common.collect.ImmutableMap;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.mempool.messages.MempoolAtomAddedMessage;
+import com.radixdlt.middleware2.network.ConsensusEventMessage;
+import com.radixdlt.middleware2.network.GetEpochRequestMessage;
+import com.radixdlt.middleware2.network.GetEpochResponseMessage;
+import com.radixdlt.middleware2.network.GetVerticesErrorResponseMessage;
+import com.radixdlt.middleware2.network.GetVerticesRequestMessage;
+import com.radixdlt.middleware2.network.GetVerticesResponseMessage;
+import com.radixdlt.middleware2.network.StateSnapshotChunkRequestMessage;
+import com.radixdlt.middleware2.network.StateSnapshotChunkResponseMessage;
+import com.radixdlt.middleware2.network.StateSnapshotManifestRequestMessage;
+import com.radixdlt.middleware2.network.StateSnapshotManifestResponseMessage;
+import com.radixdlt.middleware2.network.SyncRequestMessage;
+import com.radixdlt.middleware2.network.SyncResponseMessage;
+
+/**
+ * Traffic classes for messages.
+ * <p>
+ * Each inbound lane has its own bounded queue in each processing shard, and
+ * lanes are processed in declaration order, so that a flood of messages in
+ * one class, for example ledger sync responses or mempool gossip, cannot
+ * delay or cause the loss of messages in another class, such as consensus
+ * votes.
+ * <p>
+ * Outbound messages are prioritised by lane, in declaration order, by
+ * transports that queue messages for congested peers.
+ * <p>
+ * Note that lanes are selected using a fixed table of message types, and
+ * cannot be specified by the user.  Senders identify the lane of each message
+ * in its frame header, so that receivers can classify messages before they
+ * are decoded.  Messages from senders that do not do so are in {@link #OTHER}.
+ * Senders that declare a message in a lane other than its own are banned.
+ */
+public enum MessageLane {
+	CONSENSUS("consensus", 1, 4096, DropPolicy.DROP_NEWEST,
+		CounterType.MESSAGES_INBOUND_LANE_CONSENSUS_PENDING, CounterType.MESSAGES_INBOUND_LANE_CONSENSUS_DROPPED),
+	BFT_SYNC("bft_sync", 2, 1024, DropPolicy.DROP_NEWEST,
+		CounterType.MESSAGES_INBOUND_LANE_BFT_SYNC_PENDING, CounterType.MESSAGES_INBOUND_LANE_BFT_SYNC_DROPPED),
+	LEDGER_SYNC("ledger_sync", 3, 256, DropPolicy.DROP_NEWEST,
+		CounterType.MESSAGES_INBOUND_LANE_LEDGER_SYNC_PENDING, CounterType.MESSAGES_INBOUND_LANE_LEDGER_SYNC_DROPPED),
+	MEMPOOL("mempool", 4, 4096, DropPolicy.DROP_NEWEST,
+		CounterType.MESSAGES_INBOUND_LANE_MEMPOOL_PENDING, CounterType.MESSAGES_INBOUND_LANE_MEMPOOL_DROPPED),
+	DISCOVERY("discovery", 5, 1024, DropPolicy.DROP_OLDEST,
+		CounterType.MESSAGES_INBOUND_LANE_DISCOVERY_PENDING, CounterType.MESSAGES_INBOUND_LANE_DISCOVERY_DROPPED),
+	OTHER("other", 0, 1024, DropPolicy.DROP_NEWEST,
+		CounterType.MESSAGES_INBOUND_LANE_OTHER_PENDING, CounterType.MESSAGES_INBOUND_LANE_OTHER_DROPPED);
+
+	/**
+	 * Policy for handling a message offered to a full lane.
+	 */
+	public enum DropPolicy {
+		/**
+		 * Discard the oldest queued message from the sender of the new message
+		 * to make room for the new message, or the new message if the sender
+		 * has no queued messages.
+		 */
+		DROP_OLDEST,
+		/**
+		 * Discard the new message.
+		 */
+		DROP_NEWEST
+	}
+
+	private static final Map<Class<?>, MessageLane> MESSAGE_LANES = ImmutableMap.<Class<?>, MessageLane>builder()
+		.put(ConsensusEventMessage.class, CONSENSUS)
+		.put(GetVerticesRequestMessage.class, BFT_SYNC)
+		.put(GetVerticesResponseMessage.class, BFT_SYNC)
+		.put(GetVerticesErrorResponseMessage.class, BFT_SYNC)
+		.put(SyncRequestMessage.class, LEDGER_SYNC)
+		.put(SyncResponseMessage.class, LEDGER_SYNC)
+		.put(GetEpochRequestMessage.class, LEDGER_SYNC)
+		.put(GetEpochResponseMessage.class, LEDGER_SYNC)
+		.put(StateSnapshotManifestRequestMessage.class, LEDGER_SYNC)
+		.put(StateSnapshotManifestResponseMessage.class, LEDGER_SYNC)
+		.put(StateSnapshotChunkRequestMessage.class, LEDGER_SYNC)
+		.put(StateSnapshotChunkResponseMessage.class, LEDGER_SYNC)
+		.put(MempoolAtomAddedMessage.class, MEMPOOL)
+		.put(PeerPingMessage.class, DISCOVERY)
+		.put(PeerPongMessage.class, DISCOVERY)
+		.put(GetPeersMessage.class, DISCOVERY)
+		.put(PeersMessage.class, DISCOVERY)
+		.put(SessionOfferMessage.class, DISCOVERY)
+		.build();
+
+	private static final MessageLane[] BY_WIRE_ID = new MessageLane[16];
+	static {
+		for (MessageLane lane : values()) {
+			BY_WIRE_ID[lane.wireId] = lane;
+		}
+	}
+
+	private final String configName;
+	private final int wireId;
+	private final int defaultCapacity;
+	private final DropPolicy defaultDropPolicy;
+	private final CounterType pendingCounter;
+	private final CounterType droppedCounter;
+
+	MessageLane(
+		String configName,
+		int wireId,
+		int defaultCapacity,
+		DropPolicy defaultDropPolicy,
+		CounterType pendingCounter,
+		CounterType droppedCounter
+	) {
+		this.configName = configName;
+		this.wireId = wireId;
+		this.defaultCapacity = defaultCapacity;
+		this.defaultDropPolicy = defaultDropPolicy;
+		this.pendingCounter = pendingCounter;
+		this.droppedCounter = droppedCounter;
+	}
+
+	/**
+	 * Returns the lane that the specified message should be processed in.
+	 *
+	 * @param message the message to find the lane for
+	 * @return the lane for the message
+	 */
+	public static MessageLane forMessage(Message message) {
+		return forMessageType(message.getClass());
+	}
+
+	/**
+	 * Returns the lane that messages of the specified type should be processed in.
+	 *
+	 * @param messageType the type of message to find the lane for
+	 * @return the lane for the message type
+	 */
+	public static MessageLane forMessageType(Class<?> messageType) {
+		return MESSAGE_LANES.getOrDefault(messageType, OTHER);
+	}
+
+	/**
+	 * Returns the lane with the specified frame header identifier, or
+	 * {@link #OTHER} if there is no such lane.
+	 *
+	 * @param wireId the lane identifier from a frame header
+	 * @return the lane identified
+	 */
+	static MessageLane fromWireId(int wireId) {
+		MessageLane lane = wireId >= 0 && wireId < BY_WIRE_ID.length ? BY_WIRE_ID[wireId] : null;
+		return lane == null ? OTHER : lane;
+	}
+
+	/**
+	 * Returns the name of this lane as used in configuration keys.
+	 *
+	 * @return the configuration name of this lane
+	 */
+	public String configName() {
+		return configName;
+	}
+
+	/**
+	 * Returns the capacity of this lane if not otherwise configured.
+	 *
+	 * @return the default capacity of this lane
+	 */
+	public int defaultCapacity() {
+		return defaultCapacity;
+	}
+
+	/**
+	 * Returns the drop policy of this lane if not otherwise configured.
+	 *
+	 * @return the default drop policy of this lane
+	 */
+	public DropPolicy defaultDropPolicy() {
+		return defaultDropPolicy;
+	}
+
+	/**
+	 * Returns the priority of outbound messages in this lane, where zero is
+	 * the highest priority.
+	 *
+	 * @return the outbound priority of this lane
+	 */
+	public int outboundPriority() {
+		return ordinal();
+	}
+
+	int wireId() {
+		return wireId;
+	}
+
+	CounterType pendingCounter() {
+		return pendingCounter;
+	}
+
+	CounterType droppedCounter() {
+		return droppedCounter;
+	}
+}
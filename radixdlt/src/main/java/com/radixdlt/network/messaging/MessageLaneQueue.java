@@ -0,0 +1,160 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.network.messaging.MessageLane.DropPolicy;
+import com.radixdlt.network.transport.TransportInfo;
+
+/**
+ * Bounded FIFO queue for a single {@link MessageLane}.
+ * <p>
+ * When full, either the oldest queued message from the same sender or the
+ * offered message is discarded according to the lane's {@link DropPolicy}.
+ * A sender can therefore never displace another sender's messages, whatever
+ * lane it declares its messages to be in.  Discarded
+ * messages are counted against the lane's dropped counter, and the lane's
+ * pending counter and the total inbound pending counter are adjusted as
+ * messages are queued and taken, so that several queues may share the
+ * counters.  Queued messages
+ * that are discarded to make room are passed to a discard handler, so that
+ * any resources they hold can be released.
+ */
+final class MessageLaneQueue implements SimpleBlockingQueue<InboundMessageEvent> {
+	private final MessageLane lane;
+	private final DropPolicy dropPolicy;
+	private final SystemCounters counters;
+	private final Consumer<InboundMessageEvent> discarded;
+	private final BlockingQueue<InboundMessageEvent> queue;
+
+	MessageLaneQueue(MessageLane lane, int capacity, DropPolicy dropPolicy, SystemCounters counters) {
+		this(lane, capacity, dropPolicy, counters, event -> { });
+	}
+
+	MessageLaneQueue(
+		MessageLane lane,
+		int capacity,
+		DropPolicy dropPolicy,
+		SystemCounters counters,
+		Consumer<InboundMessageEvent> discarded
+	) {
+		this.lane = Objects.requireNonNull(lane);
+		this.dropPolicy = Objects.requireNonNull(dropPolicy);
+		this.counters = Objects.requireNonNull(counters);
+		this.discarded = Objects.requireNonNull(discarded);
+		this.queue = new ArrayBlockingQueue<>(capacity);
+	}
+
+	@Override
+	public InboundMessageEvent take() throws InterruptedException {
+		InboundMessageEvent event = this.queue.take();
+		pending(-1L);
+		return event;
+	}
+
+	/**
+	 * Retrieves and removes the oldest queued message, if any.
+	 *
+	 * @return the oldest queued message, or {@code null} if the lane is empty
+	 */
+	InboundMessageEvent poll() {
+		InboundMessageEvent event = this.queue.poll();
+		if (event != null) {
+			pending(-1L);
+		}
+		return event;
+	}
+
+	/**
+	 * Offers the specified message to the lane.
+	 *
+	 * @param item the message to add
+	 * @return {@code true} if {@code item} was queued, {@code false} if
+	 * 		the lane was full and {@code item} was discarded
+	 */
+	@Override
+	public boolean offer(InboundMessageEvent item) {
+		Objects.requireNonNull(item);
+		if (this.queue.offer(item)) {
+			pending(1L);
+			return true;
+		}
+		if (this.dropPolicy == DropPolicy.DROP_OLDEST) {
+			InboundMessageEvent oldest = removeOldestFrom(item.source());
+			if (oldest != null) {
+				pending(-1L);
+				this.counters.increment(this.lane.droppedCounter());
+				this.discarded.accept(oldest);
+				if (this.queue.offer(item)) {
+					pending(1L);
+					return true;
+				}
+			}
+		}
+		this.counters.increment(this.lane.droppedCounter());
+		return false;
+	}
+
+	// Only called when the lane is full, so the linear scan is not on the common path
+	private InboundMessageEvent removeOldestFrom(TransportInfo source) {
+		Iterator<InboundMessageEvent> i = this.queue.iterator();
+		while (i.hasNext()) {
+			InboundMessageEvent event = i.next();
+			if (Objects.equals(source, event.source())) {
+				i.remove();
+				return event;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public int size() {
+		return this.queue.size();
+	}
+
+	@Override
+	public int drainTo(Collection<? super InboundMessageEvent> c) {
+		int drained = this.queue.drainTo(c);
+		pending(-drained);
+		return drained;
+	}
+
+	// The total is adjusted here, rather than re-summed over all queues for each message
+	private void pending(long delta) {
+		this.counters.add(this.lane.pendingCounter(), delta);
+		this.counters.add(CounterType.MESSAGES_INBOUND_PENDING, delta);
+	}
+
+	MessageLane lane() {
+		return this.lane;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s:%s/%s]", getClass().getSimpleName(), this.lane, this.queue.size(), this.dropPolicy);
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import java.math.BigInteger;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECPoint;
+
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.crypto.ECPublicKey;
+
+/**
+ * Computes a secret shared between this node and a remote node, using
+ * elliptic curve Diffie-Hellman key agreement between the node keys.
+ */
+@FunctionalInterface
+public interface NodeKeyAgreement {
+	/**
+	 * Computes the secret shared between this node and the node with the
+	 * specified public key.  The remote node will compute the same secret
+	 * using this node's public key.
+	 *
+	 * @param remoteKey the public key of the remote node
+	 * @return the shared secret
+	 */
+	byte[] sharedSecret(ECPublicKey remoteKey);
+
+	/**
+	 * Computes the ECDH shared secret between a local key pair and a remote
+	 * public key, as the X coordinate of the product of the local private key
+	 * and the remote public key.
+	 *
+	 * @param localKey the local key pair
+	 * @param remoteKey the remote public key
+	 * @return the shared secret
+	 */
+	static byte[] sharedSecret(ECKeyPair localKey, ECPublicKey remoteKey) {
+		X9ECParameters curve = CustomNamedCurves.getByName("secp256k1");
+		ECPoint remotePoint = curve.getCurve().decodePoint(remoteKey.getBytes());
+		ECPoint sharedPoint = remotePoint.multiply(new BigInteger(1, localKey.getPrivateKey())).normalize();
+		return sharedPoint.getAffineXCoord().getEncoded();
+	}
+}
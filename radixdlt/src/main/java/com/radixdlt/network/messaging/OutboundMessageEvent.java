@@ -35,6 +35,11 @@ import com.radixdlt.network.addressbook.Peer;
  * specific message types, and cannot be specified by the user.
  * <p>
  * Time is number of nanoseconds since some arbitrary baseline.
+ * <p>
+ * An event may optionally carry the message prepared for sending, which may
+ * be shared between events for the same message sent to multiple peers.
+ * As the prepared message is derived from the message, it does not take part
+ * in equality.
  */
 public final class OutboundMessageEvent {
 
@@ -53,12 +58,18 @@ public final class OutboundMessageEvent {
 	private final long nanoTimeDiff;
 	private final Peer peer;
 	private final Message message;
+	private final PreparedMessage prepared;
 
 	OutboundMessageEvent(Peer peer, Message message, long nanoTimeDiff) {
+		this(peer, message, nanoTimeDiff, null);
+	}
+
+	OutboundMessageEvent(Peer peer, Message message, long nanoTimeDiff, PreparedMessage prepared) {
 		this.priority = MESSAGE_PRIORITIES.getOrDefault(message.getClass(), DEFAULT_PRIORITY);
 		this.nanoTimeDiff = nanoTimeDiff;
 		this.peer = peer;
 		this.message = message;
+		this.prepared = prepared;
 	}
 
 	/**
@@ -98,6 +109,16 @@ public final class OutboundMessageEvent {
 		return message;
 	}
 
+	/**
+	 * Returns the message prepared for sending, or {@code null} if the
+	 * message has not been prepared.
+	 *
+	 * @return the prepared message, or {@code null}
+	 */
+	PreparedMessage prepared() {
+		return prepared;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(this.priority, this.nanoTimeDiff, this.peer, this.message);
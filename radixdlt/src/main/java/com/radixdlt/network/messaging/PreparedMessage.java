@@ -0,0 +1,80 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import com.google.common.base.Suppliers;
+
+/**
+ * A message prepared for sending to one or more peers.
+ * <p>
+ * Each form of the serialized message is only produced the first time a
+ * recipient needs it, and is then shared by all other recipients of the
+ * message, so that a message broadcast to many peers is serialized and
+ * compressed at most once in each form.
+ */
+final class PreparedMessage {
+	private final Supplier<byte[]> framed;
+	private final Supplier<byte[]> unframed;
+	private final Supplier<byte[]> payload;
+
+	/**
+	 * Creates a prepared message from suppliers of each of its serialized forms.
+	 * The suppliers and the unframer are called at most once each.
+	 *
+	 * @param framed supplies the message signed, if required, and framed
+	 * @param unframer converts the framed message to the form expected by peers using earlier protocol versions
+	 * @param payload supplies the message framed without a signature, to be authenticated with a session MAC
+	 */
+	PreparedMessage(Supplier<byte[]> framed, UnaryOperator<byte[]> unframer, Supplier<byte[]> payload) {
+		this.framed = Suppliers.memoize(framed::get);
+		this.unframed = Suppliers.memoize(() -> unframer.apply(this.framed.get()));
+		this.payload = Suppliers.memoize(payload::get);
+	}
+
+	/**
+	 * Returns the message signed, if required, and framed.
+	 *
+	 * @return the framed message
+	 */
+	byte[] framed() {
+		return this.framed.get();
+	}
+
+	/**
+	 * Returns the message in the unframed form expected by peers using
+	 * protocol versions before {@link MessageCodec#FRAMED_PROTOCOL_VERSION}.
+	 *
+	 * @return the unframed message
+	 */
+	byte[] unframed() {
+		return this.unframed.get();
+	}
+
+	/**
+	 * Returns the framed message to be authenticated with a session MAC for
+	 * each recipient.  The message need not be signed.
+	 *
+	 * @return the framed payload
+	 */
+	byte[] payload() {
+		return this.payload.get();
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.radix.network.messages.AuthenticatedMessage;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.radixdlt.crypto.ECPublicKey;
+
+/**
+ * Message authentication codes for messages exchanged with authenticated
+ * peers.
+ * <p>
+ * Each node offers every peer it receives signed messages from a session,
+ * identified by a freshly generated nonce.  Once the offer has been received,
+ * the peer authenticates messages to the node with an HMAC-SHA256 over the
+ * serialized message, in place of an ECDSA signature.  The session key is
+ * derived from the ECDH shared secret of the two node keys, the direction of
+ * the messages and the nonce, so that messages from earlier sessions do not
+ * verify.  Within a session, messages carry a sequence number per lane, and
+ * the receiver rejects any sequence number it has already seen.
+ * <p>
+ * Sessions are held in memory only, and are replaced by a fresh offer if lost.
+ */
+final class SessionMacs {
+	// Bounds memory used for sessions, which are re-offered as required
+	private static final int MAX_SESSIONS = 4096;
+	private static final int NONCE_LENGTH = 32;
+	// Minimum time between offers to the same peer
+	private static final long OFFER_INTERVAL_MS = 10_000L;
+	// Number of sequence numbers behind the highest seen that may still be accepted, to allow for reordering
+	private static final int REPLAY_WINDOW = Long.SIZE;
+
+	private static final byte[] SESSION_KEY_LABEL = "radix.peer.session.v2".getBytes(StandardCharsets.UTF_8);
+
+	private final ECPublicKey localKey;
+	private final NodeKeyAgreement keyAgreement;
+	private final SecureRandom random;
+	// Sessions offered by this node, keyed by the peer authenticating messages to us
+	private final Cache<ECPublicKey, InboundSession> inbound;
+	// Sessions offered by peers, keyed by the peer we authenticate messages to
+	private final Cache<ECPublicKey, OutboundSession> outbound;
+
+	SessionMacs(ECPublicKey localKey, NodeKeyAgreement keyAgreement) {
+		this(localKey, keyAgreement, new SecureRandom());
+	}
+
+	SessionMacs(ECPublicKey localKey, NodeKeyAgreement keyAgreement, SecureRandom random) {
+		this.localKey = Objects.requireNonNull(localKey);
+		this.keyAgreement = Objects.requireNonNull(keyAgreement);
+		this.random = Objects.requireNonNull(random);
+		this.inbound = CacheBuilder.newBuilder().maximumSize(MAX_SESSIONS).build();
+		this.outbound = CacheBuilder.newBuilder().maximumSize(MAX_SESSIONS).build();
+	}
+
+	/**
+	 * Returns the nonce of the session to offer to the specified peer, creating
+	 * a new session if there is none.  Offers are rate limited per peer, so
+	 * nothing is returned if a session was offered to the peer too recently.
+	 *
+	 * @param peerKey the public key of the peer
+	 * @param now the current time in milliseconds
+	 * @return the nonce to offer to the peer, if an offer is due
+	 */
+	synchronized Optional<byte[]> offer(ECPublicKey peerKey, long now) {
+		InboundSession session = this.inbound.getIfPresent(peerKey);
+		if (session == null) {
+			session = newInboundSession(peerKey);
+			this.inbound.put(peerKey, session);
+		}
+		return session.offer(now);
+	}
+
+	/**
+	 * Replaces the session offered to the specified peer with a new session,
+	 * and returns the nonce of the new session to offer to the peer.  Used when
+	 * a peer authenticates messages in a session that is no longer current,
+	 * for example when the peer has restarted and its sequence numbers would
+	 * otherwise be rejected as replays.  Offers are rate limited as for
+	 * {@link #offer(ECPublicKey, long)}.
+	 *
+	 * @param peerKey the public key of the peer
+	 * @param now the current time in milliseconds
+	 * @return the nonce to offer to the peer, if an offer is due
+	 */
+	synchronized Optional<byte[]> renew(ECPublicKey peerKey, long now) {
+		InboundSession current = this.inbound.getIfPresent(peerKey);
+		if (current != null && !current.offerDue(now)) {
+			return Optional.empty();
+		}
+		InboundSession session = newInboundSession(peerKey);
+		this.inbound.put(peerKey, session);
+		return session.offer(now);
+	}
+
+	/**
+	 * Accepts a session offered by the specified peer, after which messages to
+	 * that peer can be authenticated with {@link #seal(ECPublicKey, MessageLane, int, byte[])}.
+	 * Accepting the current session again has no effect.
+	 *
+	 * @param peerKey the public key of the peer
+	 * @param nonce the nonce offered by the peer
+	 */
+	void accept(ECPublicKey peerKey, byte[] nonce) {
+		this.outbound.asMap().compute(peerKey, (k, current) ->
+			current != null && Arrays.equals(current.nonce, nonce)
+				? current
+				: new OutboundSession(nonce, sessionMac(this.localKey, peerKey, peerKey, nonce))
+		);
+	}
+
+	/**
+	 * Returns {@code true} if the specified peer has offered a session.
+	 *
+	 * @param peerKey the public key of the peer
+	 * @return {@code true} if messages to the peer can be authenticated with a MAC
+	 */
+	boolean hasSession(ECPublicKey peerKey) {
+		return this.outbound.getIfPresent(peerKey) != null;
+	}
+
+	/**
+	 * Authenticates a serialized message to be sent to the specified peer.
+	 *
+	 * @param peerKey the public key of the peer
+	 * @param lane the lane the message is sent in
+	 * @param magic the magic of the message
+	 * @param payload the serialized message
+	 * @return the authenticated message, or empty if the peer has not offered a session
+	 */
+	Optional<AuthenticatedMessage> seal(ECPublicKey peerKey, MessageLane lane, int magic, byte[] payload) {
+		OutboundSession session = this.outbound.getIfPresent(peerKey);
+		if (session == null) {
+			return Optional.empty();
+		}
+		long sequence = session.nextSequence(lane);
+		byte[] mac = mac(session.mac, lane.wireId(), sequence, payload);
+		return Optional.of(new AuthenticatedMessage(magic, session.nonce, lane.wireId(), sequence, payload, mac));
+	}
+
+	/**
+	 * Verifies a message received from the specified peer, returning the
+	 * serialized message if it was authenticated in the current session with
+	 * that peer and has not been seen before.
+	 *
+	 * @param peerKey the public key of the peer
+	 * @param message the authenticated message
+	 * @return the serialized message, or empty if the message was not authentic or is a replay
+	 */
+	Optional<byte[]> open(ECPublicKey peerKey, AuthenticatedMessage message) {
+		InboundSession session = this.inbound.getIfPresent(peerKey);
+		byte[] payload = message.getPayload();
+		if (session == null || !MessageDigest.isEqual(session.nonce, message.getSession())) {
+			return Optional.empty();
+		}
+		byte[] expectedMac = mac(session.mac, message.getLane(), message.getSequence(), payload);
+		if (!MessageDigest.isEqual(expectedMac, message.getMac())) {
+			return Optional.empty();
+		}
+		if (!session.checkSequence(MessageLane.fromWireId(message.getLane()), message.getSequence())) {
+			return Optional.empty();
+		}
+		return Optional.of(payload);
+	}
+
+	private InboundSession newInboundSession(ECPublicKey peerKey) {
+		byte[] nonce = new byte[NONCE_LENGTH];
+		this.random.nextBytes(nonce);
+		return new InboundSession(nonce, sessionMac(peerKey, this.localKey, peerKey, nonce));
+	}
+
+	private HashFunction sessionMac(ECPublicKey sender, ECPublicKey receiver, ECPublicKey peerKey, byte[] nonce) {
+		byte[] sessionKey = Hashing.hmacSha256(this.keyAgreement.sharedSecret(peerKey)).newHasher()
+			.putBytes(SESSION_KEY_LABEL)
+			.putBytes(sender.getBytes())
+			.putBytes(receiver.getBytes())
+			.putBytes(nonce)
+			.hash()
+			.asBytes();
+		return Hashing.hmacSha256(sessionKey);
+	}
+
+	private static byte[] mac(HashFunction sessionMac, int lane, long sequence, byte[] payload) {
+		Hasher hasher = sessionMac.newHasher();
+		hasher.putInt(lane);
+		hasher.putLong(sequence);
+		hasher.putBytes(payload);
+		return hasher.hash().asBytes();
+	}
+
+	private static final class OutboundSession {
+		private final byte[] nonce;
+		private final HashFunction mac;
+		private final long[] sequences = new long[MessageLane.values().length];
+
+		OutboundSession(byte[] nonce, HashFunction mac) {
+			this.nonce = nonce.clone();
+			this.mac = mac;
+		}
+
+		synchronized long nextSequence(MessageLane lane) {
+			return ++this.sequences[lane.ordinal()];
+		}
+	}
+
+	private static final class InboundSession {
+		private final byte[] nonce;
+		private final HashFunction mac;
+		// Per lane, the highest sequence number seen, and a bitmap of those seen within the replay window below it
+		private final long[] highest = new long[MessageLane.values().length];
+		private final long[] seen = new long[MessageLane.values().length];
+		private long lastOffered = Long.MIN_VALUE;
+
+		InboundSession(byte[] nonce, HashFunction mac) {
+			this.nonce = nonce;
+			this.mac = mac;
+		}
+
+		synchronized boolean offerDue(long now) {
+			return this.lastOffered == Long.MIN_VALUE || now - this.lastOffered >= OFFER_INTERVAL_MS;
+		}
+
+		synchronized Optional<byte[]> offer(long now) {
+			if (!offerDue(now)) {
+				return Optional.empty();
+			}
+			this.lastOffered = now;
+			return Optional.of(this.nonce.clone());
+		}
+
+		synchronized boolean checkSequence(MessageLane lane, long sequence) {
+			int index = lane.ordinal();
+			if (sequence <= 0) {
+				return false;
+			}
+			long top = this.highest[index];
+			if (sequence > top) {
+				long shift = sequence - top;
+				this.seen[index] = shift >= REPLAY_WINDOW ? 1L : (this.seen[index] << shift) | 1L;
+				this.highest[index] = sequence;
+				return true;
+			}
+			long offset = top - sequence;
+			if (offset >= REPLAY_WINDOW) {
+				return false;
+			}
+			long bit = 1L << offset;
+			if ((this.seen[index] & bit) != 0L) {
+				return false;
+			}
+			this.seen[index] |= bit;
+			return true;
+		}
+	}
+}
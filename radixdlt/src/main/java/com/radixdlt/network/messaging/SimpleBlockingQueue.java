@@ -17,6 +17,8 @@
 
 package com.radixdlt.network.messaging;
 
+import java.util.Collection;
+
 /**
  * A simple queue.
  *
@@ -55,4 +57,13 @@ interface SimpleBlockingQueue<T> {
      * @return the number of elements in this collection
      */
 	int size();
+
+    /**
+     * Removes all available elements from this queue and adds them to the
+     * given collection, in the order in which they would have been taken.
+     *
+     * @param c the collection to transfer elements into
+     * @return the number of elements transferred
+     */
+	int drainTo(Collection<? super T> c);
 }
@@ -17,7 +17,10 @@
 
 package com.radixdlt.network.messaging;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
@@ -80,6 +83,14 @@ class SimplePriorityBlockingQueue<T> implements SimpleBlockingQueue<T> {
 		return this.queue.size();
 	}
 
+	@Override
+	public int drainTo(Collection<? super T> c) {
+		List<SimpleEntry<T>> entries = new ArrayList<>();
+		this.queue.drainTo(entries);
+		entries.forEach(entry -> c.add(entry.getEntry()));
+		return entries.size();
+	}
+
 	// No straightforward way to implement equals, so not doing that here
 
 	@Override
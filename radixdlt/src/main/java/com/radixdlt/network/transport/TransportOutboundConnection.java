@@ -33,4 +33,19 @@ public interface TransportOutboundConnection extends Closeable {
 	 */
 	CompletableFuture<SendResult> send(byte[] data);
 
+	/**
+	 * Sends a message over the connection with the specified priority.
+	 * Transports that queue outbound messages may send messages with lower
+	 * priority values first, and may drop messages with higher priority values
+	 * first when congested.  Transports that do not support priorities send
+	 * the message as for {@link #send(byte[])}.
+	 *
+	 * @param data The data to send
+	 * @param priority The priority of the message, where zero is the highest priority
+	 * @return A {@link CompletableFuture} with the result
+	 */
+	default CompletableFuture<SendResult> send(byte[] data, int priority) {
+		return send(data);
+	}
+
 }
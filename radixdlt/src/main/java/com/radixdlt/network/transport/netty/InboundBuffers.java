@@ -0,0 +1,84 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.transport.netty;
+
+import com.radixdlt.network.messaging.InboundMessage;
+import com.radixdlt.network.transport.TransportInfo;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+/**
+ * Hands received Netty buffers on as {@link InboundMessage}s, which may be
+ * queued for some time before they are decoded.
+ * <p>
+ * Received messages are often small views of much larger receive buffers,
+ * for example TCP frames sliced out of a buffer sized for the largest
+ * possible frame.  Retaining such a view would keep the whole receive buffer
+ * alive for as long as the message is queued, so messages using only a small
+ * part of their buffer are copied into a buffer of their own size instead.
+ */
+public final class InboundBuffers {
+	/**
+	 * Messages are retained in place only if their buffer is at most this
+	 * many times their size, and are copied otherwise.
+	 */
+	static final int MAX_RETAINED_RATIO = 4;
+
+	private InboundBuffers() {
+		throw new IllegalStateException("Can't construct");
+	}
+
+	/**
+	 * Creates an inbound message for the readable bytes of the specified
+	 * buffer, which is either retained or copied.  The buffer itself is not
+	 * released, and remains owned by the caller.
+	 *
+	 * @param alloc The allocator to copy small messages with.
+	 * @param source The source of the message.
+	 * @param buf The buffer containing the message received.
+	 * @return an {@code InboundMessage} which must be released once decoded
+	 */
+	public static InboundMessage toInboundMessage(ByteBufAllocator alloc, TransportInfo source, ByteBuf buf) {
+		final ByteBuf owned = retainOrCopy(alloc, buf);
+		try {
+			return InboundMessage.of(source, owned.nioBuffer(), owned::release);
+		} catch (RuntimeException e) {
+			owned.release();
+			throw e;
+		}
+	}
+
+	private static ByteBuf retainOrCopy(ByteBufAllocator alloc, ByteBuf buf) {
+		final int length = buf.readableBytes();
+		if ((long) length * MAX_RETAINED_RATIO >= backingCapacity(buf)) {
+			return buf.retain();
+		}
+		final ByteBuf copy = alloc.directBuffer(length, length);
+		copy.writeBytes(buf, buf.readerIndex(), length);
+		return copy;
+	}
+
+	private static int backingCapacity(ByteBuf buf) {
+		ByteBuf backing = buf;
+		while (backing.unwrap() != null) {
+			backing = backing.unwrap();
+		}
+		return backing.capacity();
+	}
+}
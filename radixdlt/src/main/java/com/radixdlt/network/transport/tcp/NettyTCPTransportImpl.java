@@ -21,6 +21,8 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
@@ -29,6 +31,7 @@ import org.apache.logging.log4j.Logger;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
+import com.radixdlt.counters.SystemCounters;
 import com.radixdlt.network.messaging.InboundMessageConsumer;
 import com.radixdlt.network.transport.StaticTransportMetadata;
 import com.radixdlt.network.transport.TransportControl;
@@ -38,12 +41,20 @@ import com.radixdlt.network.transport.netty.LoggingHandler;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
@@ -57,6 +68,19 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 	// Set this to true to see a detailed hexdump of sent/received data at runtime
 	private final boolean debugData;
 
+	// Number of unflushed bytes that will cause a channel to be flushed
+	private final int flushThreshold;
+
+	// Per channel outbound queue budgets
+	private final int maxQueuedBytes;
+	private final int maxQueuedMessages;
+	private final SystemCounters counters;
+
+	// Event loop and buffer configuration
+	private final int workerThreads;
+	private final boolean useNativeTransport;
+	private final ByteBufAllocator allocator;
+
 	// Default values if none specified in either localMetadata or config
 	@VisibleForTesting
 	static final String DEFAULT_HOST = "0.0.0.0";
@@ -84,6 +108,8 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 
 	private Channel channel;
 	private Bootstrap outboundBootstrap;
+	private EventLoopGroup serverGroup;
+	private EventLoopGroup workerGroup;
 
 
 	@Inject
@@ -91,7 +117,8 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 		TCPConfiguration config,
 		@Named("local") TransportMetadata localMetadata,
 		TCPTransportOutboundConnectionFactory outboundFactory,
-		TCPTransportControlFactory controlFactory
+		TCPTransportControlFactory controlFactory,
+		SystemCounters counters
 	) {
 		String providedHost = localMetadata.get(TCPConstants.METADATA_HOST);
 		if (providedHost == null) {
@@ -110,6 +137,21 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 		);
 		this.priority = config.priority(0);
 		this.debugData = config.debugData(false);
+		this.flushThreshold = config.flushThreshold(TCPChannelWriteBatcher.DEFAULT_FLUSH_THRESHOLD);
+		this.maxQueuedBytes = positiveOrDefault(
+			config.outboundQueueMaxBytes(TCPChannelWriteBatcher.DEFAULT_MAX_QUEUED_BYTES),
+			TCPChannelWriteBatcher.DEFAULT_MAX_QUEUED_BYTES
+		);
+		this.maxQueuedMessages = positiveOrDefault(
+			config.outboundQueueMaxMessages(TCPChannelWriteBatcher.DEFAULT_MAX_QUEUED_MESSAGES),
+			TCPChannelWriteBatcher.DEFAULT_MAX_QUEUED_MESSAGES
+		);
+		this.counters = Objects.requireNonNull(counters);
+		final int defaultWorkerThreads = Runtime.getRuntime().availableProcessors();
+		final int configuredWorkerThreads = config.workerThreads(defaultWorkerThreads);
+		this.workerThreads = configuredWorkerThreads > 0 ? configuredWorkerThreads : defaultWorkerThreads;
+		this.useNativeTransport = config.useNativeTransport(true);
+		this.allocator = config.pooledBuffers(true) ? PooledByteBufAllocator.DEFAULT : UnpooledByteBufAllocator.DEFAULT;
 		this.control = controlFactory.create(config, outboundFactory, this);
 		this.bindAddress = new InetSocketAddress(providedHost, port);
 	}
@@ -145,12 +187,32 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 			log.info("TCP transport {}", localAddress());
 		}
 
-		EventLoopGroup serverGroup = new NioEventLoopGroup(1);
-		EventLoopGroup workerGroup = new NioEventLoopGroup(1, this::createThread);
+		final boolean useEpoll = this.useNativeTransport && Epoll.isAvailable();
+		if (this.useNativeTransport && !useEpoll) {
+			log.info("Native TCP transport unavailable, using NIO: {}", Epoll.unavailabilityCause().toString());
+		}
+		log.info("TCP transport using {} with {} worker threads", useEpoll ? "epoll" : "NIO", this.workerThreads);
+
+		final EventLoopGroup newServerGroup;
+		final EventLoopGroup newWorkerGroup;
+		final Class<? extends SocketChannel> channelClass;
+		final Class<? extends ServerChannel> serverChannelClass;
+		if (useEpoll) {
+			newServerGroup = new EpollEventLoopGroup(1);
+			newWorkerGroup = new EpollEventLoopGroup(this.workerThreads, this::createThread);
+			channelClass = EpollSocketChannel.class;
+			serverChannelClass = EpollServerSocketChannel.class;
+		} else {
+			newServerGroup = new NioEventLoopGroup(1);
+			newWorkerGroup = new NioEventLoopGroup(this.workerThreads, this::createThread);
+			channelClass = NioSocketChannel.class;
+			serverChannelClass = NioServerSocketChannel.class;
+		}
 
 		this.outboundBootstrap = new Bootstrap();
-		this.outboundBootstrap.group(workerGroup)
-			.channel(NioSocketChannel.class)
+		this.outboundBootstrap.group(newWorkerGroup)
+			.channel(channelClass)
+			.option(ChannelOption.ALLOCATOR, this.allocator)
 			.option(ChannelOption.TCP_NODELAY, true)
 			.option(ChannelOption.SO_KEEPALIVE, true)
 			.handler(new ChannelInitializer<SocketChannel>() {
@@ -161,9 +223,10 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 			});
 
 		ServerBootstrap b = new ServerBootstrap();
-		b.group(serverGroup, workerGroup)
-			.channel(NioServerSocketChannel.class)
+		b.group(newServerGroup, newWorkerGroup)
+			.channel(serverChannelClass)
 			.option(ChannelOption.SO_BACKLOG, BACKLOG_SIZE)
+			.childOption(ChannelOption.ALLOCATOR, this.allocator)
 			.childOption(ChannelOption.TCP_NODELAY, true)
 			.childOption(ChannelOption.SO_KEEPALIVE, true)
 			.childHandler(new ChannelInitializer<SocketChannel>() {
@@ -179,6 +242,8 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 		try {
 			synchronized (channelLock) {
 				close();
+				this.serverGroup = newServerGroup;
+				this.workerGroup = newWorkerGroup;
 				this.channel = b.bind(this.bindAddress).sync().channel();
 			}
 		} catch (InterruptedException e) {
@@ -196,6 +261,8 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 			.setReceiveBufferSize(rcvBufSize)
 			.setSendBufferSize(sndBufSize)
 			.setOption(ChannelOption.RCVBUF_ALLOCATOR, new FixedRecvByteBufAllocator(packetLength));
+		TCPChannelWriteBatcher.attach(ch, this.flushThreshold, this.maxQueuedBytes, this.maxQueuedMessages, this.counters);
+		ch.pipeline().addLast("writability", TCPChannelWriteBatcher.writabilityHandler());
 
 		if (log.isDebugEnabled()) {
 			ch.pipeline().addLast(new LoggingHandler(LogSink.using(log), debugData));
@@ -234,6 +301,10 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 				closeSafely(this.channel::close);
 			}
 			this.channel = null;
+			shutdownSafely(this.serverGroup);
+			shutdownSafely(this.workerGroup);
+			this.serverGroup = null;
+			this.workerGroup = null;
 		}
 	}
 
@@ -252,6 +323,12 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 		return new Thread(r, threadName);
 	}
 
+	private void shutdownSafely(EventLoopGroup group) {
+		if (group != null) {
+			group.shutdownGracefully(0L, 2L, TimeUnit.SECONDS);
+		}
+	}
+
 	private void closeSafely(Closeable c) {
 		if (c != null) {
 			try {
@@ -261,4 +338,8 @@ final class NettyTCPTransportImpl implements NettyTCPTransport {
 			}
 		}
 	}
+
+	private static int positiveOrDefault(int value, int defaultValue) {
+		return value > 0 ? value : defaultValue;
+	}
 }
@@ -0,0 +1,379 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.transport.tcp;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.network.transport.SendResult;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandler.Sharable;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.util.AttributeKey;
+
+/**
+ * Coalesces and shapes writes to a single TCP channel.
+ * <p>
+ * Messages may be sent from any thread.  Rather than each message being
+ * written and flushed separately, with a wakeup of the channel's event loop
+ * for each, messages are queued and then written from a single event loop
+ * task.  The channel is flushed at the end of the task, or earlier if the
+ * number of unflushed bytes reaches a threshold.  Each message completes with
+ * the outcome of its own write, so that a write that fails before the flush
+ * is reported to its sender.
+ * <p>
+ * Messages are only written while the channel is writable, so that data for a
+ * slow peer is held here, where it can be prioritised and bounded, rather
+ * than in the channel's outbound buffer.  Queued messages are written in
+ * priority order, and when the queue exceeds its byte or message budget, the
+ * most recently queued messages of the lowest priority are dropped.
+ */
+final class TCPChannelWriteBatcher {
+	private static final Logger log = LogManager.getLogger();
+
+	static final int DEFAULT_FLUSH_THRESHOLD = 64 * 1024;
+	static final int DEFAULT_MAX_QUEUED_BYTES = 8 * 1024 * 1024;
+	static final int DEFAULT_MAX_QUEUED_MESSAGES = 8192;
+
+	/**
+	 * Number of priority levels supported.  Priorities outside of the range
+	 * {@code [0, PRIORITY_LEVELS)} are clamped to that range.
+	 */
+	static final int PRIORITY_LEVELS = 8;
+
+	// Limit on writes per event loop task, so that reads are not starved
+	private static final int MAX_WRITES_PER_DRAIN = 1024;
+
+	private static final AttributeKey<TCPChannelWriteBatcher> BATCHER_KEY = AttributeKey.valueOf(TCPChannelWriteBatcher.class.getName());
+
+	private static final ChannelHandler WRITABILITY_HANDLER = new WritabilityHandler();
+
+	private static final class PendingWrite {
+		private final ByteBuf data;
+		private final int priority;
+		private final CompletableFuture<SendResult> result;
+
+		PendingWrite(ByteBuf data, int priority, CompletableFuture<SendResult> result) {
+			this.data = data;
+			this.priority = priority;
+			this.result = result;
+		}
+	}
+
+	/**
+	 * Resumes writing to a channel when it becomes writable, and fails any
+	 * queued writes when the channel is closed.
+	 */
+	@Sharable
+	private static final class WritabilityHandler extends ChannelInboundHandlerAdapter {
+		@Override
+		public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+			if (ctx.channel().isWritable()) {
+				forChannel(ctx.channel()).scheduleDrain();
+			}
+			super.channelWritabilityChanged(ctx);
+		}
+
+		@Override
+		public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+			forChannel(ctx.channel()).failPending(new ClosedChannelException());
+			super.channelInactive(ctx);
+		}
+	}
+
+	private final Channel channel;
+	private final int flushThreshold;
+	private final long maxQueuedBytes;
+	private final int maxQueuedMessages;
+	private final SystemCounters counters;
+
+	// Written from any thread
+	private final Queue<PendingWrite> incoming = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+	private final AtomicLong queuedBytes = new AtomicLong();
+	private final AtomicInteger queuedMessages = new AtomicInteger();
+	private final AtomicLong droppedMessages = new AtomicLong();
+	private final RateLimiter droppedLogRateLimiter = RateLimiter.create(1.0);
+
+	// Only accessed from the channel's event loop
+	private final ArrayDeque<PendingWrite>[] queues;
+
+	@SuppressWarnings("unchecked")
+	private TCPChannelWriteBatcher(Channel channel, int flushThreshold, long maxQueuedBytes, int maxQueuedMessages, SystemCounters counters) {
+		this.channel = channel;
+		this.flushThreshold = flushThreshold;
+		this.maxQueuedBytes = maxQueuedBytes;
+		this.maxQueuedMessages = maxQueuedMessages;
+		this.counters = counters;
+		this.queues = new ArrayDeque[PRIORITY_LEVELS];
+		for (int i = 0; i < PRIORITY_LEVELS; ++i) {
+			this.queues[i] = new ArrayDeque<>();
+		}
+	}
+
+	/**
+	 * Attaches a write batcher with the specified flush threshold and queue
+	 * budgets to a channel.
+	 *
+	 * @param channel the channel to attach the batcher to
+	 * @param flushThreshold the number of unflushed bytes that will trigger a flush
+	 * @param maxQueuedBytes the maximum number of bytes queued for the channel
+	 * @param maxQueuedMessages the maximum number of messages queued for the channel
+	 * @param counters counters for queued bytes and dropped messages
+	 */
+	static void attach(Channel channel, int flushThreshold, long maxQueuedBytes, int maxQueuedMessages, SystemCounters counters) {
+		channel.attr(BATCHER_KEY).set(new TCPChannelWriteBatcher(channel, flushThreshold, maxQueuedBytes, maxQueuedMessages, counters));
+	}
+
+	/**
+	 * Returns the write batcher for the specified channel.
+	 *
+	 * @param channel the channel to retrieve the batcher for
+	 * @return the write batcher for {@code channel}
+	 * @throws IllegalStateException if no batcher has been attached to {@code channel}
+	 * @see #attach(Channel, int, long, int, SystemCounters)
+	 */
+	static TCPChannelWriteBatcher forChannel(Channel channel) {
+		TCPChannelWriteBatcher batcher = channel.attr(BATCHER_KEY).get();
+		if (batcher == null) {
+			throw new IllegalStateException("No write batcher attached to channel " + channel);
+		}
+		return batcher;
+	}
+
+	/**
+	 * Returns the write batcher for the specified channel, if one has been attached.
+	 *
+	 * @param channel the channel to retrieve the batcher for
+	 * @return the write batcher for {@code channel}, if any
+	 */
+	static Optional<TCPChannelWriteBatcher> attached(Channel channel) {
+		return Optional.ofNullable(channel.attr(BATCHER_KEY).get());
+	}
+
+	/**
+	 * Returns a handler that must be added to the pipeline of channels using
+	 * write batchers, so that writing resumes when the channel becomes writable.
+	 *
+	 * @return a sharable handler for channel writability changes
+	 */
+	static ChannelHandler writabilityHandler() {
+		return WRITABILITY_HANDLER;
+	}
+
+	/**
+	 * Queues the specified data for writing to the channel.  Ownership of
+	 * {@code data} passes to this batcher.
+	 *
+	 * @param data the data to write
+	 * @param priority the priority of the data, with lower values being written first
+	 * @return a future that completes when the data has been flushed, or the write has failed
+	 */
+	CompletableFuture<SendResult> write(ByteBuf data, int priority) {
+		final CompletableFuture<SendResult> result = new CompletableFuture<>();
+		final int clampedPriority = Math.max(0, Math.min(PRIORITY_LEVELS - 1, priority));
+		queued(1, data.readableBytes());
+		this.incoming.add(new PendingWrite(data, clampedPriority, result));
+		scheduleDrain();
+		return result;
+	}
+
+	/**
+	 * Returns the number of bytes currently queued and not yet written to the channel.
+	 *
+	 * @return the number of queued bytes
+	 */
+	long queuedBytes() {
+		return this.queuedBytes.get();
+	}
+
+	/**
+	 * Returns the number of messages dropped because the queue budget was exceeded.
+	 *
+	 * @return the number of dropped messages
+	 */
+	long droppedMessages() {
+		return this.droppedMessages.get();
+	}
+
+	private void scheduleDrain() {
+		if (this.drainScheduled.compareAndSet(false, true)) {
+			try {
+				this.channel.eventLoop().execute(this::drain);
+			} catch (RejectedExecutionException e) {
+				// Event loop shutting down
+				this.drainScheduled.set(false);
+				failPending(e);
+			}
+		}
+	}
+
+	private void drain() {
+		this.drainScheduled.set(false);
+		if (!this.channel.isActive()) {
+			failPending(new ClosedChannelException());
+			return;
+		}
+		moveIncoming();
+		enforceBudget();
+
+		int unflushedBytes = 0;
+		int unflushedWrites = 0;
+		int writes = 0;
+		while (writes < MAX_WRITES_PER_DRAIN) {
+			// Only stop for writability between flushes, so that nothing is left unflushed
+			if (unflushedWrites == 0 && !this.channel.isWritable()) {
+				break;
+			}
+			PendingWrite current = pollHighestPriority();
+			if (current == null) {
+				break;
+			}
+			writes += 1;
+			int length = current.data.readableBytes();
+			queued(-1, -length);
+			unflushedBytes += length;
+			unflushedWrites += 1;
+			boolean flush = writes >= MAX_WRITES_PER_DRAIN
+				|| unflushedBytes >= this.flushThreshold
+				|| this.channel.bytesBeforeUnwritable() <= length
+				|| isEmpty();
+			// Write futures complete when the data is flushed, or when the write fails
+			if (flush) {
+				complete(this.channel.writeAndFlush(current.data), current.result);
+				unflushedBytes = 0;
+				unflushedWrites = 0;
+			} else {
+				complete(this.channel.write(current.data), current.result);
+			}
+		}
+		// If the channel is not writable, the writability handler will resume writing
+		if ((!isEmpty() || !this.incoming.isEmpty()) && this.channel.isWritable()) {
+			scheduleDrain();
+		}
+	}
+
+	private void moveIncoming() {
+		PendingWrite write;
+		while ((write = this.incoming.poll()) != null) {
+			this.queues[write.priority].addLast(write);
+		}
+	}
+
+	private void enforceBudget() {
+		while (this.queuedMessages.get() > this.maxQueuedMessages || this.queuedBytes.get() > this.maxQueuedBytes) {
+			PendingWrite dropped = pollLowestPriority();
+			if (dropped == null) {
+				break;
+			}
+			int length = dropped.data.readableBytes();
+			queued(-1, -length);
+			dropped.data.release();
+			this.droppedMessages.incrementAndGet();
+			this.counters.increment(CounterType.NETWORKING_TCP_OUTBOUND_DROPPED);
+			String msg = String.format("Outbound queue to %s full", this.channel.remoteAddress());
+			if (this.droppedLogRateLimiter.tryAcquire()) {
+				log.warn("{}, dropping priority {} message of {} bytes", msg, dropped.priority, length);
+			}
+			dropped.result.complete(SendResult.failure(new IOException(msg)));
+		}
+	}
+
+	private PendingWrite pollHighestPriority() {
+		for (ArrayDeque<PendingWrite> queue : this.queues) {
+			PendingWrite write = queue.pollFirst();
+			if (write != null) {
+				return write;
+			}
+		}
+		return null;
+	}
+
+	private PendingWrite pollLowestPriority() {
+		for (int i = this.queues.length - 1; i >= 0; --i) {
+			PendingWrite write = this.queues[i].pollLast();
+			if (write != null) {
+				return write;
+			}
+		}
+		return null;
+	}
+
+	private boolean isEmpty() {
+		for (ArrayDeque<PendingWrite> queue : this.queues) {
+			if (!queue.isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void queued(int messages, int bytes) {
+		this.queuedMessages.addAndGet(messages);
+		this.queuedBytes.addAndGet(bytes);
+		this.counters.add(CounterType.NETWORKING_TCP_OUTBOUND_QUEUED_BYTES, bytes);
+	}
+
+	private void failPending(Throwable cause) {
+		if (!this.channel.eventLoop().inEventLoop()) {
+			// Queues are confined to the event loop, so only incoming writes can be failed here
+			failAll(this.incoming, cause);
+			return;
+		}
+		moveIncoming();
+		for (ArrayDeque<PendingWrite> queue : this.queues) {
+			failAll(queue, cause);
+		}
+	}
+
+	private void failAll(Queue<PendingWrite> queue, Throwable cause) {
+		PendingWrite write;
+		while ((write = queue.poll()) != null) {
+			queued(-1, -write.data.readableBytes());
+			write.data.release();
+			write.result.complete(SendResult.failure(cause));
+		}
+	}
+
+	private static void complete(ChannelFuture written, CompletableFuture<SendResult> result) {
+		written.addListener(f -> {
+			Throwable cause = f.cause();
+			result.complete(cause == null ? SendResult.complete() : SendResult.failure(cause));
+		});
+	}
+}
@@ -70,6 +70,61 @@ public interface TCPConfiguration {
 	 */
 	boolean debugData(boolean defaultValue);
 
+	/**
+	 * Get the number of unflushed bytes written to a channel that will
+	 * cause the channel to be flushed.  Writes to a channel are otherwise
+	 * flushed together once all currently queued messages have been written.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return the number of unflushed bytes that will trigger a flush
+	 */
+	int flushThreshold(int defaultValue);
+
+	/**
+	 * Get the number of I/O threads used to service TCP channels.
+	 * Channels are distributed evenly between the threads.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return the number of TCP I/O threads
+	 */
+	int workerThreads(int defaultValue);
+
+	/**
+	 * Use the native epoll transport, if available.  If the native
+	 * transport is not available on the host, the NIO transport is used.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return {@code true} if the native transport should be used when available
+	 */
+	boolean useNativeTransport(boolean defaultValue);
+
+	/**
+	 * Use pooled rather than unpooled buffers for TCP channel data.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return {@code true} if pooled buffers should be used
+	 */
+	boolean pooledBuffers(boolean defaultValue);
+
+	/**
+	 * Get the maximum number of bytes queued for sending on a channel.
+	 * Messages are queued while the channel is not writable, and once this
+	 * limit is exceeded, the lowest priority messages are dropped.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return the maximum number of queued bytes per channel
+	 */
+	int outboundQueueMaxBytes(int defaultValue);
+
+	/**
+	 * Get the maximum number of messages queued for sending on a channel.
+	 * Once this limit is exceeded, the lowest priority messages are dropped.
+	 *
+	 * @param defaultValue a default value if no special configuration value is set
+	 * @return the maximum number of queued messages per channel
+	 */
+	int outboundQueueMaxMessages(int defaultValue);
+
 	/**
 	 * Create a configuration from specified {@link RuntimeProperties}.
 	 *
@@ -102,6 +157,36 @@ public interface TCPConfiguration {
 			public boolean debugData(boolean defaultValue) {
 				return properties.get("network.tcp.debug_data", defaultValue);
 			}
+
+			@Override
+			public int flushThreshold(int defaultValue) {
+				return properties.get("network.tcp.flush_threshold", defaultValue);
+			}
+
+			@Override
+			public int workerThreads(int defaultValue) {
+				return properties.get("network.tcp.worker_threads", defaultValue);
+			}
+
+			@Override
+			public boolean useNativeTransport(boolean defaultValue) {
+				return properties.get("network.tcp.use_native_transport", defaultValue);
+			}
+
+			@Override
+			public boolean pooledBuffers(boolean defaultValue) {
+				return properties.get("network.tcp.pooled_buffers", defaultValue);
+			}
+
+			@Override
+			public int outboundQueueMaxBytes(int defaultValue) {
+				return properties.get("network.tcp.outbound_queue.max_bytes", defaultValue);
+			}
+
+			@Override
+			public int outboundQueueMaxMessages(int defaultValue) {
+				return properties.get("network.tcp.outbound_queue.max_messages", defaultValue);
+			}
 		};
 	}
 
@@ -28,6 +28,7 @@ import com.google.common.util.concurrent.RateLimiter;
 import com.radixdlt.network.messaging.InboundMessage;
 import com.radixdlt.network.messaging.InboundMessageConsumer;
 import com.radixdlt.network.transport.StaticTransportMetadata;
+import com.radixdlt.network.transport.netty.InboundBuffers;
 import com.radixdlt.network.transport.TransportInfo;
 
 import io.netty.buffer.ByteBuf;
@@ -59,9 +60,6 @@ final class TCPNettyMessageHandler extends SimpleChannelInboundHandler<ByteBuf>
 		if (socketSender instanceof InetSocketAddress) {
 			InetSocketAddress sender = (InetSocketAddress) socketSender;
 
-			final int length = buf.readableBytes();
-			final byte[] data = new byte[length];
-			buf.readBytes(data);
 			TransportInfo source = TransportInfo.of(
 				TCPConstants.NAME,
 				StaticTransportMetadata.of(
@@ -69,7 +67,15 @@ final class TCPNettyMessageHandler extends SimpleChannelInboundHandler<ByteBuf>
 					TCPConstants.METADATA_PORT, String.valueOf(sender.getPort())
 				)
 			);
-			messageSink.accept(InboundMessage.of(source, data));
+			// Frame is released by the consumer once decoded, rather than on return from here.
+			// Small frames are copied, so that queued frames do not keep whole receive buffers alive.
+			InboundMessage message = InboundBuffers.toInboundMessage(ctx.alloc(), source, buf);
+			try {
+				messageSink.accept(message);
+			} catch (RuntimeException e) {
+				message.release();
+				throw e;
+			}
 		} else if (logRateLimiter.tryAcquire()) {
 			String type = socketSender == null ? null : socketSender.getClass().getName();
 			String from = socketSender == null ? null : socketSender.toString();
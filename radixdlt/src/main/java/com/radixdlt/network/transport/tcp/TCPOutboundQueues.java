@@ -0,0 +1,77 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.transport.tcp;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.radixdlt.network.transport.tcp.TCPTransportControlImpl.TCPConnectionHandlerChannelInbound;
+
+/**
+ * Outbound queue statistics for each remote host connected by TCP.
+ * <p>
+ * Hosts are identified by address, as for channel lookup in
+ * {@link TCPTransportControlImpl}, and the statistics for a host are totals
+ * over its open channels.
+ */
+@Singleton
+public final class TCPOutboundQueues {
+	private final List<TCPConnectionHandlerChannelInbound> handlers = new CopyOnWriteArrayList<>();
+
+	@Inject
+	public TCPOutboundQueues() {
+		// Nothing to do here
+	}
+
+	void register(TCPConnectionHandlerChannelInbound handler) {
+		this.handlers.add(handler);
+	}
+
+	void unregister(TCPConnectionHandlerChannelInbound handler) {
+		this.handlers.remove(handler);
+	}
+
+	/**
+	 * Returns the number of bytes queued for, and the number of messages
+	 * dropped from the outbound queues of, each remote host.
+	 *
+	 * @return a map of statistics keyed by remote host address, in address order
+	 */
+	public Map<String, Object> toMap() {
+		// Queued bytes and dropped messages for each host
+		final Map<String, long[]> totals = new TreeMap<>();
+		for (TCPConnectionHandlerChannelInbound handler : this.handlers) {
+			handler.forEachWriteBatcher((host, batcher) -> {
+				long[] hostTotals = totals.computeIfAbsent(host, h -> new long[2]);
+				hostTotals[0] += batcher.queuedBytes();
+				hostTotals[1] += batcher.droppedMessages();
+			});
+		}
+		final ImmutableMap.Builder<String, Object> output = ImmutableMap.builder();
+		totals.forEach((host, hostTotals) -> output.put(host, ImmutableMap.of(
+			"queued_bytes", hostTotals[0],
+			"dropped_messages", hostTotals[1]
+		)));
+		return output.build();
+	}
+}
@@ -19,21 +19,22 @@ package com.radixdlt.network.transport.tcp;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.RateLimiter;
 import com.radixdlt.counters.SystemCounters;
 import com.radixdlt.counters.SystemCounters.CounterType;
@@ -53,9 +54,16 @@ import io.netty.channel.ChannelHandler.Sharable;
  * <p>
  * Note that this interface only supports one "application" per IP address.
  * The reasoning behind this is that it is not possible to determine whether
- * an inbound connection (ie those in {@code channelMap}) are for the right
+ * an inbound connection (ie those in {@code channelHosts}) are for the right
  * "application" on the remote host, so we would therefore need to open an
  * outbound connection regardless.
+ * <p>
+ * The channel used for each remote host is cached in a concurrent map, so
+ * that finding the channel for an outbound message does not take a lock or
+ * scan other channels.  The cache is updated as channels become active and
+ * inactive.  Channels are also indexed by remote host, so that when the cached
+ * channel for a host closes, another channel to the same host can be found
+ * without scanning the channels to other hosts.
  */
 final class TCPTransportControlImpl implements TCPTransportControl {
 	private static final Logger log = LogManager.getLogger();
@@ -65,10 +73,14 @@ final class TCPTransportControlImpl implements TCPTransportControl {
 		private final RateLimiter droppedChannelRateLimiter = RateLimiter.create(1.0);
 		private final AtomicLong droppedChannelCount = new AtomicLong();
 
-		private final Object lock = new Object();
 		private final AtomicInteger channelCount = new AtomicInteger();
-		private final Map<String, LinkedList<SocketChannel>> channelMap = Maps.newHashMap();
-		private final Map<String, CompletableFuture<TransportOutboundConnection>> pendingMap = Maps.newHashMap();
+		// Most recently activated channel for each remote host, used for sending
+		private final ConcurrentMap<String, SocketChannel> activeChannels = new ConcurrentHashMap<>();
+		// All registered channels and their remote hosts
+		private final ConcurrentMap<SocketChannel, String> channelHosts = new ConcurrentHashMap<>();
+		// All registered channels for each remote host.  Sets are only accessed within compute methods.
+		private final ConcurrentMap<String, Set<SocketChannel>> hostChannels = new ConcurrentHashMap<>();
+		private final ConcurrentMap<String, CompletableFuture<TransportOutboundConnection>> pendingMap = new ConcurrentHashMap<>();
 		private final int maxChannelCount;
 		private final SystemCounters counters;
 
@@ -79,7 +91,12 @@ final class TCPTransportControlImpl implements TCPTransportControl {
 
 		@VisibleForTesting
 		int channelMapSize() {
-			return this.channelMap.size();
+			return this.activeChannels.size();
+		}
+
+		@VisibleForTesting
+		int hostMapSize() {
+			return this.hostChannels.size();
 		}
 
 		@VisibleForTesting
@@ -92,6 +109,10 @@ final class TCPTransportControlImpl implements TCPTransportControl {
 			return this.droppedChannelCount.get();
 		}
 
+		void forEachWriteBatcher(BiConsumer<String, TCPChannelWriteBatcher> consumer) {
+			this.channelHosts.forEach((ch, host) -> TCPChannelWriteBatcher.attached(ch).ifPresent(batcher -> consumer.accept(host, batcher)));
+		}
+
 		@Override
 		public void channelActive(ChannelHandlerContext ctx) throws Exception {
 			Channel ch = ctx.channel();
@@ -102,10 +123,9 @@ final class TCPTransportControlImpl implements TCPTransportControl {
 					InetSocketAddress remote = sch.remoteAddress();
 					String host = remote.getAddress().getHostAddress();
 					int port = remote.getPort();
-					synchronized (lock) {
-						removePending(formatAddress(host, port));
-						addChannel(host, sch);
-					}
+					// Channel is registered before pending connection is removed, so that it is always findable
+					addChannel(host, sch);
+					removePending(formatAddress(host, port));
 				} else {
 					// Too many channels, we just close and exit.
 					// Include rate limited log of total dropped channels.
@@ -127,9 +147,7 @@ final class TCPTransportControlImpl implements TCPTransportControl {
 			if (ch instanceof SocketChannel) {
 				this.counters.increment(CounterType.NETWORKING_TCP_CLOSED);
 				this.channelCount.decrementAndGet();
-				synchronized (lock) {
-					cleanChannels("Remove");
-				}
+				removeChannel((SocketChannel) ch);
 			}
 		}
 
@@ -139,99 +157,79 @@ final class TCPTransportControlImpl implements TCPTransportControl {
 			TCPTransportOutboundConnectionFactory outboundFactory
 		) {
 			String host = metadata.get(TCPConstants.METADATA_HOST);
+			SocketChannel channel = this.activeChannels.get(host);
+			if (channel != null && channel.isActive()) {
+				return CompletableFuture.completedFuture(outboundFactory.create(channel, metadata));
+			}
+
 			String port = metadata.get(TCPConstants.METADATA_PORT);
 			String hostAndPort = formatAddress(host, port);
-			synchronized (lock) {
-				cleanChannels("Clean");
-
-				CompletableFuture<TransportOutboundConnection> pending = this.pendingMap.get(hostAndPort);
-				if (pending != null) {
-					log.trace("Reuse pending {}", hostAndPort);
-					return pending;
-				}
-
-				LinkedList<SocketChannel> items = this.channelMap.get(host);
-
-				final SocketChannel channel;
-				if (items != null && !items.isEmpty()) {
-					channel = items.stream().filter(SocketChannel::isActive).findFirst().orElse(null);
+			final CompletableFuture<TransportOutboundConnection> connection = new CompletableFuture<>();
+			CompletableFuture<TransportOutboundConnection> pending = this.pendingMap.putIfAbsent(hostAndPort, connection);
+			if (pending != null) {
+				log.trace("Reuse pending {}", hostAndPort);
+				return pending;
+			}
+			log.trace("Add pending {}", hostAndPort);
+			ChannelFuture cf = transport.createChannel(host, Integer.parseInt(port));
+			cf.addListener(f -> {
+				Throwable cause = f.cause();
+				if (cause == null) {
+					log.trace("Listener completed");
+					connection.complete(outboundFactory.create(cf.channel(), metadata));
 				} else {
-					channel = null;
-				}
-				if (channel == null) {
-					ChannelFuture cf = transport.createChannel(host, Integer.parseInt(port));
-					final CompletableFuture<TransportOutboundConnection> cfsr0 = new CompletableFuture<>();
-					final CompletableFuture<TransportOutboundConnection> cfsr = cfsr0.whenComplete((obc, t) -> {
-						log.trace("Completed");
-						if (t != null) {
-							// If we are completing exceptionally, then we need to remove the pending connection
-							synchronized (lock) {
-								removePending(hostAndPort);
-							}
-						}
-					});
-					log.trace("Add pending {}", hostAndPort);
-					this.pendingMap.put(hostAndPort, cfsr);
-					cf.addListener(f -> {
-						Throwable cause = f.cause();
-						if (cause == null) {
-							log.trace("Listener completed");
-							cfsr0.complete(outboundFactory.create(cf.channel(), metadata));
-						} else {
-							log.trace("Listener completed exceptionally");
-							cfsr0.completeExceptionally(cause);
-						}
-					});
-					return cfsr;
+					log.trace("Listener completed exceptionally");
+					// If we are completing exceptionally, then we need to remove the pending connection
+					this.pendingMap.remove(hostAndPort, connection);
+					connection.completeExceptionally(cause);
 				}
-				return CompletableFuture.completedFuture(outboundFactory.create(channel, metadata));
-			}
+			});
+			return connection;
 		}
 
 		void closeAll() {
-			final List<ChannelFuture> futures = Lists.newArrayList();
-			synchronized (lock) {
-				for (LinkedList<SocketChannel> channels : this.channelMap.values()) {
-					channels.stream()
-						.map(Channel::close)
-						.filter(Objects::nonNull)
-						.forEachOrdered(futures::add);
-					channels.clear();
-				}
-			}
+			final List<ChannelFuture> futures = this.channelHosts.keySet().stream()
+				.map(Channel::close)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
+			this.channelHosts.clear();
+			this.hostChannels.clear();
+			this.activeChannels.clear();
 			futures.forEach(ChannelFuture::syncUninterruptibly);
 		}
 
-		// Requires "lock" to be held
 		void removePending(String host) {
 			if (null != this.pendingMap.remove(host)) {
 				log.trace("Remove pending {}", host);
 			}
 		}
 
-		// Requires "lock" to be held
 		private void addChannel(String host, SocketChannel ch) {
-			this.channelMap.computeIfAbsent(host, k -> Lists.newLinkedList()).addFirst(ch);
+			this.channelHosts.put(ch, host);
+			this.hostChannels.compute(host, (h, channels) -> {
+				Set<SocketChannel> hostChannelSet = channels == null ? new HashSet<>() : channels;
+				hostChannelSet.add(ch);
+				return hostChannelSet;
+			});
+			this.activeChannels.put(host, ch);
 			channelDebug("Add", ch);
 		}
 
-		// Requires "lock" to be held
-		private void cleanChannels(String where) {
-			Iterator<Map.Entry<String, LinkedList<SocketChannel>>> i = this.channelMap.entrySet().iterator();
-			while (i.hasNext()) {
-				Map.Entry<String, LinkedList<SocketChannel>> entry = i.next();
-				Iterator<SocketChannel> j = entry.getValue().iterator();
-				while (j.hasNext()) {
-					SocketChannel ch = j.next();
-					if (!ch.isOpen()) {
-						channelDebug(where, ch);
-						j.remove();
+		private void removeChannel(SocketChannel ch) {
+			String host = this.channelHosts.remove(ch);
+			if (host != null) {
+				channelDebug("Remove", ch);
+				this.hostChannels.computeIfPresent(host, (h, channels) -> {
+					channels.remove(ch);
+					if (this.activeChannels.remove(host, ch)) {
+						// Fall back to any other open channel to the same host
+						channels.stream()
+							.filter(Channel::isActive)
+							.findFirst()
+							.ifPresent(other -> this.activeChannels.putIfAbsent(host, other));
 					}
-				}
-				if (entry.getValue().isEmpty()) {
-					// Remove dangling empty lists from map
-					i.remove();
-				}
+					return channels.isEmpty() ? null : channels;
+				});
 			}
 		}
 
@@ -257,16 +255,20 @@ final class TCPTransportControlImpl implements TCPTransportControl {
 	private final TCPConnectionHandlerChannelInbound handler;
 	private final TCPTransportOutboundConnectionFactory outboundFactory;
 	private final NettyTCPTransport transport;
+	private final TCPOutboundQueues outboundQueues;
 
 	TCPTransportControlImpl(
 		TCPConfiguration config,
 		TCPTransportOutboundConnectionFactory outboundFactory,
 		NettyTCPTransport transport,
-		SystemCounters counters
+		SystemCounters counters,
+		TCPOutboundQueues outboundQueues
 	) {
 		this.outboundFactory = outboundFactory;
 		this.transport = transport;
+		this.outboundQueues = outboundQueues;
 		this.handler = new TCPConnectionHandlerChannelInbound(config.maxChannelCount(1024), counters);
+		this.outboundQueues.register(this.handler);
 	}
 
 	@Override
@@ -276,6 +278,7 @@ final class TCPTransportControlImpl implements TCPTransportControl {
 
 	@Override
 	public void close() throws IOException {
+		this.outboundQueues.unregister(this.handler);
 		this.handler.closeAll();
 	}
 
@@ -59,8 +59,8 @@ public class TCPTransportModule extends AbstractModule {
 	}
 
 	@Provides
-	private TCPTransportControlFactory tcpTransportControlFactoryProvider(SystemCounters counters) {
-		return (conf, outboundFactory, transport) -> new TCPTransportControlImpl(conf, outboundFactory, transport, counters);
+	private TCPTransportControlFactory tcpTransportControlFactoryProvider(SystemCounters counters, TCPOutboundQueues outboundQueues) {
+		return (conf, outboundFactory, transport) -> new TCPTransportControlImpl(conf, outboundFactory, transport, counters, outboundQueues);
 	}
 
 	private TCPTransportOutboundConnectionFactory tcpTransportOutboundConnectionFactoryProvider() {
@@ -54,24 +54,20 @@ final class TCPTransportOutboundConnectionImpl implements TransportOutboundConne
 
 	@Override
 	public CompletableFuture<SendResult> send(byte[] data) {
-		final CompletableFuture<SendResult> cfsr = new CompletableFuture<>();
+		return send(data, TCPChannelWriteBatcher.PRIORITY_LEVELS - 1);
+	}
 
+	@Override
+	public CompletableFuture<SendResult> send(byte[] data, int priority) {
 		int dataLength = data.length;
 		if (dataLength > TCPConstants.MAX_PACKET_LENGTH) {
-			cfsr.complete(SendResult.failure(new IOException("TCP packet to " + remoteAddr + " of size " + dataLength + " is too large")));
-		} else {
-			ByteBuf buffer = this.channel.alloc().directBuffer(dataLength).writeBytes(data);
-
-			this.channel.writeAndFlush(buffer).addListener(f -> {
-				Throwable cause = f.cause();
-				if (cause == null) {
-					cfsr.complete(SendResult.complete());
-				} else {
-					cfsr.complete(SendResult.failure(cause));
-				}
-			});
+			return CompletableFuture.completedFuture(
+				SendResult.failure(new IOException("TCP packet to " + remoteAddr + " of size " + dataLength + " is too large"))
+			);
 		}
-		return cfsr;
+		ByteBuf buffer = this.channel.alloc().directBuffer(dataLength).writeBytes(data);
+		// Flushes are batched, and queues are prioritised and bounded, per channel
+		return TCPChannelWriteBatcher.forChannel(this.channel).write(buffer, priority);
 	}
 
 	@Override
@@ -26,6 +26,7 @@ import org.apache.logging.log4j.Logger;
 import com.radixdlt.network.messaging.InboundMessage;
 import com.radixdlt.network.messaging.InboundMessageConsumer;
 import com.radixdlt.network.transport.StaticTransportMetadata;
+import com.radixdlt.network.transport.netty.InboundBuffers;
 import com.radixdlt.network.transport.TransportInfo;
 
 import io.netty.buffer.ByteBuf;
@@ -60,10 +61,7 @@ final class UDPNettyMessageHandler extends SimpleChannelInboundHandler<DatagramP
 			natHandler.handleInboundPacket(ctx, peerAddress, buf);
 
 			// NAT validated, just make the message available
-			// Clone data and put in queue
-			final int length = buf.readableBytes();
-			final byte[] data = new byte[length];
-			buf.readBytes(data);
+			// Data is released by the consumer once decoded, rather than on return from here
 			TransportInfo source = TransportInfo.of(
 				UDPConstants.NAME,
 				StaticTransportMetadata.of(
@@ -71,7 +69,13 @@ final class UDPNettyMessageHandler extends SimpleChannelInboundHandler<DatagramP
 					UDPConstants.METADATA_PORT, String.valueOf(sender.getPort())
 				)
 			);
-			messageSink.accept(InboundMessage.of(source, data));
+			InboundMessage message = InboundBuffers.toInboundMessage(ctx.alloc(), source, buf);
+			try {
+				messageSink.accept(message);
+			} catch (RuntimeException e) {
+				message.release();
+				throw e;
+			}
 		}
 	}
 
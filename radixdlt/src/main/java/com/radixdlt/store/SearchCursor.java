@@ -18,6 +18,9 @@
 package com.radixdlt.store;
 
 import com.radixdlt.identifiers.AID;
+import com.radixdlt.utils.Pair;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A ledger cursor, bound to a specific ledger instance.
@@ -43,4 +46,20 @@ public interface SearchCursor {
 	SearchCursor first();
 
 	SearchCursor last();
+
+	/**
+	 * Gets the AID at this cursor and those following it, up to a limit.
+	 * Implementations may read them all with a single pass over the underlying store.
+	 * @param limit The maximum number of AIDs to get
+	 * @return The AIDs, and the cursor following the last of them or {@code null} if there are no more
+	 */
+	default Pair<List<AID>, SearchCursor> getBatch(int limit) {
+		List<AID> aids = new ArrayList<>();
+		SearchCursor cursor = this;
+		while (cursor != null && aids.size() < limit) {
+			aids.add(cursor.get());
+			cursor = cursor.next();
+		}
+		return Pair.of(aids, cursor);
+	}
 }
@@ -38,6 +38,7 @@ import com.radixdlt.store.LedgerEntryConflict;
 import com.radixdlt.store.LedgerEntryStoreResult;
 import com.radixdlt.store.LedgerEntryStore;
 import com.radixdlt.utils.Longs;
+import com.radixdlt.utils.Pair;
 import com.sleepycat.je.Cursor;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
@@ -59,7 +60,9 @@ import org.apache.logging.log4j.Logger;
 import org.radix.database.DatabaseEnvironment;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -557,6 +560,35 @@ public class BerkeleyLedgerEntryStore implements LedgerEntryStore, PersistentVer
 		}
 	}
 
+	Pair<List<AID>, SearchCursor> getBatch(BerkeleySearchCursor cursor, int limit) {
+		// Reads the whole batch with one database cursor, rather than one per entry as with getNext
+		try (SecondaryCursor databaseCursor = toSecondaryCursor(cursor.getType())) {
+			DatabaseEntry pKey = new DatabaseEntry(cursor.getPrimary());
+			DatabaseEntry key = new DatabaseEntry(cursor.getIndex());
+			List<AID> aids = new ArrayList<>();
+			if (limit <= 0) {
+				return Pair.of(aids, cursor);
+			}
+			if (databaseCursor.getSearchBothRange(key, pKey, null, LockMode.DEFAULT) != OperationStatus.SUCCESS) {
+				return Pair.of(aids, null);
+			}
+
+			BerkeleySearchCursor current = new BerkeleySearchCursor(this, cursor.getType(), pKey.getData(), key.getData());
+			while (true) {
+				aids.add(current.get());
+				if (databaseCursor.getNextDup(key, pKey, null, LockMode.DEFAULT) != OperationStatus.SUCCESS) {
+					return Pair.of(aids, null);
+				}
+				current = new BerkeleySearchCursor(this, cursor.getType(), pKey.getData(), key.getData());
+				if (aids.size() >= limit) {
+					return Pair.of(aids, current);
+				}
+			}
+		} catch (Exception ex) {
+			throw new BerkeleyStoreException("Error while reading cursor batch", ex);
+		}
+	}
+
 	BerkeleySearchCursor getPrev(BerkeleySearchCursor cursor) {
 		try (SecondaryCursor databaseCursor = toSecondaryCursor(cursor.getType())) {
 			DatabaseEntry pKey = new DatabaseEntry(cursor.getPrimary());
@@ -0,0 +1,139 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.store.berkeley;
+
+import com.google.common.hash.HashCode;
+import com.google.inject.Inject;
+import com.radixdlt.ledger.MerkleFrontier;
+import com.radixdlt.ledger.MerkleFrontierStore;
+import com.radixdlt.ledger.MerkleNode;
+import com.radixdlt.utils.Longs;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.LockMode;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import org.radix.database.DatabaseEnvironment;
+
+/**
+ * Store which persists the Merkle ledger accumulator's tree as of the last
+ * committed state. The frontier is kept under a single key, so committing a
+ * state replaces the frontier of the previous one. Nodes are keyed by height
+ * and index, so that those of a subtree at one height are stored in order.
+ */
+public final class BerkeleyMerkleFrontierStore implements MerkleFrontierStore {
+	private static final String MERKLE_FRONTIER_STORE_NAME = "merkle_frontier_store";
+	private static final String MERKLE_NODE_STORE_NAME = "merkle_node_store";
+	private static final byte[] COMMITTED_KEY = "committed".getBytes(StandardCharsets.UTF_8);
+
+	private final DatabaseEnvironment dbEnv;
+	private final Database frontierStore;
+	private final Database nodeStore;
+
+	@Inject
+	public BerkeleyMerkleFrontierStore(DatabaseEnvironment dbEnv) {
+		this.dbEnv = Objects.requireNonNull(dbEnv, "dbEnv is required");
+		this.frontierStore = this.open(MERKLE_FRONTIER_STORE_NAME);
+		this.nodeStore = this.open(MERKLE_NODE_STORE_NAME);
+	}
+
+	private Database open(String name) {
+		DatabaseConfig primaryConfig = new DatabaseConfig();
+		primaryConfig.setAllowCreate(true);
+		primaryConfig.setTransactional(true);
+
+		try {
+			// This SuppressWarnings here is valid, as ownership of the underlying
+			// resource is not changed here, the resource is just accessed.
+			@SuppressWarnings("resource")
+			Environment env = this.dbEnv.getEnvironment();
+			return env.openDatabase(null, name, primaryConfig);
+		} catch (Exception e) {
+			throw new BerkeleyStoreException("Error while opening database", e);
+		}
+	}
+
+	public void close() {
+		if (this.frontierStore != null) {
+			this.frontierStore.close();
+		}
+		if (this.nodeStore != null) {
+			this.nodeStore.close();
+		}
+	}
+
+	@Override
+	public Optional<MerkleFrontier> getCommitted() {
+		DatabaseEntry value = new DatabaseEntry();
+		OperationStatus status = this.frontierStore.get(null, new DatabaseEntry(COMMITTED_KEY), value, LockMode.DEFAULT);
+		if (status != OperationStatus.SUCCESS) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(MerkleFrontier.fromBytes(value.getData()));
+		} catch (IllegalArgumentException e) {
+			throw new BerkeleyStoreException("Invalid committed Merkle frontier stored", e);
+		}
+	}
+
+	@Override
+	public Optional<HashCode> getNode(int height, long index) {
+		DatabaseEntry value = new DatabaseEntry();
+		OperationStatus status = this.nodeStore.get(null, toNodeKey(height, index), value, LockMode.DEFAULT);
+		if (status != OperationStatus.SUCCESS) {
+			return Optional.empty();
+		}
+		return Optional.of(HashCode.fromBytes(value.getData()));
+	}
+
+	@Override
+	public void commit(MerkleFrontier frontier, List<MerkleNode> nodes) {
+		Transaction transaction = dbEnv.getEnvironment().beginTransaction(null, null);
+		try {
+			for (MerkleNode node : nodes) {
+				DatabaseEntry key = toNodeKey(node.getHeight(), node.getIndex());
+				OperationStatus status = this.nodeStore.put(transaction, key, new DatabaseEntry(node.getHash().asBytes()));
+				if (status != OperationStatus.SUCCESS) {
+					throw new BerkeleyStoreException("Database returned status " + status + " for put of " + node);
+				}
+			}
+			DatabaseEntry value = new DatabaseEntry(frontier.toBytes());
+			OperationStatus status = this.frontierStore.put(transaction, new DatabaseEntry(COMMITTED_KEY), value);
+			if (status != OperationStatus.SUCCESS) {
+				throw new BerkeleyStoreException("Database returned status " + status + " for put of " + frontier);
+			}
+			transaction.commit();
+		} catch (Exception e) {
+			transaction.abort();
+			throw new BerkeleyStoreException("Commit of Merkle frontier failed", e);
+		}
+	}
+
+	private static DatabaseEntry toNodeKey(int height, long index) {
+		byte[] keyBytes = new byte[1 + Long.BYTES];
+		keyBytes[0] = (byte) height;
+		Longs.copyTo(index, keyBytes, 1);
+		return new DatabaseEntry(keyBytes);
+	}
+}
@@ -20,8 +20,10 @@ package com.radixdlt.store.berkeley;
 import com.radixdlt.identifiers.AID;
 import com.radixdlt.store.SearchCursor;
 import com.radixdlt.store.StoreIndex;
+import com.radixdlt.utils.Pair;
 import org.bouncycastle.util.Arrays;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -77,4 +79,9 @@ public class BerkeleySearchCursor implements SearchCursor {
 	public SearchCursor last() {
 		return this.store.getLast(this);
 	}
+
+	@Override
+	public Pair<List<AID>, SearchCursor> getBatch(int limit) {
+		return this.store.getBatch(this, limit);
+	}
 }
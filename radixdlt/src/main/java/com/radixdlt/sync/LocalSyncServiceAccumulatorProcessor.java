@@ -27,6 +27,7 @@ import com.radixdlt.environment.ScheduledEventDispatcher;
 import com.radixdlt.ledger.AccumulatorState;
 import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
 import com.radixdlt.ledger.LedgerUpdate;
+import com.radixdlt.ledger.VerifiedCommandsAndProof;
 import com.radixdlt.store.LastProof;
 import java.util.Comparator;
 import java.util.Objects;
@@ -37,6 +38,17 @@ import org.apache.logging.log4j.Logger;
 
 /**
  * Processes sync service messages and manages sync requests and responses.
+ * <p>
+ * The missing ledger range is fetched as a chain of windows of commands, each
+ * window starting at the verified ledger header the previous one ended at. The next
+ * window is requested as soon as the response to the previous one is verified, so
+ * that fetching it overlaps with committing the previous one, and successive windows
+ * are spread round robin over the target peers. A window is only considered served
+ * by a verified response, never by unrelated ledger updates, so that it is not
+ * requested twice. Each window carries its own timeout so that a window which a peer
+ * failed to serve is reassigned to a different peer, restarting from the committed
+ * ledger header, while stale timeouts are ignored.
+ * <p>
  * Thread-safety must be handled by caller.
  */
 @NotThreadSafe
@@ -44,9 +56,19 @@ public final class LocalSyncServiceAccumulatorProcessor {
 	public static final class SyncInProgress {
 		private final VerifiedLedgerHeaderAndProof targetHeader;
 		private final ImmutableList<BFTNode> targetNodes;
-		private SyncInProgress(VerifiedLedgerHeaderAndProof targetHeader, ImmutableList<BFTNode> targetNodes) {
+		private final VerifiedLedgerHeaderAndProof windowStart;
+		private final BFTNode peer;
+
+		private SyncInProgress(
+			VerifiedLedgerHeaderAndProof targetHeader,
+			ImmutableList<BFTNode> targetNodes,
+			VerifiedLedgerHeaderAndProof windowStart,
+			BFTNode peer
+		) {
 			this.targetHeader = targetHeader;
 			this.targetNodes = targetNodes;
+			this.windowStart = windowStart;
+			this.peer = peer;
 		}
 
 		public ImmutableList<BFTNode> getTargetNodes() {
@@ -56,6 +78,20 @@ public final class LocalSyncServiceAccumulatorProcessor {
 		public VerifiedLedgerHeaderAndProof getTargetHeader() {
 			return targetHeader;
 		}
+
+		/**
+		 * @return the ledger header the outstanding window was requested from
+		 */
+		public VerifiedLedgerHeaderAndProof getWindowStart() {
+			return windowStart;
+		}
+
+		/**
+		 * @return the peer the outstanding window was requested from
+		 */
+		public BFTNode getPeer() {
+			return peer;
+		}
 	}
 
 	private static final Logger log = LogManager.getLogger();
@@ -66,6 +102,10 @@ public final class LocalSyncServiceAccumulatorProcessor {
 	private final Comparator<AccumulatorState> accComparator;
 	private VerifiedLedgerHeaderAndProof targetHeader;
 	private VerifiedLedgerHeaderAndProof currentHeader;
+	private VerifiedLedgerHeaderAndProof syncedHeader;
+	private ImmutableList<BFTNode> targetNodes = ImmutableList.of();
+	private SyncInProgress outstandingWindow;
+	private int nextPeer;
 
 	@Inject
 	public LocalSyncServiceAccumulatorProcessor(
@@ -84,13 +124,39 @@ public final class LocalSyncServiceAccumulatorProcessor {
 		this.patienceMilliseconds = patienceMilliseconds;
 		this.accComparator = Objects.requireNonNull(accComparator);
 		this.currentHeader = current;
+		this.syncedHeader = current;
 		this.targetHeader = current;
 	}
 
 	public void processLedgerUpdate(LedgerUpdate ledgerUpdate) {
 		VerifiedLedgerHeaderAndProof updatedHeader = ledgerUpdate.getTail();
-		if (accComparator.compare(updatedHeader.getAccumulatorState(), this.currentHeader.getAccumulatorState()) > 0) {
-			this.currentHeader = updatedHeader;
+		if (accComparator.compare(updatedHeader.getAccumulatorState(), this.currentHeader.getAccumulatorState()) <= 0) {
+			return;
+		}
+
+		this.currentHeader = updatedHeader;
+		if (!isSynced(updatedHeader)) {
+			this.syncedHeader = updatedHeader;
+		}
+	}
+
+	public EventProcessor<VerifiedCommandsAndProof> verifiedSyncResponseProcessor() {
+		return this::processVerifiedSyncResponse;
+	}
+
+	private void processVerifiedSyncResponse(VerifiedCommandsAndProof verifiedResponse) {
+		VerifiedLedgerHeaderAndProof verifiedHeader = verifiedResponse.getHeader();
+		if (isSynced(verifiedHeader)) {
+			return;
+		}
+
+		this.syncedHeader = verifiedHeader;
+		if (this.outstandingWindow != null && isSynced(this.outstandingWindow.getWindowStart())) {
+			// Outstanding window has been served, pipeline the next one while this one commits
+			this.outstandingWindow = null;
+			if (!isSynced(this.targetHeader)) {
+				requestNextWindow(null);
+			}
 		}
 	}
 
@@ -108,24 +174,48 @@ public final class LocalSyncServiceAccumulatorProcessor {
 		}
 
 		this.targetHeader = nextTargetHeader;
-		SyncInProgress syncInProgress = new SyncInProgress(request.getTarget(), request.getTargetNodes());
-		this.refreshRequest(syncInProgress);
+		this.targetNodes = request.getTargetNodes();
+		if (this.outstandingWindow == null) {
+			// TODO: remove thread local random
+			this.nextPeer = ThreadLocalRandom.current().nextInt(this.targetNodes.size());
+			requestNextWindow(null);
+		}
 	}
 
 	public EventProcessor<SyncInProgress> syncTimeoutProcessor() {
-		return this::refreshRequest;
+		return this::processWindowTimeout;
 	}
 
-	private void refreshRequest(SyncInProgress syncInProgress) {
-		VerifiedLedgerHeaderAndProof requestTargetHeader = syncInProgress.getTargetHeader();
-		if (accComparator.compare(requestTargetHeader.getAccumulatorState(), this.currentHeader.getAccumulatorState()) <= 0) {
+	private void processWindowTimeout(SyncInProgress window) {
+		if (window != this.outstandingWindow) {
+			// Window has already been served or reassigned
+			return;
+		}
+
+		this.outstandingWindow = null;
+		// Restart from what has actually been committed in case a verified window failed to commit
+		this.syncedHeader = this.currentHeader;
+		if (isSynced(this.targetHeader)) {
 			return;
 		}
 
-		ImmutableList<BFTNode> targetNodes = syncInProgress.getTargetNodes();
-		// TODO: remove thread local random
-		BFTNode node = targetNodes.get(ThreadLocalRandom.current().nextInt(targetNodes.size()));
-		requestDispatcher.dispatch(node, this.currentHeader.toDto());
-		timeoutScheduler.dispatch(syncInProgress, patienceMilliseconds);
+		log.debug("SYNC_TIMEOUT: reassigning window from {} after no response from {}", window.getWindowStart(), window.getPeer());
+		requestNextWindow(window.getPeer());
+	}
+
+	private boolean isSynced(VerifiedLedgerHeaderAndProof header) {
+		return accComparator.compare(header.getAccumulatorState(), this.syncedHeader.getAccumulatorState()) <= 0;
+	}
+
+	private void requestNextWindow(BFTNode failedPeer) {
+		BFTNode peer = this.targetNodes.get(Math.floorMod(this.nextPeer++, this.targetNodes.size()));
+		if (peer.equals(failedPeer) && this.targetNodes.size() > 1) {
+			peer = this.targetNodes.get(Math.floorMod(this.nextPeer++, this.targetNodes.size()));
+		}
+
+		SyncInProgress window = new SyncInProgress(this.targetHeader, this.targetNodes, this.syncedHeader, peer);
+		this.outstandingWindow = window;
+		requestDispatcher.dispatch(peer, this.syncedHeader.toDto());
+		timeoutScheduler.dispatch(window, patienceMilliseconds);
 	}
 }
@@ -18,16 +18,19 @@
 package com.radixdlt.sync;
 
 import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.consensus.bft.BFTValidatorSet;
 import com.radixdlt.ledger.DtoCommandsAndProof;
 import java.util.Objects;
 
 public final class RemoteSyncResponse {
 	private final BFTNode sender;
 	private final DtoCommandsAndProof commandsAndProof;
+	private final BFTValidatorSet validatorSet;
 
-	public RemoteSyncResponse(BFTNode sender, DtoCommandsAndProof commandsAndProof) {
+	public RemoteSyncResponse(BFTNode sender, DtoCommandsAndProof commandsAndProof, BFTValidatorSet validatorSet) {
 		this.sender = Objects.requireNonNull(sender);
 		this.commandsAndProof = Objects.requireNonNull(commandsAndProof);
+		this.validatorSet = Objects.requireNonNull(validatorSet);
 	}
 
 	public BFTNode getSender() {
@@ -38,6 +41,13 @@ public final class RemoteSyncResponse {
 		return commandsAndProof;
 	}
 
+	/**
+	 * @return the validator set the signatures of the response are checked against
+	 */
+	public BFTValidatorSet getValidatorSet() {
+		return validatorSet;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("%s{sender=%s payload=%s}", this.getClass().getSimpleName(), sender, commandsAndProof);
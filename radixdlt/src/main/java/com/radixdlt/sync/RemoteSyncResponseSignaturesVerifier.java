@@ -17,24 +17,48 @@
 
 package com.radixdlt.sync;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.HashCode;
 import com.google.inject.Inject;
 import com.radixdlt.consensus.HashVerifier;
 import com.radixdlt.crypto.Hasher;
 import com.radixdlt.consensus.TimestampedECDSASignature;
+import com.radixdlt.consensus.TimestampedECDSASignatures;
 import com.radixdlt.consensus.TimestampedVoteData;
 import com.radixdlt.consensus.VoteData;
 import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.consensus.bft.BFTValidatorSet;
+import com.radixdlt.consensus.bft.ValidationState;
 import com.radixdlt.ledger.DtoCommandsAndProof;
 import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
- * Verifies the signatures in a sync response
+ * Verifies the signatures in a sync response.
+ * <p>
+ * Only the signatures needed to form a quorum are verified, taking validators in
+ * order of descending power, and these are verified in parallel on the shared
+ * verification executor of {@link SyncExecutors}. Verification is abandoned as soon
+ * as any of them turns out to be invalid. The sync thread never waits on it: the
+ * outcome is handed back to the sync executor once all signatures are verified.
+ * <p>
+ * Verified responses are passed on with only the verified quorum signatures, so
+ * that any other, unverified, signatures are never committed, stored or served.
  */
 public final class RemoteSyncResponseSignaturesVerifier implements RemoteSyncResponseProcessor {
+	private static final Logger log = LogManager.getLogger();
+
 	public interface VerifiedSignaturesSender {
 		void sendVerified(RemoteSyncResponse remoteSyncResponse);
 	}
@@ -47,18 +71,21 @@ public final class RemoteSyncResponseSignaturesVerifier implements RemoteSyncRes
 	private final InvalidSignaturesSender invalidSignaturesSender;
 	private final Hasher hasher;
 	private final HashVerifier hashVerifier;
+	private final SyncExecutors syncExecutors;
 
 	@Inject
 	public RemoteSyncResponseSignaturesVerifier(
 		VerifiedSignaturesSender verifiedSignaturesSender,
 		InvalidSignaturesSender invalidSignaturesSender,
 		Hasher hasher,
-		HashVerifier hashVerifier
+		HashVerifier hashVerifier,
+		SyncExecutors syncExecutors
 	) {
 		this.verifiedSignaturesSender = Objects.requireNonNull(verifiedSignaturesSender);
 		this.invalidSignaturesSender = Objects.requireNonNull(invalidSignaturesSender);
 		this.hasher = Objects.requireNonNull(hasher);
 		this.hashVerifier = Objects.requireNonNull(hashVerifier);
+		this.syncExecutors = Objects.requireNonNull(syncExecutors);
 	}
 
 	@Override
@@ -68,20 +95,115 @@ public final class RemoteSyncResponseSignaturesVerifier implements RemoteSyncRes
 
 		// TODO: Figure out where this reconstruction should take place
 		VoteData voteData = endHeader.toVoteData();
-		Map<BFTNode, TimestampedECDSASignature> signatures = endHeader.getSignatures().getSignatures();
+		List<Entry<BFTNode, TimestampedECDSASignature>> quorum = quorumSignatures(
+			syncResponse.getValidatorSet(),
+			endHeader.getSignatures().getSignatures()
+		);
+		if (quorum.isEmpty()) {
+			invalidSignaturesSender.sendInvalid(syncResponse);
+			return;
+		}
+
+		verifyAll(voteData, quorum).thenAcceptAsync(valid -> {
+			if (valid) {
+				verifiedSignaturesSender.sendVerified(withSignatures(syncResponse, quorum));
+			} else {
+				invalidSignaturesSender.sendInvalid(syncResponse);
+			}
+		}, this.syncExecutors.syncExecutor());
+	}
+
+	private static RemoteSyncResponse withSignatures(
+		RemoteSyncResponse syncResponse,
+		List<Entry<BFTNode, TimestampedECDSASignature>> signatures
+	) {
+		DtoCommandsAndProof commandsAndProof = syncResponse.getCommandsAndProof();
+		DtoLedgerHeaderAndProof tail = commandsAndProof.getTail();
+		DtoLedgerHeaderAndProof verifiedTail = new DtoLedgerHeaderAndProof(
+			tail.getOpaque0(),
+			tail.getOpaque1(),
+			tail.getOpaque2(),
+			tail.getOpaque3(),
+			tail.getLedgerHeader(),
+			new TimestampedECDSASignatures(ImmutableMap.copyOf(signatures))
+		);
+		return new RemoteSyncResponse(
+			syncResponse.getSender(),
+			new DtoCommandsAndProof(commandsAndProof.getCommands(), commandsAndProof.getHead(), verifiedTail),
+			syncResponse.getValidatorSet()
+		);
+	}
+
+	/**
+	 * Selects signatures of the most powerful validators until they form a quorum.
+	 * Returns an empty list if all signatures of validators together do not.
+	 */
+	private static List<Entry<BFTNode, TimestampedECDSASignature>> quorumSignatures(
+		BFTValidatorSet validatorSet,
+		Map<BFTNode, TimestampedECDSASignature> signatures
+	) {
+		List<Entry<BFTNode, TimestampedECDSASignature>> candidates = new ArrayList<>();
 		for (Entry<BFTNode, TimestampedECDSASignature> nodeAndSignature : signatures.entrySet()) {
-			BFTNode node = nodeAndSignature.getKey();
+			if (validatorSet.containsNode(nodeAndSignature.getKey())) {
+				candidates.add(nodeAndSignature);
+			}
+		}
+		candidates.sort(Comparator.comparing(
+			(Entry<BFTNode, TimestampedECDSASignature> e) -> validatorSet.getPower(e.getKey())
+		).reversed());
+
+		ValidationState validationState = validatorSet.newValidationState();
+		List<Entry<BFTNode, TimestampedECDSASignature>> quorum = new ArrayList<>();
+		for (Entry<BFTNode, TimestampedECDSASignature> nodeAndSignature : candidates) {
 			TimestampedECDSASignature signature = nodeAndSignature.getValue();
-			final TimestampedVoteData timestampedVoteData = new TimestampedVoteData(voteData, signature.timestamp());
-			final HashCode voteDataHash = this.hasher.hash(timestampedVoteData);
+			validationState.addSignature(nodeAndSignature.getKey(), signature.timestamp(), signature.signature());
+			quorum.add(nodeAndSignature);
+			if (validationState.complete()) {
+				return quorum;
+			}
+		}
+		return List.of();
+	}
 
-			if (!hashVerifier.verify(node.getKey(), voteDataHash, signature.signature())) {
-				invalidSignaturesSender.sendInvalid(syncResponse);
-				return;
+	private CompletableFuture<Boolean> verifyAll(VoteData voteData, List<Entry<BFTNode, TimestampedECDSASignature>> signatures) {
+		CompletableFuture<Boolean> allValid = new CompletableFuture<>();
+		AtomicInteger remaining = new AtomicInteger(signatures.size());
+		List<Future<?>> verifications = new ArrayList<>(signatures.size());
+		try {
+			for (Entry<BFTNode, TimestampedECDSASignature> nodeAndSignature : signatures) {
+				verifications.add(this.syncExecutors.verificationExecutor().submit(() -> {
+					if (allValid.isDone()) {
+						return;
+					}
+					if (!verifySafely(voteData, nodeAndSignature.getKey(), nodeAndSignature.getValue())) {
+						allValid.complete(false);
+					} else if (remaining.decrementAndGet() == 0) {
+						allValid.complete(true);
+					}
+				}));
 			}
+		} catch (RejectedExecutionException e) {
+			log.debug("Sync stopped, abandoning verification of sync response signatures");
+			allValid.complete(false);
 		}
 
-		verifiedSignaturesSender.sendVerified(syncResponse);
+		// Abandon any verifications still outstanding after an invalid signature
+		allValid.thenRun(() -> verifications.forEach(f -> f.cancel(false)));
+		return allValid;
 	}
 
+	private boolean verifySafely(VoteData voteData, BFTNode node, TimestampedECDSASignature signature) {
+		try {
+			return verify(voteData, node, signature);
+		} catch (RuntimeException e) {
+			log.warn("Unable to verify sync response signature", e);
+			return false;
+		}
+	}
+
+	private boolean verify(VoteData voteData, BFTNode node, TimestampedECDSASignature signature) {
+		final TimestampedVoteData timestampedVoteData = new TimestampedVoteData(voteData, signature.timestamp());
+		final HashCode voteDataHash = this.hasher.hash(timestampedVoteData);
+		return hashVerifier.verify(node.getKey(), voteDataHash, signature.signature());
+	}
 }
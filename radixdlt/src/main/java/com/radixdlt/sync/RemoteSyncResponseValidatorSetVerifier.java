@@ -60,10 +60,10 @@ public final class RemoteSyncResponseValidatorSetVerifier implements RemoteEvent
 		);
 
 		if (!validationState.complete()) {
-			invalidValidatorSetSender.sendInvalid(new RemoteSyncResponse(sender, dtoCommandsAndProof));
+			invalidValidatorSetSender.sendInvalid(new RemoteSyncResponse(sender, dtoCommandsAndProof, validatorSet));
 			return;
 		}
 
-		verifiedValidatorSetSender.sendVerified(new RemoteSyncResponse(sender, dtoCommandsAndProof));
+		verifiedValidatorSetSender.sendVerified(new RemoteSyncResponse(sender, dtoCommandsAndProof, validatorSet));
 	}
 }
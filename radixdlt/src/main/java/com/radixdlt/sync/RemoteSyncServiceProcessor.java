@@ -18,10 +18,14 @@
 package com.radixdlt.sync;
 
 import com.google.common.collect.ImmutableList;
+import com.radixdlt.consensus.Command;
 import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
 import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
 import com.radixdlt.environment.RemoteEventDispatcher;
 import com.radixdlt.environment.RemoteEventProcessor;
+import com.radixdlt.ledger.AccumulatorState;
 import com.radixdlt.ledger.DtoCommandsAndProof;
 import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
 import com.radixdlt.ledger.VerifiedCommandsAndProof;
@@ -32,19 +36,29 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 /**
- * Service which serves remote sync requests
+ * Service which serves remote sync requests.
+ * <p>
+ * Responses with commands are served within a {@link SyncServingBudget}, which is
+ * reserved before reading from the store so that requests over budget are dropped
+ * without touching the store.
  */
 public class RemoteSyncServiceProcessor implements RemoteEventProcessor<DtoLedgerHeaderAndProof> {
 	private static final Logger log = LogManager.getLogger();
 
 	private final CommittedReader committedReader;
 	private final RemoteEventDispatcher<DtoCommandsAndProof> syncResponseDispatcher;
+	private final SyncResponseCache responseCache;
+	private final SyncServingBudget servingBudget;
+	private final SystemCounters counters;
 
 	private final int batchSize;
 
 	public RemoteSyncServiceProcessor(
 		CommittedReader committedReader,
 		RemoteEventDispatcher<DtoCommandsAndProof> syncResponseDispatcher,
+		SyncResponseCache responseCache,
+		SyncServingBudget servingBudget,
+		SystemCounters counters,
 		int batchSize
 	) {
 		if (batchSize <= 0) {
@@ -53,6 +67,9 @@ public class RemoteSyncServiceProcessor implements RemoteEventProcessor<DtoLedge
 		this.committedReader = Objects.requireNonNull(committedReader);
 		this.batchSize = batchSize;
 		this.syncResponseDispatcher = Objects.requireNonNull(syncResponseDispatcher);
+		this.responseCache = Objects.requireNonNull(responseCache);
+		this.servingBudget = Objects.requireNonNull(servingBudget);
+		this.counters = Objects.requireNonNull(counters);
 	}
 
 	@Override
@@ -72,7 +89,27 @@ public class RemoteSyncServiceProcessor implements RemoteEventProcessor<DtoLedge
 				currentHeader, nextEpochProof.get().toDto()
 			);
 			log.info("REMOTE_EPOCH_SYNC_REQUEST: Sending response {}", dtoCommandsAndProof);
-			syncResponseDispatcher.dispatch(sender, dtoCommandsAndProof);
+			dispatchServed(sender, dtoCommandsAndProof, 0);
+			return;
+		}
+
+		final AccumulatorState start = currentHeader.getLedgerHeader().getAccumulatorState();
+		Optional<DtoCommandsAndProof> cached = responseCache.get(start, batchSize);
+		if (cached.isPresent()) {
+			long size = commandBytes(cached.get().getCommands());
+			if (!servingBudget.tryReserve(size)) {
+				dropOverBudget(sender, currentHeader);
+				return;
+			}
+			DtoCommandsAndProof response = withHead(cached.get(), currentHeader);
+			log.info("REMOTE_SYNC_REQUEST: Sending cached response {} to request {} from {}", response, currentHeader, sender);
+			dispatchServed(sender, response, size);
+			return;
+		}
+
+		final long reserved = servingBudget.expectedResponseBytes();
+		if (!servingBudget.tryReserve(reserved)) {
+			dropOverBudget(sender, currentHeader);
 			return;
 		}
 
@@ -80,15 +117,20 @@ public class RemoteSyncServiceProcessor implements RemoteEventProcessor<DtoLedge
 		try {
 			committedCommands = committedReader.getNextCommittedCommands(currentHeader, batchSize);
 		} catch (NextCommittedLimitReachedException e) {
+			servingBudget.settle(reserved, 0);
 			log.warn("REMOTE_SYNC_REQUEST: Unable to serve sync request {}.", currentHeader);
 			return;
 		}
 
 		if (committedCommands == null) {
+			servingBudget.settle(reserved, 0);
 			log.warn("REMOTE_SYNC_REQUEST: Unable to serve sync request {} from sender {}.", currentHeader, sender);
 			return;
 		}
 
+		final long size = commandBytes(committedCommands.getCommands());
+		servingBudget.settle(reserved, size);
+
 		DtoCommandsAndProof verifiable = new DtoCommandsAndProof(
 			committedCommands.getCommands(),
 			currentHeader,
@@ -97,6 +139,39 @@ public class RemoteSyncServiceProcessor implements RemoteEventProcessor<DtoLedge
 
 		log.info("REMOTE_SYNC_REQUEST: Sending response {} to request {} from {}", verifiable, currentHeader, sender);
 
-		syncResponseDispatcher.dispatch(sender, verifiable);
+		// A short batch which doesn't end an epoch stops at the tip of the ledger, and would grow later
+		if (verifiable.getCommands().size() >= batchSize || committedCommands.getHeader().isEndOfEpoch()) {
+			// Cached commands and tail can be served for any equal start, but each requester gets its own head
+			responseCache.put(start, batchSize, verifiable);
+		}
+
+		dispatchServed(sender, verifiable, size);
+	}
+
+	// Requesters check the head against their own header, so it must be the requester's header.
+	// The cached instance is served as is where the heads match, so that its serialized form can be reused.
+	private static DtoCommandsAndProof withHead(DtoCommandsAndProof cached, DtoLedgerHeaderAndProof head) {
+		if (cached.getHead().equals(head)) {
+			return cached;
+		}
+		return new DtoCommandsAndProof(cached.getCommands(), head, cached.getTail());
+	}
+
+	private void dispatchServed(BFTNode sender, DtoCommandsAndProof response, long size) {
+		syncResponseDispatcher.dispatch(sender, response);
+		counters.increment(CounterType.SYNC_SERVER_REQUESTS_SERVED);
+		counters.add(CounterType.SYNC_SERVER_BYTES_SERVED, size);
+	}
+
+	private void dropOverBudget(BFTNode sender, DtoLedgerHeaderAndProof currentHeader) {
+		log.debug("REMOTE_SYNC_REQUEST: Dropping request {} from {} over served bytes budget", currentHeader, sender);
+		counters.increment(CounterType.SYNC_SERVER_REQUESTS_DROPPED);
+	}
+
+	private static long commandBytes(ImmutableList<Command> commands) {
+		return commands.stream()
+			.map(Command::getPayload)
+			.mapToLong(payload -> payload.length)
+			.sum();
 	}
 }
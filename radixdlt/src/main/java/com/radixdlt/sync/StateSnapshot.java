@@ -0,0 +1,65 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.sync;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.Command;
+import java.util.Objects;
+import java.util.Optional;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A state snapshot as produced locally: its manifest, the manifest's hash and
+ * the chunk payloads the manifest refers to.
+ */
+@Immutable
+public final class StateSnapshot {
+	private final StateSnapshotManifest manifest;
+	private final HashCode manifestHash;
+	private final ImmutableList<Command> chunks;
+
+	public StateSnapshot(StateSnapshotManifest manifest, HashCode manifestHash, ImmutableList<Command> chunks) {
+		if (manifest.getChunkHashes().size() != chunks.size()) {
+			throw new IllegalArgumentException("Manifest and chunks don't match");
+		}
+		this.manifest = manifest;
+		this.manifestHash = Objects.requireNonNull(manifestHash);
+		this.chunks = chunks;
+	}
+
+	public StateSnapshotManifest getManifest() {
+		return manifest;
+	}
+
+	public HashCode getManifestHash() {
+		return manifestHash;
+	}
+
+	public Optional<StateSnapshotChunk> getChunk(int index) {
+		if (index < 0 || index >= chunks.size()) {
+			return Optional.empty();
+		}
+		return Optional.of(new StateSnapshotChunk(manifestHash, index, chunks.get(index)));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s{hash=%s manifest=%s}", this.getClass().getSimpleName(), manifestHash, manifest);
+	}
+}
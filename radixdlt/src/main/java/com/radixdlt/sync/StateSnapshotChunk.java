@@ -0,0 +1,102 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.sync;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.serialization.DsonOutput;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.SerializerConstants;
+import com.radixdlt.serialization.SerializerDummy;
+import com.radixdlt.serialization.SerializerId2;
+import java.util.Objects;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A single chunk of a state snapshot, identified by the hash of the snapshot's
+ * manifest and the chunk's index in it. The payload is an atom pushing the
+ * chunk's particles up.
+ */
+@Immutable
+@SerializerId2("sync.state_snapshot_chunk")
+public final class StateSnapshotChunk {
+	@JsonProperty(SerializerConstants.SERIALIZER_NAME)
+	@DsonOutput(value = {Output.API, Output.WIRE, Output.PERSIST})
+	SerializerDummy serializer = SerializerDummy.DUMMY;
+
+	@JsonProperty("manifest_hash")
+	@DsonOutput(Output.ALL)
+	private final HashCode manifestHash;
+
+	@JsonProperty("index")
+	@DsonOutput(Output.ALL)
+	private final int index;
+
+	@JsonProperty("payload")
+	@DsonOutput(Output.ALL)
+	private final Command payload;
+
+	@JsonCreator
+	public StateSnapshotChunk(
+		@JsonProperty("manifest_hash") HashCode manifestHash,
+		@JsonProperty("index") int index,
+		@JsonProperty("payload") Command payload
+	) {
+		this.manifestHash = Objects.requireNonNull(manifestHash);
+		this.index = index;
+		this.payload = Objects.requireNonNull(payload);
+	}
+
+	public HashCode getManifestHash() {
+		return manifestHash;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public Command getPayload() {
+		return payload;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s{manifest=%s index=%s}", this.getClass().getSimpleName(), manifestHash, index);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		StateSnapshotChunk that = (StateSnapshotChunk) o;
+		return index == that.index
+				&& Objects.equals(manifestHash, that.manifestHash)
+				&& Objects.equals(payload, that.payload);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(manifestHash, index, payload);
+	}
+}
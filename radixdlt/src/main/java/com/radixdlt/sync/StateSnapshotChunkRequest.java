@@ -0,0 +1,61 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.sync;
+
+import com.google.common.hash.HashCode;
+import java.util.Objects;
+
+/**
+ * A request for a single chunk of a state snapshot.
+ */
+public final class StateSnapshotChunkRequest {
+	private final HashCode manifestHash;
+	private final int index;
+
+	public StateSnapshotChunkRequest(HashCode manifestHash, int index) {
+		this.manifestHash = Objects.requireNonNull(manifestHash);
+		this.index = index;
+	}
+
+	public HashCode getManifestHash() {
+		return manifestHash;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s{manifest=%s index=%s}", this.getClass().getSimpleName(), manifestHash, index);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof StateSnapshotChunkRequest)) {
+			return false;
+		}
+		StateSnapshotChunkRequest other = (StateSnapshotChunkRequest) o;
+		return this.index == other.index && Objects.equals(this.manifestHash, other.manifestHash);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(manifestHash, index);
+	}
+}
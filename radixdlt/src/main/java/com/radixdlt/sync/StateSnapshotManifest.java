@@ -0,0 +1,112 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.sync;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
+import com.radixdlt.serialization.DsonOutput;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.SerializerConstants;
+import com.radixdlt.serialization.SerializerDummy;
+import com.radixdlt.serialization.SerializerId2;
+import java.util.Objects;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Describes a snapshot of the live ledger state at the end of an epoch: the
+ * epoch change proof the state corresponds to and the hashes of the chunks
+ * the live particle set has been split into. The hash of the manifest itself
+ * identifies the snapshot's content.
+ * <p>
+ * The manifest also carries the epoch change proofs of every epoch between genesis
+ * and the snapshot's epoch, so that a node knowing only genesis can verify the
+ * snapshot's proof. These are left out of the hash as different nodes may hold
+ * different, equally valid, quorums for the same epoch change.
+ */
+@Immutable
+@SerializerId2("sync.state_snapshot_manifest")
+public final class StateSnapshotManifest {
+	@JsonProperty(SerializerConstants.SERIALIZER_NAME)
+	@DsonOutput(value = {Output.API, Output.WIRE, Output.PERSIST})
+	SerializerDummy serializer = SerializerDummy.DUMMY;
+
+	@JsonProperty("proof")
+	@DsonOutput(Output.ALL)
+	private final VerifiedLedgerHeaderAndProof proof;
+
+	@JsonProperty("epoch_proofs")
+	@DsonOutput(value = {Output.API, Output.WIRE, Output.PERSIST})
+	private final ImmutableList<VerifiedLedgerHeaderAndProof> epochProofs;
+
+	@JsonProperty("chunk_hashes")
+	@DsonOutput(Output.ALL)
+	private final ImmutableList<HashCode> chunkHashes;
+
+	@JsonCreator
+	public StateSnapshotManifest(
+		@JsonProperty("proof") VerifiedLedgerHeaderAndProof proof,
+		@JsonProperty("epoch_proofs") ImmutableList<VerifiedLedgerHeaderAndProof> epochProofs,
+		@JsonProperty("chunk_hashes") ImmutableList<HashCode> chunkHashes
+	) {
+		this.proof = Objects.requireNonNull(proof);
+		this.epochProofs = epochProofs == null ? ImmutableList.of() : epochProofs;
+		this.chunkHashes = chunkHashes == null ? ImmutableList.of() : chunkHashes;
+	}
+
+	public VerifiedLedgerHeaderAndProof getProof() {
+		return proof;
+	}
+
+	/**
+	 * Retrieves the epoch change proofs leading up to the snapshot's epoch, in epoch order.
+	 */
+	public ImmutableList<VerifiedLedgerHeaderAndProof> getEpochProofs() {
+		return epochProofs;
+	}
+
+	public ImmutableList<HashCode> getChunkHashes() {
+		return chunkHashes;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s{proof=%s chunks=%s}", this.getClass().getSimpleName(), proof, chunkHashes.size());
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		StateSnapshotManifest that = (StateSnapshotManifest) o;
+		return Objects.equals(proof, that.proof)
+				&& Objects.equals(epochProofs, that.epochProofs)
+				&& Objects.equals(chunkHashes, that.chunkHashes);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(proof, epochProofs, chunkHashes);
+	}
+}
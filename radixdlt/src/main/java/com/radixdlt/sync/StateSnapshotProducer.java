@@ -0,0 +1,242 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.sync;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.radixdlt.api.CommittedAtomsRx;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
+import com.radixdlt.constraintmachine.CMMicroInstruction;
+import com.radixdlt.constraintmachine.Particle;
+import com.radixdlt.constraintmachine.Spin;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.middleware2.ClientAtom;
+import com.radixdlt.middleware2.store.CommittedAtomsStore;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.statecomputer.CommittedAtom;
+import com.radixdlt.store.berkeley.NextCommittedLimitReachedException;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Produces a {@link StateSnapshot} of the live particle set at every epoch change.
+ * <p>
+ * The live set is built once on start by scanning the committed ledger and is then
+ * kept up to date incrementally from committed atoms on a thread of its own, so
+ * producing a snapshot costs time proportional to the live state only. Particles are
+ * ordered by hash so that every node produces the same chunks for the same epoch.
+ * Every epoch change proof seen is kept as well, for manifests to carry.
+ * The latest two snapshots are retained so that a download in progress survives an
+ * epoch change.
+ */
+public final class StateSnapshotProducer {
+	private static final Logger log = LogManager.getLogger();
+	private static final int SCAN_BATCH_SIZE = 1024;
+
+	private final CommittedAtomsStore store;
+	private final CommittedAtomsRx committedAtomsRx;
+	private final Serialization serialization;
+	private final Hasher hasher;
+	private final int chunkSize;
+	private final ExecutorService executor;
+
+	// Only accessed on the executor's thread
+	private final TreeMap<HashCode, Particle> liveParticles =
+		new TreeMap<>(Comparator.<HashCode, byte[]>comparing(HashCode::asBytes, UnsignedBytes.lexicographicalComparator()));
+	private final List<VerifiedLedgerHeaderAndProof> epochProofs = new ArrayList<>();
+	private final List<CommittedAtom> pending = new ArrayList<>();
+	private long appliedVersion = -1;
+	private boolean scanned;
+	private boolean failed;
+
+	private volatile StateSnapshot latest;
+	private volatile StateSnapshot previous;
+	private Disposable disposable;
+
+	public StateSnapshotProducer(
+		CommittedAtomsStore store,
+		CommittedAtomsRx committedAtomsRx,
+		Serialization serialization,
+		Hasher hasher,
+		int chunkSize
+	) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+		}
+		this.store = Objects.requireNonNull(store);
+		this.committedAtomsRx = Objects.requireNonNull(committedAtomsRx);
+		this.serialization = Objects.requireNonNull(serialization);
+		this.hasher = Objects.requireNonNull(hasher);
+		this.chunkSize = chunkSize;
+		this.executor = Executors.newSingleThreadExecutor(
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("StateSnapshotProducer").build()
+		);
+	}
+
+	public synchronized void start() {
+		if (this.disposable != null) {
+			return;
+		}
+		// Subscribe before scanning so that no atom committed meanwhile is missed. Atoms
+		// are held back until the scan is done, and any it covered are dropped by version.
+		this.disposable = this.committedAtomsRx.committedAtoms()
+			.observeOn(Schedulers.from(this.executor))
+			.subscribe(c -> this.process(c.getCommittedAtom()));
+		this.executor.execute(this::scan);
+	}
+
+	public synchronized void stop() {
+		if (this.disposable != null) {
+			this.disposable.dispose();
+			this.disposable = null;
+		}
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Retrieves the most recent snapshot produced, if any.
+	 */
+	public Optional<StateSnapshot> latest() {
+		return Optional.ofNullable(this.latest);
+	}
+
+	/**
+	 * Retrieves a retained snapshot by the hash of its manifest.
+	 */
+	public Optional<StateSnapshot> get(HashCode manifestHash) {
+		final StateSnapshot current = this.latest;
+		if (current != null && current.getManifestHash().equals(manifestHash)) {
+			return Optional.of(current);
+		}
+		final StateSnapshot prior = this.previous;
+		if (prior != null && prior.getManifestHash().equals(manifestHash)) {
+			return Optional.of(prior);
+		}
+		return Optional.empty();
+	}
+
+	private void scan() {
+		final Optional<VerifiedLedgerHeaderAndProof> lastEpochProof = store.getLastVerifiedHeader()
+			.flatMap(h -> h.isEndOfEpoch() ? Optional.of(h) : store.getEpochVerifiedHeader(h.getEpoch()));
+
+		long stateVersion = -1;
+		while (true) {
+			final ImmutableList<CommittedAtom> atoms;
+			try {
+				atoms = store.getNextCommittedAtoms(stateVersion, SCAN_BATCH_SIZE);
+			} catch (NextCommittedLimitReachedException e) {
+				log.error("Unable to build live state, no snapshots will be produced", e);
+				this.failed = true;
+				this.pending.clear();
+				return;
+			}
+			if (atoms.isEmpty()) {
+				break;
+			}
+			atoms.forEach(this::apply);
+			final CommittedAtom last = atoms.get(atoms.size() - 1);
+			if (lastEpochProof.map(last.getStateAndProof()::equals).orElse(false)) {
+				this.snapshot(last.getStateAndProof());
+			}
+			stateVersion = last.getStateVersion();
+		}
+		log.info("Live state for snapshots built up to version {} with {} particles", this.appliedVersion, this.liveParticles.size());
+
+		this.scanned = true;
+		this.pending.forEach(this::process);
+		this.pending.clear();
+	}
+
+	private void process(CommittedAtom committedAtom) {
+		if (!this.scanned) {
+			if (!this.failed) {
+				this.pending.add(committedAtom);
+			}
+			return;
+		}
+		// Atoms only share a version at genesis, which is always picked up by the scan,
+		// so anything at or below the applied version has been seen already
+		if (this.failed || committedAtom.getStateVersion() <= this.appliedVersion) {
+			return;
+		}
+		this.apply(committedAtom);
+		final VerifiedLedgerHeaderAndProof proof = committedAtom.getStateAndProof();
+		if (proof.isEndOfEpoch() && committedAtom.getStateVersion() == proof.getStateVersion()) {
+			this.snapshot(proof);
+		}
+	}
+
+	private void apply(CommittedAtom committedAtom) {
+		for (CMMicroInstruction instruction : committedAtom.getCMInstruction().getMicroInstructions()) {
+			if (!instruction.isCheckSpin()) {
+				continue;
+			}
+			final Particle particle = instruction.getParticle();
+			if (instruction.getCheckSpin() == Spin.NEUTRAL) {
+				this.liveParticles.put(hasher.hash(particle), particle);
+			} else if (instruction.getCheckSpin() == Spin.UP) {
+				this.liveParticles.remove(hasher.hash(particle));
+			}
+		}
+		this.appliedVersion = committedAtom.getStateVersion();
+
+		final VerifiedLedgerHeaderAndProof proof = committedAtom.getStateAndProof();
+		final boolean epochChange = proof.isEndOfEpoch() && committedAtom.getStateVersion() == proof.getStateVersion();
+		if (epochChange && (this.epochProofs.isEmpty() || Iterables.getLast(this.epochProofs).getEpoch() < proof.getEpoch())) {
+			this.epochProofs.add(proof);
+		}
+	}
+
+	private void snapshot(VerifiedLedgerHeaderAndProof proof) {
+		final ImmutableList.Builder<Command> chunks = ImmutableList.builder();
+		final ImmutableList.Builder<HashCode> chunkHashes = ImmutableList.builder();
+		for (List<Particle> particles : Iterables.partition(this.liveParticles.values(), this.chunkSize)) {
+			final ImmutableList.Builder<CMMicroInstruction> instructions = ImmutableList.builder();
+			particles.forEach(p -> instructions.add(CMMicroInstruction.checkSpinAndPush(p, Spin.NEUTRAL)));
+			instructions.add(CMMicroInstruction.particleGroup());
+			final ClientAtom chunkAtom = ClientAtom.create(instructions.build(), hasher);
+			final Command chunk = new Command(serialization.toDson(chunkAtom, Output.ALL));
+			chunks.add(chunk);
+			chunkHashes.add(hasher.hash(chunk));
+		}
+
+		final ImmutableList<VerifiedLedgerHeaderAndProof> priorEpochProofs = this.epochProofs.stream()
+			.filter(p -> p.getEpoch() < proof.getEpoch())
+			.collect(ImmutableList.toImmutableList());
+		final StateSnapshotManifest manifest = new StateSnapshotManifest(proof, priorEpochProofs, chunkHashes.build());
+		final StateSnapshot snapshot = new StateSnapshot(manifest, hasher.hash(manifest), chunks.build());
+		this.previous = this.latest;
+		this.latest = snapshot;
+		log.info("Produced state snapshot {} for epoch {} with {} particles", snapshot.getManifestHash(), proof.getEpoch(), this.liveParticles.size());
+	}
+}
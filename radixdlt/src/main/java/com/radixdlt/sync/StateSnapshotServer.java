@@ -0,0 +1,85 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.sync;
+
+import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.environment.rx.RemoteEvent;
+import com.radixdlt.middleware2.network.MessageCentralStateSnapshotSync;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import java.util.Objects;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Answers remote requests for state snapshot manifests and chunks from the
+ * snapshots produced by a {@link StateSnapshotProducer}. Snapshots are fully
+ * prepared when they're produced so serving is a lookup only.
+ */
+public final class StateSnapshotServer {
+	private static final Logger log = LogManager.getLogger();
+
+	private final StateSnapshotProducer producer;
+	private final MessageCentralStateSnapshotSync network;
+	private final SystemCounters counters;
+
+	private CompositeDisposable disposable;
+
+	public StateSnapshotServer(StateSnapshotProducer producer, MessageCentralStateSnapshotSync network, SystemCounters counters) {
+		this.producer = Objects.requireNonNull(producer);
+		this.network = Objects.requireNonNull(network);
+		this.counters = Objects.requireNonNull(counters);
+	}
+
+	public synchronized void start() {
+		if (disposable != null) {
+			return;
+		}
+		producer.start();
+		disposable = new CompositeDisposable(
+			network.manifestRequests().subscribe(this::processManifestRequest),
+			network.chunkRequests().subscribe(this::processChunkRequest)
+		);
+	}
+
+	public synchronized void stop() {
+		if (disposable != null) {
+			disposable.dispose();
+			disposable = null;
+			producer.stop();
+		}
+	}
+
+	private void processManifestRequest(BFTNode requester) {
+		producer.latest().ifPresent(snapshot -> network.sendManifest(requester, snapshot.getManifest()));
+	}
+
+	private void processChunkRequest(RemoteEvent<StateSnapshotChunkRequest> request) {
+		final StateSnapshotChunkRequest chunkRequest = request.getEvent();
+		producer.get(chunkRequest.getManifestHash())
+			.flatMap(snapshot -> snapshot.getChunk(chunkRequest.getIndex()))
+			.ifPresentOrElse(
+				chunk -> {
+					network.sendChunk(request.getOrigin(), chunk);
+					counters.increment(CounterType.SYNC_SNAPSHOT_CHUNKS_SERVED);
+				},
+				() -> log.debug("No snapshot chunk for {} from {}", chunkRequest, request.getOrigin())
+			);
+	}
+}
@@ -0,0 +1,379 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.sync;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.consensus.HashVerifier;
+import com.radixdlt.consensus.TimestampedECDSASignature;
+import com.radixdlt.consensus.TimestampedVoteData;
+import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
+import com.radixdlt.consensus.VoteData;
+import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.consensus.bft.BFTValidatorSet;
+import com.radixdlt.consensus.bft.ValidationState;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.environment.rx.RemoteEvent;
+import com.radixdlt.ledger.VerifiedCommandsAndProof;
+import com.radixdlt.middleware2.ClientAtom;
+import com.radixdlt.middleware2.network.MessageCentralStateSnapshotSync;
+import com.radixdlt.middleware2.store.CommittedAtomsStore;
+import com.radixdlt.network.addressbook.AddressBook;
+import com.radixdlt.network.addressbook.PeerWithSystem;
+import com.radixdlt.serialization.DeserializeException;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.utils.UInt256;
+import io.reactivex.rxjava3.disposables.Disposable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Onboards a node with an empty ledger from a state snapshot rather than by
+ * replaying every committed atom since genesis.
+ * <p>
+ * A manifest is only considered if its proof verifies against the validator set of
+ * its epoch, which is established by verifying the chain of epoch change proofs the
+ * manifest carries starting from the genesis validator set. Ledger headers don't commit
+ * to the ledger state though, so the snapshot itself can't be checked against its proof.
+ * Instead, a snapshot is only accepted once validators holding more than the faulty
+ * share of the power of the next epoch's validator set agree on the hash of its manifest,
+ * so that at least one honest validator vouches for it. Its chunks are then downloaded
+ * from all peers agreeing in parallel, each checked against the hash in the manifest,
+ * and installed into the store. Normal ledger sync then picks up from the snapshot's proof.
+ */
+public final class StateSnapshotSync {
+	private static final Logger log = LogManager.getLogger();
+	private static final int REQUESTS_PER_PEER = 4;
+	private static final long PEER_POLL_INTERVAL_MS = 500;
+
+	private final MessageCentralStateSnapshotSync network;
+	private final AddressBook addressBook;
+	private final CommittedAtomsStore store;
+	private final VerifiedCommandsAndProof genesisCheckpoint;
+	private final Serialization serialization;
+	private final Hasher hasher;
+	private final HashVerifier hashVerifier;
+	private final SystemCounters counters;
+	private final int minPeers;
+	private final long requestTimeoutMs;
+	private final long discoveryTimeoutMs;
+
+	public StateSnapshotSync(
+		MessageCentralStateSnapshotSync network,
+		AddressBook addressBook,
+		CommittedAtomsStore store,
+		VerifiedCommandsAndProof genesisCheckpoint,
+		Serialization serialization,
+		Hasher hasher,
+		HashVerifier hashVerifier,
+		SystemCounters counters,
+		int minPeers,
+		long requestTimeoutMs,
+		long discoveryTimeoutMs
+	) {
+		if (minPeers <= 0) {
+			throw new IllegalArgumentException("minPeers must be positive: " + minPeers);
+		}
+		this.network = Objects.requireNonNull(network);
+		this.addressBook = Objects.requireNonNull(addressBook);
+		this.store = Objects.requireNonNull(store);
+		this.genesisCheckpoint = Objects.requireNonNull(genesisCheckpoint);
+		this.serialization = Objects.requireNonNull(serialization);
+		this.hasher = Objects.requireNonNull(hasher);
+		this.hashVerifier = Objects.requireNonNull(hashVerifier);
+		this.counters = Objects.requireNonNull(counters);
+		this.minPeers = minPeers;
+		this.requestTimeoutMs = requestTimeoutMs;
+		this.discoveryTimeoutMs = discoveryTimeoutMs;
+	}
+
+	private static final class AgreedManifest {
+		private final StateSnapshotManifest manifest;
+		private final HashCode manifestHash;
+		private final List<BFTNode> peers;
+
+		private AgreedManifest(StateSnapshotManifest manifest, HashCode manifestHash, List<BFTNode> peers) {
+			this.manifest = manifest;
+			this.manifestHash = manifestHash;
+			this.peers = peers;
+		}
+	}
+
+	/**
+	 * Downloads and installs the latest state snapshot enough validators agree on, provided
+	 * the local ledger holds nothing beyond genesis. This must run before the radix engine
+	 * is created, as the engine computes its state from the store when created.
+	 *
+	 * @return whether a snapshot was installed
+	 * @throws InterruptedException if interrupted while waiting for peers
+	 */
+	public boolean bootstrap() throws InterruptedException {
+		final VerifiedLedgerHeaderAndProof genesis = genesisCheckpoint.getHeader();
+		final VerifiedLedgerHeaderAndProof local = store.getLastVerifiedHeader().orElse(genesis);
+		if (local.getStateVersion() > genesis.getStateVersion()) {
+			log.info("Ledger already at version {}, not syncing a state snapshot", local.getStateVersion());
+			return false;
+		}
+
+		final ImmutableList<BFTNode> peers = awaitPeers();
+		if (peers.size() < minPeers) {
+			log.warn("Only {} of {} peers required for a state snapshot found", peers.size(), minPeers);
+			return false;
+		}
+
+		final Optional<AgreedManifest> agreed = fetchManifest(peers, genesis);
+		if (agreed.isEmpty()) {
+			log.warn("No state snapshot agreed on by enough validators among {}", peers);
+			return false;
+		}
+
+		final AgreedManifest snapshot = agreed.get();
+		log.info("Syncing state snapshot {} for epoch {} from {}",
+			snapshot.manifestHash, snapshot.manifest.getProof().getEpoch(), snapshot.peers);
+		final Optional<ImmutableList<ClientAtom>> chunks = fetchChunks(snapshot);
+		if (chunks.isEmpty()) {
+			return false;
+		}
+
+		store.installSnapshot(snapshot.manifest.getProof(), chunks.get());
+		log.info("Installed state snapshot {} at version {}", snapshot.manifestHash, snapshot.manifest.getProof().getStateVersion());
+		return true;
+	}
+
+	private ImmutableList<BFTNode> awaitPeers() throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + discoveryTimeoutMs;
+		while (true) {
+			final ImmutableList<BFTNode> peers = addressBook.peers()
+				.filter(PeerWithSystem::hasSystem)
+				.map(p -> BFTNode.create(p.getSystem().getKey()))
+				.distinct()
+				.collect(ImmutableList.toImmutableList());
+			if (peers.size() >= minPeers || System.currentTimeMillis() >= deadline) {
+				return peers;
+			}
+			Thread.sleep(PEER_POLL_INTERVAL_MS);
+		}
+	}
+
+	private Optional<AgreedManifest> fetchManifest(
+		ImmutableList<BFTNode> peers,
+		VerifiedLedgerHeaderAndProof genesis
+	) throws InterruptedException {
+		final BlockingQueue<RemoteEvent<StateSnapshotManifest>> responses = new LinkedBlockingQueue<>();
+		final Map<BFTNode, StateSnapshotManifest> manifests = new HashMap<>();
+		final Disposable disposable = network.manifestResponses().subscribe(responses::add);
+		try {
+			peers.forEach(network::sendManifestRequest);
+			final long deadline = System.currentTimeMillis() + requestTimeoutMs;
+			while (manifests.size() < peers.size()) {
+				final RemoteEvent<StateSnapshotManifest> response =
+					responses.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+				if (response == null) {
+					break;
+				}
+				if (peers.contains(response.getOrigin())) {
+					manifests.putIfAbsent(response.getOrigin(), response.getEvent());
+				}
+			}
+		} finally {
+			disposable.dispose();
+		}
+
+		final Map<HashCode, List<BFTNode>> peersByHash = new HashMap<>();
+		final Map<HashCode, StateSnapshotManifest> manifestsByHash = new HashMap<>();
+		manifests.forEach((peer, manifest) -> {
+			final VerifiedLedgerHeaderAndProof proof = manifest.getProof();
+			if (!proof.isEndOfEpoch() || proof.getStateVersion() <= genesis.getStateVersion()) {
+				return;
+			}
+			if (!verifyProofs(manifest, genesis)) {
+				log.warn("State snapshot manifest from {} has an invalid proof", peer);
+				counters.increment(CounterType.SYNC_SNAPSHOT_INVALID_MANIFESTS_RECEIVED);
+				return;
+			}
+			final HashCode manifestHash = hasher.hash(manifest);
+			manifestsByHash.putIfAbsent(manifestHash, manifest);
+			peersByHash.computeIfAbsent(manifestHash, h -> new ArrayList<>()).add(peer);
+		});
+
+		return peersByHash.entrySet().stream()
+			.map(e -> new AgreedManifest(manifestsByHash.get(e.getKey()), e.getKey(), e.getValue()))
+			.filter(StateSnapshotSync::agreedByValidators)
+			.max(Comparator.comparingLong(a -> a.manifest.getProof().getStateVersion()));
+	}
+
+	/**
+	 * Checks that the peers agreeing on a manifest hold more power in the validator set
+	 * following the snapshot than could be faulty, i.e. that an honest validator is among them.
+	 */
+	private static boolean agreedByValidators(AgreedManifest agreed) {
+		final BFTValidatorSet validatorSet = agreed.manifest.getProof().getNextValidatorSet().orElseThrow();
+		final UInt256 agreeingPower = agreed.peers.stream()
+			.filter(validatorSet::containsNode)
+			.map(validatorSet::getPower)
+			.reduce(UInt256.ZERO, UInt256::add);
+		final UInt256 totalPower = validatorSet.getTotalPower();
+		final UInt256 faultyPower = totalPower.isZero() ? totalPower : totalPower.decrement().divide(UInt256.THREE);
+		return agreeingPower.compareTo(faultyPower) > 0;
+	}
+
+	/**
+	 * Verifies the manifest's proof by walking its epoch change proofs from genesis,
+	 * each of which must carry a quorum of the validator set the previous one announced.
+	 */
+	private boolean verifyProofs(StateSnapshotManifest manifest, VerifiedLedgerHeaderAndProof genesis) {
+		final List<VerifiedLedgerHeaderAndProof> chain = new ArrayList<>();
+		manifest.getEpochProofs().stream()
+			.filter(p -> p.getEpoch() > genesis.getEpoch())
+			.forEach(chain::add);
+		chain.add(manifest.getProof());
+
+		Optional<BFTValidatorSet> validatorSet = genesis.getNextValidatorSet();
+		long epoch = genesis.getEpoch();
+		for (VerifiedLedgerHeaderAndProof proof : chain) {
+			epoch++;
+			if (validatorSet.isEmpty() || proof.getEpoch() != epoch || !proof.isEndOfEpoch()
+				|| !hasQuorum(proof, validatorSet.get())) {
+				return false;
+			}
+			validatorSet = proof.getNextValidatorSet();
+		}
+		return true;
+	}
+
+	private boolean hasQuorum(VerifiedLedgerHeaderAndProof proof, BFTValidatorSet validatorSet) {
+		final VoteData voteData = proof.toDto().toVoteData();
+		final ValidationState validationState = validatorSet.newValidationState();
+		for (Map.Entry<BFTNode, TimestampedECDSASignature> e : proof.getSignatures().getSignatures().entrySet()) {
+			final BFTNode node = e.getKey();
+			final TimestampedECDSASignature signature = e.getValue();
+			if (!validatorSet.containsNode(node)) {
+				continue;
+			}
+			final HashCode voteDataHash = hasher.hash(new TimestampedVoteData(voteData, signature.timestamp()));
+			if (!hashVerifier.verify(node.getKey(), voteDataHash, signature.signature())) {
+				return false;
+			}
+			validationState.addSignature(node, signature.timestamp(), signature.signature());
+			if (validationState.complete()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Optional<ImmutableList<ClientAtom>> fetchChunks(AgreedManifest snapshot) throws InterruptedException {
+		final ImmutableList<HashCode> chunkHashes = snapshot.manifest.getChunkHashes();
+		final Command[] chunks = new Command[chunkHashes.size()];
+		final Deque<Integer> pending = new ArrayDeque<>();
+		for (int i = 0; i < chunks.length; i++) {
+			pending.add(i);
+		}
+		final Map<Integer, BFTNode> outstanding = new HashMap<>();
+		final Map<Integer, Long> deadlines = new HashMap<>();
+		final List<BFTNode> available = new ArrayList<>(snapshot.peers);
+		int received = 0;
+
+		final BlockingQueue<RemoteEvent<StateSnapshotChunk>> responses = new LinkedBlockingQueue<>();
+		final Disposable disposable = network.chunkResponses().subscribe(responses::add);
+		try {
+			while (received < chunks.length) {
+				for (BFTNode peer : available) {
+					long inFlight = outstanding.values().stream().filter(peer::equals).count();
+					while (!pending.isEmpty() && inFlight < REQUESTS_PER_PEER) {
+						final int index = pending.poll();
+						outstanding.put(index, peer);
+						deadlines.put(index, System.currentTimeMillis() + requestTimeoutMs);
+						network.sendChunkRequest(peer, snapshot.manifestHash, index);
+						inFlight++;
+					}
+				}
+				if (outstanding.isEmpty()) {
+					log.warn("No peers left to sync state snapshot {} from", snapshot.manifestHash);
+					return Optional.empty();
+				}
+
+				final long nextDeadline = Collections.min(deadlines.values());
+				final RemoteEvent<StateSnapshotChunk> response =
+					responses.poll(Math.max(0, nextDeadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+				if (response != null) {
+					final StateSnapshotChunk chunk = response.getEvent();
+					final int index = chunk.getIndex();
+					if (chunk.getManifestHash().equals(snapshot.manifestHash) && response.getOrigin().equals(outstanding.get(index))) {
+						outstanding.remove(index);
+						deadlines.remove(index);
+						if (hasher.hash(chunk.getPayload()).equals(chunkHashes.get(index))) {
+							chunks[index] = chunk.getPayload();
+							received++;
+							counters.increment(CounterType.SYNC_SNAPSHOT_CHUNKS_RECEIVED);
+						} else {
+							log.warn("Invalid state snapshot chunk {} from {}", index, response.getOrigin());
+							counters.increment(CounterType.SYNC_SNAPSHOT_INVALID_CHUNKS_RECEIVED);
+							available.remove(response.getOrigin());
+							pending.addFirst(index);
+						}
+					}
+				}
+
+				// Chunks which timed out are handed to the remaining peers
+				final long now = System.currentTimeMillis();
+				final Iterator<Map.Entry<Integer, Long>> it = deadlines.entrySet().iterator();
+				while (it.hasNext()) {
+					final Map.Entry<Integer, Long> deadline = it.next();
+					if (deadline.getValue() <= now) {
+						it.remove();
+						final BFTNode peer = outstanding.remove(deadline.getKey());
+						log.debug("State snapshot chunk {} timed out from {}", deadline.getKey(), peer);
+						available.remove(peer);
+						pending.addFirst(deadline.getKey());
+					}
+				}
+			}
+		} finally {
+			disposable.dispose();
+		}
+
+		final ImmutableList.Builder<ClientAtom> atoms = ImmutableList.builder();
+		for (Command chunk : chunks) {
+			try {
+				atoms.add(serialization.fromDson(chunk.getPayload(), ClientAtom.class));
+			} catch (DeserializeException | IllegalStateException e) {
+				log.error("Agreed state snapshot {} has an invalid chunk", snapshot.manifestHash, e);
+				return Optional.empty();
+			}
+		}
+		return Optional.of(atoms.build());
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.sync;
+
+import com.radixdlt.utils.ThreadFactories;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The threads sync runs on: a single thread which all sync processing is confined
+ * to, and a pool shared by all sync response verifiers which verifies signatures
+ * off that thread. Both are shut down by the sync runner when it stops.
+ */
+public final class SyncExecutors {
+	private final ExecutorService syncExecutor;
+	private final ExecutorService verificationExecutor;
+
+	public SyncExecutors(ExecutorService syncExecutor, ExecutorService verificationExecutor) {
+		this.syncExecutor = Objects.requireNonNull(syncExecutor);
+		this.verificationExecutor = Objects.requireNonNull(verificationExecutor);
+	}
+
+	/**
+	 * Creates a single sync thread and a pool of {@code verificationThreads} threads
+	 * for signature verification.
+	 */
+	public static SyncExecutors create(int verificationThreads) {
+		return new SyncExecutors(
+			Executors.newSingleThreadExecutor(ThreadFactories.daemonThreads("SyncManager")),
+			Executors.newFixedThreadPool(verificationThreads, ThreadFactories.daemonThreads("SyncSignatureVerifier-%d"))
+		);
+	}
+
+	/**
+	 * @return the executor all sync processing is confined to
+	 */
+	public ExecutorService syncExecutor() {
+		return syncExecutor;
+	}
+
+	/**
+	 * @return the executor which verifies signatures of sync responses
+	 */
+	public ExecutorService verificationExecutor() {
+		return verificationExecutor;
+	}
+
+	/**
+	 * Stops accepting work on both executors, letting work already accepted complete.
+	 */
+	public void shutdown() {
+		this.verificationExecutor.shutdown();
+		this.syncExecutor.shutdown();
+	}
+}
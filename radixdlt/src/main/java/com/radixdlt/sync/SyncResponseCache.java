@@ -0,0 +1,126 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.sync;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.ledger.AccumulatorState;
+import com.radixdlt.ledger.DtoCommandsAndProof;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Least recently used cache of responses to remote sync requests, bounded by the
+ * bytes of commands held.
+ * <p>
+ * Responses are keyed by the accumulator state the request starts from, which
+ * includes the state version, and the batch size. As the commands and tail of
+ * responses only cover the committed ledger they never change, so are never
+ * invalidated. Keying on the accumulator hash as well as the version means a
+ * request with a bogus start cannot cause a bad response to be served to other
+ * nodes.
+ * <p>
+ * The head of a cached response is the header of the request it was first built
+ * for, and must be replaced with the header of any other request it is served to.
+ * Returning the same response instance for requests with the same header lets
+ * the network layer reuse its serialized form.
+ */
+public final class SyncResponseCache {
+	private final Cache<Key, DtoCommandsAndProof> responses;
+	private final SystemCounters counters;
+
+	public SyncResponseCache(long maxCachedBytes, SystemCounters counters) {
+		if (maxCachedBytes < 0) {
+			throw new IllegalArgumentException("Invalid sync response cache size: " + maxCachedBytes);
+		}
+		this.counters = Objects.requireNonNull(counters);
+		// Only accessed by the few sync serving threads, and a single segment keeps the size bound exact
+		this.responses = CacheBuilder.newBuilder()
+			.concurrencyLevel(1)
+			.maximumWeight(maxCachedBytes)
+			.<Key, DtoCommandsAndProof>weigher((key, response) -> size(response))
+			.<Key, DtoCommandsAndProof>removalListener(this::removed)
+			.build();
+	}
+
+	/**
+	 * Returns the cached response to a request for {@code batchSize} commands
+	 * following {@code start}, if any.
+	 *
+	 * @param start the accumulator state the request starts from
+	 * @param batchSize the maximum number of commands in the response
+	 * @return the cached response, or empty if none
+	 */
+	public Optional<DtoCommandsAndProof> get(AccumulatorState start, int batchSize) {
+		DtoCommandsAndProof response = this.responses.getIfPresent(new Key(start, batchSize));
+		this.counters.increment(response == null ? CounterType.SYNC_SERVER_CACHE_MISSES : CounterType.SYNC_SERVER_CACHE_HITS);
+		return Optional.ofNullable(response);
+	}
+
+	/**
+	 * Caches the response to a request for {@code batchSize} commands following
+	 * {@code start}, evicting least recently used responses if needed.
+	 *
+	 * @param start the accumulator state the request starts from
+	 * @param batchSize the maximum number of commands in the response
+	 * @param response the response
+	 */
+	public void put(AccumulatorState start, int batchSize, DtoCommandsAndProof response) {
+		// Added before inserting, as inserting may evict the response straight away
+		this.counters.add(CounterType.SYNC_SERVER_CACHE_BYTES, size(response));
+		this.responses.put(new Key(start, batchSize), response);
+	}
+
+	private void removed(RemovalNotification<Key, DtoCommandsAndProof> notification) {
+		this.counters.add(CounterType.SYNC_SERVER_CACHE_BYTES, -size(notification.getValue()));
+	}
+
+	private static int size(DtoCommandsAndProof response) {
+		return response.getCommands().stream()
+			.map(Command::getPayload)
+			.mapToInt(payload -> payload.length)
+			.sum();
+	}
+
+	private static final class Key {
+		private final AccumulatorState start;
+		private final int batchSize;
+
+		private Key(AccumulatorState start, int batchSize) {
+			this.start = start;
+			this.batchSize = batchSize;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(start, batchSize);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return this.batchSize == other.batchSize && Objects.equals(this.start, other.start);
+		}
+	}
+}
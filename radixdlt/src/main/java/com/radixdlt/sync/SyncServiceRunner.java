@@ -35,10 +35,6 @@ import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-
-import com.radixdlt.utils.ThreadFactories;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -50,12 +46,10 @@ public final class SyncServiceRunner<T extends LedgerUpdate> implements ModuleRu
 	private static final Logger log = LogManager.getLogger();
 
 	private final Scheduler singleThreadScheduler;
-	private final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor(
-		ThreadFactories.daemonThreads("SyncManager")
-	);
+	private final SyncExecutors syncExecutors;
 	private final EventProcessor<LocalSyncRequest> syncRequestEventProcessor;
 
-	private final RemoteEventProcessor<DtoLedgerHeaderAndProof> remoteSyncServiceProcessor;
+	private final SyncServingExecutor syncServingExecutor;
 	private final RemoteEventProcessor<DtoCommandsAndProof> responseProcessor;
 
 	private final Observable<SyncInProgress> syncTimeouts;
@@ -79,9 +73,10 @@ public final class SyncServiceRunner<T extends LedgerUpdate> implements ModuleRu
 		Observable<T> ledgerUpdates,
 		@ProcessWithSyncRunner Set<EventProcessor<T>> ledgerUpdateProcessors,
 		Observable<RemoteEvent<DtoLedgerHeaderAndProof>> remoteSyncRequests,
-		RemoteEventProcessor<DtoLedgerHeaderAndProof> remoteSyncServiceProcessor,
+		SyncServingExecutor syncServingExecutor,
 		Observable<RemoteEvent<DtoCommandsAndProof>> remoteSyncResponses,
-		RemoteEventProcessor<DtoCommandsAndProof> responseProcessor
+		RemoteEventProcessor<DtoCommandsAndProof> responseProcessor,
+		SyncExecutors syncExecutors
 	) {
 		this.localSyncRequests = Objects.requireNonNull(localSyncRequests);
 		this.syncRequestEventProcessor = Objects.requireNonNull(syncRequestEventProcessor);
@@ -93,8 +88,9 @@ public final class SyncServiceRunner<T extends LedgerUpdate> implements ModuleRu
 		this.syncTimeoutProcessor = Objects.requireNonNull(syncTimeoutProcessor);
 
 		this.ledgerUpdates = Objects.requireNonNull(ledgerUpdates);
-		this.singleThreadScheduler = Schedulers.from(this.executorService);
-		this.remoteSyncServiceProcessor = Objects.requireNonNull(remoteSyncServiceProcessor);
+		this.syncExecutors = Objects.requireNonNull(syncExecutors);
+		this.singleThreadScheduler = Schedulers.from(syncExecutors.syncExecutor());
+		this.syncServingExecutor = Objects.requireNonNull(syncServingExecutor);
 		this.responseProcessor = Objects.requireNonNull(responseProcessor);
 		this.ledgerUpdateProcessors = Objects.requireNonNull(ledgerUpdateProcessors);
 	}
@@ -109,9 +105,9 @@ public final class SyncServiceRunner<T extends LedgerUpdate> implements ModuleRu
 				return;
 			}
 
+			// Serving other nodes happens on its own bounded executor, away from our own sync
 			Disposable d0 = remoteSyncRequests
-				.observeOn(singleThreadScheduler)
-				.subscribe(e -> remoteSyncServiceProcessor.process(e.getOrigin(), e.getEvent()));
+				.subscribe(e -> syncServingExecutor.submit(e.getOrigin(), e.getEvent()));
 
 			Disposable d1 = remoteSyncResponses
 				.observeOn(singleThreadScheduler)
@@ -136,7 +132,8 @@ public final class SyncServiceRunner<T extends LedgerUpdate> implements ModuleRu
 	}
 
 	/**
-	 * Stop the service and cleanup resources
+	 * Stop the service and cleanup resources, including the threads serving other
+	 * nodes and the sync threads, which cannot be restarted.
 	 */
 	@Override
 	public void stop() {
@@ -145,6 +142,8 @@ public final class SyncServiceRunner<T extends LedgerUpdate> implements ModuleRu
 				compositeDisposable.dispose();
 				compositeDisposable = null;
 			}
+			syncServingExecutor.shutdown();
+			syncExecutors.shutdown();
 		}
 	}
 }
\ No newline at end of file
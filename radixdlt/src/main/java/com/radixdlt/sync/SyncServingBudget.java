@@ -0,0 +1,98 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.sync;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.function.LongSupplier;
+
+/**
+ * A budget of command bytes served per second, shared by all serving threads.
+ * <p>
+ * Bytes are reserved before a response is read from the store, so that a request
+ * over budget is dropped without reading anything. The size of a response is only
+ * known once it has been read, so the size of the last response read is reserved
+ * and the reservation is settled with the actual size afterwards. Responses cannot
+ * be truncated, as the proof only covers the whole batch of commands, so settling
+ * may overdraw the budget, which then refuses reservations until it is repaid.
+ */
+public final class SyncServingBudget {
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	private final long maxServedBytesPerSecond;
+	private final LongSupplier nanoTime;
+	private long availableBytes;
+	private long lastRefillNanos;
+	private long expectedResponseBytes = 1;
+
+	public SyncServingBudget(long maxServedBytesPerSecond) {
+		this(maxServedBytesPerSecond, System::nanoTime);
+	}
+
+	@VisibleForTesting
+	SyncServingBudget(long maxServedBytesPerSecond, LongSupplier nanoTime) {
+		if (maxServedBytesPerSecond <= 0) {
+			throw new IllegalArgumentException("Invalid served bytes budget: " + maxServedBytesPerSecond);
+		}
+		this.maxServedBytesPerSecond = maxServedBytesPerSecond;
+		this.nanoTime = nanoTime;
+		this.availableBytes = maxServedBytesPerSecond;
+		this.lastRefillNanos = nanoTime.getAsLong();
+	}
+
+	/**
+	 * @return the number of bytes to reserve for a response yet to be read
+	 */
+	public synchronized long expectedResponseBytes() {
+		return this.expectedResponseBytes;
+	}
+
+	/**
+	 * Reserves {@code bytes} of the budget unless it is overdrawn.
+	 *
+	 * @param bytes the number of bytes to reserve
+	 * @return {@code true} if the bytes were reserved
+	 */
+	public synchronized boolean tryReserve(long bytes) {
+		refill();
+		if (this.availableBytes <= 0) {
+			return false;
+		}
+		this.availableBytes -= bytes;
+		return true;
+	}
+
+	/**
+	 * Settles a reservation of {@code reservedBytes} made for a response read from
+	 * the store, which turned out to hold {@code actualBytes} of commands.
+	 */
+	public synchronized void settle(long reservedBytes, long actualBytes) {
+		this.availableBytes += reservedBytes - actualBytes;
+		if (actualBytes > 0) {
+			this.expectedResponseBytes = actualBytes;
+		}
+	}
+
+	private void refill() {
+		long now = this.nanoTime.getAsLong();
+		long elapsedNanos = now - this.lastRefillNanos;
+		double refilled = (double) elapsedNanos / NANOS_PER_SECOND * this.maxServedBytesPerSecond;
+		if (refilled >= 1.0) {
+			this.availableBytes = (long) Math.min(this.maxServedBytesPerSecond, this.availableBytes + refilled);
+			this.lastRefillNanos = now;
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.sync;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.RateLimiter;
+import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.environment.RemoteEventProcessor;
+import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
+import com.radixdlt.utils.ThreadFactories;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Serves remote sync requests on a bounded pool of threads of its own, so that
+ * serving other nodes never delays processing of our own sync.
+ * <p>
+ * Requests are dropped rather than queued without bound: when a requester exceeds
+ * its request rate, or when all serving threads are busy and the queue is full.
+ * A requester whose request was dropped times out and asks another peer.
+ */
+public final class SyncServingExecutor {
+	private static final Logger log = LogManager.getLogger();
+	private static final int MAX_TRACKED_REQUESTERS = 1024;
+
+	private final RemoteEventProcessor<DtoLedgerHeaderAndProof> remoteSyncServiceProcessor;
+	private final ThreadPoolExecutor executor;
+	private final LoadingCache<BFTNode, RateLimiter> requesterRateLimits;
+	private final SystemCounters counters;
+
+	public SyncServingExecutor(
+		RemoteEventProcessor<DtoLedgerHeaderAndProof> remoteSyncServiceProcessor,
+		int servingThreads,
+		int queueSize,
+		double requestsPerSecondPerRequester,
+		SystemCounters counters
+	) {
+		if (servingThreads <= 0 || queueSize <= 0 || requestsPerSecondPerRequester <= 0.0) {
+			throw new IllegalArgumentException(String.format(
+				"Invalid sync serving limits: threads %s, queue size %s, requests per second %s",
+				servingThreads, queueSize, requestsPerSecondPerRequester
+			));
+		}
+		this.remoteSyncServiceProcessor = Objects.requireNonNull(remoteSyncServiceProcessor);
+		this.counters = Objects.requireNonNull(counters);
+		this.executor = new ThreadPoolExecutor(
+			servingThreads,
+			servingThreads,
+			0L,
+			TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(queueSize),
+			ThreadFactories.daemonThreads("SyncServer-%d")
+		);
+		this.requesterRateLimits = CacheBuilder.newBuilder()
+			.maximumSize(MAX_TRACKED_REQUESTERS)
+			.expireAfterAccess(1, TimeUnit.MINUTES)
+			.build(CacheLoader.from(requester -> RateLimiter.create(requestsPerSecondPerRequester)));
+	}
+
+	/**
+	 * Schedules a remote sync request to be served, unless the requester is over its
+	 * rate limit or the serving queue is full.
+	 *
+	 * @param requester the node which sent the request
+	 * @param request the header the requester wishes to sync from
+	 * @return {@code true} if the request was accepted for serving
+	 */
+	public boolean submit(BFTNode requester, DtoLedgerHeaderAndProof request) {
+		if (!this.requesterRateLimits.getUnchecked(requester).tryAcquire()) {
+			log.debug("REMOTE_SYNC_REQUEST: Dropping request {} from {} over its rate limit", request, requester);
+			this.counters.increment(CounterType.SYNC_SERVER_REQUESTS_DROPPED);
+			return false;
+		}
+
+		try {
+			this.executor.execute(() -> serve(requester, request));
+			return true;
+		} catch (RejectedExecutionException e) {
+			log.debug("REMOTE_SYNC_REQUEST: Dropping request {} from {} as serving queue is full", request, requester);
+			this.counters.increment(CounterType.SYNC_SERVER_REQUESTS_DROPPED);
+			return false;
+		}
+	}
+
+	private void serve(BFTNode requester, DtoLedgerHeaderAndProof request) {
+		try {
+			this.remoteSyncServiceProcessor.process(requester, request);
+		} catch (RuntimeException e) {
+			log.error(String.format("REMOTE_SYNC_REQUEST: Failed to serve request %s from %s", request, requester), e);
+		}
+	}
+
+	/**
+	 * Stops accepting requests, letting requests already accepted complete.
+	 */
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+}
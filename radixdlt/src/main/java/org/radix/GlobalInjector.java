@@ -45,6 +45,7 @@ import com.radixdlt.RecoveryModule;
 import com.radixdlt.RxEnvironmentModule;
 import com.radixdlt.RadixEngineValidatorComputersModule;
 import com.radixdlt.SyncRunnerModule;
+import com.radixdlt.StateSnapshotModule;
 import com.radixdlt.SyncServiceModule;
 import com.radixdlt.SyncMempoolServiceModule;
 import com.radixdlt.LedgerRxModule;
@@ -113,6 +114,21 @@ public class GlobalInjector {
 		};
 
 		final int mempoolMaxSize = properties.get("mempool.maxSize", 1000);
+		final String mempoolJournalFile = properties.get("mempool.journal.file", "");
+		final int mempoolJournalCompactionThreshold = properties.get("mempool.journal.compaction_threshold", 10000);
+
+		final boolean merkleAccumulator = "merkle".equals(properties.get("ledger.accumulator", "hash_chain"));
+
+		final int syncServingThreads = properties.get("sync.server.threads", 2);
+		final int syncServingQueueSize = properties.get("sync.server.queue_size", 64);
+		final double syncRequestsPerSecondPerRequester = properties.get("sync.server.requests_per_second_per_peer", 20.0);
+		final long syncMaxServedBytesPerSecond = properties.get("sync.server.max_bytes_per_second", 16L * 1024 * 1024);
+		final long syncMaxCachedBytes = properties.get("sync.server.cache_max_bytes", 32L * 1024 * 1024);
+
+		final int snapshotChunkSize = properties.get("sync.snapshot.chunk_size", 128);
+		final int snapshotMinPeers = properties.get("sync.snapshot.min_peers", 2);
+		final long snapshotRequestTimeoutMs = properties.get("sync.snapshot.request_timeout_ms", 10_000L);
+		final long snapshotDiscoveryTimeoutMs = properties.get("sync.snapshot.discovery_timeout_ms", 60_000L);
 
 		injector = Guice.createInjector(
 			// System (e.g. time, random)
@@ -130,15 +146,27 @@ public class GlobalInjector {
 			new ConsensusRunnerModule(),
 
 			// Ledger
-			new LedgerModule(),
+			new LedgerModule(merkleAccumulator),
 			new LedgerRxModule(),
 			new LedgerCommandGeneratorModule(),
-			new LedgerLocalMempoolModule(mempoolMaxSize),
+			new LedgerLocalMempoolModule(mempoolMaxSize, mempoolJournalFile, mempoolJournalCompactionThreshold),
 
 			// Sync
 			new SyncRunnerModule(),
-			new SyncServiceModule(),
+			new SyncServiceModule(
+				syncServingThreads,
+				syncServingQueueSize,
+				syncRequestsPerSecondPerRequester,
+				syncMaxServedBytesPerSecond,
+				syncMaxCachedBytes
+			),
 			new SyncMempoolServiceModule(),
+			new StateSnapshotModule(
+				snapshotChunkSize,
+				snapshotMinPeers,
+				snapshotRequestTimeoutMs,
+				snapshotDiscoveryTimeoutMs
+			),
 
 			// Epochs - Consensus
 			new EpochsConsensusModule(),
@@ -25,9 +25,13 @@ import com.radixdlt.utils.MemoryLeakDetector;
 import com.radixdlt.ModuleRunner;
 import com.radixdlt.consensus.bft.BFTNode;
 import com.radixdlt.systeminfo.SystemInfoRunner;
+import com.radixdlt.mempool.MempoolJournal;
+import com.radixdlt.mempool.MempoolJournalReplayer;
 import com.radixdlt.mempool.MempoolReceiver;
 import com.radixdlt.network.addressbook.PeerManager;
 import com.radixdlt.properties.RuntimeProperties;
+import com.radixdlt.sync.StateSnapshotServer;
+import com.radixdlt.sync.StateSnapshotSync;
 
 import java.util.Map;
 import org.apache.logging.log4j.LogManager;
@@ -50,7 +54,8 @@ public final class Radix {
 	private static final String SYSTEM_VERSION_COMMIT;
 	private static final ImmutableMap<String, Object> SYSTEM_VERSION_INFO;
 
-	public static final int 	PROTOCOL_VERSION 		= 100;
+	public static final int 	PROTOCOL_VERSION 		= 101;
+	public static final int 	MIN_PROTOCOL_VERSION 	= 100;
 
 	public static final int 	AGENT_VERSION 			= 2710000;
 	public static final int 	MAJOR_AGENT_VERSION 	= 2709999;
@@ -140,10 +145,28 @@ public final class Radix {
 		final PeerManager peerManager = globalInjector.getInjector().getInstance(PeerManager.class);
 		peerManager.start();
 
+		// Onboard from a state snapshot, if enabled, before anything loads the ledger state
+		if (properties.get("sync.snapshot.bootstrap", false)) {
+			final StateSnapshotSync stateSnapshotSync = globalInjector.getInjector().getInstance(StateSnapshotSync.class);
+			try {
+				stateSnapshotSync.bootstrap();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while syncing state snapshot", e);
+			}
+		}
+
 		// Start mempool receiver
 		final MempoolReceiver mempoolReceiver = globalInjector.getInjector().getInstance(MempoolReceiver.class);
 		mempoolReceiver.start();
 
+		// Restore mempool contents from journal, if enabled
+		final MempoolJournalReplayer mempoolJournalReplayer = globalInjector.getInjector().getInstance(MempoolJournalReplayer.class);
+		mempoolJournalReplayer.replay();
+		// Write out outstanding journal records on shutdown
+		final MempoolJournal mempoolJournal = globalInjector.getInjector().getInstance(MempoolJournal.class);
+		Runtime.getRuntime().addShutdownHook(new Thread(mempoolJournal::close, "MempoolJournal shutdown"));
+
 		final SystemInfoRunner infoStateRunner = globalInjector.getInjector().getInstance(SystemInfoRunner.class);
 		infoStateRunner.start();
 
@@ -153,6 +176,11 @@ public final class Radix {
 		final ModuleRunner syncRunner = moduleRunners.get("sync");
 		syncRunner.start();
 
+		if (properties.get("sync.snapshot.serve", false)) {
+			final StateSnapshotServer stateSnapshotServer = globalInjector.getInjector().getInstance(StateSnapshotServer.class);
+			stateSnapshotServer.start();
+		}
+
 		// start API services
 		final RadixHttpServer httpServer = globalInjector.getInjector().getInstance(RadixHttpServer.class);
 		httpServer.start();
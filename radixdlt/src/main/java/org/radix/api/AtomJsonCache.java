@@ -0,0 +1,124 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.api;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.radixdlt.identifiers.AID;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A cache of committed atoms rendered as API JSON, bounded by the size of the rendered JSON.
+ * <p>
+ * Atoms are kept as rendered UTF-8 rather than as {@link org.json.JSONObject} trees, which
+ * take several times the memory, and are weighed by their actual size. Committed atoms
+ * never change, so entries are only ever evicted, never invalidated.
+ */
+public final class AtomJsonCache {
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+
+	private enum Rendering {
+		ATOM,
+		ATOM_EVENT
+	}
+
+	private static final class Key {
+		private final AID aid;
+		private final Rendering rendering;
+
+		private Key(AID aid, Rendering rendering) {
+			this.aid = aid;
+			this.rendering = rendering;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(aid, rendering);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) o;
+			return Objects.equals(this.aid, other.aid) && this.rendering == other.rendering;
+		}
+	}
+
+	private final Cache<Key, RenderedJson> cache;
+
+	public AtomJsonCache(long maxBytes) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("Invalid atom JSON cache size: " + maxBytes);
+		}
+		this.cache = CacheBuilder.newBuilder()
+			.maximumWeight(maxBytes)
+			.weigher((Key key, RenderedJson rendered) -> rendered.size())
+			.build();
+	}
+
+	/**
+	 * Gets the API JSON of a committed atom, rendering it if not cached.
+	 *
+	 * @param aid the id of the atom
+	 * @param renderer renders the atom to JSON text, returning {@code null} if it is not stored
+	 * @return the atom as JSON, or {@code null} if it is not stored
+	 */
+	public RenderedJson getAtom(AID aid, Supplier<String> renderer) {
+		return get(new Key(aid, Rendering.ATOM), renderer);
+	}
+
+	/**
+	 * Gets the JSON of the store event of a committed atom, as sent to subscribers,
+	 * rendering it if not cached.
+	 *
+	 * @param aid the id of the atom
+	 * @param renderer renders the event to JSON text, returning {@code null} if the atom is not stored
+	 * @return the event as JSON, or {@code null} if the atom is not stored
+	 */
+	public RenderedJson getAtomEvent(AID aid, Supplier<String> renderer) {
+		return get(new Key(aid, Rendering.ATOM_EVENT), renderer);
+	}
+
+	private RenderedJson get(Key key, Supplier<String> renderer) {
+		final RenderedJson cached = this.cache.getIfPresent(key);
+		if (cached != null) {
+			return cached;
+		}
+		// Rendering is not done under the cache's loader, as two threads rendering the
+		// same atom at once is harmless and cheaper than blocking readers on a lock
+		final String json = renderer.get();
+		if (json == null) {
+			return null;
+		}
+		final RenderedJson rendered = RenderedJson.of(json);
+		this.cache.put(key, rendered);
+		return rendered;
+	}
+
+	/**
+	 * Returns the number of renderings cached.
+	 *
+	 * @return the number of cached renderings
+	 */
+	public long size() {
+		return this.cache.size();
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.json.JSONString;
+
+/**
+ * JSON which has already been rendered, kept as UTF-8 bytes.
+ * <p>
+ * Being a {@link JSONString}, it is written out as is when put into a
+ * {@link org.json.JSONObject} or {@link org.json.JSONArray}, without being
+ * parsed or rendered again.
+ */
+public final class RenderedJson implements JSONString {
+	private final byte[] utf8;
+
+	private RenderedJson(byte[] utf8) {
+		this.utf8 = utf8;
+	}
+
+	/**
+	 * Creates rendered JSON from its text, which must be valid JSON.
+	 *
+	 * @param json the rendered JSON
+	 * @return the rendered JSON
+	 */
+	public static RenderedJson of(String json) {
+		return new RenderedJson(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns the size of the rendered JSON.
+	 *
+	 * @return the size in bytes
+	 */
+	public int size() {
+		return this.utf8.length;
+	}
+
+	@Override
+	public String toJSONString() {
+		return new String(this.utf8, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		return toJSONString();
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.utf8);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof RenderedJson)) {
+			return false;
+		}
+		return Arrays.equals(this.utf8, ((RenderedJson) o).utf8);
+	}
+}
@@ -20,6 +20,8 @@ package org.radix.api.http;
 import com.google.inject.Inject;
 import com.radixdlt.ModuleRunner;
 import com.radixdlt.consensus.bft.BFTCommittedUpdate;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
 import com.radixdlt.crypto.Hasher;
 import com.radixdlt.consensus.bft.VerifiedVertex;
 import com.radixdlt.statecomputer.ClientAtomToBinaryConverter;
@@ -36,6 +38,7 @@ import com.radixdlt.serialization.DsonOutput;
 import com.radixdlt.serialization.Serialization;
 import com.radixdlt.store.LedgerEntryStore;
 import com.radixdlt.universe.Universe;
+import com.radixdlt.utils.ThreadFactories;
 import com.stijndewitt.undertow.cors.AllowAll;
 import com.stijndewitt.undertow.cors.Filter;
 
@@ -47,6 +50,7 @@ import io.undertow.server.HttpServerExchange;
 import io.undertow.server.RoutingHandler;
 import io.undertow.util.Headers;
 import io.undertow.util.Methods;
+import io.undertow.util.SameThreadExecutor;
 import io.undertow.util.StatusCodes;
 import io.undertow.websockets.core.WebSocketChannel;
 
@@ -55,6 +59,8 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.radix.api.AtomJsonCache;
+import org.radix.api.jsonrpc.JsonRpcUtil;
 import org.radix.api.jsonrpc.RadixJsonRpcPeer;
 import org.radix.api.jsonrpc.RadixJsonRpcServer;
 import org.radix.api.services.AtomsService;
@@ -74,13 +80,18 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * TODO: Document me!
  */
 public final class RadixHttpServer {
 	public static final int DEFAULT_PORT = 8080;
+	public static final int DEFAULT_RPC_QUEUE_SIZE = 1024;
 	public static final String CONTENT_TYPE_JSON = "application/json";
 
 	private static final Logger logger = LogManager.getLogger();
@@ -96,6 +107,9 @@ public final class RadixHttpServer {
 	private final LocalSystem localSystem;
 	private final Serialization serialization;
 	private final InMemorySystemInfo inMemorySystemInfo;
+	private final SystemCounters counters;
+	private final ThreadPoolExecutor rpcExecutor;
+	private final ThreadPoolExecutor rpcBatchExecutor;
 	private final int port;
 	private Undertow server;
 
@@ -115,9 +129,11 @@ public final class RadixHttpServer {
 		RuntimeProperties properties,
 		LocalSystem localSystem,
 		AddressBook addressBook,
-		Hasher hasher
+		Hasher hasher,
+		SystemCounters counters
 	) {
 		this.inMemorySystemInfo = Objects.requireNonNull(inMemorySystemInfo);
+		this.counters = Objects.requireNonNull(counters);
 		this.consensusRunner = Objects.requireNonNull(moduleRunners.get("consensus"));
 		this.universe = Objects.requireNonNull(universe);
 		this.serialization = Objects.requireNonNull(serialization);
@@ -132,8 +148,40 @@ public final class RadixHttpServer {
 			submissionControl,
 			commandToBinaryConverter,
 			clientAtomToBinaryConverter,
-			hasher
+			hasher,
+			new AtomJsonCache(properties.get("api.atom_json_cache.max_bytes", AtomJsonCache.DEFAULT_MAX_BYTES))
 		);
+
+		// JSON-RPC requests are handled on a bounded pool of their own, and rejected once
+		// its queue is full, so that a burst of expensive requests cannot hold up the
+		// Undertow worker threads or grow the backlog without bound
+		final int rpcThreads = properties.get("api.rpc.threads", Runtime.getRuntime().availableProcessors());
+		final int rpcQueueSize = properties.get("api.rpc.queue_size", DEFAULT_RPC_QUEUE_SIZE);
+		if (rpcThreads <= 0 || rpcQueueSize <= 0) {
+			throw new IllegalArgumentException(String.format(
+				"Invalid JSON-RPC limits: threads %s, queue size %s", rpcThreads, rpcQueueSize
+			));
+		}
+		this.rpcExecutor = new ThreadPoolExecutor(
+			rpcThreads,
+			rpcThreads,
+			0L,
+			TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(rpcQueueSize),
+			ThreadFactories.daemonThreads("JsonRpc-%d")
+		);
+		// The read only requests of a batch are handled in parallel on a second pool, with the
+		// requesting thread handling them itself when that pool is saturated or shut down
+		this.rpcBatchExecutor = new ThreadPoolExecutor(
+			rpcThreads,
+			rpcThreads,
+			0L,
+			TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(rpcQueueSize),
+			ThreadFactories.daemonThreads("JsonRpcBatch-%d"),
+			(request, executor) -> request.run()
+		);
+		final int rpcMaxBatchSize = properties.get("api.rpc.max_batch_size", RadixJsonRpcServer.DEFAULT_MAX_BATCH_SIZE);
 		this.jsonRpcServer = new RadixJsonRpcServer(
 			consensusRunner,
 			serialization,
@@ -141,7 +189,10 @@ public final class RadixHttpServer {
 			atomsService,
 			localSystem,
 			addressBook,
-			universe
+			universe,
+			RadixJsonRpcServer.DEFAULT_MAX_REQUEST_SIZE,
+			rpcMaxBatchSize,
+			this.rpcBatchExecutor
 		);
 		this.internalService = new InternalService(submissionControl, properties, universe, hasher);
 		this.networkService = new NetworkService(serialization, localSystem, addressBook, hasher);
@@ -209,6 +260,8 @@ public final class RadixHttpServer {
 	public final void stop() {
 		this.atomsService.stop();
 		this.server.stop();
+		this.rpcExecutor.shutdown();
+		this.rpcBatchExecutor.shutdown();
 	}
 
 	private void addDevelopmentOnlyRoutesTo(RoutingHandler handler) {
@@ -252,28 +305,61 @@ public final class RadixHttpServer {
 	}
 
 	private void addPostRoutesTo(RoutingHandler handler) {
-		HttpHandler rpcPostHandler = new HttpHandler() {
-			@Override
-			public void handleRequest(HttpServerExchange exchange) {
-				// we need to be in another thread to do blocking io work, which is needed to extract the entire message body
-				if (exchange.isInIoThread()) {
-					exchange.dispatch(this);
-					return;
-				}
-
-				exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, CONTENT_TYPE_JSON);
-				try {
-					exchange.getResponseSender().send(jsonRpcServer.handleChecked(exchange));
-				} catch (IOException e) {
-					exchange.setStatusCode(400);
-					exchange.getResponseSender().send("Invalid request: " + e.getMessage());
-				}
-			}
+		HttpHandler rpcPostHandler = exchange -> {
+			// the body is read asynchronously on the I/O thread, and the request then handed to the RPC pool
+			exchange.setMaxEntitySize(jsonRpcServer.getMaxRequestSizeBytes());
+			exchange.getRequestReceiver().receiveFullString(
+				this::handleRpcRequest,
+				(ex, e) -> {
+					ex.setStatusCode(StatusCodes.BAD_REQUEST);
+					ex.getResponseSender().send("Invalid request: " + e.getMessage());
+				},
+				StandardCharsets.UTF_8
+			);
 		};
 		handler.add(Methods.POST, "/rpc", rpcPostHandler);
 		handler.add(Methods.POST, "/rpc/", rpcPostHandler); // handle both /rpc and /rpc/ for usability
 	}
 
+	private void handleRpcRequest(HttpServerExchange exchange, String requestBody) {
+		// dispatch so that the exchange is kept open until the RPC pool responds
+		exchange.dispatch(SameThreadExecutor.INSTANCE, () -> {
+			try {
+				executeRpc(() -> respondToRpcRequest(exchange, requestBody));
+			} catch (RejectedExecutionException e) {
+				exchange.setStatusCode(StatusCodes.SERVICE_UNAVAILABLE);
+				exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, CONTENT_TYPE_JSON);
+				respond(JsonRpcUtil.errorResponse(JSONObject.NULL, JsonRpcUtil.SERVER_BUSY, "Server busy"), exchange);
+			}
+		});
+	}
+
+	/**
+	 * Run the given JSON-RPC work on the bounded RPC pool, counting it as rejected if the pool is full
+	 *
+	 * @param work The work to run
+	 * @throws RejectedExecutionException if the pool is full or shut down
+	 */
+	/*package*/ void executeRpc(Runnable work) {
+		try {
+			this.rpcExecutor.execute(work);
+		} catch (RejectedExecutionException e) {
+			this.counters.increment(CounterType.API_RPC_REQUESTS_REJECTED);
+			throw e;
+		}
+	}
+
+	private void respondToRpcRequest(HttpServerExchange exchange, String requestBody) {
+		try {
+			final String response = jsonRpcServer.handleChecked(requestBody);
+			exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, CONTENT_TYPE_JSON);
+			respond(response, exchange);
+		} catch (RuntimeException e) {
+			exchange.setStatusCode(StatusCodes.BAD_REQUEST);
+			respond("Invalid request: " + e.getMessage(), exchange);
+		}
+	}
+
 	private void addRestRoutesTo(RoutingHandler handler) {
 		// TODO: organize routes in a nicer way
 		// System routes
@@ -292,6 +378,15 @@ public final class RadixHttpServer {
 			respond(waiting, exchange);
 		}, handler);
 
+		addGetRoute("/api/system/modules/api/rpc", exchange -> {
+			JSONObject rpc = new JSONObject();
+			rpc.put("active", this.rpcExecutor.getActiveCount());
+			rpc.put("queued", this.rpcExecutor.getQueue().size());
+			rpc.put("rejected", this.counters.get(CounterType.API_RPC_REQUESTS_REJECTED));
+			rpc.put("methods", this.jsonRpcServer.getMetrics().toJson());
+			respond(rpc, exchange);
+		}, handler);
+
 		addGetRoute("/api/system/modules/api/websockets", exchange -> {
 			JSONObject count = new JSONObject();
 			count.put("count", getPeers().size());
@@ -28,6 +28,7 @@ import org.radix.api.services.AtomsService;
 import io.undertow.websockets.WebSocketConnectionCallback;
 import io.undertow.websockets.core.AbstractReceiveListener;
 import io.undertow.websockets.core.BufferedTextMessage;
+import io.undertow.websockets.core.WebSocketCallback;
 import io.undertow.websockets.core.WebSocketChannel;
 import io.undertow.websockets.core.WebSockets;
 import io.undertow.websockets.spi.WebSocketHttpExchange;
@@ -62,10 +63,22 @@ import org.apache.logging.log4j.Logger;
     @Override
     public void onConnect(WebSocketHttpExchange exchange, WebSocketChannel channel) {
         final RadixJsonRpcPeer peer = new RadixJsonRpcPeer(
-            jsonRpcServer, atomsService, this.serialization, (p, msg) -> {
+            jsonRpcServer, atomsService, this.serialization, (p, msg, onSent) -> {
             if (channel.isOpen()) {
                 try {
-                    WebSockets.sendText(msg, channel, null);
+                    // onSent runs once the message has been written out, which paces history streaming to the client
+                    WebSockets.sendText(msg, channel, new WebSocketCallback<Void>() {
+                        @Override
+                        public void complete(WebSocketChannel webSocketChannel, Void context) {
+                            onSent.run();
+                        }
+
+                        @Override
+                        public void onError(WebSocketChannel webSocketChannel, Void context, Throwable throwable) {
+                            logger.error("Websocket connection send error: " + throwable, throwable);
+                            radixHttpServer.closeAndRemovePeer(p);
+                        }
+                    });
                 } catch (Exception e) {
                     logger.error("Websocket connection send error: " + e, e);
                     radixHttpServer.closeAndRemovePeer(p);
@@ -74,7 +87,7 @@ import org.apache.logging.log4j.Logger;
                 logger.error("Websocket connection no longer open.");
                 radixHttpServer.closeAndRemovePeer(p);
             }
-        });
+        }, radixHttpServer::executeRpc);
 
         peers.put(peer, channel);
 
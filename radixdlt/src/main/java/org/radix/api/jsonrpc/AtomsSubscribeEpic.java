@@ -18,6 +18,7 @@
 package org.radix.api.jsonrpc;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import org.json.JSONArray;
@@ -25,7 +26,6 @@ import org.json.JSONObject;
 import org.radix.api.AtomQuery;
 import org.radix.api.observable.Disposable;
 import org.radix.api.services.AtomsService;
-import com.radixdlt.serialization.DsonOutput.Output;
 import com.radixdlt.serialization.Serialization;
 
 /**
@@ -47,9 +47,10 @@ public class AtomsSubscribeEpic {
 	private final AtomsService atomsService;
 
 	/**
-	 * Stream of JSON RPC objects to be sent back in the same channel
+	 * Stream of JSON RPC objects to be sent back in the same channel, along with
+	 * a callback to run once each has been sent
 	 */
-	private final Consumer<JSONObject> callback;
+	private final BiConsumer<JSONObject, Runnable> callback;
 
 	/**
 	 * DSON serializer/deserializer
@@ -63,6 +64,18 @@ public class AtomsSubscribeEpic {
 		Serialization serialization,
 		Function<JSONObject, AtomQuery> queryMapper,
 		Consumer<JSONObject> callback
+	) {
+		this(atomsService, serialization, queryMapper, (json, onSent) -> {
+			callback.accept(json);
+			onSent.run();
+		});
+	}
+
+	public AtomsSubscribeEpic(
+		AtomsService atomsService,
+		Serialization serialization,
+		Function<JSONObject, AtomQuery> queryMapper,
+		BiConsumer<JSONObject, Runnable> callback
 	) {
 		this.atomsService = atomsService;
 		this.serialization = serialization;
@@ -78,7 +91,11 @@ public class AtomsSubscribeEpic {
 		observers.forEachKey(100, subscriberId -> observers.remove(subscriberId).dispose());
 	}
 
-	private void onAtomUpdate(String subscriberId, JSONArray atoms, boolean isHead) {
+	private void send(JSONObject json) {
+		callback.accept(json, () -> { });
+	}
+
+	private void onAtomUpdate(String subscriberId, JSONArray atoms, boolean isHead, Runnable onSent) {
 		JSONObject notification = new JSONObject();
 		notification.put("jsonrpc", "2.0");
 		notification.put("method", "Atoms.subscribeUpdate");
@@ -87,7 +104,7 @@ public class AtomsSubscribeEpic {
 		params.put("subscriberId", subscriberId);
 		params.put("isHead", isHead);
 		notification.put("params", params);
-		callback.accept(notification);
+		callback.accept(notification, onSent);
 	}
 
 	public synchronized void action(JSONObject jsonRequest) {
@@ -102,32 +119,33 @@ public class AtomsSubscribeEpic {
 			if (query.has("address")) {
 				atomQuery = queryMapper.apply(query);
 			} else {
-				callback.accept(JsonRpcUtil.errorResponse(id, -32000, "Invalid query.", new JSONObject()));
+				send(JsonRpcUtil.errorResponse(id, -32000, "Invalid query.", new JSONObject()));
 				return;
 			}
 
 			if (observers.containsKey(subscriberId)) {
-				callback.accept(JsonRpcUtil.errorResponse(id, -32000, "Subscriber + " + subscriberId + " already exists.", new JSONObject()));
+				send(JsonRpcUtil.errorResponse(id, -32000, "Subscriber + " + subscriberId + " already exists.", new JSONObject()));
 				return;
 			} else {
-				callback.accept(JsonRpcUtil.simpleResponse(id, "success", true));
+				send(JsonRpcUtil.simpleResponse(id, "success", true));
 			}
 
 			observers.computeIfAbsent(subscriberId, (i) -> atomsService.getAtomEvents(atomQuery)
 				.subscribe(observedAtoms -> {
 					final JSONArray atomEventsJson = new JSONArray();
 					observedAtoms.atomEvents()
-						.map(event -> serialization.toJsonObject(event, Output.WIRE))
+						.map(event -> event.toJson(serialization))
 						.forEach(atomEventsJson::put);
 
-					onAtomUpdate(subscriberId, atomEventsJson, observedAtoms.isHead());
+					// the next batch of stored atoms is read once this one has been sent
+					onAtomUpdate(subscriberId, atomEventsJson, observedAtoms.isHead(), observedAtoms::consumed);
 				}));
 		} else if (jsonRequest.getString("method").equals("Atoms.cancel")) {
 			Disposable disposable = observers.remove(subscriberId);
 			if (disposable != null) {
 				disposable.dispose();
 			}
-			callback.accept(JsonRpcUtil.simpleResponse(id, "success", true));
+			send(JsonRpcUtil.simpleResponse(id, "success", true));
 			return;
 		}
 	}
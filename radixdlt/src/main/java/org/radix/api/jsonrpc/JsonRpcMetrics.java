@@ -0,0 +1,89 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.api.jsonrpc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONObject;
+
+/**
+ * Request counts and latencies of JSON-RPC requests, by method.
+ * <p>
+ * Requests for methods which do not exist are recorded together under
+ * {@value #UNKNOWN_METHOD}, so that clients cannot grow the set of tracked methods.
+ */
+public final class JsonRpcMetrics {
+	public static final String UNKNOWN_METHOD = "unknown";
+
+	private static final class MethodMetrics {
+		private final LongAdder requests = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder totalTimeNanos = new LongAdder();
+		private final LongAccumulator maxTimeNanos = new LongAccumulator(Math::max, 0L);
+
+		private void record(long elapsedNanos, boolean error) {
+			this.requests.increment();
+			if (error) {
+				this.errors.increment();
+			}
+			this.totalTimeNanos.add(elapsedNanos);
+			this.maxTimeNanos.accumulate(elapsedNanos);
+		}
+
+		private JSONObject toJson() {
+			final long count = this.requests.sum();
+			final long totalTime = this.totalTimeNanos.sum();
+			return new JSONObject()
+				.put("requests", count)
+				.put("errors", this.errors.sum())
+				.put("total_time_ns", totalTime)
+				.put("average_time_ns", count == 0 ? 0L : totalTime / count)
+				.put("max_time_ns", this.maxTimeNanos.get());
+		}
+	}
+
+	private final ConcurrentMap<String, MethodMetrics> metrics = new ConcurrentHashMap<>();
+
+	/**
+	 * Records a handled request.
+	 *
+	 * @param method the method requested, or {@code null} if the method does not exist
+	 * @param elapsedNanos the time taken to handle the request
+	 * @param error whether the response was an error
+	 */
+	public void record(String method, long elapsedNanos, boolean error) {
+		final String key = method == null ? UNKNOWN_METHOD : method;
+		this.metrics.computeIfAbsent(key, k -> new MethodMetrics()).record(elapsedNanos, error);
+	}
+
+	/**
+	 * Returns the metrics of each method requested so far, keyed by method.
+	 *
+	 * @return the metrics as JSON
+	 */
+	public JSONObject toJson() {
+		final JSONObject json = new JSONObject();
+		for (Map.Entry<String, MethodMetrics> e : this.metrics.entrySet()) {
+			json.put(e.getKey(), e.getValue().toJson());
+		}
+		return json;
+	}
+}
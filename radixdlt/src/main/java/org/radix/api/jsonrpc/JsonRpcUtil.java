@@ -29,14 +29,18 @@ public final class JsonRpcUtil {
 	 */
 	public static final int INVALID_REQUEST_CODE = -32600;
 
+	public static final int METHOD_NOT_FOUND_CODE = -32601;
+
 	public static final int OVERSIZED_REQUEST = -32001;
 
+	public static final int SERVER_BUSY = -32002;
+
 	private JsonRpcUtil() {
 		throw new IllegalStateException("Can't construct");
 	}
 
 	public static JSONObject methodNotFoundResponse(Object id) {
-		return errorResponse(id, -32601, "Method not found");
+		return errorResponse(id, METHOD_NOT_FOUND_CODE, "Method not found");
 	}
 
 	public static JSONObject errorResponse(Object id, int code, String message, JSONObject data) {
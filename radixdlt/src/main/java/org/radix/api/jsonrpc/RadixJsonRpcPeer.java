@@ -17,6 +17,8 @@
 
 package org.radix.api.jsonrpc;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiConsumer;
 
 import org.apache.logging.log4j.LogManager;
@@ -26,6 +28,7 @@ import org.json.JSONObject;
 import org.radix.api.AtomQuery;
 import org.radix.api.services.AtomsService;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.radixdlt.identifiers.RadixAddress;
 import com.radixdlt.serialization.Serialization;
 
@@ -37,6 +40,21 @@ import io.undertow.websockets.core.BufferedTextMessage;
 public class RadixJsonRpcPeer {
 	private static final Logger LOGGER = LogManager.getLogger();
 
+	/**
+	 * Sends messages to the client of a peer
+	 */
+	@FunctionalInterface
+	public interface MessageSender {
+		/**
+		 * Send a message to the client, running the given callback once it has been written out.
+		 *
+		 * @param peer The peer the message is from
+		 * @param message The message
+		 * @param onSent Callback to run once the message has been sent
+		 */
+		void send(RadixJsonRpcPeer peer, String message, Runnable onSent);
+	}
+
 	private final BiConsumer<RadixJsonRpcPeer, String> callback;
 
 	/**
@@ -53,20 +71,49 @@ public class RadixJsonRpcPeer {
 
 	private final RadixJsonRpcServer server;
 
+	/**
+	 * Executor handling batches, which may take long, off the thread receiving messages
+	 */
+	private final Executor batchExecutor;
+
 	public RadixJsonRpcPeer(
 		RadixJsonRpcServer server,
 		AtomsService atomsService,
 		Serialization serialization,
 		BiConsumer<RadixJsonRpcPeer, String> callback
+	) {
+		this(server, atomsService, serialization, (peer, message, onSent) -> {
+			callback.accept(peer, message);
+			onSent.run();
+		});
+	}
+
+	public RadixJsonRpcPeer(
+		RadixJsonRpcServer server,
+		AtomsService atomsService,
+		Serialization serialization,
+		MessageSender sender
+	) {
+		this(server, atomsService, serialization, sender, MoreExecutors.directExecutor());
+	}
+
+	public RadixJsonRpcPeer(
+		RadixJsonRpcServer server,
+		AtomsService atomsService,
+		Serialization serialization,
+		MessageSender sender,
+		Executor batchExecutor
 	) {
 		this.server = server;
-		this.callback = callback;
+		this.batchExecutor = batchExecutor;
+		this.callback = (peer, message) -> sender.send(peer, message, () -> { });
 
 		this.atomStatusEpic = new AtomStatusEpic(atomsService, json -> callback.accept(this, json.toString()));
 		this.submitAtomAndSubscribeEpic = new SubmitAtomAndSubscribeEpic(atomsService,
 			atomJson -> callback.accept(this, atomJson.toString()));
 		this.atomsSubscribeEpic = new AtomsSubscribeEpic(atomsService, serialization,
-			queryJson -> new AtomQuery(RadixAddress.from(queryJson.getString("address")).euid()), atomJson -> callback.accept(this, atomJson.toString()));
+			queryJson -> new AtomQuery(RadixAddress.from(queryJson.getString("address")).euid()),
+			(atomJson, onSent) -> sender.send(this, atomJson.toString(), onSent));
 
 		callback.accept(this, JsonRpcUtil.notification("Radix.welcome", new JSONObject().put("message", "Hello!")).toString());
 	}
@@ -81,6 +128,16 @@ public class RadixJsonRpcPeer {
 
 		final String msg = message.getData();
 
+		// Batches may only contain stateless requests, which the server handles itself
+		if (msg.trim().startsWith("[")) {
+			try {
+				batchExecutor.execute(() -> handleBatch(msg));
+			} catch (RejectedExecutionException e) {
+				callback.accept(this, JsonRpcUtil.errorResponse(null, JsonRpcUtil.SERVER_BUSY, "Server busy").toString());
+			}
+			return;
+		}
+
 		final JSONObject jsonRpcRequest;
 		try {
 			jsonRpcRequest = new JSONObject(msg);
@@ -133,6 +190,17 @@ public class RadixJsonRpcPeer {
 		}
 	}
 
+	private void handleBatch(String msg) {
+		final String response;
+		try {
+			response = server.handleChecked(msg);
+		} catch (JSONException e) {
+			callback.accept(this, JsonRpcUtil.errorResponse(null, -32000, e.getMessage()).toString());
+			return;
+		}
+		callback.accept(this, response);
+	}
+
 	// TODO: need to synchronize this with the whole peer
 	public void close() {
 		LOGGER.info("Closing peer");
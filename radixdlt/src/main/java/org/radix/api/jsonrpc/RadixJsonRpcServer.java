@@ -17,7 +17,8 @@
 
 package org.radix.api.jsonrpc;
 
-import com.google.common.io.CharStreams;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.radixdlt.ModuleRunner;
 import com.radixdlt.identifiers.RadixAddress;
 import com.radixdlt.store.SearchCursor;
@@ -30,21 +31,21 @@ import com.radixdlt.identifiers.AID;
 import com.radixdlt.serialization.DsonOutput.Output;
 import com.radixdlt.serialization.Serialization;
 import com.radixdlt.store.LedgerEntryStore;
-import io.undertow.server.HttpServerExchange;
 
 import java.util.ArrayList;
 import java.util.Objects;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONString;
 import org.radix.api.services.AtomsService;
 
 import com.radixdlt.universe.Universe;
 import org.radix.universe.system.LocalSystem;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -52,13 +53,46 @@ import java.util.stream.Stream;
  * Stateless Json Rpc 2.0 Server
  */
 public final class RadixJsonRpcServer {
-	private static final long DEFAULT_MAX_REQUEST_SIZE = 1024L * 1024L;
+	public static final long DEFAULT_MAX_REQUEST_SIZE = 1024L * 1024L;
+	public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+
+	/**
+	 * Methods which only read state, and so may be handled in parallel within a batch
+	 */
+	private static final Set<String> READ_ONLY_METHODS = ImmutableSet.of(
+		"Ledger.getAtom",
+		"Ledger.getAtoms",
+		"Universe.getUniverse",
+		"Network.getLivePeers",
+		"Network.getPeers",
+		"Network.getInfo",
+		"Ping",
+		"Atoms.getAtomStatus"
+	);
+
+	/**
+	 * Methods which may be requested, the only ones recorded by name in the metrics
+	 */
+	private static final Set<String> KNOWN_METHODS = ImmutableSet.<String>builder()
+		.addAll(READ_ONLY_METHODS)
+		.add("BFT.start", "BFT.stop", "Atoms.submitAtom")
+		.build();
 
 	/**
 	 * Maximum request size in bytes
 	 */
 	private final long maxRequestSizeBytes;
 
+	/**
+	 * Maximum number of requests in a batch
+	 */
+	private final int maxBatchSize;
+
+	/**
+	 * Executor to handle the read only requests of a batch on
+	 */
+	private final Executor batchExecutor;
+
 	/**
 	 * Service to submit atoms through
 	 */
@@ -76,6 +110,7 @@ public final class RadixJsonRpcServer {
 
 	private final ModuleRunner consensusRunner;
 	private final PeerWithSystem localPeer;
+	private final JsonRpcMetrics metrics = new JsonRpcMetrics();
 
 	public RadixJsonRpcServer(
 		ModuleRunner consensusRunner,
@@ -98,6 +133,32 @@ public final class RadixJsonRpcServer {
 		AddressBook addressBook,
 		Universe universe,
 		long maxRequestSizeBytes
+	) {
+		this(
+			consensusRunner,
+			serialization,
+			ledger,
+			atomsService,
+			localSystem,
+			addressBook,
+			universe,
+			maxRequestSizeBytes,
+			DEFAULT_MAX_BATCH_SIZE,
+			MoreExecutors.directExecutor()
+		);
+	}
+
+	public RadixJsonRpcServer(
+		ModuleRunner consensusRunner,
+		Serialization serialization,
+		LedgerEntryStore ledger,
+		AtomsService atomsService,
+		LocalSystem localSystem,
+		AddressBook addressBook,
+		Universe universe,
+		long maxRequestSizeBytes,
+		int maxBatchSize,
+		Executor batchExecutor
 	) {
 		this.consensusRunner = Objects.requireNonNull(consensusRunner);
 		this.serialization = Objects.requireNonNull(serialization);
@@ -107,30 +168,36 @@ public final class RadixJsonRpcServer {
 		this.addressBook = Objects.requireNonNull(addressBook);
 		this.universe = Objects.requireNonNull(universe);
 		this.maxRequestSizeBytes = maxRequestSizeBytes;
+		this.maxBatchSize = maxBatchSize;
+		this.batchExecutor = Objects.requireNonNull(batchExecutor);
 
 		this.localPeer = new PeerWithSystem(this.localSystem);
 	}
 
-    /**
-     * Extract a JSON RPC API request from an HttpServerExchange, handle it as usual and return the response
-     *
-     * @param exchange The JSON RPC API request
-     * @return The response
-     */
-    public String handleChecked(HttpServerExchange exchange) throws IOException {
-	    exchange.setMaxEntitySize(maxRequestSizeBytes);
-	    exchange.startBlocking();
-        String requestBody = CharStreams.toString(new InputStreamReader(exchange.getInputStream(), StandardCharsets.UTF_8));
+	/**
+	 * Get the maximum size of a request, which transports should also limit request bodies to
+	 *
+	 * @return The maximum request size in bytes
+	 */
+	public long getMaxRequestSizeBytes() {
+		return this.maxRequestSizeBytes;
+	}
 
-        return this.handleChecked(requestBody);
-    }
+	/**
+	 * Get the request counts and latencies of the methods handled by this server
+	 *
+	 * @return The metrics
+	 */
+	public JsonRpcMetrics getMetrics() {
+		return this.metrics;
+	}
 
 	/**
-	 * Handle the string JSON-RPC request with size checks, return appropriate error if oversized
+	 * Handle the string JSON-RPC request or batch of requests with size checks, return appropriate error if oversized
 	 * @param jsonRpcRequest The string JSON-RPC request
 	 * @return The response to the request, could be a JSON-RPC error
 	 */
-	String handleChecked(String jsonRpcRequest) {
+	public String handleChecked(String jsonRpcRequest) {
 		// one char is 2 bytes
 	    if (jsonRpcRequest.length() * 2 > maxRequestSizeBytes) {
 		    return JsonRpcUtil.errorResponse(
@@ -140,16 +207,90 @@ public final class RadixJsonRpcServer {
 		    ).toString();
 	    }
 
+	    if (isBatch(jsonRpcRequest)) {
+		    return handleBatch(new JSONArray(jsonRpcRequest)).toString();
+	    }
 	    return handle(new JSONObject(jsonRpcRequest)).toString();
 	}
 
+	private static boolean isBatch(String jsonRpcRequest) {
+		for (int i = 0; i < jsonRpcRequest.length(); i++) {
+			final char c = jsonRpcRequest.charAt(i);
+			if (!Character.isWhitespace(c)) {
+				return c == '[';
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Handle a JSON RPC batch request and return the responses, in the order of the requests.
+	 * <p>
+	 * Read only requests are handled in parallel on the batch executor. Other requests,
+	 * such as atom submissions, are handled on the calling thread in the order they
+	 * appear in the batch, so that atoms which depend on earlier atoms in the same
+	 * batch reach the mempool after them.
+	 *
+	 * @param batch The JSON RPC API batch request
+	 * @return The batch response, or an error if the batch is empty or too big
+	 */
+	private Object handleBatch(JSONArray batch) {
+		if (batch.length() == 0) {
+			return JsonRpcUtil.errorResponse(JSONObject.NULL, JsonRpcUtil.INVALID_REQUEST_CODE, "empty batch");
+		}
+		if (batch.length() > maxBatchSize) {
+			return JsonRpcUtil.errorResponse(
+				JSONObject.NULL,
+				JsonRpcUtil.OVERSIZED_REQUEST,
+				"batch too big: " + batch.length() + " > " + maxBatchSize
+			);
+		}
+
+		final JSONObject[] responses = new JSONObject[batch.length()];
+		final List<CompletableFuture<Void>> readOnlyRequests = new ArrayList<>();
+		final List<Integer> otherRequests = new ArrayList<>();
+		for (int i = 0; i < batch.length(); i++) {
+			final Object element = batch.get(i);
+			if (!(element instanceof JSONObject)) {
+				responses[i] = JsonRpcUtil.errorResponse(JSONObject.NULL, JsonRpcUtil.INVALID_REQUEST_CODE, "request should be a JSONObject");
+			} else if (READ_ONLY_METHODS.contains(((JSONObject) element).optString("method"))) {
+				final int index = i;
+				readOnlyRequests.add(CompletableFuture.runAsync(() -> responses[index] = handle((JSONObject) element), batchExecutor));
+			} else {
+				otherRequests.add(i);
+			}
+		}
+		for (int index : otherRequests) {
+			responses[index] = handle(batch.getJSONObject(index));
+		}
+		CompletableFuture.allOf(readOnlyRequests.toArray(new CompletableFuture<?>[0])).join();
+
+		final JSONArray batchResponse = new JSONArray();
+		for (JSONObject response : responses) {
+			batchResponse.put(response);
+		}
+		return batchResponse;
+	}
+
     /**
      * Handle a certain JSON RPC request and return the response
      *
      * @param jsonRpcRequest The JSON RPC API request
      * @return The response
      */
-    private JSONObject handle(JSONObject jsonRpcRequest) {
+	private JSONObject handle(JSONObject jsonRpcRequest) {
+		final long start = System.nanoTime();
+		final JSONObject response = handleMethod(jsonRpcRequest);
+		final String method = jsonRpcRequest.optString("method", null);
+		this.metrics.record(
+			KNOWN_METHODS.contains(method) ? method : null,
+			System.nanoTime() - start,
+			response.has("error")
+		);
+		return response;
+	}
+
+	private JSONObject handleMethod(JSONObject jsonRpcRequest) {
         Object id = null;
         try {
         	if (!jsonRpcRequest.has("id")) {
@@ -265,7 +406,10 @@ public final class RadixJsonRpcServer {
 			response.put("jsonrpc", "2.0");
 
 			// FIXME: Bit of a hack for now
-			if (result instanceof List) {
+			if (result instanceof JSONString) {
+				// already rendered, such as cached atoms
+				response.put("result", result);
+			} else if (result instanceof List) {
 				List<?> list = (List<?>) result;
 				JSONArray resultArray = new JSONArray();
 				list.stream().map(o -> serialization.toJsonObject(o, Output.API)).forEach(resultArray::put);
@@ -22,9 +22,11 @@ import com.radixdlt.atommodel.Atom;
 import org.radix.containers.BasicContainer;
 import com.radixdlt.serialization.DsonOutput;
 import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.Serialization;
 import com.radixdlt.serialization.SerializerId2;
 
 import java.util.Objects;
+import org.radix.api.RenderedJson;
 
 /**
  * An event description concerning an atom and whether it has been stored or deleted.
@@ -51,12 +53,29 @@ public final class AtomEventDto extends BasicContainer {
 
 	private AtomEventType type;
 
+	// Rendered on first use, and shared by all subscribers the event is sent to
+	private volatile RenderedJson json;
+
 	public AtomEventDto(AtomEventType type, Atom atom, long timestamp) {
 		this.type = type;
 		this.atom = atom;
 		this.timestamp = timestamp;
 	}
 
+	/**
+	 * Creates an event which has already been rendered, for example from a cache.
+	 * Such an event is only used for its JSON, and has no atom.
+	 *
+	 * @param type the type of the event
+	 * @param json the event rendered as wire JSON
+	 */
+	public AtomEventDto(AtomEventType type, RenderedJson json) {
+		this.type = type;
+		this.atom = null;
+		this.timestamp = 0L;
+		this.json = Objects.requireNonNull(json);
+	}
+
 	public Atom getAtom() {
 		return atom;
 	}
@@ -65,6 +84,21 @@ public final class AtomEventDto extends BasicContainer {
 		return type;
 	}
 
+	/**
+	 * Returns the event rendered as wire JSON, rendering it on the first call only.
+	 *
+	 * @param serialization the serialization to render the event with
+	 * @return the event as JSON
+	 */
+	public RenderedJson toJson(Serialization serialization) {
+		RenderedJson rendered = this.json;
+		if (rendered == null) {
+			rendered = RenderedJson.of(serialization.toJson(this, Output.WIRE));
+			this.json = rendered;
+		}
+		return rendered;
+	}
+
 	@JsonProperty("type")
 	@DsonOutput(Output.ALL)
 	private String getTypeString() {
@@ -17,39 +17,37 @@
 
 package org.radix.api.observable;
 
-import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.radixdlt.atommodel.Atom;
 import com.radixdlt.crypto.Hasher;
 import com.radixdlt.identifiers.AID;
-import com.radixdlt.identifiers.EUID;
 import com.radixdlt.middleware2.ClientAtom;
 import com.radixdlt.middleware2.store.StoredCommittedCommand;
 import com.radixdlt.statecomputer.ClientAtomToBinaryConverter;
-import com.radixdlt.statecomputer.CommittedAtom;
 import com.radixdlt.store.SearchCursor;
 import com.radixdlt.store.StoreIndex;
 import com.radixdlt.utils.Pair;
 import com.radixdlt.store.LedgerSearchMode;
 import com.radixdlt.middleware2.store.CommandToBinaryConverter;
 import com.radixdlt.middleware2.store.EngineAtomIndices;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.Serialization;
 
-import com.radixdlt.store.LedgerEntry;
 import com.radixdlt.store.LedgerEntryStore;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.radix.api.AtomJsonCache;
 import org.radix.api.AtomQuery;
+import org.radix.api.RenderedJson;
 import org.radix.api.observable.AtomEventDto.AtomEventType;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -70,11 +68,17 @@ public class AtomEventObserver {
 	private final CommandToBinaryConverter commandToBinaryConverter;
 	private final ClientAtomToBinaryConverter clientAtomToBinaryConverter;
 	private final Hasher hasher;
+	private final Serialization serialization;
+	private final AtomJsonCache atomJsonCache;
 
 	private final Object syncLock = new Object();
 	private boolean synced = false;
 	private final List<AtomEventDto> waitingQueue = Lists.newArrayList();
 
+	// Stored atoms still to be sent, only accessed by tasks chained on currentRunnable
+	private SearchCursor cursor;
+	private final Set<AID> processedAtomIds = Sets.newHashSet();
+
 	public AtomEventObserver(
 		AtomQuery atomQuery,
 		Consumer<ObservedAtomEvents> onNext,
@@ -82,7 +86,9 @@ public class AtomEventObserver {
 		LedgerEntryStore store,
 		CommandToBinaryConverter commandToBinaryConverter,
 		ClientAtomToBinaryConverter clientAtomToBinaryConverter,
-		Hasher hasher
+		Hasher hasher,
+		Serialization serialization,
+		AtomJsonCache atomJsonCache
 	) {
 		this.atomQuery = atomQuery;
 		this.onNext = onNext;
@@ -91,6 +97,8 @@ public class AtomEventObserver {
 		this.commandToBinaryConverter = commandToBinaryConverter;
 		this.clientAtomToBinaryConverter = clientAtomToBinaryConverter;
 		this.hasher = hasher;
+		this.serialization = serialization;
+		this.atomJsonCache = atomJsonCache;
 	}
 
 	public boolean isDone() {
@@ -119,18 +127,13 @@ public class AtomEventObserver {
 		}
 	}
 
-	public void tryNext(CommittedAtom committedAtom, ImmutableSet<EUID> indicies) {
-		if (committedAtom.getClientAtom() == null) {
-			return;
-		}
-
-		if (!atomQuery.filter(indicies)) {
-			return;
-		}
-
-		final long timestamp = committedAtom.getStateAndProof().timestamp();
-		final Atom rawAtom = ClientAtom.convertToApiAtom(committedAtom.getClientAtom());
-		final AtomEventDto atomEventDto = new AtomEventDto(AtomEventType.STORE, rawAtom, timestamp);
+	/**
+	 * Sends an event for a newly committed atom which matches the query, once the
+	 * atoms already stored have been sent.
+	 *
+	 * @param atomEventDto the event, which may be shared with other observers
+	 */
+	public void next(AtomEventDto atomEventDto) {
 		synchronized (this) {
 			this.currentRunnable = currentRunnable.thenRunAsync(() -> update(atomEventDto), executorService);
 		}
@@ -138,49 +141,48 @@ public class AtomEventObserver {
 
 	private void sync() {
 		StoreIndex destinationIndex = new StoreIndex(EngineAtomIndices.IndexType.DESTINATION.getValue(), atomQuery.getDestination().toByteArray());
-		SearchCursor cursor = store.search(StoreIndex.LedgerIndexType.DUPLICATE, destinationIndex, LedgerSearchMode.EXACT);
-		Set<AID> processedAtomIds = Sets.newHashSet();
-		partialSync(cursor, processedAtomIds);
+		this.cursor = store.search(StoreIndex.LedgerIndexType.DUPLICATE, destinationIndex, LedgerSearchMode.EXACT);
+		readNextBatch();
+	}
+
+	private void requestNextBatch() {
+		synchronized (this) {
+			this.currentRunnable = currentRunnable.thenRunAsync(this::readNextBatch, executorService);
+		}
 	}
 
-	private void partialSync(SearchCursor cursor, final Set<AID> processedAtomIds) {
-		long count = 0;
+	/**
+	 * Sends the next batch of stored atoms, if any. The batch after that is only read once
+	 * this batch has been consumed, so that stored atoms are streamed as fast as the client
+	 * takes them, without holding a thread while it does.
+	 */
+	private void readNextBatch() {
 		try {
 			while (cursor != null) {
 				if (cancelled.get()) {
 					return;
 				}
 
-				if (count >= 200) {
-					delaySync(cursor, processedAtomIds);
-					return;
-				}
-
-				List<Pair<ClientAtom, Long>> atoms = new ArrayList<>();
-				while (cursor != null && atoms.size() < BATCH_SIZE) {
-					AID aid = cursor.get();
+				final Pair<List<AID>, SearchCursor> batch = cursor.getBatch(BATCH_SIZE);
+				this.cursor = batch.getSecond();
+				final List<AtomEventDto> atomEvents = new ArrayList<>();
+				for (AID aid : batch.getFirst()) {
 					processedAtomIds.add(aid);
-					Optional<LedgerEntry> ledgerEntry = store.get(aid);
-					ledgerEntry.ifPresent(
-						entry -> {
-							StoredCommittedCommand committedCommand = commandToBinaryConverter.toCommand(entry.getContent());
-							long timestamp = committedCommand.getStateAndProof().timestamp();
-							ClientAtom clientAtom = committedCommand.getCommand().map(clientAtomToBinaryConverter::toAtom);
-							atoms.add(Pair.of(clientAtom, timestamp));
-						}
-					);
-					cursor = cursor.next();
+					final RenderedJson json = atomJsonCache.getAtomEvent(aid, () -> renderStoredAtomEvent(aid));
+					if (json != null) {
+						atomEvents.add(new AtomEventDto(AtomEventType.STORE, json));
+					}
 				}
-				if (!atoms.isEmpty()) {
-					final Stream<AtomEventDto> atomEvents = atoms.stream()
-						.map(p -> p.mapFirst(ClientAtom::convertToApiAtom))
-						.filter(Pair::firstNonNull)
-						.map(p -> new AtomEventDto(AtomEventType.STORE, p.getFirst(), p.getSecond()));
-					onNext.accept(new ObservedAtomEvents(false, atomEvents));
-					count += atoms.size();
+				if (!atomEvents.isEmpty()) {
+					onNext.accept(new ObservedAtomEvents(false, atomEvents.stream(), this::requestNextBatch));
+					return;
 				}
 			}
 
+			if (cancelled.get()) {
+				return;
+			}
+
 			// Send received and queued events
 			final List<AtomEventDto> atomEvents;
 			synchronized (syncLock) {
@@ -191,6 +193,7 @@ public class AtomEventObserver {
 					.collect(Collectors.toList());
 				this.waitingQueue.clear();
 			}
+			this.processedAtomIds.clear();
 			this.onNext.accept(new ObservedAtomEvents(false, atomEvents.stream()));
 
 			// Send HEAD flag once we've read through all atoms
@@ -200,20 +203,16 @@ public class AtomEventObserver {
 		}
 	}
 
-	private void delaySync(SearchCursor cursor, Set<AID> processedAtomIds) {
-		synchronized(this) {
-			this.currentRunnable = currentRunnable.thenRunAsync(() -> {
-				// Hack to throttle back high amounts of atom reads
-				// Will fix this once an async library is used
-				try {
-					TimeUnit.SECONDS.sleep(1);
-				} catch (InterruptedException e) {
-					// Re-interrupt and continue
-					Thread.currentThread().interrupt();
-				}
-				this.partialSync(cursor, processedAtomIds);
-			}, executorService);
-		}
+	private String renderStoredAtomEvent(AID aid) {
+		return store.get(aid)
+			.map(entry -> {
+				StoredCommittedCommand committedCommand = commandToBinaryConverter.toCommand(entry.getContent());
+				long timestamp = committedCommand.getStateAndProof().timestamp();
+				ClientAtom clientAtom = committedCommand.getCommand().map(clientAtomToBinaryConverter::toAtom);
+				Atom atom = ClientAtom.convertToApiAtom(clientAtom);
+				return atom == null ? null : serialization.toJson(new AtomEventDto(AtomEventType.STORE, atom, timestamp), Output.WIRE);
+			})
+			.orElse(null);
 	}
 
 	private void update(AtomEventDto atomEventDto) {
@@ -17,6 +17,7 @@
 
 package org.radix.api.observable;
 
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 /**
@@ -25,10 +26,28 @@ import java.util.stream.Stream;
 public class ObservedAtomEvents {
 	private final Stream<AtomEventDto> atomEvents;
 	private final boolean isHead;
+	private final Runnable onConsumed;
+	private final AtomicBoolean consumed = new AtomicBoolean(false);
 
 	ObservedAtomEvents(boolean isHead, Stream<AtomEventDto> atomEvents) {
+		this(isHead, atomEvents, () -> { });
+	}
+
+	ObservedAtomEvents(boolean isHead, Stream<AtomEventDto> atomEvents, Runnable onConsumed) {
 		this.isHead = isHead;
 		this.atomEvents = atomEvents;
+		this.onConsumed = onConsumed;
+	}
+
+	/**
+	 * Signals that these events have been consumed, for example written out to a client.
+	 * Stored atoms are only read in batches as earlier batches are consumed, so consumers
+	 * must call this for the remaining history to be delivered.
+	 */
+	public void consumed() {
+		if (this.consumed.compareAndSet(false, true)) {
+			this.onConsumed.run();
+		}
 	}
 
 	public boolean isHead() {
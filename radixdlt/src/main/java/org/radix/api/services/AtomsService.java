@@ -43,8 +43,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
 import com.radixdlt.middleware2.store.CommandToBinaryConverter;
 import com.radixdlt.serialization.DsonOutput;
@@ -61,11 +64,16 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.radix.api.AtomJsonCache;
+import org.radix.api.RenderedJson;
 import org.radix.api.AtomQuery;
+import org.radix.api.observable.AtomEventDto;
+import org.radix.api.observable.AtomEventDto.AtomEventType;
 import org.radix.api.observable.AtomEventObserver;
 import org.radix.api.observable.Disposable;
 import org.radix.api.observable.ObservedAtomEvents;
 import com.radixdlt.identifiers.AID;
+import com.radixdlt.identifiers.EUID;
 
 public class AtomsService {
 	private static final int NUMBER_OF_THREADS = 8;
@@ -78,7 +86,10 @@ public class AtomsService {
 		new ThreadFactoryBuilder().setNameFormat("AtomsService-%d").build()
 	);
 
-	private final Set<AtomEventObserver> atomEventObservers = Sets.newConcurrentHashSet();
+	// Observers of atoms with a given destination, so that only matching observers are visited per atom
+	private final ConcurrentMap<EUID, Set<AtomEventObserver>> atomEventObserversByDestination = new ConcurrentHashMap<>();
+	// Observers of all atoms
+	private final Set<AtomEventObserver> allAtomEventObservers = Sets.newConcurrentHashSet();
 	private final Object singleAtomObserversLock = new Object();
 	private final Map<AID, List<AtomStatusListener>> singleAtomObserversx = Maps.newHashMap();
 	private final Object deleteOnEventSingleAtomObserversLock = new Object();
@@ -97,6 +108,7 @@ public class AtomsService {
 	private final Observable<BFTCommittedUpdate> committedUpdates;
 
 	private final Hasher hasher;
+	private final AtomJsonCache atomJsonCache;
 
 	public AtomsService(
 		SubmissionErrorsRx submissionErrorsRx,
@@ -107,6 +119,30 @@ public class AtomsService {
 		CommandToBinaryConverter commandToBinaryConverter,
 		ClientAtomToBinaryConverter clientAtomToBinaryConverter,
 		Hasher hasher
+	) {
+		this(
+			submissionErrorsRx,
+			committedAtomsRx,
+			committedUpdates,
+			store,
+			submissionControl,
+			commandToBinaryConverter,
+			clientAtomToBinaryConverter,
+			hasher,
+			new AtomJsonCache(AtomJsonCache.DEFAULT_MAX_BYTES)
+		);
+	}
+
+	public AtomsService(
+		SubmissionErrorsRx submissionErrorsRx,
+		CommittedAtomsRx committedAtomsRx,
+		Observable<BFTCommittedUpdate> committedUpdates,
+		LedgerEntryStore store,
+		SubmissionControl submissionControl,
+		CommandToBinaryConverter commandToBinaryConverter,
+		ClientAtomToBinaryConverter clientAtomToBinaryConverter,
+		Hasher hasher,
+		AtomJsonCache atomJsonCache
 	) {
 		this.submissionErrorsRx = Objects.requireNonNull(submissionErrorsRx);
 		this.submissionControl = Objects.requireNonNull(submissionControl);
@@ -117,13 +153,21 @@ public class AtomsService {
 		this.committedAtomsRx = committedAtomsRx;
 		this.committedUpdates = Objects.requireNonNull(committedUpdates);
 		this.hasher = hasher;
+		this.atomJsonCache = Objects.requireNonNull(atomJsonCache);
 	}
 
 	private void processExecutedCommand(CommittedAtomWithResult committedAtomWithResult) {
 		committedAtomWithResult.ifSuccess(indicies -> {
 			final CommittedAtom committedAtom = committedAtomWithResult.getCommittedAtom();
 			final AID aid = committedAtom.getAID();
-			this.atomEventObservers.forEach(observer -> observer.tryNext(committedAtom, indicies));
+			final List<AtomEventObserver> observers = getAtomEventObservers(indicies);
+			if (!observers.isEmpty() && committedAtom.getClientAtom() != null) {
+				// Converted once and shared between all matching observers
+				final Atom rawAtom = ClientAtom.convertToApiAtom(committedAtom.getClientAtom());
+				final long timestamp = committedAtom.getStateAndProof().timestamp();
+				final AtomEventDto atomEventDto = new AtomEventDto(AtomEventType.STORE, rawAtom, timestamp);
+				observers.forEach(observer -> observer.next(atomEventDto));
+			}
 			getSingleAtomListeners(aid).forEach(SingleAtomListener::onStored);
 			getAtomStatusListeners(aid).forEach(listener -> listener.onStored(committedAtom));
 		});
@@ -214,31 +258,96 @@ public class AtomsService {
 
 	public org.radix.api.observable.Observable<ObservedAtomEvents> getAtomEvents(AtomQuery atomQuery) {
 		return observer -> {
-			final AtomEventObserver atomEventObserver = new AtomEventObserver(atomQuery, observer, executorService, store, commandToBinaryConverter, clientAtomToBinaryConverter, hasher);
+			final AtomEventObserver atomEventObserver = new AtomEventObserver(
+				atomQuery,
+				observer,
+				executorService,
+				store,
+				commandToBinaryConverter,
+				clientAtomToBinaryConverter,
+				hasher,
+				serialization,
+				atomJsonCache
+			);
 			atomEventObserver.start();
-			this.atomEventObservers.add(atomEventObserver);
+			addAtomEventObserver(atomQuery.getDestination(), atomEventObserver);
 
 			return () -> {
-				this.atomEventObservers.remove(atomEventObserver);
+				removeAtomEventObserver(atomQuery.getDestination(), atomEventObserver);
 				atomEventObserver.cancel();
 			};
 		};
 	}
 
 	public long getWaitingCount() {
-		return this.atomEventObservers.stream().map(AtomEventObserver::isDone).filter(done -> !done).count();
+		return Stream.concat(
+				this.atomEventObserversByDestination.values().stream().flatMap(Set::stream),
+				this.allAtomEventObservers.stream()
+			)
+			.map(AtomEventObserver::isDone)
+			.filter(done -> !done)
+			.count();
 	}
 
-	public JSONObject getAtomsByAtomId(AID atomId) throws JSONException {
+	/**
+	 * Gets a committed atom as rendered API JSON, which may be shared with other callers.
+	 *
+	 * @param atomId the id of the atom
+	 * @return the atom as JSON
+	 * @throws RuntimeException if the atom is not stored
+	 */
+	public RenderedJson getAtomsByAtomId(AID atomId) throws JSONException {
+		RenderedJson json = atomJsonCache.getAtom(atomId, () -> renderStoredAtom(atomId));
+		if (json != null) {
+			return json;
+		}
+		throw new RuntimeException("Atom not found");
+	}
+
+	private String renderStoredAtom(AID atomId) {
 		Optional<LedgerEntry> ledgerEntryOptional = store.get(atomId);
 		if (ledgerEntryOptional.isPresent()) {
 			LedgerEntry ledgerEntry = ledgerEntryOptional.get();
 			StoredCommittedCommand committedCommand = commandToBinaryConverter.toCommand(ledgerEntry.getContent());
 			ClientAtom clientAtom = committedCommand.getCommand().map(clientAtomToBinaryConverter::toAtom);
 			Atom apiAtom = ClientAtom.convertToApiAtom(clientAtom);
-			return serialization.toJsonObject(apiAtom, DsonOutput.Output.API);
+			return serialization.toJson(apiAtom, DsonOutput.Output.API);
 		}
-		throw new RuntimeException("Atom not found");
+		return null;
+	}
+
+	private List<AtomEventObserver> getAtomEventObservers(Set<EUID> destinations) {
+		final List<AtomEventObserver> observers = Lists.newArrayList(this.allAtomEventObservers);
+		for (EUID destination : destinations) {
+			final Set<AtomEventObserver> destinationObservers = this.atomEventObserversByDestination.get(destination);
+			if (destinationObservers != null) {
+				observers.addAll(destinationObservers);
+			}
+		}
+		return observers;
+	}
+
+	private void addAtomEventObserver(EUID destination, AtomEventObserver observer) {
+		if (destination == null) {
+			this.allAtomEventObservers.add(observer);
+			return;
+		}
+		this.atomEventObserversByDestination.compute(destination, (d, observers) -> {
+			final Set<AtomEventObserver> destinationObservers = (observers == null) ? Sets.newConcurrentHashSet() : observers;
+			destinationObservers.add(observer);
+			return destinationObservers;
+		});
+	}
+
+	private void removeAtomEventObserver(EUID destination, AtomEventObserver observer) {
+		if (destination == null) {
+			this.allAtomEventObservers.remove(observer);
+			return;
+		}
+		this.atomEventObserversByDestination.computeIfPresent(destination, (d, observers) -> {
+			observers.remove(observer);
+			return observers.isEmpty() ? null : observers;
+		});
 	}
 
 	private ImmutableList<AtomStatusListener> getAtomStatusListeners(AID aid) {
@@ -0,0 +1,129 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.network.messages;
+
+import com.radixdlt.serialization.DsonOutput;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.SerializerId2;
+
+import org.radix.network.messaging.Message;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Carries a serialized message authenticated with a session MAC, in place
+ * of an ECDSA signature on the message itself.  The payload is the message
+ * framed as for the wire, so that it is compressed once for all recipients,
+ * and the envelope carrying it is not compressed again.
+ * <p>
+ * The MAC covers the lane, the sequence number and the serialized payload.
+ * Sequence numbers increase within each lane of a session, so that the
+ * receiver can reject replayed messages.
+ */
+@SerializerId2("peer.authenticated")
+public final class AuthenticatedMessage extends Message {
+	@JsonProperty("session")
+	@DsonOutput(Output.ALL)
+	private byte[] session;
+
+	@JsonProperty("lane")
+	@DsonOutput(Output.ALL)
+	private int lane;
+
+	@JsonProperty("sequence")
+	@DsonOutput(Output.ALL)
+	private long sequence;
+
+	@JsonProperty("payload")
+	@DsonOutput(Output.ALL)
+	private byte[] payload;
+
+	@JsonProperty("mac")
+	@DsonOutput(Output.ALL)
+	private byte[] mac;
+
+	AuthenticatedMessage() {
+		// for serializer
+		super(0);
+	}
+
+	public AuthenticatedMessage(int magic, byte[] session, int lane, long sequence, byte[] payload, byte[] mac) {
+		super(magic);
+		this.session = Objects.requireNonNull(session);
+		this.lane = lane;
+		this.sequence = sequence;
+		this.payload = Objects.requireNonNull(payload);
+		this.mac = Objects.requireNonNull(mac);
+	}
+
+	/**
+	 * Returns the nonce identifying the session the MAC was computed in.
+	 *
+	 * @return the session nonce
+	 */
+	public byte[] getSession() {
+		return session;
+	}
+
+	public int getLane() {
+		return lane;
+	}
+
+	public long getSequence() {
+		return sequence;
+	}
+
+	public byte[] getPayload() {
+		return payload;
+	}
+
+	public byte[] getMac() {
+		return mac;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[lane=%s, sequence=%s, %s bytes]", getClass().getSimpleName(), lane, sequence, payload.length);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		AuthenticatedMessage that = (AuthenticatedMessage) o;
+		return lane == that.lane
+				&& sequence == that.sequence
+				&& Arrays.equals(session, that.session)
+				&& Arrays.equals(payload, that.payload)
+				&& Arrays.equals(mac, that.mac)
+				&& Objects.equals(getTimestamp(), that.getTimestamp())
+				&& Objects.equals(getMagic(), that.getMagic());
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(lane, sequence, Arrays.hashCode(session), Arrays.hashCode(payload), Arrays.hashCode(mac), getTimestamp(), getMagic());
+	}
+}
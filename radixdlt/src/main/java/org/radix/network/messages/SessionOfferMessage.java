@@ -0,0 +1,82 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.network.messages;
+
+import com.radixdlt.serialization.DsonOutput;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.SerializerId2;
+import com.radixdlt.utils.Bytes;
+
+import org.radix.network.messaging.SignedMessage;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Offers a session to the receiving peer, which will then authenticate
+ * messages to the sender with a MAC keyed by a session key derived from
+ * the offered nonce.  The nonce is freshly generated by the sender of the
+ * offer, so that messages authenticated in earlier sessions cannot be replayed.
+ */
+@SerializerId2("peer.session.offer")
+public final class SessionOfferMessage extends SignedMessage {
+	@JsonProperty("nonce")
+	@DsonOutput(Output.ALL)
+	private byte[] nonce;
+
+	SessionOfferMessage() {
+		// for serializer
+		super(0);
+	}
+
+	public SessionOfferMessage(int magic, byte[] nonce) {
+		super(magic);
+		this.nonce = Objects.requireNonNull(nonce).clone();
+	}
+
+	public byte[] getNonce() {
+		return nonce == null ? null : nonce.clone();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[%s]", getClass().getSimpleName(), Bytes.toHexString(nonce));
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		SessionOfferMessage that = (SessionOfferMessage) o;
+		return Arrays.equals(nonce, that.nonce)
+				&& Objects.equals(getTimestamp(), that.getTimestamp())
+				&& Objects.equals(getMagic(), that.getMagic())
+				&& Objects.equals(getSignature(), that.getSignature());
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(Arrays.hashCode(nonce), getTimestamp(), getMagic(), getSignature());
+	}
+}
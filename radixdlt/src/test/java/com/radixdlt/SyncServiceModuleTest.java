@@ -42,17 +42,20 @@ import com.radixdlt.consensus.Ledger;
 import com.radixdlt.consensus.LedgerHeader;
 import com.radixdlt.consensus.TimestampedECDSASignatures;
 import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.environment.EventProcessor;
 import com.radixdlt.environment.RemoteEventDispatcher;
 import com.radixdlt.environment.ScheduledEventDispatcher;
 import com.radixdlt.ledger.AccumulatorState;
 import com.radixdlt.ledger.DtoCommandsAndProof;
 import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
 import com.radixdlt.ledger.LedgerAccumulatorVerifier;
+import com.radixdlt.ledger.VerifiedCommandsAndProof;
 import com.radixdlt.store.LastProof;
 import com.radixdlt.sync.CommittedReader;
 import com.radixdlt.sync.LocalSyncServiceAccumulatorProcessor.SyncInProgress;
 import com.radixdlt.sync.RemoteSyncResponse;
 import com.radixdlt.sync.RemoteSyncResponseAccumulatorVerifier.VerifiedAccumulatorSender;
+import com.radixdlt.sync.SyncExecutors;
 import com.radixdlt.sync.SyncPatienceMillis;
 import com.radixdlt.utils.TypedMocks;
 
@@ -64,6 +67,7 @@ public class SyncServiceModuleTest {
 	private VerifiedAccumulatorSender verifiedAccumulatorSender;
 
 	private Ledger ledger = mock(Ledger.class);
+	private EventProcessor<VerifiedCommandsAndProof> verifiedSyncResponseProcessor = rmock(EventProcessor.class);
 
 	public Module getExternalModule() {
 		return new AbstractModule() {
@@ -71,6 +75,7 @@ public class SyncServiceModuleTest {
 			protected void configure() {
 				bind(SystemCounters.class).toInstance(mock(SystemCounters.class));
 				bind(Ledger.class).toInstance(ledger);
+				bind(new TypeLiteral<EventProcessor<VerifiedCommandsAndProof>>() { }).toInstance(verifiedSyncResponseProcessor);
 				bind(HashVerifier.class).toInstance(mock(HashVerifier.class));
 				bind(Hasher.class).toInstance(mock(Hasher.class));
 				bind(LedgerAccumulatorVerifier.class).toInstance(mock(LedgerAccumulatorVerifier.class));
@@ -82,6 +87,7 @@ public class SyncServiceModuleTest {
 				bind(BFTConfiguration.class).toInstance(mock(BFTConfiguration.class));
 				bind(Key.get(VerifiedLedgerHeaderAndProof.class, LastProof.class)).toInstance(mock(VerifiedLedgerHeaderAndProof.class));
 				bind(Integer.class).annotatedWith(SyncPatienceMillis.class).toInstance(200);
+				bind(SyncExecutors.class).toInstance(mock(SyncExecutors.class));
 			}
 		};
 	}
@@ -105,6 +111,7 @@ public class SyncServiceModuleTest {
 
 		verifiedAccumulatorSender.sendVerifiedAccumulator(response);
 
+		verify(verifiedSyncResponseProcessor, times(1)).process(any());
 		verify(ledger, times(1)).commit(any());
 	}
 
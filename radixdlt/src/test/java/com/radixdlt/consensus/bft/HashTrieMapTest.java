@@ -0,0 +1,103 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.consensus.bft;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.hash.HashCode;
+import com.radixdlt.crypto.HashUtils;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class HashTrieMapTest {
+	@Test
+	public void when_entries_added__then_they_can_be_retrieved() {
+		HashCode key1 = HashUtils.random256();
+		HashCode key2 = HashUtils.random256();
+
+		HashTrieMap<String> map = HashTrieMap.<String>empty().with(key1, "1").with(key2, "2");
+
+		assertThat(map.size()).isEqualTo(2);
+		assertThat(map.get(key1)).isEqualTo("1");
+		assertThat(map.get(key2)).isEqualTo("2");
+		assertThat(map.get(HashUtils.random256())).isNull();
+	}
+
+	@Test
+	public void when_entry_replaced__then_size_is_unchanged() {
+		HashCode key = HashUtils.random256();
+
+		HashTrieMap<String> map = HashTrieMap.<String>empty().with(key, "1").with(key, "2");
+
+		assertThat(map.size()).isEqualTo(1);
+		assertThat(map.get(key)).isEqualTo("2");
+	}
+
+	@Test
+	public void when_new_version_created__then_previous_version_is_unchanged() {
+		HashCode key1 = HashUtils.random256();
+		HashCode key2 = HashUtils.random256();
+		HashTrieMap<String> before = HashTrieMap.<String>empty().with(key1, "1");
+
+		HashTrieMap<String> added = before.with(key2, "2");
+		HashTrieMap<String> removed = added.without(key1);
+
+		assertThat(before.size()).isEqualTo(1);
+		assertThat(before.get(key2)).isNull();
+		assertThat(added.get(key1)).isEqualTo("1");
+		assertThat(removed.get(key1)).isNull();
+		assertThat(removed.get(key2)).isEqualTo("2");
+	}
+
+	@Test
+	public void when_removing_absent_key__then_map_is_unchanged() {
+		HashTrieMap<String> map = HashTrieMap.<String>empty().with(HashUtils.random256(), "1");
+
+		assertThat(map.without(HashUtils.random256())).isSameAs(map);
+	}
+
+	@Test
+	public void when_many_entries_added_and_removed__then_map_matches_hash_map() {
+		Random random = new Random(12345);
+		List<HashCode> keys = IntStream.range(0, 500)
+			.mapToObj(i -> HashUtils.random256())
+			.collect(Collectors.toList());
+		Map<HashCode, Integer> expected = new HashMap<>();
+		HashTrieMap<Integer> map = HashTrieMap.empty();
+
+		for (int i = 0; i < 5000; i++) {
+			HashCode key = keys.get(random.nextInt(keys.size()));
+			if (random.nextBoolean()) {
+				expected.put(key, i);
+				map = map.with(key, i);
+			} else {
+				expected.remove(key);
+				map = map.without(key);
+			}
+		}
+
+		assertThat(map.size()).isEqualTo(expected.size());
+		for (HashCode key : keys) {
+			assertThat(map.get(key)).isEqualTo(expected.get(key));
+		}
+	}
+}
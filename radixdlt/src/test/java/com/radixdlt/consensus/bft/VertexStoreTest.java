@@ -175,6 +175,38 @@ public class VertexStoreTest {
 		));
 	}
 
+	@Test
+	public void getting_ancestors_beyond_root_should_stop_at_root() {
+		// Arrange
+		final List<VerifiedVertex> vertices = Stream.generate(this.nextVertex).limit(3).collect(Collectors.toList());
+		vertices.forEach(sut::insertVertex);
+
+		// Act
+		Optional<ImmutableList<VerifiedVertex>> ancestors = sut.getAncestors(vertices.get(2).getId(), 10);
+
+		// Assert
+		assertThat(sut.getVertices(vertices.get(2).getId(), 10)).isEmpty();
+		assertThat(ancestors).hasValue(ImmutableList.of(
+			vertices.get(2), vertices.get(1), vertices.get(0), genesisVertex
+		));
+	}
+
+	@Test
+	public void snapshot_should_not_change_after_later_insertions() {
+		// Arrange
+		final List<VerifiedVertex> vertices = Stream.generate(this.nextVertex).limit(2).collect(Collectors.toList());
+		sut.insertVertex(vertices.get(0));
+		VertexStoreSnapshot snapshot = sut.snapshot();
+
+		// Act
+		sut.insertVertex(vertices.get(1));
+
+		// Assert
+		assertThat(snapshot.getVertices(vertices.get(1).getId(), 1)).isEmpty();
+		assertThat(snapshot.getVertices(vertices.get(0).getId(), 2)).hasValue(ImmutableList.of(vertices.get(0), genesisVertex));
+		assertThat(sut.snapshot().getVertices(vertices.get(1).getId(), 1)).hasValue(ImmutableList.of(vertices.get(1)));
+	}
+
 	@Test
 	public void adding_a_qc_which_has_not_been_inserted_should_return_false() {
 		// Arrange
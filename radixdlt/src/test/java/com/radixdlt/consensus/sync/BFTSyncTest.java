@@ -21,6 +21,7 @@ import static com.radixdlt.utils.TypedMocks.rmock;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -51,6 +52,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.stream.Stream;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -331,4 +333,74 @@ public class BFTSyncTest {
 		verify(syncVerticesRequestSender, times(1)).sendGetVerticesRequest(any(), any());
 		verify(syncLedgerRequestSender, times(1)).dispatch(any());
 	}
+
+	@Test
+	public void when_sync_to_qc_with_missing_ancestors__then_should_request_ancestor_window_from_several_signers() {
+		VerifiedVertex rootVertex = mock(VerifiedVertex.class);
+		when(rootVertex.getView()).thenReturn(View.of(1));
+		when(vertexStore.getRoot()).thenReturn(rootVertex);
+		when(vertexStore.addQC(any())).thenReturn(false);
+		BFTHeader header = mock(BFTHeader.class);
+		when(header.getVertexId()).thenReturn(mock(HashCode.class));
+		when(header.getView()).thenReturn(View.of(10));
+		BFTNode author = mock(BFTNode.class);
+		BFTNode signer = mock(BFTNode.class);
+		QuorumCertificate qc = mock(QuorumCertificate.class);
+		when(qc.getProposed()).thenReturn(header);
+		when(qc.getView()).thenReturn(View.of(10));
+		when(qc.getSigners()).thenAnswer(invocation -> Stream.of(author, signer));
+		QuorumCertificate committedQC = mock(QuorumCertificate.class);
+		BFTHeader committedHeader = mock(BFTHeader.class);
+		when(committedHeader.getView()).thenReturn(View.of(1));
+		when(committedQC.getCommittedAndLedgerStateProof())
+			.thenReturn(Optional.of(Pair.of(committedHeader, mock(VerifiedLedgerHeaderAndProof.class))));
+		HighQC highQC = mock(HighQC.class);
+		when(highQC.highestQC()).thenReturn(qc);
+		when(highQC.highestCommittedQC()).thenReturn(committedQC);
+
+		bftSync.syncToQC(highQC, author);
+
+		LocalGetVerticesRequest expected = new LocalGetVerticesRequest(header.getVertexId(), 9, true);
+		verify(syncVerticesRequestSender, times(1)).sendGetVerticesRequest(eq(author), eq(expected));
+		verify(syncVerticesRequestSender, times(1)).sendGetVerticesRequest(eq(signer), eq(expected));
+	}
+
+	@Test
+	public void given_qc_sync__when_receive_ancestor_window_reaching_store__then_should_insert_whole_chain() {
+		VerifiedVertex rootVertex = mock(VerifiedVertex.class);
+		when(rootVertex.getView()).thenReturn(View.of(1));
+		when(vertexStore.getRoot()).thenReturn(rootVertex);
+		when(vertexStore.addQC(any())).thenReturn(false);
+		HashCode id1 = HashCode.fromInt(1);
+		HashCode id2 = HashCode.fromInt(2);
+		HashCode id3 = HashCode.fromInt(3);
+		BFTHeader header = mock(BFTHeader.class);
+		when(header.getVertexId()).thenReturn(id3);
+		when(header.getView()).thenReturn(View.of(3));
+		QuorumCertificate qc = mock(QuorumCertificate.class);
+		when(qc.getProposed()).thenReturn(header);
+		when(qc.getView()).thenReturn(View.of(3));
+		QuorumCertificate committedQC = mock(QuorumCertificate.class);
+		BFTHeader committedHeader = mock(BFTHeader.class);
+		when(committedHeader.getView()).thenReturn(View.of(1));
+		when(committedQC.getCommittedAndLedgerStateProof())
+			.thenReturn(Optional.of(Pair.of(committedHeader, mock(VerifiedLedgerHeaderAndProof.class))));
+		HighQC highQC = mock(HighQC.class);
+		when(highQC.highestQC()).thenReturn(qc);
+		when(highQC.highestCommittedQC()).thenReturn(committedQC);
+		bftSync.syncToQC(highQC, mock(BFTNode.class));
+
+		VerifiedVertex vertex3 = mock(VerifiedVertex.class);
+		when(vertex3.getId()).thenReturn(id3);
+		when(vertex3.getParentId()).thenReturn(id2);
+		VerifiedVertex vertex2 = mock(VerifiedVertex.class);
+		when(vertex2.getId()).thenReturn(id2);
+		when(vertex2.getParentId()).thenReturn(id1);
+		when(vertexStore.containsVertex(id1)).thenReturn(true);
+		when(vertexStore.addQC(any())).thenReturn(true);
+		bftSync.processGetVerticesResponse(new GetVerticesResponse(mock(BFTNode.class), List.of(vertex3, vertex2)));
+
+		verify(vertexStore, times(1)).insertVertexChain(argThat(chain -> chain.getVertices().equals(List.of(vertex2, vertex3))));
+		verify(syncVerticesRequestSender, times(1)).sendGetVerticesRequest(any(), any());
+	}
 }
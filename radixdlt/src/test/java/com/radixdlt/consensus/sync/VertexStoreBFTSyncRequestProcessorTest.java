@@ -30,7 +30,9 @@ import com.google.common.collect.ImmutableList;
 import com.radixdlt.consensus.QuorumCertificate;
 import com.radixdlt.consensus.HighQC;
 import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.consensus.bft.VerifiedVertex;
 import com.radixdlt.consensus.bft.VertexStore;
+import com.radixdlt.consensus.bft.VertexStoreSnapshot;
 import com.radixdlt.consensus.sync.VertexStoreBFTSyncRequestProcessor.SyncVerticesResponseSender;
 import java.util.Optional;
 import org.junit.Before;
@@ -39,24 +41,27 @@ import org.junit.Test;
 public class VertexStoreBFTSyncRequestProcessorTest {
 	private VertexStoreBFTSyncRequestProcessor requestProcessor;
 	private VertexStore vertexStore;
+	private VertexStoreSnapshot snapshot;
 	private SyncVerticesResponseSender responseSender;
 
 	@Before
 	public void setup() {
 		this.vertexStore = mock(VertexStore.class);
+		this.snapshot = mock(VertexStoreSnapshot.class);
+		when(vertexStore.snapshot()).thenReturn(snapshot);
 		this.responseSender = mock(SyncVerticesResponseSender.class);
 		this.requestProcessor = new VertexStoreBFTSyncRequestProcessor(vertexStore, responseSender);
 	}
 
 	@Test
 	public void given_vertex_store_which_doesnt_contain_vertices__when_request__then_should_send_error() {
-		when(vertexStore.getVertices(any(), anyInt())).thenReturn(Optional.empty());
+		when(snapshot.getVertices(any(), anyInt())).thenReturn(Optional.empty());
 		QuorumCertificate qc = mock(QuorumCertificate.class);
 		QuorumCertificate committedQC = mock(QuorumCertificate.class);
 		HighQC highQC = mock(HighQC.class);
 		when(highQC.highestQC()).thenReturn(qc);
 		when(highQC.highestCommittedQC()).thenReturn(committedQC);
-		when(vertexStore.highQC()).thenReturn(highQC);
+		when(snapshot.highQC()).thenReturn(highQC);
 
 		GetVerticesRequest request = mock(GetVerticesRequest.class);
 		BFTNode sender = mock(BFTNode.class);
@@ -70,13 +75,13 @@ public class VertexStoreBFTSyncRequestProcessorTest {
 
 	@Test
 	public void given_vertex_store_which_does_contain_vertices__when_request__then_should_send_vertices() {
-		when(vertexStore.getVertices(any(), anyInt())).thenReturn(Optional.of(ImmutableList.of()));
+		when(snapshot.getVertices(any(), anyInt())).thenReturn(Optional.of(ImmutableList.of()));
 		QuorumCertificate qc = mock(QuorumCertificate.class);
 		QuorumCertificate committedQC = mock(QuorumCertificate.class);
 		HighQC highQC = mock(HighQC.class);
 		when(highQC.highestQC()).thenReturn(qc);
 		when(highQC.highestCommittedQC()).thenReturn(committedQC);
-		when(vertexStore.highQC()).thenReturn(highQC);
+		when(snapshot.highQC()).thenReturn(highQC);
 
 		GetVerticesRequest request = mock(GetVerticesRequest.class);
 		BFTNode sender = mock(BFTNode.class);
@@ -86,4 +91,39 @@ public class VertexStoreBFTSyncRequestProcessorTest {
 		verify(responseSender, never()).sendGetVerticesErrorResponse(any(), any());
 		verify(responseSender, times(1)).sendGetVerticesResponse(eq(sender), any());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void given_ancestor_window_reaching_past_root__when_request__then_should_send_available_ancestors() {
+		ImmutableList<VerifiedVertex> ancestors = ImmutableList.of(mock(VerifiedVertex.class));
+		when(snapshot.getVertices(any(), anyInt())).thenReturn(Optional.empty());
+		when(snapshot.getAncestors(any(), anyInt())).thenReturn(Optional.of(ancestors));
+
+		GetVerticesRequest request = mock(GetVerticesRequest.class);
+		BFTNode sender = mock(BFTNode.class);
+		when(request.getSender()).thenReturn(sender);
+		when(request.getCount()).thenReturn(8);
+		when(request.allowsPartial()).thenReturn(true);
+		requestProcessor.processGetVerticesRequest(request);
+
+		verify(responseSender, never()).sendGetVerticesErrorResponse(any(), any());
+		verify(responseSender, times(1)).sendGetVerticesResponse(eq(sender), eq(ancestors));
+	}
+
+	@Test
+	public void given_exact_request_reaching_past_root__when_request__then_should_send_error() {
+		when(snapshot.getVertices(any(), anyInt())).thenReturn(Optional.empty());
+		when(snapshot.getAncestors(any(), anyInt())).thenReturn(Optional.of(ImmutableList.of(mock(VerifiedVertex.class))));
+		HighQC highQC = mock(HighQC.class);
+		when(snapshot.highQC()).thenReturn(highQC);
+
+		GetVerticesRequest request = mock(GetVerticesRequest.class);
+		BFTNode sender = mock(BFTNode.class);
+		when(request.getSender()).thenReturn(sender);
+		when(request.getCount()).thenReturn(3);
+		when(request.allowsPartial()).thenReturn(false);
+		requestProcessor.processGetVerticesRequest(request);
+
+		verify(responseSender, times(1)).sendGetVerticesErrorResponse(eq(sender), eq(highQC));
+		verify(responseSender, never()).sendGetVerticesResponse(any(), any());
+	}
+}
@@ -17,6 +17,7 @@
 
 package com.radixdlt.environment.deterministic;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
@@ -45,6 +46,7 @@ import com.radixdlt.environment.deterministic.network.DeterministicNetwork.Deter
 import com.radixdlt.ledger.DtoCommandsAndProof;
 import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
 import com.radixdlt.sync.LocalSyncRequest;
+import com.radixdlt.sync.SyncExecutors;
 
 /**
  * Module that supplies network senders, as well as some other assorted
@@ -90,6 +92,13 @@ public class DeterministicEnvironmentModule extends AbstractModule {
 		return controlledSender.getRemoteDispatcher(DtoCommandsAndProof.class);
 	}
 
+	@Provides
+	@Singleton
+	SyncExecutors syncExecutors() {
+		// Sync responses are verified and processed on the thread which delivers them
+		return new SyncExecutors(MoreExecutors.newDirectExecutorService(), MoreExecutors.newDirectExecutorService());
+	}
+
 	@Provides
 	@Singleton
 	ControlledSender sender(@Self BFTNode self, ControlledSenderFactory senderFactory) {
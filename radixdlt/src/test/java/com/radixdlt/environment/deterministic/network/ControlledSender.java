@@ -60,7 +60,12 @@ public final class ControlledSender implements DeterministicSender, Environment
 
 	@Override
 	public void sendGetVerticesRequest(BFTNode node, LocalGetVerticesRequest localRequest) {
-		GetVerticesRequest request = new GetVerticesRequest(self, localRequest.getVertexId(), localRequest.getCount());
+		GetVerticesRequest request = new GetVerticesRequest(
+			self,
+			localRequest.getVertexId(),
+			localRequest.getCount(),
+			localRequest.allowsPartial()
+		);
 		ChannelId channelId = ChannelId.of(this.senderIndex, this.network.lookup(node));
 		handleMessage(new ControlledMessage(self, channelId, request, arrivalTime(channelId)));
 	}
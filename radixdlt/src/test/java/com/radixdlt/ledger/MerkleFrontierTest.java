@@ -0,0 +1,108 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.crypto.Hasher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.Test;
+
+public class MerkleFrontierTest {
+	private final Hasher hasher = Sha256Hasher.withDefaultSerialization();
+
+	@Test
+	public void when_no_leaves__then_root_is_base() {
+		HashCode base = HashUtils.random256();
+		assertThat(MerkleFrontier.genesis(base).root(hasher)).isEqualTo(base);
+	}
+
+	@Test
+	public void when_append_all__then_same_as_append_one_by_one() {
+		List<HashCode> hashes = IntStream.range(0, 300)
+			.mapToObj(i -> HashUtils.random256())
+			.collect(Collectors.toList());
+		MerkleFrontier oneByOne = MerkleFrontier.genesis(HashUtils.zero256());
+		for (HashCode hash : hashes) {
+			oneByOne = oneByOne.append(hasher, hash);
+		}
+
+		MerkleFrontier batched = MerkleFrontier.genesis(HashUtils.zero256())
+			.appendAll(hasher, hashes.subList(0, 7))
+			.appendAll(hasher, hashes.subList(7, 300));
+
+		assertThat(batched).isEqualTo(oneByOne);
+		assertThat(batched.getLeafCount()).isEqualTo(300);
+		assertThat(batched.root(hasher)).isEqualTo(oneByOne.root(hasher));
+	}
+
+	@Test
+	public void when_append_all_in_batches__then_every_complete_subtree_is_reported_once() {
+		List<HashCode> hashes = IntStream.range(0, 300)
+			.mapToObj(i -> HashUtils.random256())
+			.collect(Collectors.toList());
+		List<MerkleNode> nodes = new ArrayList<>();
+
+		MerkleFrontier frontier = MerkleFrontier.genesis(HashUtils.zero256())
+			.appendAll(hasher, hashes.subList(0, 7), nodes::add)
+			.appendAll(hasher, hashes.subList(7, 300), nodes::add);
+
+		long expected = LongStream.range(0, Long.SIZE - 1).map(height -> frontier.getLeafCount() >>> height).sum();
+		assertThat(nodes).hasSize((int) expected);
+		assertThat(nodes.stream().map(n -> List.of(n.getHeight(), n.getIndex())).distinct()).hasSize((int) expected);
+		assertThat(nodes).contains(new MerkleNode(0, 7, MerkleFrontier.leaf(hasher, hashes.get(7))));
+	}
+
+	@Test
+	public void when_different_order__then_different_root() {
+		HashCode first = HashUtils.random256();
+		HashCode second = HashUtils.random256();
+		MerkleFrontier genesis = MerkleFrontier.genesis(HashUtils.zero256());
+
+		assertThat(genesis.append(hasher, first).append(hasher, second).root(hasher))
+			.isNotEqualTo(genesis.append(hasher, second).append(hasher, first).root(hasher));
+	}
+
+	@Test
+	public void when_to_and_from_bytes__then_frontier_is_same() {
+		MerkleFrontier frontier = MerkleFrontier.genesis(HashUtils.random256());
+		for (int i = 0; i < 11; i++) {
+			frontier = frontier.append(hasher, HashUtils.random256());
+		}
+
+		assertThat(MerkleFrontier.fromBytes(frontier.toBytes())).isEqualTo(frontier);
+	}
+
+	@Test
+	public void when_from_truncated_bytes__then_should_throw_exception() {
+		MerkleFrontier frontier = MerkleFrontier.genesis(HashUtils.random256()).append(hasher, HashUtils.random256());
+		byte[] bytes = frontier.toBytes();
+		byte[] truncated = new byte[bytes.length - 1];
+		System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+		assertThatThrownBy(() -> MerkleFrontier.fromBytes(truncated)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
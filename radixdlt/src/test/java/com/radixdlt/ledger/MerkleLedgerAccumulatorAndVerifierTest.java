@@ -0,0 +1,255 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.utils.Pair;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MerkleLedgerAccumulatorAndVerifierTest {
+	private Hasher hasher;
+	private Map<Pair<Integer, Long>, HashCode> storedNodes;
+	private AtomicReference<MerkleFrontier> storedFrontier;
+	private MerkleFrontierStore frontierStore;
+	private MerkleLedgerAccumulatorAndVerifier accumulatorAndVerifier;
+	private AccumulatorState genesis;
+
+	@Before
+	public void setup() {
+		this.hasher = Sha256Hasher.withDefaultSerialization();
+		this.storedNodes = new HashMap<>();
+		this.storedFrontier = new AtomicReference<>();
+		this.frontierStore = new MerkleFrontierStore() {
+			@Override
+			public Optional<MerkleFrontier> getCommitted() {
+				return Optional.ofNullable(storedFrontier.get());
+			}
+
+			@Override
+			public Optional<HashCode> getNode(int height, long index) {
+				return Optional.ofNullable(storedNodes.get(Pair.of(height, index)));
+			}
+
+			@Override
+			public void commit(MerkleFrontier frontier, List<MerkleNode> nodes) {
+				nodes.forEach(node -> storedNodes.put(Pair.of(node.getHeight(), node.getIndex()), node.getHash()));
+				storedFrontier.set(frontier);
+			}
+		};
+		this.accumulatorAndVerifier = new MerkleLedgerAccumulatorAndVerifier(hasher, frontierStore);
+		this.genesis = new AccumulatorState(0, HashUtils.random256());
+	}
+
+	@Test
+	public void when_accumulate__then_should_verify() {
+		AccumulatorState nextState = accumulatorAndVerifier.accumulate(genesis, HashUtils.zero256());
+		assertThat(nextState.getStateVersion()).isEqualTo(1);
+		assertThat(accumulatorAndVerifier.verify(genesis, ImmutableList.of(HashUtils.zero256()), nextState)).isTrue();
+	}
+
+	@Test
+	public void when_accumulate_one_by_one__then_batches_from_any_state_should_verify() {
+		ImmutableList<HashCode> hashes = hashes(37);
+		AccumulatorState[] states = new AccumulatorState[hashes.size() + 1];
+		states[0] = genesis;
+		for (int i = 0; i < hashes.size(); i++) {
+			states[i + 1] = accumulatorAndVerifier.accumulate(states[i], hashes.get(i));
+		}
+
+		for (int start = 0; start < hashes.size(); start++) {
+			for (int end = start; end <= hashes.size(); end++) {
+				assertThat(accumulatorAndVerifier.verify(states[start], hashes.subList(start, end), states[end])).isTrue();
+			}
+		}
+	}
+
+	@Test
+	public void when_verify_large_batch__then_should_match_accumulating_one_by_one() {
+		ImmutableList<HashCode> hashes = hashes(5000);
+		AccumulatorState start = genesis;
+		for (int i = 0; i < 3; i++) {
+			start = accumulatorAndVerifier.accumulate(start, hashes.get(i));
+		}
+		accumulatorAndVerifier.commit(hashes.subList(0, 3), start);
+		AccumulatorState end = start;
+		for (int i = 3; i < hashes.size(); i++) {
+			end = accumulatorAndVerifier.accumulate(end, hashes.get(i));
+		}
+
+		MerkleLedgerAccumulatorAndVerifier fresh = new MerkleLedgerAccumulatorAndVerifier(hasher, frontierStore);
+		assertThat(fresh.verify(start, hashes.subList(3, hashes.size()), end)).isTrue();
+	}
+
+	@Test
+	public void when_verify_different_hashes__then_should_not_verify() {
+		AccumulatorState nextState = accumulatorAndVerifier.accumulate(genesis, HashUtils.zero256());
+		assertThat(accumulatorAndVerifier.verify(genesis, ImmutableList.of(HashUtils.random256()), nextState)).isFalse();
+		assertThat(accumulatorAndVerifier.verify(genesis, ImmutableList.of(), nextState)).isFalse();
+	}
+
+	@Test
+	public void when_verify_from_unknown_state__then_should_not_verify() {
+		AccumulatorState unknown = new AccumulatorState(345, HashUtils.random256());
+		assertThat(accumulatorAndVerifier.verify(unknown, ImmutableList.of(), unknown)).isFalse();
+	}
+
+	@Test
+	public void when_accumulate_on_unknown_state__then_should_throw_exception() {
+		AccumulatorState unknown = new AccumulatorState(345, HashUtils.random256());
+		assertThatThrownBy(() -> accumulatorAndVerifier.accumulate(unknown, HashUtils.zero256()))
+			.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void when_restarted__then_should_accumulate_on_committed_state() {
+		AccumulatorState state = accumulatorAndVerifier.accumulate(genesis, HashUtils.zero256());
+		accumulatorAndVerifier.commit(ImmutableList.of(HashUtils.zero256()), state);
+
+		MerkleLedgerAccumulatorAndVerifier restarted = new MerkleLedgerAccumulatorAndVerifier(hasher, frontierStore);
+		AccumulatorState next = restarted.accumulate(state, HashUtils.zero256());
+
+		assertThat(next).isEqualTo(accumulatorAndVerifier.accumulate(state, HashUtils.zero256()));
+	}
+
+	@Test
+	public void when_accumulated_and_verified_but_not_committed__then_nothing_is_stored() {
+		AccumulatorState state = accumulatorAndVerifier.accumulate(genesis, HashUtils.zero256());
+		accumulatorAndVerifier.verify(genesis, ImmutableList.of(HashUtils.zero256()), state);
+
+		assertThat(storedFrontier.get()).isNull();
+		assertThat(storedNodes).isEmpty();
+		MerkleLedgerAccumulatorAndVerifier restarted = new MerkleLedgerAccumulatorAndVerifier(hasher, frontierStore);
+		assertThat(restarted.verify(state, ImmutableList.of(), state)).isFalse();
+	}
+
+	@Test
+	public void when_committed_again__then_only_last_committed_frontier_is_kept() {
+		ImmutableList<HashCode> hashes = hashes(5);
+		AccumulatorState first = commit(genesis, hashes.subList(0, 2));
+		AccumulatorState second = commit(first, hashes.subList(2, 5));
+
+		assertThat(storedFrontier.get().toAccumulatorState(hasher)).isEqualTo(second);
+		MerkleLedgerAccumulatorAndVerifier restarted = new MerkleLedgerAccumulatorAndVerifier(hasher, frontierStore);
+		assertThat(restarted.verify(first, hashes.subList(2, 5), second)).isFalse();
+		assertThat(restarted.verify(second, ImmutableList.of(), second)).isTrue();
+	}
+
+	@Test
+	public void when_committed_in_batches__then_any_range_can_be_proven_at_any_committed_state() {
+		ImmutableList<HashCode> hashes = hashes(37);
+		AccumulatorState[] states = new AccumulatorState[hashes.size() + 1];
+		states[0] = genesis;
+		for (int i = 0; i < hashes.size(); i++) {
+			states[i + 1] = accumulatorAndVerifier.accumulate(states[i], hashes.get(i));
+		}
+		accumulatorAndVerifier.commit(hashes.subList(0, 5), states[5]);
+		accumulatorAndVerifier.commit(hashes.subList(5, 21), states[21]);
+		accumulatorAndVerifier.commit(hashes.subList(21, 37), states[37]);
+
+		for (int end = 1; end <= hashes.size(); end++) {
+			for (int first = 1; first <= end; first++) {
+				for (int count = 1; first - 1 + count <= end; count++) {
+					MerkleProof proof = accumulatorAndVerifier.proveRange(states[end], first, count).orElseThrow();
+					assertThat(proof.verify(hasher, hashes.subList(first - 1, first - 1 + count), states[end])).isTrue();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void when_prove_inclusion__then_should_not_verify_other_command_or_state() {
+		ImmutableList<HashCode> hashes = hashes(10);
+		AccumulatorState state = commit(genesis, hashes);
+
+		MerkleProof proof = accumulatorAndVerifier.proveInclusion(state, 4).orElseThrow();
+
+		assertThat(proof.verify(hasher, ImmutableList.of(hashes.get(3)), state)).isTrue();
+		assertThat(proof.verify(hasher, ImmutableList.of(hashes.get(4)), state)).isFalse();
+		assertThat(proof.verify(hasher, ImmutableList.of(hashes.get(3)), new AccumulatorState(10, HashUtils.random256()))).isFalse();
+	}
+
+	@Test
+	public void when_prove_uncommitted_or_forked_state__then_no_proof() {
+		ImmutableList<HashCode> hashes = hashes(4);
+		AccumulatorState committed = commit(genesis, hashes.subList(0, 2));
+		AccumulatorState uncommitted = accumulatorAndVerifier.accumulate(committed, hashes.get(2));
+		AccumulatorState fork = accumulatorAndVerifier.accumulate(
+			accumulatorAndVerifier.accumulate(genesis, hashes.get(3)),
+			hashes.get(1)
+		);
+
+		assertThat(accumulatorAndVerifier.proveInclusion(uncommitted, 1)).isEmpty();
+		assertThat(accumulatorAndVerifier.proveInclusion(fork, 1)).isEmpty();
+		assertThat(accumulatorAndVerifier.proveInclusion(committed, 1)).isPresent();
+	}
+
+	@Test
+	public void when_committed_state_does_not_match_commands__then_should_throw_exception() {
+		AccumulatorState state = accumulatorAndVerifier.accumulate(genesis, HashUtils.zero256());
+		assertThatThrownBy(() -> accumulatorAndVerifier.commit(ImmutableList.of(HashUtils.random256()), state))
+			.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void when_single_command_truncate_from_perfect_version__then_should_return_equivalent() {
+		Command command = new Command(new byte[] {0});
+		AccumulatorState nextState = accumulatorAndVerifier.accumulate(genesis, hasher.hash(command));
+		assertThat(accumulatorAndVerifier.verifyAndGetExtension(genesis, ImmutableList.of(command), hasher::hash, nextState))
+			.hasValue(ImmutableList.of(command));
+	}
+
+	@Test
+	public void when_commands_overlap_current__then_should_return_extension() {
+		Command command0 = new Command(new byte[] {0});
+		Command command1 = new Command(new byte[] {1});
+		AccumulatorState state1 = accumulatorAndVerifier.accumulate(genesis, hasher.hash(command0));
+		AccumulatorState state2 = accumulatorAndVerifier.accumulate(state1, hasher.hash(command1));
+		assertThat(accumulatorAndVerifier.verifyAndGetExtension(state1, ImmutableList.of(command0, command1), hasher::hash, state2))
+			.hasValue(ImmutableList.of(command1));
+	}
+
+	private AccumulatorState commit(AccumulatorState start, List<HashCode> hashes) {
+		AccumulatorState end = start;
+		for (HashCode hash : hashes) {
+			end = accumulatorAndVerifier.accumulate(end, hash);
+		}
+		accumulatorAndVerifier.commit(hashes, end);
+		return end;
+	}
+
+	private static ImmutableList<HashCode> hashes(int count) {
+		return IntStream.range(0, count)
+			.mapToObj(i -> HashUtils.random256())
+			.collect(ImmutableList.toImmutableList());
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.mempool;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.identifiers.AID;
+import com.radixdlt.utils.Ints;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.Matchers.*;
+
+public class FileMempoolJournalTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final Hasher hasher = Sha256Hasher.withDefaultSerialization();
+
+	private Path journalFile;
+
+	@Before
+	public void setUp() throws IOException {
+		this.journalFile = folder.getRoot().toPath().resolve("mempool.journal");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void when_constructing_with_non_positive_threshold__then_exception_is_thrown() {
+		assertNotNull(new FileMempoolJournal(journalFile, 0));
+	}
+
+	@Test
+	public void when_journal_does_not_exist__then_replay_is_empty() {
+		FileMempoolJournal journal = new FileMempoolJournal(journalFile, 10);
+		assertThat(journal.replay(), empty());
+	}
+
+	@Test
+	public void when_commands_added_and_removed__then_reopened_journal_replays_live_commands_in_order() {
+		Command command1 = makeCommand(1);
+		Command command2 = makeCommand(2);
+		Command command3 = makeCommand(3);
+		FileMempoolJournal journal = new FileMempoolJournal(journalFile, 10);
+		journal.added(hasher.hash(command1), command1);
+		journal.added(hasher.hash(command2), command2);
+		journal.added(hasher.hash(command3), command3);
+		journal.removed(hasher.hash(command2));
+		journal.flush();
+
+		FileMempoolJournal reopened = new FileMempoolJournal(journalFile, 10);
+		assertThat(reopened.replay(), contains(command1, command3));
+	}
+
+	@Test
+	public void when_closed__then_queued_records_are_written_and_later_records_ignored() {
+		Command command1 = makeCommand(1);
+		Command command2 = makeCommand(2);
+		FileMempoolJournal journal = new FileMempoolJournal(journalFile, 10);
+		journal.added(hasher.hash(command1), command1);
+		journal.close();
+		journal.added(hasher.hash(command2), command2);
+		journal.close();
+
+		assertThat(journal.replay(), contains(command1));
+		assertThat(new FileMempoolJournal(journalFile, 10).replay(), contains(command1));
+	}
+
+	@Test
+	public void when_obsolete_records_exceed_threshold__then_compaction_is_required() {
+		FileMempoolJournal journal = new FileMempoolJournal(journalFile, 2);
+		for (int i = 0; i < 4; i++) {
+			Command command = makeCommand(i);
+			journal.added(hasher.hash(command), command);
+			journal.removed(hasher.hash(command));
+		}
+		assertTrue(journal.compactionRequired(0));
+	}
+
+	@Test
+	public void when_compacted__then_only_live_commands_remain() throws IOException {
+		Command command1 = makeCommand(1);
+		Command command2 = makeCommand(2);
+		FileMempoolJournal journal = new FileMempoolJournal(journalFile, 10);
+		journal.added(hasher.hash(command1), command1);
+		journal.added(hasher.hash(command2), command2);
+		journal.flush();
+		long uncompactedSize = Files.size(journalFile);
+
+		journal.compact(() -> ImmutableMap.<HashCode, Command>of(hasher.hash(command2), command2));
+		journal.flush();
+
+		assertThat(Files.size(journalFile), lessThan(uncompactedSize));
+		assertFalse(journal.compactionRequired(1));
+		assertThat(journal.replay(), contains(command2));
+	}
+
+	@Test
+	public void when_journal_has_truncated_record__then_complete_records_are_replayed() throws IOException {
+		Command command1 = makeCommand(1);
+		FileMempoolJournal journal = new FileMempoolJournal(journalFile, 10);
+		journal.added(hasher.hash(command1), command1);
+		journal.flush();
+		try (OutputStream os = Files.newOutputStream(journalFile, StandardOpenOption.APPEND)) {
+			os.write(new byte[] { 1, 0, 0 });
+		}
+
+		FileMempoolJournal reopened = new FileMempoolJournal(journalFile, 10);
+		Command command2 = makeCommand(2);
+		reopened.added(hasher.hash(command2), command2);
+		assertThat(reopened.replay(), contains(command1, command2));
+	}
+
+	@Test
+	public void when_journalled_local_mempool_removes_command__then_journal_does_not_replay_it()
+		throws MempoolFullException, MempoolDuplicateException {
+		Command command1 = makeCommand(1);
+		Command command2 = makeCommand(2);
+		FileMempoolJournal journal = new FileMempoolJournal(journalFile, 10);
+		LocalMempool mempool = new LocalMempool(10, hasher, journal);
+		mempool.add(command1);
+		mempool.add(command2);
+		mempool.removeCommitted(hasher.hash(command1));
+		journal.flush();
+
+		assertThat(new FileMempoolJournal(journalFile, 10).replay(), contains(command2));
+	}
+
+	@Test
+	public void when_compaction_is_requested_twice_before_it_runs__then_it_is_no_longer_required() {
+		FileMempoolJournal journal = new FileMempoolJournal(journalFile, 2);
+		for (int i = 0; i < 4; i++) {
+			Command command = makeCommand(i);
+			journal.added(hasher.hash(command), command);
+			journal.removed(hasher.hash(command));
+		}
+
+		journal.compact(ImmutableMap::of);
+		assertFalse(journal.compactionRequired(0));
+		journal.compact(ImmutableMap::of);
+		journal.flush();
+
+		assertFalse(journal.compactionRequired(0));
+		assertThat(journal.replay(), empty());
+	}
+
+	private static Command makeCommand(int n) {
+		byte[] temp = new byte[AID.BYTES];
+		Ints.copyTo(n, temp, AID.BYTES - Integer.BYTES);
+		return new Command(temp);
+	}
+}
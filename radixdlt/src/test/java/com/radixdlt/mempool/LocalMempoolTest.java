@@ -21,11 +21,20 @@ import com.radixdlt.consensus.Command;
 import com.radixdlt.crypto.Hasher;
 import com.radixdlt.consensus.Sha256Hasher;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
 import com.radixdlt.identifiers.AID;
 import com.radixdlt.utils.Ints;
 
@@ -140,6 +149,125 @@ public class LocalMempoolTest {
 		assertEquals(1, this.mempool.count()); // postcondition
 	}
 
+	@Test
+	public void when_atoms_are_requested__then_mempool_returns_atoms_in_insertion_order()
+		throws MempoolFullException, MempoolDuplicateException {
+		Command command1 = makeCommand(1);
+		Command command2 = makeCommand(2);
+		this.mempool.add(command2);
+		this.mempool.add(command1);
+
+		List<Command> commands = this.mempool.getCommands(2, Sets.newHashSet());
+		assertThat(commands, contains(command2, command1));
+	}
+
+	@Test
+	public void when_atoms_are_requested__then_atoms_are_not_rehashed()
+		throws MempoolFullException, MempoolDuplicateException {
+		Hasher spyHasher = spy(hasher);
+		LocalMempool localMempool = new LocalMempool(2, spyHasher);
+		Command command = makeCommand(1234);
+		localMempool.add(command);
+		verify(spyHasher, times(1)).hash(any());
+
+		localMempool.getCommands(1, Sets.newHashSet());
+		localMempool.getCommands(1, Sets.newHashSet());
+		verify(spyHasher, times(1)).hash(any());
+	}
+
+	@Test
+	public void when_removed_atom_is_added_again__then_mempool_accepts_it()
+		throws MempoolFullException, MempoolDuplicateException {
+		Command command = makeCommand(1234);
+		this.mempool.add(command);
+		this.mempool.removeCommitted(hasher.hash(command));
+		this.mempool.add(command);
+
+		assertEquals(1, this.mempool.count());
+		assertThat(this.mempool.getCommands(2, Sets.newHashSet()), contains(command));
+	}
+
+	@Test
+	public void when_commands_are_requested__then_seen_set_is_not_modified()
+		throws MempoolFullException, MempoolDuplicateException {
+		this.mempool.add(makeCommand(1));
+		Set<HashCode> seen = Sets.newHashSet();
+
+		List<Command> commands = this.mempool.getCommands(1, seen);
+
+		assertEquals(1, commands.size());
+		assertTrue(seen.isEmpty());
+	}
+
+	@Test
+	public void when_skipped_commands_leave_seen__then_they_are_returned_again()
+		throws MempoolFullException, MempoolDuplicateException {
+		LocalMempool mempool = new LocalMempool(10, hasher);
+		Command command1 = makeCommand(1);
+		Command command2 = makeCommand(2);
+		Command command3 = makeCommand(3);
+		mempool.add(command1);
+		mempool.add(command2);
+		mempool.add(command3);
+		Set<HashCode> seen = Sets.newHashSet(hasher.hash(command1), hasher.hash(command2));
+
+		assertThat(mempool.getCommands(1, seen), contains(command3));
+		assertThat(mempool.getCommands(1, Sets.newHashSet(hasher.hash(command1))), contains(command2));
+		assertThat(mempool.getCommands(3, Sets.newHashSet()), contains(command1, command2, command3));
+	}
+
+	@Test
+	public void when_skipped_commands_are_committed__then_later_commands_are_returned()
+		throws MempoolFullException, MempoolDuplicateException {
+		LocalMempool mempool = new LocalMempool(10, hasher);
+		Command command1 = makeCommand(1);
+		Command command2 = makeCommand(2);
+		mempool.add(command1);
+		mempool.add(command2);
+		Set<HashCode> seen = Sets.newHashSet(hasher.hash(command1));
+		assertThat(mempool.getCommands(1, seen), contains(command2));
+
+		mempool.removeCommitted(hasher.hash(command1));
+		Command command3 = makeCommand(3);
+		mempool.add(command3);
+
+		assertThat(mempool.getCommands(2, Sets.newHashSet()), contains(command2, command3));
+		assertEquals(2, mempool.count());
+	}
+
+	@Test
+	public void when_adding_and_removing_concurrently__then_count_matches_contents() throws Exception {
+		final int commandCount = 1000;
+		LocalMempool mempool = new LocalMempool(commandCount, hasher);
+		List<Command> commands = IntStream.range(0, commandCount)
+			.mapToObj(LocalMempoolTest::makeCommand)
+			.collect(Collectors.toList());
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = Lists.newArrayList();
+			for (int t = 0; t < 4; t++) {
+				futures.add(executor.submit(() -> {
+					for (Command command : commands) {
+						try {
+							mempool.add(command);
+						} catch (MempoolDuplicateException | MempoolFullException e) {
+							// Expected when racing other threads
+						}
+						mempool.removeCommitted(hasher.hash(command));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(0, mempool.count());
+		assertThat(mempool.getCommands(commandCount, Sets.newHashSet()), empty());
+	}
+
 	@Test
 	public void when_max_count_called__max_count_returned() {
 		assertEquals(2, this.mempool.maxCount());
@@ -0,0 +1,116 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.mempool;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.engine.RadixEngine;
+import com.radixdlt.engine.RadixEngineException;
+import com.radixdlt.middleware2.ClientAtom;
+import com.radixdlt.middleware2.LedgerAtom;
+import com.radixdlt.serialization.Serialization;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import static org.hamcrest.Matchers.*;
+
+public class MempoolJournalReplayerTest {
+	private final Hasher hasher = Sha256Hasher.withDefaultSerialization();
+
+	private MempoolJournal journal;
+	private LocalMempool localMempool;
+	private RadixEngine<LedgerAtom> radixEngine;
+	private Serialization serialization;
+	private MempoolJournalReplayer replayer;
+
+	@Before
+	public void setUp() {
+		this.journal = mock(MempoolJournal.class);
+		this.localMempool = new LocalMempool(10, hasher, this.journal);
+		// No type check issues with mocking generic here
+		@SuppressWarnings("unchecked")
+		RadixEngine<LedgerAtom> re = mock(RadixEngine.class);
+		this.radixEngine = re;
+		this.serialization = mock(Serialization.class);
+		this.replayer = new MempoolJournalReplayer(this.journal, this.localMempool, this.radixEngine, this.serialization);
+	}
+
+	@Test
+	public void when_journal_is_empty__then_nothing_is_restored() {
+		when(journal.replay()).thenReturn(ImmutableList.of());
+
+		replayer.replay();
+
+		assertEquals(0, localMempool.count());
+		verify(journal, never()).compact(any());
+	}
+
+	@Test
+	public void when_journalled_commands_are_valid__then_they_are_restored_without_journalling() throws Exception {
+		Command command1 = new Command(new byte[] { 1 });
+		Command command2 = new Command(new byte[] { 2 });
+		when(journal.replay()).thenReturn(ImmutableList.of(command1, command2));
+		when(serialization.fromDson(any(), eq(ClientAtom.class))).thenReturn(mock(ClientAtom.class));
+
+		replayer.replay();
+
+		assertEquals(2, localMempool.count());
+		assertThat(localMempool.getCommands(2, ImmutableSet.of()), contains(command1, command2));
+		verify(journal, never()).added(any(), any());
+		verify(journal, times(1)).compact(any());
+	}
+
+	@Test
+	public void when_earlier_command_is_slower_to_validate__then_journal_order_is_preserved() throws Exception {
+		Command command1 = new Command(new byte[] { 1 });
+		Command command2 = new Command(new byte[] { 2 });
+		ClientAtom slow = mock(ClientAtom.class);
+		when(journal.replay()).thenReturn(ImmutableList.of(command1, command2));
+		when(serialization.fromDson(aryEq(command1.getPayload()), eq(ClientAtom.class))).thenReturn(slow);
+		when(serialization.fromDson(aryEq(command2.getPayload()), eq(ClientAtom.class))).thenReturn(mock(ClientAtom.class));
+		doAnswer(invocation -> {
+			Thread.sleep(100L);
+			return null;
+		}).when(radixEngine).staticCheck(slow);
+
+		replayer.replay();
+
+		assertThat(localMempool.getCommands(2, ImmutableSet.of()), contains(command1, command2));
+	}
+
+	@Test
+	public void when_journalled_command_fails_static_check__then_it_is_not_restored() throws Exception {
+		Command command1 = new Command(new byte[] { 1 });
+		Command command2 = new Command(new byte[] { 2 });
+		ClientAtom valid = mock(ClientAtom.class);
+		ClientAtom invalid = mock(ClientAtom.class);
+		when(journal.replay()).thenReturn(ImmutableList.of(command1, command2));
+		when(serialization.fromDson(aryEq(command1.getPayload()), eq(ClientAtom.class))).thenReturn(valid);
+		when(serialization.fromDson(aryEq(command2.getPayload()), eq(ClientAtom.class))).thenReturn(invalid);
+		doThrow(mock(RadixEngineException.class)).when(radixEngine).staticCheck(invalid);
+
+		replayer.replay();
+
+		assertThat(localMempool.getCommands(2, ImmutableSet.of()), contains(command1));
+		verify(journal, never()).added(any(), any());
+	}
+}
@@ -21,6 +21,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.radixdlt.consensus.ConsensusEvent;
 import com.radixdlt.consensus.Proposal;
@@ -96,7 +97,26 @@ public class MessageCentralBFTNetworkTest {
 		when(addressBook.peer(leaderPk.euid())).thenReturn(Optional.of(peer));
 
 		network.broadcastViewTimeout(viewTimeout, ImmutableSet.of(leader));
-		verify(messageCentral, times(1)).send(eq(peer), any(ConsensusEventMessage.class));
+		verify(messageCentral, times(1)).broadcast(any(ConsensusEventMessage.class), eq(ImmutableList.of(peer)));
+	}
+
+	@Test
+	public void when_broadcast_proposal__then_message_central_should_be_broadcast_single_message() {
+		Proposal proposal = mock(Proposal.class);
+		BFTNode node1 = mock(BFTNode.class);
+		BFTNode node2 = mock(BFTNode.class);
+		ECPublicKey pk1 = ECKeyPair.generateNew().getPublicKey();
+		ECPublicKey pk2 = ECKeyPair.generateNew().getPublicKey();
+		when(node1.getKey()).thenReturn(pk1);
+		when(node2.getKey()).thenReturn(pk2);
+		PeerWithSystem peer1 = mock(PeerWithSystem.class);
+		PeerWithSystem peer2 = mock(PeerWithSystem.class);
+		when(addressBook.peer(pk1.euid())).thenReturn(Optional.of(peer1));
+		when(addressBook.peer(pk2.euid())).thenReturn(Optional.of(peer2));
+
+		network.broadcastProposal(proposal, ImmutableSet.of(node1, node2, self));
+		verify(messageCentral, times(1)).broadcast(any(ConsensusEventMessage.class), eq(ImmutableList.of(peer1, peer2)));
+		verify(messageCentral, never()).send(any(), any());
 	}
 
 	@Test
@@ -106,6 +126,7 @@ public class MessageCentralBFTNetworkTest {
 		when(node.getKey()).thenReturn(mock(ECPublicKey.class));
 		network.broadcastViewTimeout(viewTimeout, ImmutableSet.of(node));
 		verify(messageCentral, never()).send(any(), any());
+		verify(messageCentral, never()).broadcast(any(), any());
 	}
 
 	@Test
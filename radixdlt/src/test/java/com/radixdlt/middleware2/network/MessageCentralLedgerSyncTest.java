@@ -20,6 +20,7 @@ package com.radixdlt.middleware2.network;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -81,8 +82,29 @@ public class MessageCentralLedgerSyncTest {
 		PeerWithSystem peer = mock(PeerWithSystem.class);
 		when(peer.hasSystem()).thenReturn(true);
 		when(addressBook.peer(any(EUID.class))).thenReturn(Optional.of(peer));
+		when(messageCentral.serialize(any())).thenReturn(new byte[0]);
 		messageCentralLedgerSync.syncResponseDispatcher().dispatch(node, mock(DtoCommandsAndProof.class));
-		verify(messageCentral, times(1)).send(eq(peer), argThat(msg -> msg.getMagic() == 123));
+		verify(messageCentral, times(1)).send(eq(peer), argThat(msg -> msg.getMagic() == 123), any());
+	}
+
+	@Test
+	public void when_send_same_sync_response_twice__then_it_is_serialized_once() {
+		BFTNode node = mock(BFTNode.class);
+		ECPublicKey key = mock(ECPublicKey.class);
+		when(key.euid()).thenReturn(EUID.ONE);
+		when(node.getKey()).thenReturn(key);
+		PeerWithSystem peer = mock(PeerWithSystem.class);
+		when(peer.hasSystem()).thenReturn(true);
+		when(addressBook.peer(any(EUID.class))).thenReturn(Optional.of(peer));
+		byte[] serialized = new byte[0];
+		when(messageCentral.serialize(any())).thenReturn(serialized);
+		DtoCommandsAndProof response = mock(DtoCommandsAndProof.class);
+
+		messageCentralLedgerSync.syncResponseDispatcher().dispatch(node, response);
+		messageCentralLedgerSync.syncResponseDispatcher().dispatch(node, response);
+
+		verify(messageCentral, times(1)).serialize(any());
+		verify(messageCentral, times(2)).send(eq(peer), any(), same(serialized));
 	}
 
 	@Test
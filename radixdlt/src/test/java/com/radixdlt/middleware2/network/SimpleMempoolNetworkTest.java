@@ -17,6 +17,7 @@
 
 package com.radixdlt.middleware2.network;
 
+import com.google.common.collect.ImmutableList;
 import com.radixdlt.consensus.Command;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
@@ -59,7 +60,8 @@ public class SimpleMempoolNetworkTest {
 		Command command = mock(Command.class);
 		smn.sendMempoolSubmission(command);
 
-		verify(messageCentral, times(1)).send(any(), any());
+		verify(messageCentral, times(1)).broadcast(any(), eq(ImmutableList.of(peer1)));
+		verify(messageCentral, never()).send(any(), any());
 	}
 
 	@Test
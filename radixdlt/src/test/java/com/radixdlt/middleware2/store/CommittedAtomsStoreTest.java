@@ -19,11 +19,15 @@ package com.radixdlt.middleware2.store;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.radixdlt.atommodel.system.SystemParticle;
 import com.radixdlt.consensus.Command;
 import com.radixdlt.consensus.Sha256Hasher;
 import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
@@ -45,6 +49,7 @@ import java.util.HashSet;
 import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class CommittedAtomsStoreTest {
 	private CommittedAtomsStore committedAtomsStore;
@@ -145,4 +150,31 @@ public class CommittedAtomsStoreTest {
 
 		assertThat(committedAtomsStore.getSpin(particle)).isEqualTo(Spin.DOWN);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void when_install_snapshot__then_chunk_particles_are_committed_at_proof_version() throws Exception {
+		when(store.getNextCommittedLedgerEntries(anyLong(), anyInt())).thenReturn(ImmutableList.of());
+		when(clientAtomToBinaryConverter.toLedgerEntryContent(any())).thenReturn(new byte[0]);
+		when(commandToBinaryConverter.toLedgerEntryContent(any())).thenReturn(new byte[0]);
+		when(atomIndexer.getIndices(any())).thenReturn(new EngineAtomIndices(ImmutableSet.of(), ImmutableSet.of()));
+		VerifiedLedgerHeaderAndProof proof = mock(VerifiedLedgerHeaderAndProof.class);
+		when(proof.getStateVersion()).thenReturn(10L);
+		ImmutableList<ClientAtom> chunks = ImmutableList.of(
+			chunk(new SystemParticle(2, 0, 0)),
+			chunk(new SystemParticle(2, 1, 0))
+		);
+
+		committedAtomsStore.installSnapshot(proof, chunks);
+
+		ArgumentCaptor<LedgerEntry> entries = ArgumentCaptor.forClass(LedgerEntry.class);
+		verify(store, times(2)).commit(entries.capture(), any(), any());
+		assertThat(entries.getAllValues()).allMatch(e -> e.getStateVersion() == 10L);
+	}
+
+	private ClientAtom chunk(Particle particle) {
+		return ClientAtom.create(
+			ImmutableList.of(CMMicroInstruction.checkSpinAndPush(particle, Spin.NEUTRAL), CMMicroInstruction.particleGroup()),
+			hasher
+		);
+	}
+}
@@ -110,6 +110,24 @@ public class InboundMessageEventTest {
 		assertTrue(events.get(0).message() instanceof PeerPongMessage);
 	}
 
+	@Test
+	public void undecodedConsensusMessageSortedFirst() {
+		ArrayList<InboundMessageEvent> events = Lists.newArrayList();
+		events.add(makeMessageEventFor(Message.class));
+		events.add(makeRawMessageEventFor(MessageLane.MEMPOOL));
+		events.add(makeRawMessageEventFor(MessageLane.OTHER));
+		events.add(makeRawMessageEventFor(MessageLane.CONSENSUS));
+		events.sort(InboundMessageEvent.comparator());
+		assertEquals(Integer.MIN_VALUE + MessageLane.CONSENSUS.outboundPriority(), events.get(0).priority());
+		assertEquals(Integer.MIN_VALUE + MessageLane.MEMPOOL.outboundPriority(), events.get(1).priority());
+		assertNotNull(events.get(3).message());
+	}
+
+	private InboundMessageEvent makeRawMessageEventFor(MessageLane lane) {
+		InboundMessage rawMessage = InboundMessage.of(mock(TransportInfo.class), new byte[] { 0 });
+		return new InboundMessageEvent(rawMessage, lane, 123456789L);
+	}
+
 	private InboundMessageEvent makeMessageEventFor(Class<? extends Message> cls) {
 		TransportInfo transportInfo = mock(TransportInfo.class);
 		Message message = mock(cls);
@@ -17,6 +17,9 @@
 
 package com.radixdlt.network.messaging;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -43,7 +46,9 @@ public class InboundMessageTest {
 
 	@Test
 	public void equalsContract() {
-	    EqualsVerifier.forClass(InboundMessage.class).verify();
+		EqualsVerifier.forClass(InboundMessage.class)
+			.withIgnoredFields("releaser")
+			.verify();
 	}
 
 	@Test
@@ -56,6 +61,24 @@ public class InboundMessageTest {
 		assertThat(inboundMessage.message(), equalTo(message));
 	}
 
+	@Test
+	public void testBufferMessage() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(this.message.length + 2);
+		buffer.put((byte) 99).put(this.message).put((byte) 99);
+		buffer.position(1).limit(1 + this.message.length);
+		AtomicInteger releases = new AtomicInteger();
+		InboundMessage bufferMessage = InboundMessage.of(this.transportInfo, buffer, releases::incrementAndGet);
+
+		assertThat(bufferMessage.length(), equalTo(this.message.length));
+		assertThat(bufferMessage.message(), equalTo(this.message));
+		assertThat(bufferMessage.buffer().isDirect(), is(true));
+		assertThat(bufferMessage, equalTo(this.inboundMessage));
+		assertThat(releases.get(), equalTo(0));
+
+		bufferMessage.release();
+		assertThat(releases.get(), equalTo(1));
+	}
+
 	@Test
 	public void testToString() {
 		assertThat(inboundMessage.toString(), containsString("TEST")); // Transport name
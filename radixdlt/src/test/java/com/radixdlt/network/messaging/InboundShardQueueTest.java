@@ -0,0 +1,99 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.network.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.radix.network.messaging.Message;
+
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.counters.SystemCountersImpl;
+import com.radixdlt.network.messaging.MessageLane.DropPolicy;
+import com.radixdlt.network.transport.TransportInfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class InboundShardQueueTest {
+
+	@Test
+	public void when_other_lane_full__then_consensus_message_still_queued_and_taken_first() throws InterruptedException {
+		SystemCounters counters = new SystemCountersImpl();
+		InboundShardQueue queue = new InboundShardQueue(lane -> new MessageLaneQueue(lane, 2, DropPolicy.DROP_NEWEST, counters));
+		InboundMessageEvent other = rawEvent(MessageLane.OTHER);
+		InboundMessageEvent consensus = rawEvent(MessageLane.CONSENSUS);
+
+		assertTrue(queue.offer(other));
+		assertTrue(queue.offer(rawEvent(MessageLane.OTHER)));
+		assertFalse(queue.offer(rawEvent(MessageLane.OTHER)));
+		assertTrue(queue.offer(consensus));
+
+		assertEquals(3, queue.size());
+		assertEquals(1L, counters.get(CounterType.MESSAGES_INBOUND_LANE_OTHER_DROPPED));
+		assertSame(consensus, queue.take());
+		assertSame(other, queue.take());
+		assertEquals(1L, counters.get(CounterType.MESSAGES_INBOUND_LANE_OTHER_PENDING));
+	}
+
+	@Test
+	public void when_drop_oldest_lane_full__then_discarded_message_passed_to_handler() {
+		List<InboundMessageEvent> discarded = new ArrayList<>();
+		InboundShardQueue queue = new InboundShardQueue(
+			lane -> new MessageLaneQueue(lane, 1, DropPolicy.DROP_OLDEST, new SystemCountersImpl(), discarded::add)
+		);
+		TransportInfo source = mock(TransportInfo.class);
+		InboundMessageEvent first = rawEvent(MessageLane.CONSENSUS, source);
+		InboundMessageEvent second = rawEvent(MessageLane.CONSENSUS, source);
+
+		assertTrue(queue.offer(first));
+		assertTrue(queue.offer(second));
+
+		assertEquals(1, discarded.size());
+		assertSame(first, discarded.get(0));
+		List<InboundMessageEvent> drained = new ArrayList<>();
+		assertEquals(1, queue.drainTo(drained));
+		assertSame(second, drained.get(0));
+		assertEquals(0, queue.size());
+	}
+
+	@Test
+	public void when_decoded_message_offered__then_queued_in_its_lane() throws InterruptedException {
+		SystemCounters counters = new SystemCountersImpl();
+		InboundShardQueue queue = new InboundShardQueue(lane -> new MessageLaneQueue(lane, 2, DropPolicy.DROP_NEWEST, counters));
+		InboundMessageEvent decoded = new InboundMessageEvent(mock(TransportInfo.class), mock(Message.class), System.nanoTime());
+
+		assertTrue(queue.offer(decoded));
+
+		assertEquals(1L, counters.get(CounterType.MESSAGES_INBOUND_LANE_OTHER_PENDING));
+		assertSame(decoded, queue.take());
+	}
+
+	private static InboundMessageEvent rawEvent(MessageLane lane) {
+		return rawEvent(lane, mock(TransportInfo.class));
+	}
+
+	private static InboundMessageEvent rawEvent(MessageLane lane, TransportInfo source) {
+		InboundMessage rawMessage = InboundMessage.of(source, new byte[] { 0 });
+		return new InboundMessageEvent(rawMessage, lane, System.nanoTime());
+	}
+}
@@ -19,10 +19,14 @@ package com.radixdlt.network.messaging;
 
 import org.junit.Test;
 
+import com.radixdlt.network.messaging.MessageLane.DropPolicy;
 import com.radixdlt.properties.RuntimeProperties;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -34,14 +38,44 @@ public class MessageCentralConfigurationTest {
     public void fromRuntimeProperties() {
         RuntimeProperties properties = mock(RuntimeProperties.class);
 
-        when(properties.get(eq("messaging.inbound.queue_max"), anyInt())).thenReturn(100);
+        when(properties.get(eq("messaging.inbound.threads"), anyInt())).thenReturn(101);
+        when(properties.get(eq("messaging.inbound.lane.mempool.capacity"), anyInt())).thenReturn(105);
+        when(properties.get(eq("messaging.inbound.lane.mempool.drop_policy"), anyString())).thenReturn("Oldest");
+        when(properties.get(eq("messaging.inbound.lane.consensus.drop_policy"), anyString())).thenReturn("");
         when(properties.get(eq("messaging.outbound.queue_max"), anyInt())).thenReturn(102);
         when(properties.get(eq("messaging.time_to_live"), anyLong())).thenReturn(104L);
+        when(properties.get(eq("messaging.session_mac"), anyBoolean())).thenReturn(false);
+        when(properties.get(eq("messaging.compression.algorithm"), anyString())).thenReturn("None");
+        when(properties.get(eq("messaging.compression.min_size"), anyInt())).thenReturn(106);
+        when(properties.get(eq("messaging.compression.min_saving_percent"), anyInt())).thenReturn(107);
 
         MessageCentralConfiguration config = MessageCentralConfiguration.fromRuntimeProperties(properties);
 
-        assertEquals(100, config.messagingInboundQueueMax(-1));
+        assertEquals(101, config.messagingInboundThreads(-1));
+        assertEquals(105, config.messagingInboundLaneCapacity(MessageLane.MEMPOOL, -1));
+        assertEquals(DropPolicy.DROP_OLDEST, config.messagingInboundLaneDropPolicy(MessageLane.MEMPOOL, DropPolicy.DROP_NEWEST));
+        assertEquals(DropPolicy.DROP_NEWEST, config.messagingInboundLaneDropPolicy(MessageLane.CONSENSUS, DropPolicy.DROP_NEWEST));
         assertEquals(102, config.messagingOutboundQueueMax(-1));
         assertEquals(104, config.messagingTimeToLive(-1));
+        assertFalse(config.messagingSessionMac(true));
+        assertEquals(MessageCompression.NONE, config.messagingCompression(MessageCompression.SNAPPY));
+        assertEquals(106, config.messagingCompressionMinSize(-1));
+        assertEquals(107, config.messagingCompressionMinSavingPercent(-1));
     }
-}
\ No newline at end of file
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLaneDropPolicy() {
+        RuntimeProperties properties = mock(RuntimeProperties.class);
+        when(properties.get(eq("messaging.inbound.lane.mempool.drop_policy"), anyString())).thenReturn("sideways");
+
+        MessageCentralConfiguration.fromRuntimeProperties(properties).messagingInboundLaneDropPolicy(MessageLane.MEMPOOL, DropPolicy.DROP_NEWEST);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCompression() {
+        RuntimeProperties properties = mock(RuntimeProperties.class);
+        when(properties.get(eq("messaging.compression.algorithm"), anyString())).thenReturn("zip");
+
+        MessageCentralConfiguration.fromRuntimeProperties(properties).messagingCompression(MessageCompression.SNAPPY);
+    }
+}
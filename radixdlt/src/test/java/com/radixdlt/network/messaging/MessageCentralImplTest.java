@@ -17,6 +17,7 @@
 
 package com.radixdlt.network.messaging;
 
+import com.google.common.collect.ImmutableList;
 import com.radixdlt.DefaultSerialization;
 import com.radixdlt.consensus.Sha256Hasher;
 import com.radixdlt.counters.SystemCounters;
@@ -42,10 +43,14 @@ import org.radix.universe.system.LocalSystem;
 import org.xerial.snappy.Snappy;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -55,11 +60,19 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 public class MessageCentralImplTest {
 
@@ -94,8 +107,8 @@ public class MessageCentralImplTest {
 	private DummyTransportOutboundConnection toc;
 	private DummyTransport dt;
 	private MessageCentralImpl mci;
-	private TestBlockingQueue<InboundMessageEvent> inboundQueue;
 	private TestBlockingQueue<OutboundMessageEvent> outboundQueue;
+	private PeerWithSystem peer;
 
 	@Before
 	public void testSetup() {
@@ -108,8 +121,8 @@ public class MessageCentralImplTest {
 		RuntimeProperties runtimeProperties = mock(RuntimeProperties.class);
 		doReturn("").when(runtimeProperties).get(eq("network.whitelist"), any());
 		AddressBook addressBook = mock(AddressBook.class);
-		PeerWithSystem peer = mock(PeerWithSystem.class);
-		doReturn(Optional.of(peer)).when(addressBook).peer(any(TransportInfo.class));
+		this.peer = mock(PeerWithSystem.class);
+		doReturn(Optional.of(this.peer)).when(addressBook).peer(any(TransportInfo.class));
 
 		// Other scaffolding
 		this.toc = new DummyTransportOutboundConnection();
@@ -119,11 +132,8 @@ public class MessageCentralImplTest {
 		@SuppressWarnings("resource")
 		TransportManager transportManager = new MessagingDummyConfigurations.DummyTransportManager(this.dt);
 
-		inboundQueue = new TestBlockingQueue<>(InboundMessageEvent.comparator());
 		outboundQueue = new TestBlockingQueue<>(OutboundMessageEvent.comparator());
-		EventQueueFactory<InboundMessageEvent> inboundQueueFactory = eventQueueFactoryMock();
 		EventQueueFactory<OutboundMessageEvent> outboundQueueFactory = eventQueueFactoryMock();
-		doReturn(inboundQueue).when(inboundQueueFactory).createEventQueue(eq(conf.messagingInboundQueueMax(0)), any());
 		doReturn(outboundQueue).when(outboundQueueFactory).createEventQueue(eq(conf.messagingOutboundQueueMax(0)), any());
 		LocalSystem localSystem = mock(LocalSystem.class);
 		SystemCounters counters = mock(SystemCounters.class);
@@ -134,12 +144,12 @@ public class MessageCentralImplTest {
 			transportManager,
 			addressBook,
 			System::currentTimeMillis,
-			inboundQueueFactory,
 			outboundQueueFactory,
 			localSystem,
 			counters,
 			Sha256Hasher.withDefaultSerialization(),
-			ecKeyPair::sign
+			ecKeyPair::sign,
+			remoteKey -> NodeKeyAgreement.sharedSecret(ecKeyPair, remoteKey)
 		);
 	}
 
@@ -185,6 +195,36 @@ public class MessageCentralImplTest {
 		assertEquals(numberOfRequests, toc.getMessages().size());
 	}
 
+	@Test
+	public void testBroadcastSameBytesDeliveredToAllPeers() throws InterruptedException {
+		Message msg = new TestMessage(1);
+		List<Peer> peers = ImmutableList.of(mock(Peer.class), mock(Peer.class), mock(Peer.class));
+
+		CountDownLatch receivedFlag = new CountDownLatch(peers.size());
+		toc.setCountDownLatch(receivedFlag);
+		mci.broadcast(msg, peers);
+
+		assertTrue(receivedFlag.await(10, TimeUnit.SECONDS));
+		assertEquals(peers.size(), toc.getMessages().size());
+		byte[] first = toc.getMessages().get(0);
+		toc.getMessages().forEach(bytes -> assertSame(first, bytes));
+		assertEquals(peers.size(), outboundQueue.offered());
+	}
+
+	@Test
+	public void testSendSerializedSameBytesDeliveredToAllPeers() throws InterruptedException {
+		Message msg = new TestMessage(1);
+		byte[] serialized = mci.serialize(msg);
+
+		CountDownLatch receivedFlag = new CountDownLatch(2);
+		toc.setCountDownLatch(receivedFlag);
+		mci.send(mock(Peer.class), msg, serialized);
+		mci.send(mock(Peer.class), msg, serialized);
+
+		assertTrue(receivedFlag.await(10, TimeUnit.SECONDS));
+		toc.getMessages().forEach(bytes -> assertSame(serialized, bytes));
+	}
+
 	@Test
 	public void testInjectMessageDeliveredToListeners() throws InterruptedException {
 		Message msg = new TestMessage(1, System.currentTimeMillis());
@@ -203,13 +243,81 @@ public class MessageCentralImplTest {
 		}
 		assertTrue(receivedFlag.await(10, TimeUnit.SECONDS));
 		assertEquals(numberOfRequests, messages.size());
-		assertEquals(numberOfRequests, inboundQueue.offered());
+	}
+
+	@Test
+	public void testInboundShardsPreserveOrderPerSender() throws IOException, InterruptedException {
+		MessageCentralConfiguration shardedConf = mock(MessageCentralConfiguration.class);
+		doReturn(4).when(shardedConf).messagingInboundThreads(anyInt());
+		doReturn(1000).when(shardedConf).messagingInboundLaneCapacity(any(), anyInt());
+		doReturn(MessageLane.DropPolicy.DROP_NEWEST).when(shardedConf).messagingInboundLaneDropPolicy(any(), any());
+		doReturn(100).when(shardedConf).messagingOutboundQueueMax(anyInt());
+		doReturn(10_000L).when(shardedConf).messagingTimeToLive(anyLong());
+		doReturn(MessageCompression.SNAPPY).when(shardedConf).messagingCompression(any());
+		DummyTransport shardedTransport = new DummyTransport(new DummyTransportOutboundConnection());
+		Map<TransportInfo, PeerWithSystem> peers = new ConcurrentHashMap<>();
+		AddressBook addressBook = mock(AddressBook.class);
+		doAnswer(inv -> Optional.of(peers.computeIfAbsent(inv.getArgument(0), k -> mock(PeerWithSystem.class))))
+			.when(addressBook).peer(any(TransportInfo.class));
+		ECKeyPair shardedKeyPair = ECKeyPair.generateNew();
+		@SuppressWarnings("resource")
+		MessageCentralImpl sharded = new MessageCentralImpl(
+			shardedConf,
+			serialization,
+			new MessagingDummyConfigurations.DummyTransportManager(shardedTransport),
+			addressBook,
+			System::currentTimeMillis,
+			SimplePriorityBlockingQueue::new,
+			mock(LocalSystem.class),
+			mock(SystemCounters.class),
+			Sha256Hasher.withDefaultSerialization(),
+			shardedKeyPair::sign,
+			remoteKey -> NodeKeyAgreement.sharedSecret(shardedKeyPair, remoteKey)
+		);
+		try {
+			int numberOfSources = 8;
+			int messagesPerSource = 20;
+			CountDownLatch receivedFlag = new CountDownLatch(numberOfSources * messagesPerSource);
+			Map<Peer, List<Long>> received = new ConcurrentHashMap<>();
+			sharded.addListener(TestMessage.class, (peer, message) -> {
+				received.computeIfAbsent(peer, k -> Collections.synchronizedList(new ArrayList<>())).add(message.getTestNonce());
+				receivedFlag.countDown();
+			});
+
+			for (int n = 0; n < messagesPerSource; n++) {
+				for (int i = 0; i < numberOfSources; i++) {
+					TransportInfo source = TransportInfo.of("DUMMY", StaticTransportMetadata.of("port", String.valueOf(i)));
+					TestMessage msg = new TestMessage(1);
+					msg.setTestNonce(n);
+					byte[] data = snappyFrame(serialization.toDson(msg, Output.WIRE));
+					shardedTransport.inboundMessage(InboundMessage.of(source, data));
+				}
+			}
+
+			assertTrue(receivedFlag.await(10, TimeUnit.SECONDS));
+			assertEquals(numberOfSources, received.size());
+			for (List<Long> nonces : received.values()) {
+				List<Long> sorted = new ArrayList<>(nonces);
+				sorted.sort(Comparator.naturalOrder());
+				assertEquals(sorted, nonces);
+			}
+		} finally {
+			sharded.close();
+		}
+	}
+
+	@Test
+	public void testShardLaneCapacityHasFloor() {
+		assertEquals(1024, MessageCentralImpl.shardLaneCapacity(4096, 4));
+		assertEquals(64, MessageCentralImpl.shardLaneCapacity(256, 32));
+		assertEquals(16, MessageCentralImpl.shardLaneCapacity(16, 32));
+		assertEquals(1, MessageCentralImpl.shardLaneCapacity(0, 4));
 	}
 
 	@Test
 	public void testInbound() throws IOException, InterruptedException {
 		Message msg = new TestMessage(1);
-		byte[] data = Snappy.compress(serialization.toDson(msg, Output.WIRE));
+		byte[] data = snappyFrame(serialization.toDson(msg, Output.WIRE));
 
 		AtomicReference<Message> receivedMessage = new AtomicReference<>();
 		Semaphore receivedFlag = new Semaphore(0);
@@ -228,6 +336,80 @@ public class MessageCentralImplTest {
 		assertNotNull(receivedMessage.get());
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testInboundMessageInWrongLaneDiscardedAndSenderBanned() throws IOException {
+		Message msg = new TestMessage(1);
+		byte[] data = snappyFrame(serialization.toDson(msg, Output.WIRE), MessageLane.CONSENSUS);
+		MessageListener<TestMessage> listener = mock(MessageListener.class);
+		mci.addListener(TestMessage.class, listener);
+
+		TransportInfo source = TransportInfo.of("DUMMY", StaticTransportMetadata.empty());
+		dt.inboundMessage(InboundMessage.of(source, data));
+
+		verify(this.peer, timeout(10_000)).ban(anyString());
+		verify(listener, never()).handleMessage(any(), any());
+	}
+
+	@Test
+	public void testInboundDirectBufferReleasedAfterDecode() throws IOException, InterruptedException {
+		Message msg = new TestMessage(1);
+		byte[] data = snappyFrame(serialization.toDson(msg, Output.WIRE));
+		ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+		buffer.put(data).flip();
+
+		Semaphore receivedFlag = new Semaphore(0);
+		mci.addListener(msg.getClass(), (peer, messsage) -> receivedFlag.release());
+
+		Semaphore releasedFlag = new Semaphore(0);
+		TransportInfo source = TransportInfo.of("DUMMY", StaticTransportMetadata.empty());
+		dt.inboundMessage(InboundMessage.of(source, buffer, releasedFlag::release));
+
+		assertTrue(receivedFlag.tryAcquire(10, TimeUnit.SECONDS));
+		assertTrue(releasedFlag.tryAcquire(10, TimeUnit.SECONDS));
+		assertEquals(0, releasedFlag.availablePermits());
+	}
+
+	@Test
+	public void testInboundUndecodableBufferReleased() throws InterruptedException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(4);
+		buffer.putInt(0xFFFFFFFF).flip();
+
+		Semaphore releasedFlag = new Semaphore(0);
+		TransportInfo source = TransportInfo.of("DUMMY", StaticTransportMetadata.empty());
+		dt.inboundMessage(InboundMessage.of(source, buffer, releasedFlag::release));
+
+		assertTrue(releasedFlag.tryAcquire(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testCloseReleasesQueuedInboundBuffers() throws IOException, InterruptedException {
+		// Hold up the single inbound thread in a listener, so that later messages stay queued
+		CountDownLatch processing = new CountDownLatch(1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		mci.addListener(TestMessage.class, (peer, message) -> {
+			processing.countDown();
+			try {
+				blocked.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		byte[] data = snappyFrame(serialization.toDson(new TestMessage(1), Output.WIRE));
+		Semaphore releasedFlag = new Semaphore(0);
+		TransportInfo source = TransportInfo.of("DUMMY", StaticTransportMetadata.empty());
+		dt.inboundMessage(InboundMessage.of(source, directBuffer(data), releasedFlag::release));
+		assertTrue(processing.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < 3; i++) {
+			dt.inboundMessage(InboundMessage.of(source, directBuffer(data), releasedFlag::release));
+		}
+		assertEquals(1, releasedFlag.availablePermits());
+
+		mci.close();
+
+		assertEquals(4, releasedFlag.availablePermits());
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void testAddNullListener() {
 		mci.addListener(TestMessage.class, null);
@@ -287,6 +469,25 @@ public class MessageCentralImplTest {
 		assertEquals(0, mci.listenersSize());
 	}
 
+	private static ByteBuffer directBuffer(byte[] data) {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+		buffer.put(data).flip();
+		return buffer;
+	}
+
+	private static byte[] snappyFrame(byte[] serialized) throws IOException {
+		return snappyFrame(serialized, MessageLane.OTHER);
+	}
+
+	private static byte[] snappyFrame(byte[] serialized, MessageLane lane) throws IOException {
+		byte[] compressed = Snappy.compress(serialized);
+		byte[] framed = new byte[compressed.length + 2];
+		framed[0] = 0;
+		framed[1] = (byte) (MessageCompression.SNAPPY.flag() | (lane.wireId() << 4));
+		System.arraycopy(compressed, 0, framed, 2, compressed.length);
+		return framed;
+	}
+
 	@SuppressWarnings("unchecked")
 	private <T> EventQueueFactory<T> eventQueueFactoryMock() {
 		return mock(EventQueueFactory.class);
@@ -0,0 +1,188 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.xerial.snappy.Snappy;
+
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.middleware2.network.ConsensusEventMessage;
+
+public class MessageCodecTest {
+	private SystemCounters counters;
+	private MessageCodec codec;
+
+	@Before
+	public void setUp() {
+		this.counters = mock(SystemCounters.class);
+		this.codec = new MessageCodec(new MessagingDummyConfigurations.DummyMessageCentralConfiguration(), this.counters);
+	}
+
+	@Test
+	public void when_message_small__then_not_compressed() throws IOException {
+		byte[] serialized = new byte[16];
+
+		byte[] framed = this.codec.encode(String.class, serialized);
+
+		assertEquals(MessageCompression.NONE.flag(), framed[1]);
+		assertArrayEquals(serialized, this.codec.decode(ByteBuffer.wrap(framed)));
+		verify(this.counters, times(1)).increment(CounterType.MESSAGES_OUTBOUND_COMPRESSION_SKIPPED);
+	}
+
+	@Test
+	public void when_message_compressible__then_compressed() throws IOException {
+		byte[] serialized = new byte[4096];
+
+		byte[] framed = this.codec.encode(String.class, serialized);
+
+		assertEquals(MessageCompression.SNAPPY.flag(), framed[1]);
+		assertTrue(framed.length < serialized.length);
+		assertArrayEquals(serialized, this.codec.decode(ByteBuffer.wrap(framed)));
+		verify(this.counters, times(1)).add(eq(CounterType.MESSAGES_OUTBOUND_COMPRESSION_SAVED_BYTES), anyLong());
+	}
+
+	@Test
+	public void when_compressed_message_in_direct_buffer__then_decoded() throws IOException {
+		byte[] serialized = new byte[4096];
+		byte[] framed = this.codec.encode(String.class, serialized);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(framed.length);
+		buffer.put(framed).flip();
+
+		assertArrayEquals(serialized, this.codec.decode(buffer));
+	}
+
+	@Test
+	public void when_compressed_message_in_read_only_buffer__then_decoded() throws IOException {
+		byte[] serialized = new byte[4096];
+		byte[] framed = this.codec.encode(String.class, serialized);
+		ByteBuffer buffer = ByteBuffer.wrap(framed).asReadOnlyBuffer();
+
+		assertArrayEquals(serialized, this.codec.decode(buffer));
+		assertEquals(0, buffer.remaining());
+		assertArrayEquals(serialized, this.codec.decode(ByteBuffer.wrap(framed).asReadOnlyBuffer()));
+	}
+
+	@Test
+	public void when_message_incompressible__then_type_not_compressed_for_a_while() throws IOException {
+		byte[] serialized = new byte[4096];
+		new Random(1234L).nextBytes(serialized);
+
+		byte[] framed1 = this.codec.encode(String.class, serialized);
+		byte[] framed2 = this.codec.encode(String.class, serialized);
+		byte[] framed3 = this.codec.encode(Integer.class, new byte[4096]);
+
+		assertEquals(MessageCompression.NONE.flag(), framed1[1]);
+		assertEquals(MessageCompression.NONE.flag(), framed2[1]);
+		assertEquals(MessageCompression.SNAPPY.flag(), framed3[1]);
+		assertArrayEquals(serialized, this.codec.decode(ByteBuffer.wrap(framed1)));
+		// Compression attempted for first message and third message only
+		verify(this.counters, times(2)).add(eq(CounterType.MESSAGES_OUTBOUND_COMPRESSION_TIME_NS), anyLong());
+		verify(this.counters, times(1)).increment(CounterType.MESSAGES_OUTBOUND_COMPRESSION_SKIPPED);
+	}
+
+	@Test
+	public void when_compression_disabled__then_not_compressed() throws IOException {
+		MessageCentralConfiguration config = new MessagingDummyConfigurations.DummyMessageCentralConfiguration() {
+			@Override
+			public MessageCompression messagingCompression(MessageCompression defaultValue) {
+				return MessageCompression.NONE;
+			}
+		};
+		MessageCodec uncompressed = new MessageCodec(config, this.counters);
+		byte[] serialized = new byte[4096];
+
+		byte[] framed = uncompressed.encode(String.class, serialized);
+
+		assertEquals(MessageCompression.NONE.flag(), framed[1]);
+		assertArrayEquals(serialized, this.codec.decode(ByteBuffer.wrap(framed)));
+		verify(this.counters, never()).add(eq(CounterType.MESSAGES_OUTBOUND_COMPRESSION_TIME_NS), anyLong());
+	}
+
+	@Test
+	public void when_message_has_lane__then_lane_readable_from_frame_header() throws IOException {
+		byte[] serialized = new byte[4096];
+
+		byte[] framed = this.codec.encode(ConsensusEventMessage.class, serialized);
+		ByteBuffer buffer = ByteBuffer.wrap(framed);
+
+		assertEquals(MessageLane.CONSENSUS, MessageCodec.lane(buffer));
+		assertEquals(0, buffer.position());
+		assertArrayEquals(serialized, this.codec.decode(buffer));
+	}
+
+	@Test
+	public void when_frame_header_has_no_lane__then_lane_is_other() {
+		assertEquals(MessageLane.OTHER, MessageCodec.lane(ByteBuffer.wrap(new byte[] { 0, MessageCompression.NONE.flag(), 1, 2 })));
+		assertEquals(MessageLane.OTHER, MessageCodec.lane(ByteBuffer.allocate(0)));
+	}
+
+	@Test
+	public void when_message_unframed__then_decoded_in_other_lane() throws IOException {
+		byte[] serialized = new byte[4096];
+		new Random(1234L).nextBytes(serialized);
+		byte[] unframed = Snappy.compress(serialized);
+		ByteBuffer buffer = ByteBuffer.wrap(unframed);
+
+		assertEquals(MessageLane.OTHER, MessageCodec.lane(buffer));
+		assertArrayEquals(serialized, this.codec.decode(buffer));
+	}
+
+	@Test
+	public void when_frame_unframed__then_compressed_without_header() throws IOException {
+		byte[] small = new byte[16];
+		byte[] large = new byte[4096];
+
+		byte[] unframedSmall = this.codec.unframe(this.codec.encode(ConsensusEventMessage.class, small));
+		byte[] unframedLarge = this.codec.unframe(this.codec.encode(ConsensusEventMessage.class, large));
+
+		assertArrayEquals(small, Snappy.uncompress(unframedSmall));
+		assertArrayEquals(large, Snappy.uncompress(unframedLarge));
+		assertArrayEquals(small, this.codec.decode(ByteBuffer.wrap(unframedSmall)));
+	}
+
+	@Test(expected = IOException.class)
+	public void when_unknown_flag__then_exception_thrown() throws IOException {
+		this.codec.decode(ByteBuffer.wrap(new byte[] { 0, 15, 1, 2, 3 }));
+	}
+
+	@Test(expected = IOException.class)
+	public void when_truncated_frame__then_exception_thrown() throws IOException {
+		this.codec.decode(ByteBuffer.wrap(new byte[] { 0 }));
+	}
+
+	@Test(expected = IOException.class)
+	public void when_empty_frame__then_exception_thrown() throws IOException {
+		this.codec.decode(ByteBuffer.allocate(0));
+	}
+}
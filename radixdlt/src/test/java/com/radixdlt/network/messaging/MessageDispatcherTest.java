@@ -20,6 +20,7 @@ package com.radixdlt.network.messaging;
 import com.google.common.collect.ImmutableMap;
 import com.radixdlt.DefaultSerialization;
 import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.crypto.ECPublicKey;
 import com.radixdlt.crypto.Hasher;
 import com.radixdlt.consensus.Sha256Hasher;
 import com.radixdlt.counters.SystemCounters;
@@ -31,21 +32,28 @@ import com.radixdlt.network.transport.SendResult;
 import com.radixdlt.network.transport.Transport;
 import com.radixdlt.network.transport.TransportInfo;
 import com.radixdlt.network.transport.TransportMetadata;
-import com.radixdlt.network.transport.TransportOutboundConnection;
+import com.radixdlt.serialization.DsonOutput.Output;
 import com.radixdlt.serialization.Serialization;
 import org.hamcrest.Matchers;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.stubbing.Answer;
 import org.radix.Radix;
+import org.radix.network.messages.AuthenticatedMessage;
+import org.radix.network.messages.SessionOfferMessage;
 import org.radix.network.messages.TestMessage;
 import org.radix.network.messaging.Message;
 import org.radix.network.messaging.SignedMessage;
 import org.radix.serialization.RadixTest;
 import org.radix.universe.system.RadixSystem;
 import org.radix.universe.system.SystemMessage;
+import org.xerial.snappy.Snappy;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -54,6 +62,10 @@ import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
@@ -125,12 +137,16 @@ public class MessageDispatcherTest extends RadixTest {
 	private TransportInfo transportInfo1;
 	private TransportInfo transportInfo2;
 	private SystemCounters counters;
+	private Serialization serialization;
+	private MessageCodec codec;
+	private MessagingDummyConfigurations.DummyTransportOutboundConnection transportOutboundConnection;
 	private final Hasher hasher = Sha256Hasher.withDefaultSerialization();
+	private final List<Message> dispatcherSent = new ArrayList<>();
 
 	@Before
 	public void setup() {
 		when(getNtpService().getUTCTimeMS()).thenAnswer((Answer<Long>) invocation -> System.currentTimeMillis());
-		Serialization serialization = DefaultSerialization.getInstance();
+		serialization = DefaultSerialization.getInstance();
 		MessageCentralConfiguration conf = new MessagingDummyConfigurations.DummyMessageCentralConfiguration();
 
 		RadixSystem system1 = makeSystem(EUID.ONE);
@@ -148,13 +164,13 @@ public class MessageDispatcherTest extends RadixTest {
 		when(addressBook.peer(eq(transportInfo2))).thenReturn(Optional.of(peer2));
 
 		counters = mock(SystemCounters.class);
+		codec = new MessageCodec(conf, counters);
 		messageDispatcher = new MessageDispatcher(
-			counters, conf, serialization, () -> 30_000, getLocalSystem(), addressBook, hasher, getKeyPair()::sign
+			counters, conf, serialization, codec, () -> 30_000, getLocalSystem(), addressBook, hasher, getKeyPair()::sign, this::sharedSecret,
+			(peer, message) -> dispatcherSent.add(message)
 		);
 
-		// Suppression safe here - dummy outbound connection does not need closing
-		@SuppressWarnings("resource")
-		TransportOutboundConnection transportOutboundConnection = new MessagingDummyConfigurations.DummyTransportOutboundConnection();
+		transportOutboundConnection = new MessagingDummyConfigurations.DummyTransportOutboundConnection();
 		// Suppression safe here - dummy transport does not need closing
 		@SuppressWarnings("resource")
 		Transport transport = new MessagingDummyConfigurations.DummyTransport(transportOutboundConnection);
@@ -173,6 +189,85 @@ public class MessageDispatcherTest extends RadixTest {
 		assertTrue(sendResult.isComplete());
 	}
 
+	@Test
+	public void sendSignedMessageWithoutSessionSigned() throws IOException, InterruptedException, ExecutionException {
+		SystemMessage message = new SystemMessage(getLocalSystem(), 0);
+		OutboundMessageEvent messageEvent = new OutboundMessageEvent(peer1, message, 10_000);
+
+		SendResult sendResult = messageDispatcher.send(transportManager, messageEvent).get();
+
+		assertTrue(sendResult.isComplete());
+		byte[] sent = transportOutboundConnection.getMessages().get(0);
+		SignedMessage received = (SignedMessage) serialization.fromDson(codec.decode(ByteBuffer.wrap(sent)), Message.class);
+		assertNotNull(received.getSignature());
+	}
+
+	@Test
+	public void sendToPeerWithEarlierProtocolUnframed() throws IOException, InterruptedException, ExecutionException {
+		when(peer1.getSystem().getProtocolVersion()).thenReturn(Radix.MIN_PROTOCOL_VERSION);
+		TestMessage message = new TestMessage(0);
+		OutboundMessageEvent messageEvent = new OutboundMessageEvent(peer1, message, 10_000);
+
+		SendResult sendResult = messageDispatcher.send(transportManager, messageEvent).get();
+
+		assertTrue(sendResult.isComplete());
+		byte[] sent = transportOutboundConnection.getMessages().get(0);
+		TestMessage received = (TestMessage) serialization.fromDson(Snappy.uncompress(sent), Message.class);
+		assertThat(received.getTestNonce(), Matchers.equalTo(message.getTestNonce()));
+	}
+
+	@Test
+	public void sendSignedMessageInOfferedSessionWithMac() throws IOException, InterruptedException, ExecutionException {
+		// Peer offers a session
+		SessionMacs peerMacs = peerSessionMacs();
+		SessionOfferMessage offer = new SessionOfferMessage(0, peerMacs.offer(getLocalSystem().getKey(), 0L).get());
+		offer.setSignature(getKeyPair().sign(hasher.hash(offer)));
+		MessageListenerList listeners = mock(MessageListenerList.class);
+		messageDispatcher.receive(listeners, new InboundMessageEvent(transportInfo1, offer, 10_000));
+		verify(listeners, never()).messageReceived(any(), any());
+
+		SystemMessage message = new SystemMessage(getLocalSystem(), 0);
+		OutboundMessageEvent messageEvent = new OutboundMessageEvent(peer1, message, 10_000);
+
+		SendResult sendResult = messageDispatcher.send(transportManager, messageEvent).get();
+
+		assertTrue(sendResult.isComplete());
+		// Message itself is left unchanged for any other recipients
+		assertNull(message.getSignature());
+		byte[] sent = transportOutboundConnection.getMessages().get(0);
+		AuthenticatedMessage received = (AuthenticatedMessage) serialization.fromDson(codec.decode(ByteBuffer.wrap(sent)), Message.class);
+		byte[] payload = peerMacs.open(getLocalSystem().getKey(), received).get();
+		SystemMessage opened = (SystemMessage) serialization.fromDson(codec.decode(ByteBuffer.wrap(payload)), Message.class);
+		assertNull(opened.getSignature());
+		assertThat(opened.getSystem().getNID(), Matchers.equalTo(getLocalSystem().getNID()));
+	}
+
+	@Test
+	public void sendPreparedMessageInSessionsSerializesPayloadOnce() throws IOException, InterruptedException, ExecutionException {
+		SessionMacs peerMacs = peerSessionMacs();
+		SessionOfferMessage offer = new SessionOfferMessage(0, peerMacs.offer(getLocalSystem().getKey(), 0L).get());
+		offer.setSignature(getKeyPair().sign(hasher.hash(offer)));
+		messageDispatcher.receive(mock(MessageListenerList.class), new InboundMessageEvent(transportInfo1, offer, 10_000));
+
+		SystemMessage message = spy(new SystemMessage(getLocalSystem(), 0));
+		PreparedMessage prepared = messageDispatcher.prepare(message);
+		messageDispatcher.send(transportManager, new OutboundMessageEvent(peer1, message, 10_000, prepared)).get();
+		messageDispatcher.send(transportManager, new OutboundMessageEvent(peer1, message, 10_000, prepared)).get();
+
+		// Each recipient gets its own MAC, over the same payload
+		List<byte[]> sent = transportOutboundConnection.getMessages();
+		assertThat(sent.size(), Matchers.equalTo(2));
+		AuthenticatedMessage first = (AuthenticatedMessage) serialization.fromDson(codec.decode(ByteBuffer.wrap(sent.get(0))), Message.class);
+		AuthenticatedMessage second = (AuthenticatedMessage) serialization.fromDson(codec.decode(ByteBuffer.wrap(sent.get(1))), Message.class);
+		assertTrue(Arrays.equals(first.getPayload(), second.getPayload()));
+		assertFalse(Arrays.equals(first.getMac(), second.getMac()));
+		assertTrue(peerMacs.open(getLocalSystem().getKey(), first).isPresent());
+		assertTrue(peerMacs.open(getLocalSystem().getKey(), second).isPresent());
+		// Payload is serialized once for all recipients, and the message is not signed
+		assertSame(prepared.payload(), prepared.payload());
+		verify(message, never()).setSignature(any());
+	}
+
 	@Test
 	public void sendExpiredMessage() throws InterruptedException, ExecutionException {
 		Message message = spy(new TestMessage(0));
@@ -359,6 +454,78 @@ public class MessageDispatcherTest extends RadixTest {
 		verify(listeners, never()).messageReceived(any(), any());
 	}
 
+	@Test
+	public void receiveSignedMessageOffersSession() {
+		SignedMessage testMessage = new DummySignedMessage();
+		testMessage.setSignature(getKeyPair().sign(hasher.hash(testMessage)));
+		MessageListenerList listeners = mock(MessageListenerList.class);
+
+		messageDispatcher.receive(listeners, new InboundMessageEvent(transportInfo1, testMessage, 10_000));
+		messageDispatcher.receive(listeners, new InboundMessageEvent(transportInfo1, testMessage, 10_000));
+
+		verify(listeners, times(2)).messageReceived(any(), any());
+		// Offers are rate limited
+		assertThat(dispatcherSent, Matchers.contains(Matchers.instanceOf(SessionOfferMessage.class)));
+	}
+
+	@Test
+	public void openAuthenticatedMessage() {
+		SessionMacs peerMacs = peerSessionMacs();
+		peerMacs.accept(getLocalSystem().getKey(), offeredNonce());
+		TestMessage testMessage = new TestMessage(0);
+		AuthenticatedMessage authenticated = peerMacs.seal(
+			getLocalSystem().getKey(), MessageLane.OTHER, 0, framed(testMessage)
+		).get();
+
+		Optional<InboundMessageEvent> opened = messageDispatcher.open(new InboundMessageEvent(transportInfo1, authenticated, 10_000));
+
+		assertTrue(opened.isPresent());
+		assertTrue(opened.get().authenticated());
+		assertThat(((TestMessage) opened.get().message()).getTestNonce(), Matchers.equalTo(testMessage.getTestNonce()));
+	}
+
+	@Test
+	public void openReplayedAuthenticatedMessage() {
+		SessionMacs peerMacs = peerSessionMacs();
+		peerMacs.accept(getLocalSystem().getKey(), offeredNonce());
+		AuthenticatedMessage authenticated = peerMacs.seal(
+			getLocalSystem().getKey(), MessageLane.OTHER, 0, framed(new TestMessage(0))
+		).get();
+		InboundMessageEvent messageEvent = new InboundMessageEvent(transportInfo1, authenticated, 10_000);
+
+		assertTrue(messageDispatcher.open(messageEvent).isPresent());
+		assertFalse(messageDispatcher.open(messageEvent).isPresent());
+
+		verify(this.counters, times(1)).increment(CounterType.MESSAGES_INBOUND_BADSIGNATURE);
+	}
+
+	@Test
+	public void openAuthenticatedMessageBadMac() {
+		ECKeyPair bogusKey = ECKeyPair.generateNew();
+		SessionMacs bogusMacs = new SessionMacs(getLocalSystem().getKey(), remoteKey -> NodeKeyAgreement.sharedSecret(bogusKey, remoteKey));
+		bogusMacs.accept(getLocalSystem().getKey(), offeredNonce());
+		AuthenticatedMessage authenticated = bogusMacs.seal(
+			getLocalSystem().getKey(), MessageLane.OTHER, 0, framed(new TestMessage(0))
+		).get();
+
+		Optional<InboundMessageEvent> opened = messageDispatcher.open(new InboundMessageEvent(transportInfo1, authenticated, 10_000));
+
+		assertFalse(opened.isPresent());
+		verify(this.counters, times(1)).increment(CounterType.MESSAGES_INBOUND_BADSIGNATURE);
+	}
+
+	@Test
+	public void receiveAuthenticatedSignedMessageWithoutSignature() {
+		SignedMessage testMessage = new DummySignedMessage();
+		InboundMessageEvent messageEvent = new InboundMessageEvent(transportInfo1, testMessage, 10_000, true);
+		MessageListenerList listeners = mock(MessageListenerList.class);
+
+		messageDispatcher.receive(listeners, messageEvent);
+
+		verify(listeners, times(1)).messageReceived(any(), any());
+		verify(this.counters, never()).increment(CounterType.MESSAGES_INBOUND_BADSIGNATURE);
+	}
+
 	@Test
 	public void receiveSignedMessageNoPeer() {
 		SignedMessage testMessage = new DummySignedMessage();
@@ -383,6 +550,30 @@ public class MessageDispatcherTest extends RadixTest {
 		verify(listeners, times(1)).messageReceived(any(), any());
 	}
 
+	private byte[] framed(Message message) {
+		try {
+			return codec.encode(message.getClass(), serialization.toDson(message, Output.WIRE));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private byte[] sharedSecret(ECPublicKey remoteKey) {
+		return NodeKeyAgreement.sharedSecret(getKeyPair(), remoteKey);
+	}
+
+	// Peers in these tests share the local node key
+	private SessionMacs peerSessionMacs() {
+		return new SessionMacs(getLocalSystem().getKey(), this::sharedSecret);
+	}
+
+	// Returns the nonce of the session the dispatcher offers to a peer that signs messages
+	private byte[] offeredNonce() {
+		SignedMessage testMessage = new DummySignedMessage();
+		testMessage.setSignature(getKeyPair().sign(hasher.hash(testMessage)));
+		messageDispatcher.receive(mock(MessageListenerList.class), new InboundMessageEvent(transportInfo1, testMessage, 10_000));
+		return ((SessionOfferMessage) dispatcherSent.get(dispatcherSent.size() - 1)).getNonce();
+	}
 
 	private RadixSystem makeSystem(EUID nid) {
 		RadixSystem system = mock(RadixSystem.class);
@@ -392,6 +583,7 @@ public class MessageDispatcherTest extends RadixTest {
 		when(system.getNID()).thenReturn(nid);
 		when(system.supportedTransports()).thenAnswer(inv -> Stream.of(ti));
 		when(system.getKey()).thenReturn(getLocalSystem().getKey());
+		when(system.getProtocolVersion()).thenReturn(Radix.PROTOCOL_VERSION);
 
 		return system;
 	}
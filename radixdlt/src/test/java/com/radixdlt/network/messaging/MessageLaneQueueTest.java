@@ -0,0 +1,114 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import org.junit.Test;
+import org.radix.network.messages.GetPeersMessage;
+import org.radix.network.messages.TestMessage;
+import org.radix.network.messaging.Message;
+
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.counters.SystemCountersImpl;
+import com.radixdlt.network.messaging.MessageLane.DropPolicy;
+import com.radixdlt.network.transport.TransportInfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class MessageLaneQueueTest {
+
+	@Test
+	public void when_full_with_drop_newest__then_offered_message_dropped() throws InterruptedException {
+		SystemCounters counters = new SystemCountersImpl();
+		MessageLaneQueue queue = new MessageLaneQueue(MessageLane.MEMPOOL, 2, DropPolicy.DROP_NEWEST, counters);
+		InboundMessageEvent first = event();
+		InboundMessageEvent second = event();
+
+		assertTrue(queue.offer(first));
+		assertTrue(queue.offer(second));
+		assertFalse(queue.offer(event()));
+
+		assertEquals(1L, counters.get(CounterType.MESSAGES_INBOUND_LANE_MEMPOOL_DROPPED));
+		assertSame(first, queue.take());
+		assertEquals(1L, counters.get(CounterType.MESSAGES_INBOUND_LANE_MEMPOOL_PENDING));
+		assertEquals(1L, counters.get(CounterType.MESSAGES_INBOUND_PENDING));
+		assertSame(second, queue.take());
+		assertEquals(0L, counters.get(CounterType.MESSAGES_INBOUND_LANE_MEMPOOL_PENDING));
+		assertEquals(0L, counters.get(CounterType.MESSAGES_INBOUND_PENDING));
+	}
+
+	@Test
+	public void when_full_with_drop_oldest__then_oldest_message_dropped() throws InterruptedException {
+		SystemCounters counters = new SystemCountersImpl();
+		MessageLaneQueue queue = new MessageLaneQueue(MessageLane.DISCOVERY, 2, DropPolicy.DROP_OLDEST, counters);
+		TransportInfo source = mock(TransportInfo.class);
+		InboundMessageEvent second = event(source);
+		InboundMessageEvent third = event(source);
+
+		assertTrue(queue.offer(event(source)));
+		assertTrue(queue.offer(second));
+		assertTrue(queue.offer(third));
+
+		assertEquals(1L, counters.get(CounterType.MESSAGES_INBOUND_LANE_DISCOVERY_DROPPED));
+		assertEquals(2, queue.size());
+		assertSame(second, queue.take());
+		assertSame(third, queue.take());
+	}
+
+	@Test
+	public void when_full_with_drop_oldest__then_only_senders_own_message_dropped() throws InterruptedException {
+		SystemCounters counters = new SystemCountersImpl();
+		MessageLaneQueue queue = new MessageLaneQueue(MessageLane.DISCOVERY, 2, DropPolicy.DROP_OLDEST, counters);
+		TransportInfo honest = mock(TransportInfo.class);
+		TransportInfo flooder = mock(TransportInfo.class);
+		InboundMessageEvent honestEvent = event(honest);
+		InboundMessageEvent flooderEvent = event(flooder);
+
+		assertTrue(queue.offer(honestEvent));
+		assertTrue(queue.offer(event(flooder)));
+		assertTrue(queue.offer(flooderEvent));
+		assertFalse(queue.offer(event(mock(TransportInfo.class))));
+
+		assertEquals(2L, counters.get(CounterType.MESSAGES_INBOUND_LANE_DISCOVERY_DROPPED));
+		assertSame(honestEvent, queue.take());
+		assertSame(flooderEvent, queue.take());
+	}
+
+	@Test
+	public void consensus_lane_drops_newest_by_default() {
+		assertEquals(DropPolicy.DROP_NEWEST, MessageLane.CONSENSUS.defaultDropPolicy());
+	}
+
+	@Test
+	public void when_message_type_unmapped__then_other_lane() {
+		assertEquals(MessageLane.OTHER, MessageLane.forMessage(new TestMessage(1)));
+		assertEquals(MessageLane.DISCOVERY, MessageLane.forMessage(new GetPeersMessage(1)));
+	}
+
+	private static InboundMessageEvent event() {
+		return event(mock(TransportInfo.class));
+	}
+
+	private static InboundMessageEvent event(TransportInfo source) {
+		return new InboundMessageEvent(source, mock(Message.class), System.nanoTime());
+	}
+}
@@ -40,8 +40,18 @@ public class MessagingDummyConfigurations {
 
 	public static class DummyMessageCentralConfiguration implements MessageCentralConfiguration {
 		@Override
-		public int messagingInboundQueueMax(int defaultValue) {
-			return 10;
+		public int messagingInboundThreads(int defaultValue) {
+			return 1;
+		}
+
+		@Override
+		public int messagingInboundLaneCapacity(MessageLane lane, int defaultValue) {
+			return defaultValue;
+		}
+
+		@Override
+		public MessageLane.DropPolicy messagingInboundLaneDropPolicy(MessageLane lane, MessageLane.DropPolicy defaultValue) {
+			return defaultValue;
 		}
 
 		@Override
@@ -53,6 +63,26 @@ public class MessagingDummyConfigurations {
 		public long messagingTimeToLive(long defaultValue) {
 			return 10_000L;
 		}
+
+		@Override
+		public boolean messagingSessionMac(boolean defaultValue) {
+			return defaultValue;
+		}
+
+		@Override
+		public MessageCompression messagingCompression(MessageCompression defaultValue) {
+			return defaultValue;
+		}
+
+		@Override
+		public int messagingCompressionMinSize(int defaultValue) {
+			return defaultValue;
+		}
+
+		@Override
+		public int messagingCompressionMinSavingPercent(int defaultValue) {
+			return defaultValue;
+		}
 	}
 
 	public static class DummyTransport implements Transport {
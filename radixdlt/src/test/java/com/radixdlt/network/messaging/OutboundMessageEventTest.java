@@ -38,6 +38,7 @@ public class OutboundMessageEventTest {
 	public void equalsContract() {
 		EqualsVerifier.forClass(OutboundMessageEvent.class)
 			.withRedefinedSuperclass()
+			.withIgnoredFields("prepared")
 			.verify();
 	}
 
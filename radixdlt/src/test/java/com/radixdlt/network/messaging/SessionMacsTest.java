@@ -0,0 +1,145 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.messaging;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.hamcrest.Matchers.not;
+
+import java.util.Optional;
+
+import org.junit.Test;
+import org.radix.network.messages.AuthenticatedMessage;
+
+import com.radixdlt.crypto.ECKeyPair;
+
+public class SessionMacsTest {
+	private final ECKeyPair key1 = ECKeyPair.generateNew();
+	private final ECKeyPair key2 = ECKeyPair.generateNew();
+	private final ECKeyPair key3 = ECKeyPair.generateNew();
+	private final byte[] payload = new byte[] { 1, 2, 3, 4 };
+
+	@Test
+	public void when_shared_secrets_computed__then_both_sides_agree() {
+		assertArrayEquals(
+			NodeKeyAgreement.sharedSecret(key1, key2.getPublicKey()),
+			NodeKeyAgreement.sharedSecret(key2, key1.getPublicKey())
+		);
+	}
+
+	@Test
+	public void when_no_session_offered__then_not_sealed() {
+		SessionMacs macs1 = sessionMacs(key1);
+
+		assertFalse(macs1.hasSession(key2.getPublicKey()));
+		assertFalse(macs1.seal(key2.getPublicKey(), MessageLane.CONSENSUS, 0, payload).isPresent());
+	}
+
+	@Test
+	public void when_sealed_in_offered_session__then_opens() {
+		SessionMacs macs1 = sessionMacs(key1);
+		SessionMacs macs2 = sessionMacs(key2);
+		macs1.accept(key2.getPublicKey(), macs2.offer(key1.getPublicKey(), 0L).get());
+
+		AuthenticatedMessage message = macs1.seal(key2.getPublicKey(), MessageLane.CONSENSUS, 0, payload).get();
+
+		assertArrayEquals(payload, macs2.open(key1.getPublicKey(), message).get());
+	}
+
+	@Test
+	public void when_sealed_message_replayed__then_does_not_open() {
+		SessionMacs macs1 = sessionMacs(key1);
+		SessionMacs macs2 = sessionMacs(key2);
+		macs1.accept(key2.getPublicKey(), macs2.offer(key1.getPublicKey(), 0L).get());
+
+		AuthenticatedMessage message = macs1.seal(key2.getPublicKey(), MessageLane.CONSENSUS, 0, payload).get();
+
+		assertTrue(macs2.open(key1.getPublicKey(), message).isPresent());
+		assertFalse(macs2.open(key1.getPublicKey(), message).isPresent());
+	}
+
+	@Test
+	public void when_messages_reordered_within_window__then_all_open() {
+		SessionMacs macs1 = sessionMacs(key1);
+		SessionMacs macs2 = sessionMacs(key2);
+		macs1.accept(key2.getPublicKey(), macs2.offer(key1.getPublicKey(), 0L).get());
+
+		AuthenticatedMessage first = macs1.seal(key2.getPublicKey(), MessageLane.MEMPOOL, 0, payload).get();
+		AuthenticatedMessage second = macs1.seal(key2.getPublicKey(), MessageLane.MEMPOOL, 0, payload).get();
+
+		assertTrue(macs2.open(key1.getPublicKey(), second).isPresent());
+		assertTrue(macs2.open(key1.getPublicKey(), first).isPresent());
+	}
+
+	@Test
+	public void when_session_renewed__then_earlier_session_does_not_open() {
+		SessionMacs macs1 = sessionMacs(key1);
+		SessionMacs macs2 = sessionMacs(key2);
+		byte[] nonce = macs2.offer(key1.getPublicKey(), 0L).get();
+		macs1.accept(key2.getPublicKey(), nonce);
+		AuthenticatedMessage message = macs1.seal(key2.getPublicKey(), MessageLane.CONSENSUS, 0, payload).get();
+
+		Optional<byte[]> renewed = macs2.renew(key1.getPublicKey(), 60_000L);
+
+		assertTrue(renewed.isPresent());
+		assertThat(renewed.get(), not(nonce));
+		assertFalse(macs2.open(key1.getPublicKey(), message).isPresent());
+	}
+
+	@Test
+	public void when_offered_recently__then_not_offered_again() {
+		SessionMacs macs2 = sessionMacs(key2);
+
+		assertTrue(macs2.offer(key1.getPublicKey(), 0L).isPresent());
+		assertFalse(macs2.offer(key1.getPublicKey(), 1_000L).isPresent());
+		assertFalse(macs2.renew(key1.getPublicKey(), 1_000L).isPresent());
+		assertTrue(macs2.offer(key1.getPublicKey(), 60_000L).isPresent());
+	}
+
+	@Test
+	public void when_sealed_by_other_node__then_does_not_open() {
+		SessionMacs macs2 = sessionMacs(key2);
+		SessionMacs macs3 = sessionMacs(key3);
+		// Node 3 obtains the nonce node 2 offered to node 1
+		macs3.accept(key2.getPublicKey(), macs2.offer(key1.getPublicKey(), 0L).get());
+
+		AuthenticatedMessage message = macs3.seal(key2.getPublicKey(), MessageLane.CONSENSUS, 0, payload).get();
+
+		assertFalse(macs2.open(key1.getPublicKey(), message).isPresent());
+	}
+
+	@Test
+	public void when_payload_modified__then_does_not_open() {
+		SessionMacs macs1 = sessionMacs(key1);
+		SessionMacs macs2 = sessionMacs(key2);
+		macs1.accept(key2.getPublicKey(), macs2.offer(key1.getPublicKey(), 0L).get());
+
+		AuthenticatedMessage message = macs1.seal(key2.getPublicKey(), MessageLane.CONSENSUS, 0, payload).get();
+		AuthenticatedMessage modified = new AuthenticatedMessage(
+			0, message.getSession(), message.getLane(), message.getSequence(), new byte[] { 4, 3, 2, 1 }, message.getMac()
+		);
+
+		assertFalse(macs2.open(key1.getPublicKey(), modified).isPresent());
+	}
+
+	private static SessionMacs sessionMacs(ECKeyPair localKey) {
+		return new SessionMacs(localKey.getPublicKey(), remoteKey -> NodeKeyAgreement.sharedSecret(localKey, remoteKey));
+	}
+}
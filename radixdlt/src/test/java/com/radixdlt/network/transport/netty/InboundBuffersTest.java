@@ -0,0 +1,69 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.transport.netty;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+import com.radixdlt.network.messaging.InboundMessage;
+import com.radixdlt.network.transport.TransportInfo;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+
+public class InboundBuffersTest {
+	private static final byte[] DATA = new byte[] {
+		0, 1, 2, 3, 4, 5, 6, 7, 8, 9
+	};
+
+	@Test
+	public void when_message_fills_its_buffer__then_buffer_is_retained() {
+		ByteBuf buf = Unpooled.directBuffer(DATA.length).writeBytes(DATA);
+
+		InboundMessage message = InboundBuffers.toInboundMessage(ByteBufAllocator.DEFAULT, mock(TransportInfo.class), buf);
+
+		assertArrayEquals(DATA, message.message());
+		assertEquals(2, buf.refCnt());
+		message.release();
+		assertEquals(1, buf.refCnt());
+	}
+
+	@Test
+	public void when_message_is_small_slice_of_large_buffer__then_it_is_copied() {
+		ByteBuf receiveBuffer = Unpooled.directBuffer(1024 * 1024);
+		receiveBuffer.writeBytes(new byte[100]).writeBytes(DATA).writeBytes(new byte[100]);
+		ByteBuf frame = receiveBuffer.retainedSlice(100, DATA.length);
+
+		InboundMessage message = InboundBuffers.toInboundMessage(ByteBufAllocator.DEFAULT, mock(TransportInfo.class), frame);
+		frame.release();
+
+		assertEquals(1, receiveBuffer.refCnt());
+		assertArrayEquals(DATA, message.message());
+		assertEquals(DATA.length, message.length());
+		assertTrue(message.buffer().isDirect());
+
+		receiveBuffer.release();
+		assertArrayEquals(DATA, message.message());
+		message.release();
+	}
+}
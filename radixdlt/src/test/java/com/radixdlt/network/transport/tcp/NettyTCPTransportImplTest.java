@@ -21,6 +21,7 @@ import java.io.IOException;
 
 import org.junit.Test;
 
+import com.radixdlt.counters.SystemCounters;
 import com.radixdlt.network.transport.StaticTransportMetadata;
 import com.radixdlt.network.transport.TransportMetadata;
 
@@ -40,7 +41,7 @@ public class NettyTCPTransportImplTest {
 		TCPTransportOutboundConnectionFactory outboundFactory = mock(TCPTransportOutboundConnectionFactory.class);
 		TCPTransportControlFactory controlFactory = mock(TCPTransportControlFactory.class);
 
-		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory)) {
+		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory, mock(SystemCounters.class))) {
 			assertEquals("127.0.0.1", testInstance.localMetadata().get(TCPConstants.METADATA_HOST));
 			assertEquals("10000", testInstance.localMetadata().get(TCPConstants.METADATA_PORT));
 		}
@@ -56,7 +57,7 @@ public class NettyTCPTransportImplTest {
 		TCPTransportOutboundConnectionFactory outboundFactory = mock(TCPTransportOutboundConnectionFactory.class);
 		TCPTransportControlFactory controlFactory = mock(TCPTransportControlFactory.class);
 
-		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory)) {
+		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory, mock(SystemCounters.class))) {
 			assertEquals(NettyTCPTransportImpl.DEFAULT_HOST, testInstance.localMetadata().get(TCPConstants.METADATA_HOST));
 			assertEquals("20000", testInstance.localMetadata().get(TCPConstants.METADATA_PORT));
 		}
@@ -72,7 +73,7 @@ public class NettyTCPTransportImplTest {
 		TCPTransportOutboundConnectionFactory outboundFactory = mock(TCPTransportOutboundConnectionFactory.class);
 		TCPTransportControlFactory controlFactory = mock(TCPTransportControlFactory.class);
 
-		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory)) {
+		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory, mock(SystemCounters.class))) {
 			assertEquals("127.0.0.2", testInstance.localMetadata().get(TCPConstants.METADATA_HOST));
 			assertEquals(String.valueOf(NettyTCPTransportImpl.DEFAULT_PORT), testInstance.localMetadata().get(TCPConstants.METADATA_PORT));
 		}
@@ -87,7 +88,7 @@ public class NettyTCPTransportImplTest {
 		TCPTransportOutboundConnectionFactory outboundFactory = mock(TCPTransportOutboundConnectionFactory.class);
 		TCPTransportControlFactory controlFactory = mock(TCPTransportControlFactory.class);
 
-		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory)) {
+		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory, mock(SystemCounters.class))) {
 			assertEquals(TCPConstants.NAME, testInstance.name());
 		}
 	}
@@ -105,7 +106,7 @@ public class NettyTCPTransportImplTest {
 		TCPTransportControlFactory controlFactory = mock(TCPTransportControlFactory.class);
 		when(controlFactory.create(any(), any(), any())).thenReturn(control);
 
-		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory)) {
+		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory, mock(SystemCounters.class))) {
 			assertSame(control, testInstance.control());
 		}
 	}
@@ -123,7 +124,7 @@ public class NettyTCPTransportImplTest {
 		TCPTransportControlFactory controlFactory = mock(TCPTransportControlFactory.class);
 		when(controlFactory.create(any(), any(), any())).thenReturn(control);
 
-		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory)) {
+		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory, mock(SystemCounters.class))) {
 			byte[] max = new byte[TCPConstants.MAX_PACKET_LENGTH];
 			byte[] tooBig = new byte[TCPConstants.MAX_PACKET_LENGTH + 1];
 			assertTrue(testInstance.canHandle(null));
@@ -142,7 +143,7 @@ public class NettyTCPTransportImplTest {
 		TCPTransportOutboundConnectionFactory outboundFactory = mock(TCPTransportOutboundConnectionFactory.class);
 		TCPTransportControlFactory controlFactory = mock(TCPTransportControlFactory.class);
 
-		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory)) {
+		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory, mock(SystemCounters.class))) {
 			assertEquals(1234, testInstance.priority());
 		}
 	}
@@ -156,7 +157,7 @@ public class NettyTCPTransportImplTest {
 		TCPTransportOutboundConnectionFactory outboundFactory = mock(TCPTransportOutboundConnectionFactory.class);
 		TCPTransportControlFactory controlFactory = mock(TCPTransportControlFactory.class);
 
-		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory)) {
+		try (NettyTCPTransportImpl testInstance = new NettyTCPTransportImpl(config, localMetadata, outboundFactory, controlFactory, mock(SystemCounters.class))) {
 			String s = testInstance.toString();
 			assertThat(s, containsString(NettyTCPTransportImpl.class.getSimpleName()));
 			assertThat(s, containsString(NettyTCPTransportImpl.DEFAULT_HOST));
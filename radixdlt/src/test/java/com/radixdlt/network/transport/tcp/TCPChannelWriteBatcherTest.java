@@ -0,0 +1,277 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.transport.tcp;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.network.transport.SendResult;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class TCPChannelWriteBatcherTest {
+
+	/**
+	 * Swallows flushes while held, leaving written data in the channel's outbound buffer.
+	 */
+	private static final class FlushHolder extends ChannelOutboundHandlerAdapter {
+		private volatile boolean held = true;
+
+		@Override
+		public void flush(ChannelHandlerContext ctx) throws Exception {
+			if (!held) {
+				super.flush(ctx);
+			}
+		}
+
+		void release(ChannelHandlerContext ctx) {
+			held = false;
+			ctx.flush();
+		}
+	}
+
+	/**
+	 * Fails writes of messages starting with the specified byte.
+	 */
+	private static final class WriteFailer extends ChannelOutboundHandlerAdapter {
+		private final byte failingFirstByte;
+
+		WriteFailer(byte failingFirstByte) {
+			this.failingFirstByte = failingFirstByte;
+		}
+
+		@Override
+		public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+			ByteBuf buf = (ByteBuf) msg;
+			if (buf.getByte(0) == failingFirstByte) {
+				buf.release();
+				promise.setFailure(new IOException("Write failed"));
+			} else {
+				super.write(ctx, msg, promise);
+			}
+		}
+	}
+
+	private static final class FlushCounter extends ChannelOutboundHandlerAdapter {
+		private final AtomicInteger flushes = new AtomicInteger();
+
+		@Override
+		public void flush(ChannelHandlerContext ctx) throws Exception {
+			flushes.incrementAndGet();
+			super.flush(ctx);
+		}
+	}
+
+	@Test
+	public void when_several_messages_sent__then_flushed_once() throws InterruptedException, ExecutionException {
+		FlushCounter flushCounter = new FlushCounter();
+		EmbeddedChannel channel = new EmbeddedChannel(flushCounter);
+		attach(channel, 1024, 1 << 20, 1000);
+		TCPChannelWriteBatcher batcher = TCPChannelWriteBatcher.forChannel(channel);
+		int initialFlushes = flushCounter.flushes.get();
+
+		List<CompletableFuture<SendResult>> results = Lists.newArrayList();
+		for (int i = 0; i < 10; ++i) {
+			results.add(batcher.write(Unpooled.buffer(10).writeZero(10), 0));
+		}
+		channel.runPendingTasks();
+
+		assertEquals(1, flushCounter.flushes.get() - initialFlushes);
+		for (CompletableFuture<SendResult> result : results) {
+			assertTrue(result.isDone());
+			assertTrue(result.get().isComplete());
+		}
+		assertEquals(10, releaseOutbound(channel));
+	}
+
+	@Test
+	public void when_threshold_reached__then_flushed_early() throws InterruptedException, ExecutionException {
+		FlushCounter flushCounter = new FlushCounter();
+		EmbeddedChannel channel = new EmbeddedChannel(flushCounter);
+		attach(channel, 25, 1 << 20, 1000);
+		TCPChannelWriteBatcher batcher = TCPChannelWriteBatcher.forChannel(channel);
+		int initialFlushes = flushCounter.flushes.get();
+
+		List<CompletableFuture<SendResult>> results = Lists.newArrayList();
+		for (int i = 0; i < 5; ++i) {
+			results.add(batcher.write(Unpooled.buffer(10).writeZero(10), 0));
+		}
+		channel.runPendingTasks();
+
+		// Flushed once threshold reached after third message, then again after last message
+		assertEquals(2, flushCounter.flushes.get() - initialFlushes);
+		for (CompletableFuture<SendResult> result : results) {
+			assertTrue(result.get().isComplete());
+		}
+		assertEquals(5, releaseOutbound(channel));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void when_no_batcher_attached__then_exception_thrown() {
+		TCPChannelWriteBatcher.forChannel(new EmbeddedChannel());
+	}
+
+	@Test
+	public void when_earlier_write_in_batch_fails__then_failure_reported() throws InterruptedException, ExecutionException {
+		EmbeddedChannel channel = new EmbeddedChannel(new WriteFailer((byte) 1));
+		attach(channel, 1024, 1 << 20, 1000);
+		TCPChannelWriteBatcher batcher = TCPChannelWriteBatcher.forChannel(channel);
+
+		CompletableFuture<SendResult> first = batcher.write(Unpooled.buffer(10).writeByte(1).writeZero(9), 0);
+		CompletableFuture<SendResult> second = batcher.write(Unpooled.buffer(10).writeByte(2).writeZero(9), 0);
+		CompletableFuture<SendResult> third = batcher.write(Unpooled.buffer(10).writeByte(3).writeZero(9), 0);
+		channel.runPendingTasks();
+
+		assertTrue(first.isDone());
+		assertFalse(first.get().isComplete());
+		assertTrue(second.get().isComplete());
+		assertTrue(third.get().isComplete());
+		assertEquals(Lists.newArrayList(2, 3), readFirstBytes(channel));
+	}
+
+	@Test
+	public void when_channel_not_writable__then_higher_priority_written_first() throws InterruptedException, ExecutionException {
+		FlushHolder flushHolder = new FlushHolder();
+		EmbeddedChannel channel = new EmbeddedChannel(flushHolder, TCPChannelWriteBatcher.writabilityHandler());
+		channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(5, 15));
+		attach(channel, 1024, 1 << 20, 1000);
+		TCPChannelWriteBatcher batcher = TCPChannelWriteBatcher.forChannel(channel);
+
+		// First two messages make channel unwritable, remainder are queued
+		CompletableFuture<SendResult> first = batcher.write(Unpooled.buffer(10).writeByte(1).writeZero(9), 5);
+		CompletableFuture<SendResult> second = batcher.write(Unpooled.buffer(10).writeByte(2).writeZero(9), 5);
+		channel.runPendingTasks();
+		assertFalse(channel.isWritable());
+		CompletableFuture<SendResult> low = batcher.write(Unpooled.buffer(10).writeByte(3).writeZero(9), 5);
+		CompletableFuture<SendResult> high = batcher.write(Unpooled.buffer(10).writeByte(4).writeZero(9), 0);
+		channel.runPendingTasks();
+		assertFalse(low.isDone());
+		assertFalse(high.isDone());
+		assertEquals(20L, batcher.queuedBytes());
+
+		flushHolder.release(channel.pipeline().context(flushHolder));
+		channel.runPendingTasks();
+
+		assertTrue(first.get().isComplete());
+		assertTrue(second.get().isComplete());
+		assertTrue(high.get().isComplete());
+		assertTrue(low.get().isComplete());
+		assertEquals(0L, batcher.queuedBytes());
+		assertEquals(Lists.newArrayList(1, 2, 4, 3), readFirstBytes(channel));
+	}
+
+	@Test
+	public void when_budget_exceeded__then_lowest_priority_dropped() throws InterruptedException, ExecutionException {
+		FlushHolder flushHolder = new FlushHolder();
+		EmbeddedChannel channel = new EmbeddedChannel(flushHolder, TCPChannelWriteBatcher.writabilityHandler());
+		channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(5, 15));
+		SystemCounters counters = mock(SystemCounters.class);
+		TCPChannelWriteBatcher.attach(channel, 1024, 25, 1000, counters);
+		TCPChannelWriteBatcher batcher = TCPChannelWriteBatcher.forChannel(channel);
+
+		batcher.write(Unpooled.buffer(20).writeZero(20), 0);
+		channel.runPendingTasks();
+		assertFalse(channel.isWritable());
+
+		CompletableFuture<SendResult> mempool = batcher.write(Unpooled.buffer(10).writeZero(10), 3);
+		CompletableFuture<SendResult> sync = batcher.write(Unpooled.buffer(10).writeZero(10), 1);
+		CompletableFuture<SendResult> consensus = batcher.write(Unpooled.buffer(10).writeZero(10), 0);
+		channel.runPendingTasks();
+
+		assertTrue(mempool.isDone());
+		assertFalse(mempool.get().isComplete());
+		assertFalse(sync.isDone());
+		assertFalse(consensus.isDone());
+		assertEquals(1L, batcher.droppedMessages());
+		assertEquals(20L, batcher.queuedBytes());
+		verify(counters, times(1)).increment(CounterType.NETWORKING_TCP_OUTBOUND_DROPPED);
+
+		flushHolder.release(channel.pipeline().context(flushHolder));
+		channel.runPendingTasks();
+
+		assertTrue(sync.get().isComplete());
+		assertTrue(consensus.get().isComplete());
+		assertEquals(3, releaseOutbound(channel));
+	}
+
+	@Test
+	public void when_channel_closed__then_queued_writes_fail() throws InterruptedException, ExecutionException {
+		FlushHolder flushHolder = new FlushHolder();
+		EmbeddedChannel channel = new EmbeddedChannel(flushHolder, TCPChannelWriteBatcher.writabilityHandler());
+		channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(5, 15));
+		attach(channel, 1024, 1 << 20, 1000);
+		TCPChannelWriteBatcher batcher = TCPChannelWriteBatcher.forChannel(channel);
+
+		batcher.write(Unpooled.buffer(20).writeZero(20), 0);
+		channel.runPendingTasks();
+		ByteBuf queued = Unpooled.buffer(10).writeZero(10);
+		CompletableFuture<SendResult> result = batcher.write(queued, 0);
+		channel.runPendingTasks();
+		assertFalse(result.isDone());
+
+		channel.close();
+		channel.runPendingTasks();
+
+		assertFalse(result.get().isComplete());
+		assertEquals(0, queued.refCnt());
+		assertEquals(0L, batcher.queuedBytes());
+	}
+
+	private static void attach(EmbeddedChannel channel, int flushThreshold, int maxQueuedBytes, int maxQueuedMessages) {
+		TCPChannelWriteBatcher.attach(channel, flushThreshold, maxQueuedBytes, maxQueuedMessages, mock(SystemCounters.class));
+	}
+
+	private static List<Integer> readFirstBytes(EmbeddedChannel channel) {
+		List<Integer> firstBytes = Lists.newArrayList();
+		ByteBuf buf;
+		while ((buf = channel.readOutbound()) != null) {
+			firstBytes.add((int) buf.getByte(0));
+			buf.release();
+		}
+		return firstBytes;
+	}
+
+	private static int releaseOutbound(EmbeddedChannel channel) {
+		int count = 0;
+		ByteBuf buf;
+		while ((buf = channel.readOutbound()) != null) {
+			buf.release();
+			count += 1;
+		}
+		return count;
+	}
+}
@@ -22,11 +22,16 @@ import java.net.SocketAddress;
 
 import org.junit.Test;
 
+import org.mockito.ArgumentCaptor;
+
+import com.radixdlt.network.messaging.InboundMessage;
 import com.radixdlt.network.messaging.InboundMessageConsumer;
 
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
@@ -49,6 +54,29 @@ public class TCPNettyMessageHandlerTest {
 		verify(messageSink, times(1)).accept(any());
 	}
 
+	@Test
+	public void testChannelRead0RetainsBufferUntilReleased() throws Exception {
+		InboundMessageConsumer messageSink = mock(InboundMessageConsumer.class);
+		TCPNettyMessageHandler mh = new TCPNettyMessageHandler(messageSink);
+
+		ChannelHandlerContext ctx = createContext("127.0.0.1", 1234);
+		byte[] data = new byte[] {
+			0, 1, 2, 3, 4, 5, 6, 7, 8, 9
+		};
+		ByteBuf buf = Unpooled.directBuffer(data.length).writeBytes(data);
+		mh.channelRead0(ctx, buf);
+
+		ArgumentCaptor<InboundMessage> captor = ArgumentCaptor.forClass(InboundMessage.class);
+		verify(messageSink, times(1)).accept(captor.capture());
+		InboundMessage message = captor.getValue();
+		assertArrayEquals(data, message.message());
+		assertTrue(message.buffer().isDirect());
+		assertEquals(2, buf.refCnt());
+
+		message.release();
+		assertEquals(1, buf.refCnt());
+	}
+
 	@Test
 	public void testChannelRead0NotInetSocketAddress() throws Exception {
 		SocketAddress sa = mock(SocketAddress.class);
@@ -88,6 +116,7 @@ public class TCPNettyMessageHandlerTest {
 		when(sch.remoteAddress()).thenReturn(isa);
 		ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
 		when(ctx.channel()).thenReturn(sch);
+		when(ctx.alloc()).thenReturn(ByteBufAllocator.DEFAULT);
 		return ctx;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.network.transport.tcp;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.network.transport.tcp.TCPTransportControlImpl.TCPConnectionHandlerChannelInbound;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoop;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.util.AttributeKey;
+import io.netty.util.DefaultAttributeMap;
+
+public class TCPOutboundQueuesTest {
+
+	@Test
+	public void when_messages_queued__then_queued_bytes_reported_by_host() throws Exception {
+		TCPConfiguration config = mock(TCPConfiguration.class);
+		when(config.maxChannelCount(anyInt())).thenReturn(10);
+		TCPOutboundQueues outboundQueues = new TCPOutboundQueues();
+		TCPTransportControlImpl control = new TCPTransportControlImpl(
+			config, mock(TCPTransportOutboundConnectionFactory.class), mock(NettyTCPTransport.class), mock(SystemCounters.class), outboundQueues
+		);
+		try {
+			TCPConnectionHandlerChannelInbound handler = (TCPConnectionHandlerChannelInbound) control.handler();
+			ChannelHandlerContext ctx1 = createContext("127.0.0.1", 1234);
+			ChannelHandlerContext ctx2 = createContext("127.0.0.1", 4321);
+			ChannelHandlerContext ctx3 = createContext("127.0.0.2", 1234);
+			handler.channelActive(ctx1);
+			handler.channelActive(ctx2);
+			handler.channelActive(ctx3);
+
+			TCPChannelWriteBatcher.forChannel(ctx1.channel()).write(Unpooled.wrappedBuffer(new byte[10]), 0);
+			TCPChannelWriteBatcher.forChannel(ctx2.channel()).write(Unpooled.wrappedBuffer(new byte[5]), 0);
+
+			Map<String, Object> queues = outboundQueues.toMap();
+			assertThat(queues).containsOnlyKeys("127.0.0.1", "127.0.0.2");
+			assertThat(queues.get("127.0.0.1")).isEqualTo(ImmutableMap.of("queued_bytes", 15L, "dropped_messages", 0L));
+			assertThat(queues.get("127.0.0.2")).isEqualTo(ImmutableMap.of("queued_bytes", 0L, "dropped_messages", 0L));
+		} finally {
+			control.close();
+		}
+		assertThat(outboundQueues.toMap()).isEmpty();
+	}
+
+	private static ChannelHandlerContext createContext(String host, int port) {
+		InetSocketAddress isa = new InetSocketAddress(host, port);
+		SocketChannel sch = mock(SocketChannel.class);
+		when(sch.localAddress()).thenReturn(isa);
+		when(sch.remoteAddress()).thenReturn(isa);
+		// Queued writes are left queued, as the event loop never runs them
+		when(sch.eventLoop()).thenReturn(mock(EventLoop.class));
+		DefaultAttributeMap attributes = new DefaultAttributeMap();
+		when(sch.attr(any())).thenAnswer(invocation -> attributes.attr(invocation.<AttributeKey<?>>getArgument(0)));
+		TCPChannelWriteBatcher.attach(sch, 1024, 1024, 16, mock(SystemCounters.class));
+		ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
+		when(ctx.channel()).thenReturn(sch);
+		return ctx;
+	}
+}
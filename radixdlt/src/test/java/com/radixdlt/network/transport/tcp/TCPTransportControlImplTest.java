@@ -77,6 +77,36 @@ public class TCPTransportControlImplTest {
 			public boolean debugData(boolean defaultValue) {
 				return false;
 			}
+
+			@Override
+			public int flushThreshold(int defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int workerThreads(int defaultValue) {
+				return 1;
+			}
+
+			@Override
+			public boolean useNativeTransport(boolean defaultValue) {
+				return false;
+			}
+
+			@Override
+			public boolean pooledBuffers(boolean defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int outboundQueueMaxBytes(int defaultValue) {
+				return defaultValue;
+			}
+
+			@Override
+			public int outboundQueueMaxMessages(int defaultValue) {
+				return defaultValue;
+			}
 		};
 
 		transportOutboundConnection = mock(TransportOutboundConnection.class);
@@ -101,7 +131,7 @@ public class TCPTransportControlImplTest {
 
 	@Test
 	public void open() throws ExecutionException, InterruptedException, IOException {
-		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters)) {
+		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters, new TCPOutboundQueues())) {
 			TransportMetadata metadata = StaticTransportMetadata.of(
 				TCPConstants.METADATA_HOST, "localhost",
 				TCPConstants.METADATA_PORT, "443"
@@ -113,7 +143,7 @@ public class TCPTransportControlImplTest {
 
 	@Test
 	public void channelActive() throws Exception {
-		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters)) {
+		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters, new TCPOutboundQueues())) {
 			ChannelHandlerContext ctx = createContext("127.0.0.1", 1234);
 			TCPConnectionHandlerChannelInbound handler = (TCPConnectionHandlerChannelInbound) tcpTransportControl.handler();
 			handler.channelActive(ctx);
@@ -123,7 +153,7 @@ public class TCPTransportControlImplTest {
 
 	@Test
 	public void tooManyChannels() throws Exception {
-		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters)) {
+		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters, new TCPOutboundQueues())) {
 			ChannelHandlerContext ctx1 = createContext("127.0.0.1", 1234);
 			ChannelHandlerContext ctx2 = createContext("127.0.0.2", 4321);
 			TCPConnectionHandlerChannelInbound handler = (TCPConnectionHandlerChannelInbound) tcpTransportControl.handler();
@@ -136,7 +166,7 @@ public class TCPTransportControlImplTest {
 
 	@Test
 	public void channelInactive() throws Exception {
-		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters)) {
+		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters, new TCPOutboundQueues())) {
 			ChannelHandlerContext ctx1 = createContext("127.0.0.1", 1234);
 			TCPConnectionHandlerChannelInbound handler = (TCPConnectionHandlerChannelInbound) tcpTransportControl.handler();
 			handler.channelActive(ctx1);
@@ -148,7 +178,7 @@ public class TCPTransportControlImplTest {
 
 	@Test
 	public void findOrCreateActiveChannelNew() throws Exception {
-		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters)) {
+		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters, new TCPOutboundQueues())) {
 			TransportMetadata metadata = StaticTransportMetadata.of(
 				TCPConstants.METADATA_HOST, "127.0.0.1",
 				TCPConstants.METADATA_PORT, "1234"
@@ -167,6 +197,73 @@ public class TCPTransportControlImplTest {
 		}
 	}
 
+	@Test
+	public void findOrCreateActiveChannelExisting() throws Exception {
+		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters, new TCPOutboundQueues())) {
+			TransportMetadata metadata = StaticTransportMetadata.of(
+				TCPConstants.METADATA_HOST, "127.0.0.1",
+				TCPConstants.METADATA_PORT, "1234"
+			);
+			TCPConnectionHandlerChannelInbound handler = (TCPConnectionHandlerChannelInbound) tcpTransportControl.handler();
+			ChannelHandlerContext ctx = createContext("127.0.0.1", 1234);
+			when(ctx.channel().isActive()).thenReturn(true);
+			handler.channelActive(ctx);
+
+			CompletableFuture<TransportOutboundConnection> cf = handler.findOrCreateActiveChannel(metadata, transport, outboundFactory);
+
+			assertTrue(cf.isDone());
+			assertEquals(0, handler.pendingMapSize());
+			verify(outboundFactory, times(1)).create(ctx.channel(), metadata);
+			verify(transport, never()).createChannel(any(), anyInt());
+		}
+	}
+
+	@Test
+	public void channelInactiveFallsBackToOtherChannel() throws Exception {
+		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters, new TCPOutboundQueues())) {
+			TransportMetadata metadata = StaticTransportMetadata.of(
+				TCPConstants.METADATA_HOST, "127.0.0.1",
+				TCPConstants.METADATA_PORT, "1234"
+			);
+			TCPConnectionHandlerChannelInbound handler = (TCPConnectionHandlerChannelInbound) tcpTransportControl.handler();
+			ChannelHandlerContext ctx1 = createContext("127.0.0.1", 1234);
+			ChannelHandlerContext ctx2 = createContext("127.0.0.1", 1234);
+			when(ctx1.channel().isActive()).thenReturn(true);
+			handler.channelActive(ctx1);
+			handler.channelActive(ctx2);
+
+			// Most recent channel is inactive, so previous active channel should be used
+			handler.channelInactive(ctx2);
+			assertEquals(1, handler.channelMapSize());
+			handler.findOrCreateActiveChannel(metadata, transport, outboundFactory);
+
+			verify(outboundFactory, times(1)).create(ctx1.channel(), metadata);
+			verify(transport, never()).createChannel(any(), anyInt());
+		}
+	}
+
+	@Test
+	public void channelInactiveRemovesHostWhenLastChannelCloses() throws Exception {
+		try (TCPTransportControlImpl tcpTransportControl = new TCPTransportControlImpl(config, outboundFactory, transport, counters, new TCPOutboundQueues())) {
+			TCPConnectionHandlerChannelInbound handler = (TCPConnectionHandlerChannelInbound) tcpTransportControl.handler();
+			ChannelHandlerContext ctx1 = createContext("127.0.0.1", 1234);
+			ChannelHandlerContext ctx2 = createContext("127.0.0.1", 1234);
+			ChannelHandlerContext ctx3 = createContext("127.0.0.2", 1234);
+			handler.channelActive(ctx1);
+			handler.channelActive(ctx2);
+			handler.channelActive(ctx3);
+			assertEquals(2, handler.hostMapSize());
+
+			handler.channelInactive(ctx1);
+			assertEquals(2, handler.hostMapSize());
+			handler.channelInactive(ctx2);
+			assertEquals(1, handler.hostMapSize());
+			handler.channelInactive(ctx3);
+			assertEquals(0, handler.hostMapSize());
+			assertEquals(0, handler.channelMapSize());
+		}
+	}
+
 	ChannelHandlerContext createContext(String host, int port) {
 		InetSocketAddress isa = new InetSocketAddress(host, port);
 		SocketChannel sch = mock(SocketChannel.class);
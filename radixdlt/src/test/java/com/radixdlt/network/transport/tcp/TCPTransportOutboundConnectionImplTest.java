@@ -33,10 +33,12 @@ import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
 
@@ -85,25 +87,20 @@ public class TCPTransportOutboundConnectionImplTest {
 			TCPConstants.METADATA_HOST, "localhost",
 			TCPConstants.METADATA_PORT, "443"
 		);
-		ByteBufAllocator bba = mock(ByteBufAllocator.class);
-		when(bba.directBuffer(anyInt())).thenAnswer(inv -> Unpooled.buffer(inv.getArgument(0)));
-		ChannelFuture cf = mock(ChannelFuture.class);
-		when(cf.addListener(any())).thenAnswer(a -> {
-			GenericFutureListener<Future<Void>> listener = a.getArgument(0);
-			listener.operationComplete(cf);
-			return cf;
-		});
-		Channel channel = mock(Channel.class);
-		when(channel.alloc()).thenReturn(bba);
-		when(channel.writeAndFlush(any())).thenReturn(cf);
+		EmbeddedChannel channel = new EmbeddedChannel();
 
-		// No resource issues as everything is mocked
+		// No resource issues as channel is embedded
 		@SuppressWarnings("resource")
 		TCPTransportOutboundConnectionImpl oci = new TCPTransportOutboundConnectionImpl(channel, metadata);
 		byte[] data = new byte[20];
 		CompletableFuture<SendResult> cfsr = oci.send(data);
+		assertFalse(cfsr.isDone()); // Not written until event loop runs
+		channel.runPendingTasks();
 		assertTrue(cfsr.isDone());
 		assertTrue(cfsr.get().isComplete());
+		ByteBuf written = channel.readOutbound();
+		assertEquals(data.length, written.readableBytes());
+		written.release();
 	}
 
 	@Test
@@ -112,28 +109,18 @@ public class TCPTransportOutboundConnectionImplTest {
 			TCPConstants.METADATA_HOST, "localhost",
 			TCPConstants.METADATA_PORT, "443"
 		);
-		ByteBufAllocator bba = mock(ByteBufAllocator.class);
-		when(bba.directBuffer(anyInt())).thenAnswer(inv -> Unpooled.buffer(inv.getArgument(0)));
-		ChannelFuture cf = mock(ChannelFuture.class);
-		IOException dummyException = new IOException("dummy exception");
-		when(cf.cause()).thenReturn(dummyException);
-		when(cf.addListener(any())).thenAnswer(a -> {
-			GenericFutureListener<Future<Void>> listener = a.getArgument(0);
-			listener.operationComplete(cf);
-			return cf;
-		});
-		Channel channel = mock(Channel.class);
-		when(channel.alloc()).thenReturn(bba);
-		when(channel.writeAndFlush(any())).thenReturn(cf);
+		EmbeddedChannel channel = new EmbeddedChannel();
+		channel.close();
 
-		// No resource issues as everything is mocked
+		// No resource issues as channel is embedded
 		@SuppressWarnings("resource")
 		TCPTransportOutboundConnectionImpl oci = new TCPTransportOutboundConnectionImpl(channel, metadata);
 		byte[] data = new byte[20];
 		CompletableFuture<SendResult> cfsr = oci.send(data);
+		channel.runPendingTasks();
 		assertTrue(cfsr.isDone());
 		assertFalse(cfsr.get().isComplete());
-		assertSame(dummyException, cfsr.get().getThrowable());
+		assertNotNull(cfsr.get().getThrowable());
 	}
 
 	@Test
@@ -26,6 +26,7 @@ import com.radixdlt.network.messaging.InboundMessageConsumer;
 import static org.mockito.Mockito.*;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.socket.DatagramPacket;
@@ -96,6 +97,7 @@ public class UDPNettyMessageHandlerTest {
 		when(sch.remoteAddress()).thenReturn(isa);
 		ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
 		when(ctx.channel()).thenReturn(sch);
+		when(ctx.alloc()).thenReturn(ByteBufAllocator.DEFAULT);
 		return ctx;
 	}
 }
\ No newline at end of file
@@ -18,8 +18,10 @@
 package com.radixdlt.sync;
 
 import static com.radixdlt.utils.TypedMocks.rmock;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -35,12 +37,16 @@ import com.radixdlt.environment.ScheduledEventDispatcher;
 import com.radixdlt.ledger.AccumulatorState;
 import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
 import com.radixdlt.ledger.LedgerUpdate;
+import com.radixdlt.ledger.VerifiedCommandsAndProof;
 import com.radixdlt.sync.LocalSyncServiceAccumulatorProcessor.SyncInProgress;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class LocalSyncServiceAccumulatorProcessorTest {
 	private RemoteEventDispatcher<DtoLedgerHeaderAndProof> requestDispatcher;
@@ -123,4 +129,134 @@ public class LocalSyncServiceAccumulatorProcessorTest {
 		verify(requestDispatcher, times(1)).dispatch(any(), any());
 		verify(syncTimeoutScheduler, times(1)).dispatch(any(), anyLong());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void given_sync_in_progress__when_window_verified__then_should_request_next_window_from_other_peer_without_waiting() {
+		LocalSyncServiceAccumulatorProcessor processor = versionedProcessor(header(0));
+		BFTNode node1 = mock(BFTNode.class);
+		BFTNode node2 = mock(BFTNode.class);
+		LocalSyncRequest request = mock(LocalSyncRequest.class);
+		when(request.getTarget()).thenReturn(header(300));
+		when(request.getTargetNodes()).thenReturn(ImmutableList.of(node1, node2));
+
+		processor.localSyncRequestEventProcessor().process(request);
+		processor.verifiedSyncResponseProcessor().process(verifiedResponse(header(100)));
+
+		ArgumentCaptor<BFTNode> peers = ArgumentCaptor.forClass(BFTNode.class);
+		verify(requestDispatcher, times(2)).dispatch(peers.capture(), any());
+		assertThat(peers.getAllValues().get(0)).isNotEqualTo(peers.getAllValues().get(1));
+		verify(syncTimeoutScheduler, times(2)).dispatch(any(), anyLong());
+	}
+
+	@Test
+	public void given_window_verified__when_its_timeout_fires__then_should_do_nothing() {
+		List<SyncInProgress> windows = captureWindows();
+		LocalSyncServiceAccumulatorProcessor processor = versionedProcessor(header(0));
+		LocalSyncRequest request = mock(LocalSyncRequest.class);
+		when(request.getTarget()).thenReturn(header(300));
+		when(request.getTargetNodes()).thenReturn(ImmutableList.of(mock(BFTNode.class)));
+
+		processor.localSyncRequestEventProcessor().process(request);
+		processor.verifiedSyncResponseProcessor().process(verifiedResponse(header(100)));
+		processor.processLedgerUpdate(ledgerUpdate(header(100)));
+		processor.syncTimeoutProcessor().process(windows.get(0));
+
+		verify(requestDispatcher, times(2)).dispatch(any(), any());
+		verify(syncTimeoutScheduler, times(2)).dispatch(any(), anyLong());
+	}
+
+	@Test
+	public void given_window_in_progress__when_ledger_updated_past_window_start__then_should_not_request_again() {
+		List<SyncInProgress> windows = captureWindows();
+		VerifiedLedgerHeaderAndProof start = header(0);
+		LocalSyncServiceAccumulatorProcessor processor = versionedProcessor(start);
+		LocalSyncRequest request = mock(LocalSyncRequest.class);
+		when(request.getTarget()).thenReturn(header(300));
+		when(request.getTargetNodes()).thenReturn(ImmutableList.of(mock(BFTNode.class)));
+
+		processor.localSyncRequestEventProcessor().process(request);
+		processor.processLedgerUpdate(ledgerUpdate(header(10)));
+		processor.processLedgerUpdate(ledgerUpdate(header(20)));
+
+		assertThat(windows).hasSize(1);
+		verify(requestDispatcher, times(1)).dispatch(any(), eq(start.toDto()));
+	}
+
+	@Test
+	public void given_window_verified__when_it_commits__then_should_not_request_again() {
+		List<SyncInProgress> windows = captureWindows();
+		LocalSyncServiceAccumulatorProcessor processor = versionedProcessor(header(0));
+		LocalSyncRequest request = mock(LocalSyncRequest.class);
+		when(request.getTarget()).thenReturn(header(300));
+		when(request.getTargetNodes()).thenReturn(ImmutableList.of(mock(BFTNode.class)));
+		VerifiedLedgerHeaderAndProof windowEnd = header(100);
+
+		processor.localSyncRequestEventProcessor().process(request);
+		processor.verifiedSyncResponseProcessor().process(verifiedResponse(windowEnd));
+		processor.processLedgerUpdate(ledgerUpdate(windowEnd));
+
+		assertThat(windows).hasSize(2);
+		assertThat(windows.get(1).getWindowStart()).isSameAs(windowEnd);
+		verify(requestDispatcher, times(2)).dispatch(any(), any());
+	}
+
+	@Test
+	public void given_window_in_progress__when_its_timeout_fires__then_should_reassign_window_to_other_peer() {
+		List<SyncInProgress> windows = captureWindows();
+		VerifiedLedgerHeaderAndProof start = header(0);
+		LocalSyncServiceAccumulatorProcessor processor = versionedProcessor(start);
+		BFTNode node1 = mock(BFTNode.class);
+		BFTNode node2 = mock(BFTNode.class);
+		LocalSyncRequest request = mock(LocalSyncRequest.class);
+		when(request.getTarget()).thenReturn(header(300));
+		when(request.getTargetNodes()).thenReturn(ImmutableList.of(node1, node2));
+
+		processor.localSyncRequestEventProcessor().process(request);
+		SyncInProgress first = windows.get(0);
+		processor.syncTimeoutProcessor().process(first);
+
+		assertThat(windows).hasSize(2);
+		SyncInProgress reassigned = windows.get(1);
+		assertThat(reassigned.getPeer()).isNotEqualTo(first.getPeer());
+		assertThat(reassigned.getWindowStart()).isSameAs(start);
+		verify(requestDispatcher, times(2)).dispatch(any(), eq(start.toDto()));
+	}
+
+	private List<SyncInProgress> captureWindows() {
+		List<SyncInProgress> windows = new ArrayList<>();
+		doAnswer(invocation -> {
+			windows.add(invocation.getArgument(0));
+			return null;
+		}).when(syncTimeoutScheduler).dispatch(any(), anyLong());
+		return windows;
+	}
+
+	private LocalSyncServiceAccumulatorProcessor versionedProcessor(VerifiedLedgerHeaderAndProof current) {
+		return new LocalSyncServiceAccumulatorProcessor(
+			requestDispatcher,
+			syncTimeoutScheduler,
+			Comparator.comparingLong(AccumulatorState::getStateVersion),
+			current,
+			1
+		);
+	}
+
+	private static VerifiedLedgerHeaderAndProof header(long stateVersion) {
+		VerifiedLedgerHeaderAndProof header = mock(VerifiedLedgerHeaderAndProof.class);
+		AccumulatorState accumulatorState = mock(AccumulatorState.class);
+		when(accumulatorState.getStateVersion()).thenReturn(stateVersion);
+		when(header.getAccumulatorState()).thenReturn(accumulatorState);
+		when(header.toDto()).thenReturn(mock(DtoLedgerHeaderAndProof.class));
+		return header;
+	}
+
+	private static VerifiedCommandsAndProof verifiedResponse(VerifiedLedgerHeaderAndProof tail) {
+		return new VerifiedCommandsAndProof(ImmutableList.of(), tail);
+	}
+
+	private static LedgerUpdate ledgerUpdate(VerifiedLedgerHeaderAndProof tail) {
+		LedgerUpdate ledgerUpdate = mock(LedgerUpdate.class);
+		when(ledgerUpdate.getTail()).thenReturn(tail);
+		return ledgerUpdate;
+	}
+}
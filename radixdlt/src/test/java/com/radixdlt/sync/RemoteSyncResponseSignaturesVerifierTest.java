@@ -17,29 +17,44 @@
 
 package com.radixdlt.sync;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.radixdlt.consensus.BFTHeader;
 import com.radixdlt.consensus.HashVerifier;
+import com.radixdlt.consensus.LedgerHeader;
+import com.radixdlt.consensus.bft.BFTValidator;
+import com.radixdlt.consensus.bft.BFTValidatorSet;
+import com.radixdlt.crypto.ECDSASignature;
 import com.radixdlt.crypto.Hasher;
 import com.radixdlt.consensus.TimestampedECDSASignature;
 import com.radixdlt.consensus.TimestampedECDSASignatures;
 import com.radixdlt.consensus.VoteData;
 import com.radixdlt.consensus.bft.BFTNode;
-import com.radixdlt.crypto.ECPublicKey;
 import com.radixdlt.ledger.DtoCommandsAndProof;
 import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
 import com.radixdlt.sync.RemoteSyncResponseSignaturesVerifier.InvalidSignaturesSender;
 import com.radixdlt.sync.RemoteSyncResponseSignaturesVerifier.VerifiedSignaturesSender;
+import com.radixdlt.utils.UInt256;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class RemoteSyncResponseSignaturesVerifierTest {
 	private RemoteSyncResponseSignaturesVerifier verifier;
@@ -50,6 +65,8 @@ public class RemoteSyncResponseSignaturesVerifierTest {
 
 	private RemoteSyncResponse response;
 	private HashCode headerHash;
+	private TimestampedECDSASignatures timestampedECDSASignatures;
+	private List<BFTNode> nodes;
 
 	@Before
 	public void setup() {
@@ -61,24 +78,32 @@ public class RemoteSyncResponseSignaturesVerifierTest {
 			verifiedSignaturesSender,
 			invalidSignaturesSender,
 			hasher,
-			hashVerifier
+			hashVerifier,
+			new SyncExecutors(MoreExecutors.newDirectExecutorService(), MoreExecutors.newDirectExecutorService())
 		);
 
 		this.response = mock(RemoteSyncResponse.class);
+		when(response.getSender()).thenReturn(BFTNode.random());
 		DtoCommandsAndProof commandsAndProof = mock(DtoCommandsAndProof.class);
+		when(commandsAndProof.getHead()).thenReturn(mock(DtoLedgerHeaderAndProof.class));
 		when(response.getCommandsAndProof()).thenReturn(commandsAndProof);
 		DtoLedgerHeaderAndProof tail = mock(DtoLedgerHeaderAndProof.class);
 		VoteData voteData = mock(VoteData.class);
 		when(tail.toVoteData()).thenReturn(voteData);
+		when(tail.getOpaque0()).thenReturn(mock(BFTHeader.class));
+		when(tail.getOpaque1()).thenReturn(mock(BFTHeader.class));
+		when(tail.getOpaque3()).thenReturn(mock(HashCode.class));
+		when(tail.getLedgerHeader()).thenReturn(mock(LedgerHeader.class));
 		when(commandsAndProof.getTail()).thenReturn(tail);
 		this.headerHash = mock(HashCode.class);
 		when(hasher.hash(any())).thenReturn(headerHash);
-		TimestampedECDSASignatures timestampedECDSASignatures = mock(TimestampedECDSASignatures.class);
-		BFTNode node = mock(BFTNode.class);
-		when(node.getKey()).thenReturn(mock(ECPublicKey.class));
-		when(timestampedECDSASignatures.getSignatures()).thenReturn(
-			ImmutableMap.of(node, mock(TimestampedECDSASignature.class))
+		this.nodes = IntStream.range(0, 4).mapToObj(i -> BFTNode.random()).collect(Collectors.toList());
+		when(response.getValidatorSet()).thenReturn(
+			BFTValidatorSet.from(nodes.stream().map(node -> BFTValidator.from(node, UInt256.ONE)))
 		);
+		this.timestampedECDSASignatures = mock(TimestampedECDSASignatures.class);
+		ImmutableMap<BFTNode, TimestampedECDSASignature> signatures = signedBy(nodes);
+		when(timestampedECDSASignatures.getSignatures()).thenReturn(signatures);
 		when(tail.getSignatures()).thenReturn(timestampedECDSASignatures);
 	}
 
@@ -88,7 +113,7 @@ public class RemoteSyncResponseSignaturesVerifierTest {
 
 		this.verifier.processSyncResponse(response);
 
-		verify(verifiedSignaturesSender, times(1)).sendVerified(eq(response));
+		verify(verifiedSignaturesSender, times(1)).sendVerified(any());
 		verify(invalidSignaturesSender, never()).sendInvalid(any());
 	}
 
@@ -101,4 +126,85 @@ public class RemoteSyncResponseSignaturesVerifierTest {
 		verify(verifiedSignaturesSender, never()).sendVerified(any());
 		verify(invalidSignaturesSender, times(1)).sendInvalid(eq(response));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void given_slow_verification__when_process__then_should_return_without_waiting_for_it() {
+		ExecutorService verificationExecutor = Executors.newSingleThreadExecutor();
+		RemoteSyncResponseSignaturesVerifier asyncVerifier = new RemoteSyncResponseSignaturesVerifier(
+			verifiedSignaturesSender,
+			invalidSignaturesSender,
+			hasher,
+			hashVerifier,
+			new SyncExecutors(MoreExecutors.newDirectExecutorService(), verificationExecutor)
+		);
+		CountDownLatch verificationAllowed = new CountDownLatch(1);
+		when(hashVerifier.verify(any(), eq(headerHash), any())).thenAnswer(invocation -> {
+			verificationAllowed.await();
+			return true;
+		});
+
+		try {
+			asyncVerifier.processSyncResponse(response);
+			verify(verifiedSignaturesSender, never()).sendVerified(any());
+
+			verificationAllowed.countDown();
+			verify(verifiedSignaturesSender, timeout(1000).times(1)).sendVerified(any());
+		} finally {
+			verificationExecutor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void given_more_signatures_than_quorum__when_process__then_should_only_verify_quorum() {
+		when(hashVerifier.verify(any(), eq(headerHash), any())).thenReturn(true);
+
+		this.verifier.processSyncResponse(response);
+
+		// Quorum of four equally weighted validators is three
+		verify(hashVerifier, times(3)).verify(any(), any(), any());
+		verify(verifiedSignaturesSender, times(1)).sendVerified(any());
+	}
+
+	@Test
+	public void given_more_signatures_than_quorum__when_process__then_should_only_send_verified_signatures() {
+		BFTNode invalidSigner = nodes.get(3);
+		when(hashVerifier.verify(any(), eq(headerHash), any())).thenReturn(true);
+		when(hashVerifier.verify(eq(invalidSigner.getKey()), eq(headerHash), any())).thenReturn(false);
+		// Most powerful validators are verified first, so the invalid signature is left out of the quorum
+		when(response.getValidatorSet()).thenReturn(BFTValidatorSet.from(IntStream.range(0, 4).mapToObj(
+			i -> BFTValidator.from(nodes.get(i), UInt256.from(i < 3 ? 3 : 1))
+		)));
+
+		this.verifier.processSyncResponse(response);
+
+		ArgumentCaptor<RemoteSyncResponse> captor = ArgumentCaptor.forClass(RemoteSyncResponse.class);
+		verify(verifiedSignaturesSender, times(1)).sendVerified(captor.capture());
+		RemoteSyncResponse verified = captor.getValue();
+		assertThat(verified.getCommandsAndProof().getTail().getSignatures().getSignatures().keySet())
+			.containsExactlyInAnyOrderElementsOf(nodes.subList(0, 3));
+		assertThat(verified.getCommandsAndProof().getHead()).isSameAs(response.getCommandsAndProof().getHead());
+		assertThat(verified.getSender()).isEqualTo(response.getSender());
+	}
+
+	@Test
+	public void given_signatures_short_of_quorum__when_process__then_should_send_invalid_without_verifying() {
+		ImmutableMap<BFTNode, TimestampedECDSASignature> signatures = signedBy(nodes.subList(0, 2));
+		when(timestampedECDSASignatures.getSignatures()).thenReturn(signatures);
+
+		this.verifier.processSyncResponse(response);
+
+		verify(hashVerifier, never()).verify(any(), any(), any());
+		verify(invalidSignaturesSender, times(1)).sendInvalid(eq(response));
+	}
+
+	private static ImmutableMap<BFTNode, TimestampedECDSASignature> signedBy(List<BFTNode> signers) {
+		return signers.stream()
+			.collect(ImmutableMap.toImmutableMap(node -> node, node -> signature()));
+	}
+
+	private static TimestampedECDSASignature signature() {
+		TimestampedECDSASignature signature = mock(TimestampedECDSASignature.class);
+		when(signature.signature()).thenReturn(mock(ECDSASignature.class));
+		return signature;
+	}
+}
@@ -18,6 +18,7 @@
 package com.radixdlt.sync;
 
 import static com.radixdlt.utils.TypedMocks.rmock;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -29,7 +30,9 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
 import com.radixdlt.consensus.BFTHeader;
+import com.radixdlt.consensus.Command;
 import com.radixdlt.consensus.LedgerHeader;
 import com.radixdlt.consensus.TimestampedECDSASignatures;
 import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
@@ -38,6 +41,8 @@ import com.radixdlt.consensus.bft.BFTValidator;
 import com.radixdlt.consensus.bft.BFTValidatorSet;
 import com.radixdlt.consensus.bft.View;
 import com.google.common.hash.HashCode;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
 import com.radixdlt.crypto.HashUtils;
 import com.radixdlt.environment.RemoteEventDispatcher;
 import com.radixdlt.ledger.AccumulatorState;
@@ -50,18 +55,28 @@ import java.util.Optional;
 import java.util.stream.Stream;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class RemoteSyncServiceProcessorTest {
 
 	private RemoteSyncServiceProcessor processor;
 	private CommittedReader reader;
 	private RemoteEventDispatcher<DtoCommandsAndProof> syncResponseDispatcher;
+	private SystemCounters counters;
 
 	@Before
 	public void setUp() {
 		this.reader = mock(CommittedReader.class);
 		this.syncResponseDispatcher =  rmock(RemoteEventDispatcher.class);
-		this.processor = new RemoteSyncServiceProcessor(reader, syncResponseDispatcher, 1);
+		this.counters = mock(SystemCounters.class);
+		this.processor = new RemoteSyncServiceProcessor(
+			reader,
+			syncResponseDispatcher,
+			new SyncResponseCache(1024, mock(SystemCounters.class)),
+			new SyncServingBudget(1000),
+			counters,
+			1
+		);
 	}
 
 	@Test
@@ -85,6 +100,108 @@ public class RemoteSyncServiceProcessorTest {
 		verify(syncResponseDispatcher, times(1)).dispatch(eq(node), any());
 	}
 
+	@Test
+	public void when_remote_sync_request_repeated__then_respond_from_cache() throws NextCommittedLimitReachedException {
+		DtoLedgerHeaderAndProof header = mock(DtoLedgerHeaderAndProof.class);
+		LedgerHeader ledgerHeader = mock(LedgerHeader.class);
+		when(ledgerHeader.getAccumulatorState()).thenReturn(new AccumulatorState(1, HashUtils.random256()));
+		when(header.getLedgerHeader()).thenReturn(ledgerHeader);
+		VerifiedCommandsAndProof verifiedCommandsAndProof = mock(VerifiedCommandsAndProof.class);
+		VerifiedLedgerHeaderAndProof verifiedHeader = mock(VerifiedLedgerHeaderAndProof.class);
+		when(verifiedHeader.toDto()).thenReturn(mock(DtoLedgerHeaderAndProof.class));
+		when(verifiedCommandsAndProof.getHeader()).thenReturn(verifiedHeader);
+		when(verifiedCommandsAndProof.getCommands()).thenReturn(ImmutableList.of(new Command(new byte[1])));
+		when(reader.getNextCommittedCommands(any(), anyInt())).thenReturn(verifiedCommandsAndProof);
+
+		BFTNode node1 = BFTNode.random();
+		BFTNode node2 = BFTNode.random();
+		processor.process(node1, header);
+		processor.process(node2, header);
+
+		verify(reader, times(1)).getNextCommittedCommands(any(), anyInt());
+		ArgumentCaptor<DtoCommandsAndProof> responses = ArgumentCaptor.forClass(DtoCommandsAndProof.class);
+		verify(syncResponseDispatcher, times(2)).dispatch(any(), responses.capture());
+		assertThat(responses.getAllValues().get(1)).isSameAs(responses.getAllValues().get(0));
+	}
+
+	@Test
+	public void when_remote_sync_request_with_same_accumulator_and_different_head__then_respond_from_cache_with_requesters_head()
+		throws NextCommittedLimitReachedException {
+		AccumulatorState start = new AccumulatorState(1, HashUtils.random256());
+		DtoLedgerHeaderAndProof header1 = mock(DtoLedgerHeaderAndProof.class);
+		LedgerHeader ledgerHeader1 = mock(LedgerHeader.class);
+		when(ledgerHeader1.getAccumulatorState()).thenReturn(start);
+		when(header1.getLedgerHeader()).thenReturn(ledgerHeader1);
+		DtoLedgerHeaderAndProof header2 = mock(DtoLedgerHeaderAndProof.class);
+		LedgerHeader ledgerHeader2 = mock(LedgerHeader.class);
+		when(ledgerHeader2.getAccumulatorState()).thenReturn(start);
+		when(header2.getLedgerHeader()).thenReturn(ledgerHeader2);
+		VerifiedCommandsAndProof verifiedCommandsAndProof = mock(VerifiedCommandsAndProof.class);
+		VerifiedLedgerHeaderAndProof verifiedHeader = mock(VerifiedLedgerHeaderAndProof.class);
+		DtoLedgerHeaderAndProof tail = mock(DtoLedgerHeaderAndProof.class);
+		when(verifiedHeader.toDto()).thenReturn(tail);
+		when(verifiedCommandsAndProof.getHeader()).thenReturn(verifiedHeader);
+		ImmutableList<Command> commands = ImmutableList.of(new Command(new byte[1]));
+		when(verifiedCommandsAndProof.getCommands()).thenReturn(commands);
+		when(reader.getNextCommittedCommands(any(), anyInt())).thenReturn(verifiedCommandsAndProof);
+
+		processor.process(BFTNode.random(), header1);
+		processor.process(BFTNode.random(), header2);
+
+		verify(reader, times(1)).getNextCommittedCommands(any(), anyInt());
+		ArgumentCaptor<DtoCommandsAndProof> responses = ArgumentCaptor.forClass(DtoCommandsAndProof.class);
+		verify(syncResponseDispatcher, times(2)).dispatch(any(), responses.capture());
+		DtoCommandsAndProof second = responses.getAllValues().get(1);
+		assertThat(second.getHead()).isSameAs(header2);
+		assertThat(second.getTail()).isSameAs(tail);
+		assertThat(second.getCommands()).isEqualTo(commands);
+	}
+
+	@Test
+	public void when_remote_sync_request_from_different_accumulator__then_dont_respond_from_cache()
+		throws NextCommittedLimitReachedException {
+		DtoLedgerHeaderAndProof header1 = mock(DtoLedgerHeaderAndProof.class);
+		LedgerHeader ledgerHeader1 = mock(LedgerHeader.class);
+		when(ledgerHeader1.getAccumulatorState()).thenReturn(new AccumulatorState(1, HashUtils.random256()));
+		when(header1.getLedgerHeader()).thenReturn(ledgerHeader1);
+		DtoLedgerHeaderAndProof header2 = mock(DtoLedgerHeaderAndProof.class);
+		LedgerHeader ledgerHeader2 = mock(LedgerHeader.class);
+		when(ledgerHeader2.getAccumulatorState()).thenReturn(new AccumulatorState(1, HashUtils.random256()));
+		when(header2.getLedgerHeader()).thenReturn(ledgerHeader2);
+		VerifiedCommandsAndProof verifiedCommandsAndProof = mock(VerifiedCommandsAndProof.class);
+		VerifiedLedgerHeaderAndProof verifiedHeader = mock(VerifiedLedgerHeaderAndProof.class);
+		when(verifiedHeader.toDto()).thenReturn(mock(DtoLedgerHeaderAndProof.class));
+		when(verifiedCommandsAndProof.getHeader()).thenReturn(verifiedHeader);
+		when(reader.getNextCommittedCommands(any(), anyInt())).thenReturn(verifiedCommandsAndProof);
+
+		when(verifiedCommandsAndProof.getCommands()).thenReturn(ImmutableList.of(new Command(new byte[1])));
+
+		processor.process(BFTNode.random(), header1);
+		processor.process(BFTNode.random(), header2);
+
+		verify(reader, times(2)).getNextCommittedCommands(any(), anyInt());
+		verify(syncResponseDispatcher, times(1)).dispatch(any(), argThat(r -> r.getHead() == header2));
+	}
+
+	@Test
+	public void when_remote_sync_request_at_tip_of_ledger__then_dont_cache_response() throws NextCommittedLimitReachedException {
+		DtoLedgerHeaderAndProof header = mock(DtoLedgerHeaderAndProof.class);
+		LedgerHeader ledgerHeader = mock(LedgerHeader.class);
+		when(ledgerHeader.getAccumulatorState()).thenReturn(new AccumulatorState(1, HashUtils.random256()));
+		when(header.getLedgerHeader()).thenReturn(ledgerHeader);
+		VerifiedCommandsAndProof verifiedCommandsAndProof = mock(VerifiedCommandsAndProof.class);
+		VerifiedLedgerHeaderAndProof verifiedHeader = mock(VerifiedLedgerHeaderAndProof.class);
+		when(verifiedHeader.toDto()).thenReturn(mock(DtoLedgerHeaderAndProof.class));
+		when(verifiedCommandsAndProof.getHeader()).thenReturn(verifiedHeader);
+		when(verifiedCommandsAndProof.getCommands()).thenReturn(ImmutableList.of());
+		when(reader.getNextCommittedCommands(any(), anyInt())).thenReturn(verifiedCommandsAndProof);
+
+		processor.process(BFTNode.random(), header);
+		processor.process(BFTNode.random(), header);
+
+		verify(reader, times(2)).getNextCommittedCommands(any(), anyInt());
+	}
+
 	@Test
 	public void when_remote_sync_request_and_unable__then_dont_do_anything() {
 		RemoteSyncRequest request = mock(RemoteSyncRequest.class);
@@ -112,6 +229,25 @@ public class RemoteSyncServiceProcessorTest {
 		verify(syncResponseDispatcher, never()).dispatch(any(), any());
 	}
 
+	@Test
+	public void when_budget_overdrawn__then_drop_request_without_reading() throws NextCommittedLimitReachedException {
+		VerifiedCommandsAndProof verifiedCommandsAndProof = mock(VerifiedCommandsAndProof.class);
+		VerifiedLedgerHeaderAndProof verifiedHeader = mock(VerifiedLedgerHeaderAndProof.class);
+		when(verifiedHeader.toDto()).thenReturn(mock(DtoLedgerHeaderAndProof.class));
+		when(verifiedCommandsAndProof.getHeader()).thenReturn(verifiedHeader);
+		when(verifiedCommandsAndProof.getCommands()).thenReturn(ImmutableList.of(new Command(new byte[100_000])));
+		when(reader.getNextCommittedCommands(any(), anyInt())).thenReturn(verifiedCommandsAndProof);
+
+		processor.process(BFTNode.random(), headerAt(1));
+		processor.process(BFTNode.random(), headerAt(2));
+
+		verify(reader, times(1)).getNextCommittedCommands(any(), anyInt());
+		verify(syncResponseDispatcher, times(1)).dispatch(any(), any());
+		verify(counters, times(1)).increment(CounterType.SYNC_SERVER_REQUESTS_SERVED);
+		verify(counters, times(1)).add(CounterType.SYNC_SERVER_BYTES_SERVED, 100_000L);
+		verify(counters, times(1)).increment(CounterType.SYNC_SERVER_REQUESTS_DROPPED);
+	}
+
 	@Test
 	public void return_epoch_proof_on_request() {
 		// Arrange
@@ -137,4 +273,12 @@ public class RemoteSyncServiceProcessorTest {
 		// Assert
 		verify(syncResponseDispatcher, times(1)).dispatch(any(), argThat(l -> l.getTail().equals(epoch2)));
 	}
+
+	private static DtoLedgerHeaderAndProof headerAt(long stateVersion) {
+		DtoLedgerHeaderAndProof header = mock(DtoLedgerHeaderAndProof.class);
+		LedgerHeader ledgerHeader = mock(LedgerHeader.class);
+		when(ledgerHeader.getAccumulatorState()).thenReturn(new AccumulatorState(stateVersion, HashUtils.random256()));
+		when(header.getLedgerHeader()).thenReturn(ledgerHeader);
+		return header;
+	}
 }
@@ -0,0 +1,262 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.radixdlt.DefaultSerialization;
+import com.radixdlt.atommodel.system.SystemParticle;
+import com.radixdlt.consensus.BFTHeader;
+import com.radixdlt.consensus.LedgerHeader;
+import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.consensus.TimestampedECDSASignatures;
+import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
+import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.consensus.bft.BFTValidator;
+import com.radixdlt.consensus.bft.BFTValidatorSet;
+import com.radixdlt.consensus.bft.View;
+import com.radixdlt.constraintmachine.CMMicroInstruction;
+import com.radixdlt.constraintmachine.Particle;
+import com.radixdlt.constraintmachine.Spin;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.ledger.AccumulatorState;
+import com.radixdlt.middleware2.ClientAtom;
+import com.radixdlt.middleware2.store.CommittedAtomsStore;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.statecomputer.CommittedAtom;
+import com.radixdlt.statecomputer.CommittedAtoms;
+import com.radixdlt.statecomputer.RadixEngineStateComputer.CommittedAtomWithResult;
+import com.radixdlt.utils.UInt256;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import io.reactivex.rxjava3.subjects.Subject;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StateSnapshotProducerTest {
+	private final Serialization serialization = DefaultSerialization.getInstance();
+	private final Hasher hasher = Sha256Hasher.withDefaultSerialization();
+	private final BFTValidatorSet validatorSet = BFTValidatorSet.from(
+		ImmutableList.of(BFTValidator.from(BFTNode.random(), UInt256.ONE))
+	);
+
+	private final Particle p0 = new SystemParticle(1, 0, 0);
+	private final Particle p1 = new SystemParticle(1, 1, 0);
+	private final Particle p2 = new SystemParticle(1, 2, 0);
+	private final Particle p3 = new SystemParticle(2, 0, 0);
+
+	private CommittedAtomsStore store;
+	private Subject<CommittedAtomWithResult> committedAtoms;
+	private Subject<CommittedAtomWithResult> otherCommittedAtoms;
+	private StateSnapshotProducer producer;
+	private StateSnapshotProducer otherProducer;
+
+	@Before
+	public void setUp() throws Exception {
+		this.store = mock(CommittedAtomsStore.class);
+		when(store.getLastVerifiedHeader()).thenReturn(Optional.empty());
+		when(store.getNextCommittedAtoms(anyLong(), anyInt())).thenReturn(ImmutableList.of());
+		this.committedAtoms = PublishSubject.<CommittedAtomWithResult>create().toSerialized();
+		this.otherCommittedAtoms = PublishSubject.<CommittedAtomWithResult>create().toSerialized();
+		this.producer = new StateSnapshotProducer(store, () -> committedAtoms, serialization, hasher, 2);
+		this.otherProducer = new StateSnapshotProducer(store, () -> otherCommittedAtoms, serialization, hasher, 2);
+		this.producer.start();
+		this.otherProducer.start();
+	}
+
+	@After
+	public void tearDown() {
+		this.producer.stop();
+		this.otherProducer.stop();
+	}
+
+	@Test
+	public void when_epoch_changes__then_snapshot_of_live_particles_is_produced() throws Exception {
+		VerifiedLedgerHeaderAndProof epochProof = proof(2, true);
+		committedAtoms.onNext(committed(1, proof(1, false), push(p0, p1, p2)));
+		committedAtoms.onNext(committed(2, epochProof, spinDown(p0), push(p3)));
+
+		StateSnapshot snapshot = awaitSnapshot(producer);
+
+		StateSnapshotManifest manifest = snapshot.getManifest();
+		assertThat(manifest.getProof()).isEqualTo(epochProof);
+		assertThat(snapshot.getManifestHash()).isEqualTo(hasher.hash(manifest));
+		assertThat(manifest.getChunkHashes()).hasSize(2);
+		ImmutableList.Builder<HashCode> particles = ImmutableList.builder();
+		for (int i = 0; i < manifest.getChunkHashes().size(); i++) {
+			StateSnapshotChunk chunk = snapshot.getChunk(i).orElseThrow();
+			assertThat(hasher.hash(chunk.getPayload())).isEqualTo(manifest.getChunkHashes().get(i));
+			ClientAtom chunkAtom = serialization.fromDson(chunk.getPayload().getPayload(), ClientAtom.class);
+			chunkAtom.getCMInstruction().getMicroInstructions().stream()
+				.filter(CMMicroInstruction::isCheckSpin)
+				.forEach(instruction -> particles.add(hasher.hash(instruction.getParticle())));
+		}
+		assertThat(particles.build()).containsExactlyInAnyOrder(hasher.hash(p1), hasher.hash(p2), hasher.hash(p3));
+		assertThat(producer.get(snapshot.getManifestHash())).contains(snapshot);
+	}
+
+	@Test
+	public void when_started_on_existing_ledger__then_snapshot_of_last_epoch_is_produced() throws Exception {
+		VerifiedLedgerHeaderAndProof epochProof = proof(2, true);
+		CommittedAtomsStore existingStore = mock(CommittedAtomsStore.class);
+		when(existingStore.getLastVerifiedHeader()).thenReturn(Optional.of(epochProof));
+		when(existingStore.getNextCommittedAtoms(-1, 1024)).thenReturn(ImmutableList.of(
+			committed(1, proof(1, false), push(p0, p1)).getCommittedAtom()
+		));
+		when(existingStore.getNextCommittedAtoms(1, 1024)).thenReturn(ImmutableList.of(
+			committed(2, epochProof, spinDown(p1), push(p2)).getCommittedAtom()
+		));
+		when(existingStore.getNextCommittedAtoms(2, 1024)).thenReturn(ImmutableList.of());
+		StateSnapshotProducer existingProducer =
+			new StateSnapshotProducer(existingStore, PublishSubject::create, serialization, hasher, 2);
+		existingProducer.start();
+		committedAtoms.onNext(committed(1, proof(1, false), push(p0, p1)));
+		committedAtoms.onNext(committed(2, epochProof, spinDown(p1), push(p2)));
+
+		try {
+			assertThat(awaitSnapshot(existingProducer).getManifestHash())
+				.isEqualTo(awaitSnapshot(producer).getManifestHash());
+		} finally {
+			existingProducer.stop();
+		}
+	}
+
+	@Test
+	public void when_same_state_reached_in_different_order__then_same_snapshot_is_produced() throws Exception {
+		VerifiedLedgerHeaderAndProof epochProof = proof(2, true);
+		committedAtoms.onNext(committed(1, proof(1, false), push(p0, p1)));
+		committedAtoms.onNext(committed(2, epochProof, push(p3, p2)));
+		otherCommittedAtoms.onNext(committed(1, proof(1, false), push(p2, p1)));
+		otherCommittedAtoms.onNext(committed(2, epochProof, push(p0, p3)));
+
+		assertThat(awaitSnapshot(producer).getManifestHash())
+			.isEqualTo(awaitSnapshot(otherProducer).getManifestHash());
+	}
+
+	@Test
+	public void when_atom_committed_during_scan__then_it_is_included_after_scan() throws Exception {
+		VerifiedLedgerHeaderAndProof epochProof = proof(2, true);
+		Subject<CommittedAtomWithResult> liveAtoms = PublishSubject.<CommittedAtomWithResult>create().toSerialized();
+		CommittedAtomsStore scannedStore = mock(CommittedAtomsStore.class);
+		when(scannedStore.getLastVerifiedHeader()).thenReturn(Optional.empty());
+		when(scannedStore.getNextCommittedAtoms(-1, 1024)).thenAnswer(invocation -> {
+			liveAtoms.onNext(committed(2, epochProof, push(p2)));
+			return ImmutableList.of(committed(1, proof(1, false), push(p0, p1)).getCommittedAtom());
+		});
+		when(scannedStore.getNextCommittedAtoms(1, 1024)).thenReturn(ImmutableList.of());
+		StateSnapshotProducer scanningProducer =
+			new StateSnapshotProducer(scannedStore, () -> liveAtoms, serialization, hasher, 2);
+		scanningProducer.start();
+		committedAtoms.onNext(committed(1, proof(1, false), push(p0, p1)));
+		committedAtoms.onNext(committed(2, epochProof, push(p2)));
+
+		try {
+			assertThat(awaitSnapshot(scanningProducer).getManifestHash())
+				.isEqualTo(awaitSnapshot(producer).getManifestHash());
+		} finally {
+			scanningProducer.stop();
+		}
+	}
+
+	@Test
+	public void when_epochs_change__then_manifest_carries_prior_epoch_proofs() throws Exception {
+		VerifiedLedgerHeaderAndProof firstEpochProof = proof(1, 1, true);
+		VerifiedLedgerHeaderAndProof secondEpochProof = proof(2, 2, true);
+		committedAtoms.onNext(committed(1, firstEpochProof, push(p0)));
+		committedAtoms.onNext(committed(2, secondEpochProof, push(p1)));
+
+		StateSnapshot snapshot = awaitSnapshot(producer, secondEpochProof);
+
+		assertThat(snapshot.getManifest().getEpochProofs()).containsExactly(firstEpochProof);
+	}
+
+	private static StateSnapshot awaitSnapshot(StateSnapshotProducer producer, VerifiedLedgerHeaderAndProof proof)
+		throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			Optional<StateSnapshot> snapshot = producer.latest();
+			if (snapshot.isPresent() && snapshot.get().getManifest().getProof().equals(proof)) {
+				return snapshot.get();
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("No snapshot produced for " + proof);
+	}
+
+	private static StateSnapshot awaitSnapshot(StateSnapshotProducer producer) throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			Optional<StateSnapshot> snapshot = producer.latest();
+			if (snapshot.isPresent()) {
+				return snapshot.get();
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("No snapshot produced");
+	}
+
+	private static ImmutableList<CMMicroInstruction> push(Particle... particles) {
+		return ImmutableList.copyOf(particles).stream()
+			.map(p -> CMMicroInstruction.checkSpinAndPush(p, Spin.NEUTRAL))
+			.collect(ImmutableList.toImmutableList());
+	}
+
+	private static ImmutableList<CMMicroInstruction> spinDown(Particle... particles) {
+		return ImmutableList.copyOf(particles).stream()
+			.map(p -> CMMicroInstruction.checkSpinAndPush(p, Spin.UP))
+			.collect(ImmutableList.toImmutableList());
+	}
+
+	@SafeVarargs
+	private CommittedAtomWithResult committed(
+		long stateVersion,
+		VerifiedLedgerHeaderAndProof proof,
+		ImmutableList<CMMicroInstruction>... instructions
+	) {
+		ImmutableList.Builder<CMMicroInstruction> builder = ImmutableList.builder();
+		for (ImmutableList<CMMicroInstruction> group : instructions) {
+			builder.addAll(group);
+		}
+		builder.add(CMMicroInstruction.particleGroup());
+		ClientAtom clientAtom = ClientAtom.create(builder.build(), hasher);
+		return CommittedAtoms.success(new CommittedAtom(clientAtom, stateVersion, proof), ImmutableSet.of());
+	}
+
+	private VerifiedLedgerHeaderAndProof proof(long stateVersion, boolean endOfEpoch) {
+		return proof(1, stateVersion, endOfEpoch);
+	}
+
+	private VerifiedLedgerHeaderAndProof proof(long epoch, long stateVersion, boolean endOfEpoch) {
+		LedgerHeader ledgerHeader = LedgerHeader.create(
+			epoch,
+			View.of(1),
+			new AccumulatorState(stateVersion, HashUtils.zero256()),
+			0,
+			endOfEpoch ? validatorSet : null
+		);
+		BFTHeader header = BFTHeader.ofGenesisAncestor(ledgerHeader);
+		return new VerifiedLedgerHeaderAndProof(header, header, 0, HashUtils.zero256(), ledgerHeader, new TimestampedECDSASignatures());
+	}
+}
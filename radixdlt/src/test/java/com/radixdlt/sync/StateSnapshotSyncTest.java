@@ -0,0 +1,319 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package com.radixdlt.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import com.radixdlt.DefaultSerialization;
+import com.radixdlt.atommodel.system.SystemParticle;
+import com.radixdlt.consensus.BFTHeader;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.consensus.LedgerHeader;
+import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.consensus.TimestampedECDSASignature;
+import com.radixdlt.consensus.TimestampedECDSASignatures;
+import com.radixdlt.consensus.TimestampedVoteData;
+import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
+import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.consensus.bft.BFTValidator;
+import com.radixdlt.consensus.bft.BFTValidatorSet;
+import com.radixdlt.consensus.bft.View;
+import com.radixdlt.constraintmachine.CMMicroInstruction;
+import com.radixdlt.constraintmachine.Spin;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.crypto.ECKeyPair;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.environment.rx.RemoteEvent;
+import com.radixdlt.ledger.AccumulatorState;
+import com.radixdlt.ledger.VerifiedCommandsAndProof;
+import com.radixdlt.middleware2.ClientAtom;
+import com.radixdlt.middleware2.network.MessageCentralStateSnapshotSync;
+import com.radixdlt.middleware2.store.CommittedAtomsStore;
+import com.radixdlt.network.addressbook.AddressBook;
+import com.radixdlt.network.addressbook.PeerWithSystem;
+import com.radixdlt.serialization.DsonOutput.Output;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.utils.UInt256;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import io.reactivex.rxjava3.subjects.Subject;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Test;
+import org.radix.universe.system.RadixSystem;
+
+public class StateSnapshotSyncTest {
+	private final Serialization serialization = DefaultSerialization.getInstance();
+	private final Hasher hasher = Sha256Hasher.withDefaultSerialization();
+	private final ImmutableList<ECKeyPair> validatorKeys = Stream.generate(ECKeyPair::generateNew)
+		.limit(4)
+		.collect(ImmutableList.toImmutableList());
+	private final BFTValidatorSet validatorSet = validatorSet(validatorKeys);
+
+	private MessageCentralStateSnapshotSync network;
+	private AddressBook addressBook;
+	private CommittedAtomsStore store;
+	private SystemCounters counters;
+	private Subject<RemoteEvent<StateSnapshotManifest>> manifests;
+	private Subject<RemoteEvent<StateSnapshotChunk>> chunks;
+	private StateSnapshotSync stateSnapshotSync;
+
+	private PeerWithSystem peer0;
+	private PeerWithSystem peer1;
+	private VerifiedLedgerHeaderAndProof proof;
+	private ImmutableList<ClientAtom> chunkAtoms;
+	private ImmutableList<Command> chunkPayloads;
+	private StateSnapshotManifest manifest;
+
+	@Before
+	public void setUp() {
+		this.network = mock(MessageCentralStateSnapshotSync.class);
+		this.addressBook = mock(AddressBook.class);
+		this.store = mock(CommittedAtomsStore.class);
+		this.counters = mock(SystemCounters.class);
+		this.manifests = PublishSubject.create();
+		this.chunks = PublishSubject.create();
+		when(network.manifestResponses()).thenReturn(manifests);
+		when(network.chunkResponses()).thenReturn(chunks);
+		when(store.getLastVerifiedHeader()).thenReturn(Optional.empty());
+
+		this.peer0 = peer(validatorKeys.get(0));
+		this.peer1 = peer(validatorKeys.get(1));
+		when(addressBook.peers()).thenAnswer(invocation -> Stream.of(peer0, peer1));
+
+		this.proof = signedProof(1, 10, validatorSet, validatorKeys.subList(0, 3));
+		this.chunkAtoms = ImmutableList.of(
+			chunkAtom(new SystemParticle(2, 0, 0)),
+			chunkAtom(new SystemParticle(2, 1, 0))
+		);
+		this.chunkPayloads = chunkAtoms.stream()
+			.map(atom -> new Command(serialization.toDson(atom, Output.ALL)))
+			.collect(ImmutableList.toImmutableList());
+		this.manifest = new StateSnapshotManifest(
+			proof,
+			ImmutableList.of(),
+			chunkPayloads.stream().map(hasher::hash).collect(ImmutableList.toImmutableList())
+		);
+
+		VerifiedLedgerHeaderAndProof genesis = VerifiedLedgerHeaderAndProof.genesis(HashUtils.zero256(), validatorSet);
+		this.stateSnapshotSync = new StateSnapshotSync(
+			network,
+			addressBook,
+			store,
+			new VerifiedCommandsAndProof(ImmutableList.of(), genesis),
+			serialization,
+			hasher,
+			(key, hash, signature) -> key.verify(hash, signature),
+			counters,
+			2,
+			1000,
+			0
+		);
+	}
+
+	@Test
+	public void when_peers_agree__then_snapshot_is_downloaded_and_installed() throws Exception {
+		respondWithManifests(Map.of(node(peer0), manifest, node(peer1), manifest));
+		respondWithChunks(Map.of(node(peer0), chunkPayloads, node(peer1), chunkPayloads));
+
+		assertThat(stateSnapshotSync.bootstrap()).isTrue();
+
+		verify(store).installSnapshot(eq(proof), eq(chunkAtoms));
+		verify(counters, times(2)).increment(CounterType.SYNC_SNAPSHOT_CHUNKS_RECEIVED);
+	}
+
+	@Test
+	public void when_peers_disagree__then_nothing_is_installed() throws Exception {
+		StateSnapshotManifest other = new StateSnapshotManifest(
+			proof,
+			ImmutableList.of(),
+			ImmutableList.of(hasher.hash(chunkPayloads.get(0)))
+		);
+		respondWithManifests(Map.of(node(peer0), manifest, node(peer1), other));
+
+		assertThat(stateSnapshotSync.bootstrap()).isFalse();
+
+		verify(network, never()).sendChunkRequest(any(), any(), anyInt());
+		verify(store, never()).installSnapshot(any(), any());
+	}
+
+	@Test
+	public void when_peer_sends_invalid_chunk__then_chunk_is_fetched_from_another_peer() throws Exception {
+		// Each peer corrupts a different chunk, so whichever is asked first the other one has it
+		Command corrupted = new Command(new byte[] {0});
+		respondWithManifests(Map.of(node(peer0), manifest, node(peer1), manifest));
+		respondWithChunks(Map.of(
+			node(peer0), ImmutableList.of(corrupted, chunkPayloads.get(1)),
+			node(peer1), ImmutableList.of(chunkPayloads.get(0), corrupted)
+		));
+
+		assertThat(stateSnapshotSync.bootstrap()).isTrue();
+
+		verify(store).installSnapshot(eq(proof), eq(chunkAtoms));
+		verify(counters).increment(CounterType.SYNC_SNAPSHOT_INVALID_CHUNKS_RECEIVED);
+	}
+
+	@Test
+	public void when_proof_lacks_quorum__then_nothing_is_installed() throws Exception {
+		VerifiedLedgerHeaderAndProof weakProof = signedProof(1, 10, validatorSet, validatorKeys.subList(0, 2));
+		StateSnapshotManifest weak = new StateSnapshotManifest(weakProof, ImmutableList.of(), manifest.getChunkHashes());
+		respondWithManifests(Map.of(node(peer0), weak, node(peer1), weak));
+
+		assertThat(stateSnapshotSync.bootstrap()).isFalse();
+
+		verify(counters, times(2)).increment(CounterType.SYNC_SNAPSHOT_INVALID_MANIFESTS_RECEIVED);
+		verify(network, never()).sendChunkRequest(any(), any(), anyInt());
+	}
+
+	@Test
+	public void when_proof_skips_epochs__then_nothing_is_installed() throws Exception {
+		VerifiedLedgerHeaderAndProof laterProof = signedProof(2, 10, validatorSet, validatorKeys);
+		StateSnapshotManifest later = new StateSnapshotManifest(laterProof, ImmutableList.of(), manifest.getChunkHashes());
+		respondWithManifests(Map.of(node(peer0), later, node(peer1), later));
+
+		assertThat(stateSnapshotSync.bootstrap()).isFalse();
+
+		verify(counters, times(2)).increment(CounterType.SYNC_SNAPSHOT_INVALID_MANIFESTS_RECEIVED);
+	}
+
+	@Test
+	public void when_validator_set_changes__then_proof_is_verified_through_epoch_proofs() throws Exception {
+		ImmutableList<ECKeyPair> nextKeys = ImmutableList.of(validatorKeys.get(0), validatorKeys.get(1), ECKeyPair.generateNew());
+		BFTValidatorSet nextValidatorSet = validatorSet(nextKeys);
+		VerifiedLedgerHeaderAndProof epochProof = signedProof(1, 5, nextValidatorSet, validatorKeys.subList(0, 3));
+		VerifiedLedgerHeaderAndProof laterProof = signedProof(2, 10, nextValidatorSet, nextKeys);
+		StateSnapshotManifest later = new StateSnapshotManifest(
+			laterProof,
+			ImmutableList.of(epochProof),
+			manifest.getChunkHashes()
+		);
+		respondWithManifests(Map.of(node(peer0), later, node(peer1), later));
+		respondWithChunks(Map.of(node(peer0), chunkPayloads, node(peer1), chunkPayloads));
+
+		assertThat(stateSnapshotSync.bootstrap()).isTrue();
+
+		verify(store).installSnapshot(eq(laterProof), eq(chunkAtoms));
+	}
+
+	@Test
+	public void when_agreeing_peers_hold_too_little_stake__then_nothing_is_installed() throws Exception {
+		PeerWithSystem outsider = peer(ECKeyPair.generateNew());
+		when(addressBook.peers()).thenAnswer(invocation -> Stream.of(peer0, outsider));
+		respondWithManifests(Map.of(node(peer0), manifest, node(outsider), manifest));
+
+		assertThat(stateSnapshotSync.bootstrap()).isFalse();
+
+		verify(network, never()).sendChunkRequest(any(), any(), anyInt());
+		verify(store, never()).installSnapshot(any(), any());
+	}
+
+	@Test
+	public void when_ledger_is_beyond_genesis__then_no_snapshot_is_requested() throws Exception {
+		when(store.getLastVerifiedHeader()).thenReturn(Optional.of(signedProof(1, 5, validatorSet, validatorKeys)));
+
+		assertThat(stateSnapshotSync.bootstrap()).isFalse();
+
+		verifyNoInteractions(network);
+	}
+
+	private void respondWithManifests(Map<BFTNode, StateSnapshotManifest> responses) {
+		doAnswer(invocation -> {
+			BFTNode node = invocation.getArgument(0);
+			manifests.onNext(RemoteEvent.create(node, responses.get(node), StateSnapshotManifest.class));
+			return null;
+		}).when(network).sendManifestRequest(any());
+	}
+
+	private void respondWithChunks(Map<BFTNode, ImmutableList<Command>> responses) {
+		doAnswer(invocation -> {
+			BFTNode node = invocation.getArgument(0);
+			HashCode manifestHash = invocation.getArgument(1);
+			int index = invocation.getArgument(2);
+			StateSnapshotChunk chunk = new StateSnapshotChunk(manifestHash, index, responses.get(node).get(index));
+			chunks.onNext(RemoteEvent.create(node, chunk, StateSnapshotChunk.class));
+			return null;
+		}).when(network).sendChunkRequest(any(), any(), anyInt());
+	}
+
+	private ClientAtom chunkAtom(SystemParticle particle) {
+		return ClientAtom.create(
+			ImmutableList.of(
+				CMMicroInstruction.checkSpinAndPush(particle, Spin.NEUTRAL),
+				CMMicroInstruction.particleGroup()
+			),
+			hasher
+		);
+	}
+
+	private static PeerWithSystem peer(ECKeyPair key) {
+		RadixSystem system = mock(RadixSystem.class);
+		when(system.getKey()).thenReturn(key.getPublicKey());
+		PeerWithSystem peer = mock(PeerWithSystem.class);
+		when(peer.hasSystem()).thenReturn(true);
+		when(peer.getSystem()).thenReturn(system);
+		return peer;
+	}
+
+	private static BFTNode node(PeerWithSystem peer) {
+		return BFTNode.create(peer.getSystem().getKey());
+	}
+
+	private static BFTValidatorSet validatorSet(ImmutableList<ECKeyPair> keys) {
+		return BFTValidatorSet.from(keys.stream().map(k -> BFTValidator.from(BFTNode.create(k.getPublicKey()), UInt256.ONE)));
+	}
+
+	private VerifiedLedgerHeaderAndProof signedProof(
+		long epoch,
+		long stateVersion,
+		BFTValidatorSet nextValidatorSet,
+		ImmutableList<ECKeyPair> signers
+	) {
+		LedgerHeader ledgerHeader = LedgerHeader.create(
+			epoch,
+			View.of(1),
+			new AccumulatorState(stateVersion, HashUtils.zero256()),
+			0,
+			nextValidatorSet
+		);
+		BFTHeader header = BFTHeader.ofGenesisAncestor(ledgerHeader);
+		VerifiedLedgerHeaderAndProof unsigned =
+			new VerifiedLedgerHeaderAndProof(header, header, 0, HashUtils.zero256(), ledgerHeader, new TimestampedECDSASignatures());
+		HashCode voteDataHash = hasher.hash(new TimestampedVoteData(unsigned.toDto().toVoteData(), 0));
+		ImmutableMap<BFTNode, TimestampedECDSASignature> signatures = signers.stream().collect(ImmutableMap.toImmutableMap(
+			k -> BFTNode.create(k.getPublicKey()),
+			k -> TimestampedECDSASignature.from(0, UInt256.ONE, k.sign(voteDataHash))
+		));
+		return new VerifiedLedgerHeaderAndProof(header, header, 0, HashUtils.zero256(), ledgerHeader, new TimestampedECDSASignatures(signatures));
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.counters.SystemCountersImpl;
+import com.radixdlt.crypto.HashUtils;
+import com.radixdlt.ledger.AccumulatorState;
+import com.radixdlt.ledger.DtoCommandsAndProof;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SyncResponseCacheTest {
+	private SystemCounters counters;
+	private SyncResponseCache cache;
+
+	@Before
+	public void setUp() {
+		this.counters = new SystemCountersImpl();
+		this.cache = new SyncResponseCache(1000, counters);
+	}
+
+	@Test
+	public void when_response_cached__then_same_request_hits() {
+		AccumulatorState start = new AccumulatorState(1, HashUtils.random256());
+		DtoCommandsAndProof response = response(100);
+
+		assertThat(cache.get(start, 10)).isEmpty();
+		cache.put(start, 10, response);
+
+		assertThat(cache.get(new AccumulatorState(1, start.getAccumulatorHash()), 10)).containsSame(response);
+		assertThat(counters.get(CounterType.SYNC_SERVER_CACHE_HITS)).isEqualTo(1);
+		assertThat(counters.get(CounterType.SYNC_SERVER_CACHE_MISSES)).isEqualTo(1);
+		assertThat(counters.get(CounterType.SYNC_SERVER_CACHE_BYTES)).isEqualTo(100);
+	}
+
+	@Test
+	public void when_response_cached__then_different_batch_size_or_accumulator_misses() {
+		AccumulatorState start = new AccumulatorState(1, HashUtils.random256());
+		cache.put(start, 10, response(100));
+
+		assertThat(cache.get(start, 20)).isEmpty();
+		assertThat(cache.get(new AccumulatorState(1, HashUtils.random256()), 10)).isEmpty();
+		assertThat(counters.get(CounterType.SYNC_SERVER_CACHE_MISSES)).isEqualTo(2);
+	}
+
+	@Test
+	public void when_cache_full__then_least_recently_used_response_is_evicted() {
+		AccumulatorState first = new AccumulatorState(1, HashUtils.random256());
+		AccumulatorState second = new AccumulatorState(2, HashUtils.random256());
+		AccumulatorState third = new AccumulatorState(3, HashUtils.random256());
+		cache.put(first, 10, response(400));
+		cache.put(second, 10, response(400));
+		assertThat(cache.get(first, 10)).isPresent();
+
+		cache.put(third, 10, response(400));
+
+		assertThat(cache.get(second, 10)).isEmpty();
+		assertThat(cache.get(first, 10)).isPresent();
+		assertThat(cache.get(third, 10)).isPresent();
+		assertThat(counters.get(CounterType.SYNC_SERVER_CACHE_BYTES)).isEqualTo(800);
+	}
+
+	@Test
+	public void when_response_larger_than_cache__then_it_is_not_kept() {
+		AccumulatorState start = new AccumulatorState(1, HashUtils.random256());
+		cache.put(start, 10, response(2000));
+
+		assertThat(cache.get(start, 10)).isEmpty();
+		assertThat(counters.get(CounterType.SYNC_SERVER_CACHE_BYTES)).isZero();
+	}
+
+	private static DtoCommandsAndProof response(int payloadSize) {
+		DtoCommandsAndProof response = mock(DtoCommandsAndProof.class);
+		when(response.getCommands()).thenReturn(ImmutableList.of(new Command(new byte[payloadSize])));
+		return response;
+	}
+}
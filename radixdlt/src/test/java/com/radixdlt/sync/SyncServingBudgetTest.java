@@ -0,0 +1,76 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SyncServingBudgetTest {
+	private AtomicLong nanoTime;
+	private SyncServingBudget budget;
+
+	@Before
+	public void setUp() {
+		this.nanoTime = new AtomicLong();
+		this.budget = new SyncServingBudget(1000, nanoTime::get);
+	}
+
+	@Test
+	public void when_reservation_within_budget__then_it_is_granted() {
+		assertThat(budget.tryReserve(100)).isTrue();
+		assertThat(budget.tryReserve(900)).isTrue();
+		assertThat(budget.tryReserve(1)).isFalse();
+	}
+
+	@Test
+	public void when_settled_over_reservation__then_budget_is_overdrawn_until_repaid() {
+		assertThat(budget.tryReserve(1)).isTrue();
+		budget.settle(1, 2500);
+		assertThat(budget.tryReserve(1)).isFalse();
+
+		nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertThat(budget.tryReserve(1)).isFalse();
+
+		nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertThat(budget.tryReserve(1)).isTrue();
+	}
+
+	@Test
+	public void when_settled_under_reservation__then_difference_is_returned() {
+		assertThat(budget.tryReserve(1000)).isTrue();
+		budget.settle(1000, 0);
+		assertThat(budget.tryReserve(1000)).isTrue();
+	}
+
+	@Test
+	public void when_response_read__then_its_size_is_expected_next() {
+		assertThat(budget.tryReserve(budget.expectedResponseBytes())).isTrue();
+		budget.settle(budget.expectedResponseBytes(), 300);
+		assertThat(budget.expectedResponseBytes()).isEqualTo(300);
+	}
+
+	@Test
+	public void when_idle__then_budget_does_not_grow_beyond_one_second() {
+		nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		assertThat(budget.tryReserve(1000)).isTrue();
+		assertThat(budget.tryReserve(1)).isFalse();
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package com.radixdlt.sync;
+
+import static com.radixdlt.utils.TypedMocks.rmock;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.radixdlt.consensus.bft.BFTNode;
+import com.radixdlt.counters.SystemCounters;
+import com.radixdlt.counters.SystemCounters.CounterType;
+import com.radixdlt.environment.RemoteEventProcessor;
+import com.radixdlt.ledger.DtoLedgerHeaderAndProof;
+import java.util.concurrent.CountDownLatch;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SyncServingExecutorTest {
+	private RemoteEventProcessor<DtoLedgerHeaderAndProof> processor;
+	private SystemCounters counters;
+	private SyncServingExecutor executor;
+
+	@Before
+	public void setUp() {
+		this.processor = rmock(RemoteEventProcessor.class);
+		this.counters = mock(SystemCounters.class);
+	}
+
+	@After
+	public void tearDown() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+		}
+	}
+
+	@Test
+	public void when_request_submitted__then_it_is_served_on_serving_thread() {
+		this.executor = new SyncServingExecutor(processor, 1, 1, 100.0, counters);
+		BFTNode requester = mock(BFTNode.class);
+		DtoLedgerHeaderAndProof request = mock(DtoLedgerHeaderAndProof.class);
+
+		assertThat(executor.submit(requester, request)).isTrue();
+
+		verify(processor, timeout(5000)).process(eq(requester), eq(request));
+	}
+
+	@Test
+	public void when_requester_exceeds_rate__then_request_is_dropped() {
+		this.executor = new SyncServingExecutor(processor, 1, 16, 0.001, counters);
+		BFTNode requester = mock(BFTNode.class);
+
+		assertThat(executor.submit(requester, mock(DtoLedgerHeaderAndProof.class))).isTrue();
+		assertThat(executor.submit(requester, mock(DtoLedgerHeaderAndProof.class))).isFalse();
+		assertThat(executor.submit(mock(BFTNode.class), mock(DtoLedgerHeaderAndProof.class))).isTrue();
+
+		verify(counters).increment(CounterType.SYNC_SERVER_REQUESTS_DROPPED);
+	}
+
+	@Test
+	public void when_serving_queue_is_full__then_request_is_dropped() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			started.countDown();
+			release.await();
+			return null;
+		}).when(processor).process(any(), any());
+		this.executor = new SyncServingExecutor(processor, 1, 1, 100.0, counters);
+
+		assertThat(executor.submit(mock(BFTNode.class), mock(DtoLedgerHeaderAndProof.class))).isTrue();
+		started.await();
+		assertThat(executor.submit(mock(BFTNode.class), mock(DtoLedgerHeaderAndProof.class))).isTrue();
+		assertThat(executor.submit(mock(BFTNode.class), mock(DtoLedgerHeaderAndProof.class))).isFalse();
+		release.countDown();
+
+		verify(counters).increment(CounterType.SYNC_SERVER_REQUESTS_DROPPED);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void when_created_with_no_threads__then_exception_is_thrown() {
+		new SyncServingExecutor(processor, 0, 1, 1.0, counters);
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.radixdlt.identifiers.AID;
+import com.radixdlt.utils.Ints;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class AtomJsonCacheTest {
+	@Test
+	public void when_atom_requested_twice__then_it_is_rendered_once() {
+		AtomJsonCache cache = new AtomJsonCache(AtomJsonCache.DEFAULT_MAX_BYTES);
+		AID aid = aid(1);
+		AtomicInteger renders = new AtomicInteger();
+		Supplier<String> renderer = () -> {
+			renders.incrementAndGet();
+			return new JSONObject().put("aid", "x").toString();
+		};
+
+		RenderedJson first = cache.getAtom(aid, renderer);
+		RenderedJson second = cache.getAtom(aid, renderer);
+
+		assertThat(renders.get()).isEqualTo(1);
+		assertThat(second).isSameAs(first);
+		assertThat(new JSONObject(second.toJSONString()).getString("aid")).isEqualTo("x");
+	}
+
+	@Test
+	public void when_atom_not_stored__then_nothing_is_cached() {
+		AtomJsonCache cache = new AtomJsonCache(AtomJsonCache.DEFAULT_MAX_BYTES);
+		AID aid = aid(1);
+
+		assertThat(cache.getAtom(aid, () -> null)).isNull();
+		assertThat(cache.size()).isZero();
+		assertThat(cache.getAtom(aid, () -> "{}")).isNotNull();
+	}
+
+	@Test
+	public void when_atom_and_event_requested__then_they_are_cached_separately() {
+		AtomJsonCache cache = new AtomJsonCache(AtomJsonCache.DEFAULT_MAX_BYTES);
+		AID aid = aid(1);
+		String atomJson = new JSONObject().put("kind", "atom").toString();
+		String eventJson = new JSONObject().put("kind", "event").toString();
+
+		assertThat(cache.getAtom(aid, () -> atomJson).toJSONString()).isEqualTo(atomJson);
+		assertThat(cache.getAtomEvent(aid, () -> eventJson).toJSONString()).isEqualTo(eventJson);
+		assertThat(cache.getAtom(aid, () -> null).toJSONString()).isEqualTo(atomJson);
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void when_renderings_exceed_max_bytes__then_some_are_evicted() {
+		String json = new JSONObject().put("data", "0123456789").toString();
+		int size = RenderedJson.of(json).size();
+		AtomJsonCache cache = new AtomJsonCache(size * 2L);
+
+		for (int i = 0; i < 10; i++) {
+			cache.getAtom(aid(i), () -> json);
+		}
+
+		assertThat(cache.size()).isLessThanOrEqualTo(2L);
+	}
+
+	@Test
+	public void when_rendered_json_is_put_into_json__then_it_is_embedded_as_is() {
+		RenderedJson rendered = RenderedJson.of(new JSONObject().put("text", "\u00e9t\u00e9").toString());
+
+		JSONArray array = new JSONArray(new JSONArray().put(rendered).toString());
+
+		assertThat(array.getJSONObject(0).getString("text")).isEqualTo("\u00e9t\u00e9");
+		assertThat(rendered.size()).isEqualTo(rendered.toJSONString().getBytes(StandardCharsets.UTF_8).length);
+	}
+
+	private static AID aid(int n) {
+		byte[] temp = new byte[AID.BYTES];
+		Ints.copyTo(n, temp, AID.BYTES - Integer.BYTES);
+		return AID.from(temp);
+	}
+}
@@ -25,6 +25,7 @@ import org.json.JSONObject;
 import org.junit.Test;
 import org.mockito.InOrder;
 import org.radix.api.AtomQuery;
+import org.radix.api.RenderedJson;
 import org.radix.api.observable.AtomEventDto;
 import org.radix.api.observable.Disposable;
 import org.radix.api.observable.Observable;
@@ -75,6 +76,7 @@ public class AtomsSubscribeEpicTest {
 		Serialization serializer = mock(Serialization.class);
 		JSONObject jsonAtom = mock(JSONObject.class);
 		when(serializer.toJsonObject(same(atom), any())).thenReturn(jsonAtom);
+		when(atomEventDto.toJson(serializer)).thenReturn(RenderedJson.of("{}"));
 		Consumer<JSONObject> callback = mock(ConsumerJSONObject.class);
 		AtomQuery atomQuery = mock(AtomQuery.class);
 		AtomsSubscribeEpic epic = new AtomsSubscribeEpic(atomsService, serializer, json -> atomQuery, callback);
@@ -0,0 +1,53 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.api.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class JsonRpcMetricsTest {
+	@Test
+	public void when_requests_recorded__then_counts_and_latencies_are_per_method() {
+		JsonRpcMetrics metrics = new JsonRpcMetrics();
+		metrics.record("Ping", 10L, false);
+		metrics.record("Ping", 30L, true);
+		metrics.record("Ledger.getAtoms", 5L, false);
+
+		JSONObject json = metrics.toJson();
+		JSONObject ping = json.getJSONObject("Ping");
+		assertThat(ping.getLong("requests")).isEqualTo(2L);
+		assertThat(ping.getLong("errors")).isEqualTo(1L);
+		assertThat(ping.getLong("total_time_ns")).isEqualTo(40L);
+		assertThat(ping.getLong("average_time_ns")).isEqualTo(20L);
+		assertThat(ping.getLong("max_time_ns")).isEqualTo(30L);
+		assertThat(json.getJSONObject("Ledger.getAtoms").getLong("requests")).isEqualTo(1L);
+	}
+
+	@Test
+	public void when_unknown_methods_recorded__then_they_are_tracked_together() {
+		JsonRpcMetrics metrics = new JsonRpcMetrics();
+		metrics.record(null, 1L, true);
+		metrics.record(null, 1L, true);
+
+		JSONObject json = metrics.toJson();
+		assertThat(json.keySet()).containsExactly(JsonRpcMetrics.UNKNOWN_METHOD);
+		assertThat(json.getJSONObject(JsonRpcMetrics.UNKNOWN_METHOD).getLong("requests")).isEqualTo(2L);
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.api.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.radixdlt.consensus.EpochManagerRunner;
+import com.radixdlt.network.addressbook.AddressBook;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.universe.Universe;
+import io.undertow.websockets.core.BufferedTextMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.radix.api.services.AtomsService;
+import org.radix.universe.system.LocalSystem;
+
+public class RadixJsonRpcPeerTest {
+	private RadixJsonRpcServer server;
+	private List<String> sent;
+
+	@Before
+	public void setUp() {
+		this.server = new RadixJsonRpcServer(
+			mock(EpochManagerRunner.class),
+			mock(Serialization.class),
+			mock(LedgerEntryStore.class),
+			mock(AtomsService.class),
+			mock(LocalSystem.class),
+			mock(AddressBook.class),
+			mock(Universe.class)
+		);
+		this.sent = new ArrayList<>();
+	}
+
+	private RadixJsonRpcPeer peer(Executor batchExecutor) {
+		return new RadixJsonRpcPeer(
+			server,
+			mock(AtomsService.class),
+			mock(Serialization.class),
+			(peer, message, onSent) -> {
+				sent.add(message);
+				onSent.run();
+			},
+			batchExecutor
+		);
+	}
+
+	private static BufferedTextMessage message(String data) {
+		BufferedTextMessage message = mock(BufferedTextMessage.class);
+		when(message.getData()).thenReturn(data);
+		return message;
+	}
+
+	private String lastSent() {
+		return sent.get(sent.size() - 1);
+	}
+
+	@Test
+	public void when_batch_received__then_it_is_handled_on_the_batch_executor() {
+		List<Runnable> batches = new ArrayList<>();
+		RadixJsonRpcPeer peer = peer(batches::add);
+		int welcomeMessages = sent.size();
+
+		peer.onMessage(message(new JSONArray().put(new JSONObject().put("id", 0).put("method", "Ping").put("params", new JSONObject())).toString()));
+
+		assertThat(sent).hasSize(welcomeMessages);
+		assertThat(batches).hasSize(1);
+
+		batches.get(0).run();
+
+		JSONArray response = new JSONArray(lastSent());
+		assertThat(response.length()).isEqualTo(1);
+		assertThat(response.getJSONObject(0).get("id")).isEqualTo(0);
+	}
+
+	@Test
+	public void when_batch_executor_is_full__then_busy_error_is_sent() {
+		RadixJsonRpcPeer peer = peer(work -> {
+			throw new RejectedExecutionException();
+		});
+
+		peer.onMessage(message("[{\"id\": 0, \"method\": \"Ping\"}]"));
+
+		JSONObject response = new JSONObject(lastSent());
+		assertThat(response.getJSONObject("error").getInt("code")).isEqualTo(JsonRpcUtil.SERVER_BUSY);
+	}
+
+	@Test
+	public void when_malformed_batch_received__then_error_is_sent() {
+		RadixJsonRpcPeer peer = peer(Runnable::run);
+
+		peer.onMessage(message("[{\"id\": 0, "));
+
+		JSONObject response = new JSONObject(lastSent());
+		assertThat(response.getJSONObject("error").getString("message")).isNotEmpty();
+	}
+}
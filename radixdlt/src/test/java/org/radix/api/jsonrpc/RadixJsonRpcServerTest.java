@@ -19,14 +19,22 @@ package org.radix.api.jsonrpc;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.radixdlt.consensus.EpochManagerRunner;
 import com.radixdlt.store.LedgerEntryStore;
 import com.radixdlt.universe.Universe;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.radix.api.services.AtomsService;
 
 import com.radixdlt.network.addressbook.AddressBook;
@@ -109,4 +117,122 @@ public class RadixJsonRpcServerTest {
 		assertThat(response.getJSONObject("error").get("code")).isEqualTo(JsonRpcUtil.OVERSIZED_REQUEST);
 		assertThat(response.getJSONObject("error").getString("message")).isNotEmpty();
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void when_send_json_rpc_requests__then_metrics_recorded_by_method() {
+		Serialization serializer = mock(Serialization.class);
+		when(serializer.toJsonObject(any(), any())).thenAnswer(i -> i.getArguments()[0]);
+
+		RadixJsonRpcServer server = new RadixJsonRpcServer(
+			mock(EpochManagerRunner.class),
+			serializer,
+			mock(LedgerEntryStore.class),
+			mock(AtomsService.class),
+			mock(LocalSystem.class),
+			mock(AddressBook.class),
+			mock(Universe.class));
+
+		server.handleChecked(new JSONObject().put("id", 0).put("method", "Ping").put("params", new JSONObject()).toString());
+		server.handleChecked(new JSONObject().put("id", 1).put("method", "No.suchMethod").put("params", new JSONObject()).toString());
+		server.handleChecked(new JSONObject().put("method", "No.suchMethodWithoutId").toString());
+
+		JSONObject metrics = server.getMetrics().toJson();
+		assertThat(metrics.keySet()).containsExactlyInAnyOrder("Ping", JsonRpcMetrics.UNKNOWN_METHOD);
+		assertThat(metrics.getJSONObject("Ping").getLong("errors")).isZero();
+		assertThat(metrics.getJSONObject(JsonRpcMetrics.UNKNOWN_METHOD).getLong("errors")).isEqualTo(2L);
+	}
+
+	@Test
+	public void when_send_json_rpc_batch__return_responses_in_request_order() {
+		Serialization serializer = mock(Serialization.class);
+		when(serializer.toJsonObject(any(), any())).thenAnswer(i -> i.getArguments()[0]);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			RadixJsonRpcServer server = batchServer(serializer, mock(AtomsService.class), 32, executor);
+
+			JSONArray batch = new JSONArray();
+			for (int i = 0; i < 16; i++) {
+				batch.put(new JSONObject().put("id", i).put("method", "Ping").put("params", new JSONObject()));
+			}
+			batch.put(new JSONObject().put("id", 16).put("method", "No.suchMethod").put("params", new JSONObject()));
+			batch.put(17);
+
+			JSONArray response = new JSONArray(server.handleChecked(batch.toString()));
+			assertThat(response.length()).isEqualTo(18);
+			for (int i = 0; i < 16; i++) {
+				assertThat(response.getJSONObject(i).get("id")).isEqualTo(i);
+				assertThat(response.getJSONObject(i).getJSONObject("result").get("response")).isEqualTo("pong");
+			}
+			assertThat(response.getJSONObject(16).getJSONObject("error").get("code")).isEqualTo(JsonRpcUtil.METHOD_NOT_FOUND_CODE);
+			assertThat(response.getJSONObject(17).isNull("id")).isTrue();
+			assertThat(response.getJSONObject(17).getJSONObject("error").get("code")).isEqualTo(JsonRpcUtil.INVALID_REQUEST_CODE);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void when_send_json_rpc_batch_of_submissions__atoms_are_submitted_in_batch_order() {
+		Serialization serializer = mock(Serialization.class);
+		when(serializer.toJsonObject(any(), any())).thenAnswer(i -> i.getArguments()[0]);
+		AtomsService atomsService = mock(AtomsService.class);
+		RadixJsonRpcServer server = batchServer(serializer, atomsService, 32, Runnable::run);
+
+		JSONObject atom0 = new JSONObject().put("atom", 0);
+		JSONObject atom1 = new JSONObject().put("atom", 1);
+		JSONArray batch = new JSONArray()
+			.put(new JSONObject().put("id", 0).put("method", "Atoms.submitAtom").put("params", atom0))
+			.put(new JSONObject().put("id", 1).put("method", "Ping").put("params", new JSONObject()))
+			.put(new JSONObject().put("id", 2).put("method", "Atoms.submitAtom").put("params", atom1));
+
+		JSONArray response = new JSONArray(server.handleChecked(batch.toString()));
+		assertThat(response.length()).isEqualTo(3);
+		assertThat(response.getJSONObject(0).getJSONObject("result").has("status")).isTrue();
+
+		InOrder inOrder = inOrder(atomsService);
+		inOrder.verify(atomsService).submitAtom(argThat(json -> json.getInt("atom") == 0), isNull());
+		inOrder.verify(atomsService).submitAtom(argThat(json -> json.getInt("atom") == 1), isNull());
+	}
+
+	@Test
+	public void when_send_empty_json_rpc_batch__return_json_error_response() {
+		RadixJsonRpcServer server = batchServer(mock(Serialization.class), mock(AtomsService.class), 32, Runnable::run);
+
+		JSONObject response = new JSONObject(server.handleChecked("[]"));
+		assertThat(response.isNull("id")).isTrue();
+		assertThat(response.getJSONObject("error").get("code")).isEqualTo(JsonRpcUtil.INVALID_REQUEST_CODE);
+	}
+
+	@Test
+	public void when_send_oversized_json_rpc_batch__return_json_error_response() {
+		RadixJsonRpcServer server = batchServer(mock(Serialization.class), mock(AtomsService.class), 1, Runnable::run);
+
+		JSONArray batch = new JSONArray()
+			.put(new JSONObject().put("id", 0).put("method", "Ping").put("params", new JSONObject()))
+			.put(new JSONObject().put("id", 1).put("method", "Ping").put("params", new JSONObject()));
+
+		JSONObject response = new JSONObject(server.handleChecked(batch.toString()));
+		assertThat(response.isNull("id")).isTrue();
+		assertThat(response.getJSONObject("error").get("code")).isEqualTo(JsonRpcUtil.OVERSIZED_REQUEST);
+	}
+
+	private static RadixJsonRpcServer batchServer(
+		Serialization serializer,
+		AtomsService atomsService,
+		int maxBatchSize,
+		Executor executor
+	) {
+		return new RadixJsonRpcServer(
+			mock(EpochManagerRunner.class),
+			serializer,
+			mock(LedgerEntryStore.class),
+			atomsService,
+			mock(LocalSystem.class),
+			mock(AddressBook.class),
+			mock(Universe.class),
+			RadixJsonRpcServer.DEFAULT_MAX_REQUEST_SIZE,
+			maxBatchSize,
+			executor
+		);
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * (C) Copyright 2020 Radix DLT Ltd
+ *
+ * Radix DLT Ltd licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the
+ * License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+
+package org.radix.api.observable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.radixdlt.atommodel.Atom;
+import com.radixdlt.consensus.Command;
+import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
+import com.radixdlt.crypto.Hasher;
+import com.radixdlt.identifiers.AID;
+import com.radixdlt.identifiers.EUID;
+import com.radixdlt.middleware2.ClientAtom;
+import com.radixdlt.middleware2.store.CommandToBinaryConverter;
+import com.radixdlt.middleware2.store.StoredCommittedCommand;
+import com.radixdlt.serialization.Serialization;
+import com.radixdlt.statecomputer.ClientAtomToBinaryConverter;
+import com.radixdlt.store.LedgerEntry;
+import com.radixdlt.store.LedgerEntryStore;
+import com.radixdlt.store.SearchCursor;
+import com.radixdlt.utils.Ints;
+import com.radixdlt.utils.Pair;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.radix.api.AtomJsonCache;
+import org.radix.api.AtomQuery;
+
+public class AtomEventObserverTest {
+	private LedgerEntryStore store;
+	private SearchCursor firstCursor;
+	private SearchCursor secondCursor;
+	private List<ObservedAtomEvents> observed;
+	private AtomEventObserver observer;
+	private Hasher hasher;
+	private CommandToBinaryConverter commandToBinaryConverter;
+	private Serialization serialization;
+	private AtomJsonCache atomJsonCache;
+
+	@Before
+	public void setUp() {
+		this.hasher = Sha256Hasher.withDefaultSerialization();
+		ClientAtom clientAtom = ClientAtom.convertFromApiAtom(new Atom(), hasher);
+
+		this.store = mock(LedgerEntryStore.class);
+		this.firstCursor = mock(SearchCursor.class);
+		this.secondCursor = mock(SearchCursor.class);
+		AID firstAid = aid(1);
+		AID secondAid = aid(2);
+		when(store.search(any(), any(), any())).thenReturn(firstCursor);
+		when(firstCursor.getBatch(anyInt())).thenReturn(Pair.of(List.of(firstAid), secondCursor));
+		when(secondCursor.getBatch(anyInt())).thenReturn(Pair.of(List.of(secondAid), null));
+		when(store.get(any())).thenReturn(Optional.of(mock(LedgerEntry.class)));
+
+		this.commandToBinaryConverter = mock(CommandToBinaryConverter.class);
+		StoredCommittedCommand committedCommand = mock(StoredCommittedCommand.class);
+		Command command = mock(Command.class);
+		when(command.map(any())).thenReturn(clientAtom);
+		when(committedCommand.getCommand()).thenReturn(command);
+		when(committedCommand.getStateAndProof()).thenReturn(mock(VerifiedLedgerHeaderAndProof.class));
+		when(commandToBinaryConverter.toCommand(any())).thenReturn(committedCommand);
+
+		this.serialization = mock(Serialization.class);
+		when(serialization.toJson(any(), any())).thenAnswer(i -> new JSONObject().put("event", true).toString());
+		this.atomJsonCache = new AtomJsonCache(AtomJsonCache.DEFAULT_MAX_BYTES);
+
+		this.observed = new CopyOnWriteArrayList<>();
+		this.observer = newObserver(observed::add);
+	}
+
+	private AtomEventObserver newObserver(Consumer<ObservedAtomEvents> onNext) {
+		return new AtomEventObserver(
+			new AtomQuery(EUID.ONE),
+			onNext,
+			MoreExecutors.newDirectExecutorService(),
+			store,
+			commandToBinaryConverter,
+			mock(ClientAtomToBinaryConverter.class),
+			hasher,
+			serialization,
+			atomJsonCache
+		);
+	}
+
+	@Test
+	public void when_started__then_only_the_first_batch_is_read() {
+		observer.start();
+
+		assertThat(observed).hasSize(1);
+		assertThat(observed.get(0).isHead()).isFalse();
+		verify(secondCursor, never()).getBatch(anyInt());
+	}
+
+	@Test
+	public void when_batches_consumed__then_following_batches_and_head_are_sent() {
+		observer.start();
+		observed.get(0).consumed();
+
+		assertThat(observed).hasSize(2);
+		verify(secondCursor).getBatch(anyInt());
+
+		observed.get(1).consumed();
+
+		assertThat(observed).hasSize(4);
+		assertThat(observed.get(3).isHead()).isTrue();
+	}
+
+	@Test
+	public void when_batch_consumed_twice__then_next_batch_is_read_once() {
+		observer.start();
+		observed.get(0).consumed();
+		observed.get(0).consumed();
+
+		assertThat(observed).hasSize(2);
+		verify(secondCursor).getBatch(anyInt());
+	}
+
+	@Test
+	public void when_cancelled__then_no_further_batches_are_read() {
+		observer.start();
+		observer.cancel();
+		observed.get(0).consumed();
+
+		assertThat(observed).hasSize(1);
+		verify(secondCursor, never()).getBatch(anyInt());
+	}
+
+	@Test
+	public void when_atoms_already_rendered__then_they_are_not_read_from_the_store_again() {
+		observer.start();
+		observed.get(0).consumed();
+		observed.get(1).consumed();
+
+		List<ObservedAtomEvents> secondObserved = new CopyOnWriteArrayList<>();
+		AtomEventObserver secondObserver = newObserver(secondObserved::add);
+		secondObserver.start();
+		secondObserved.get(0).consumed();
+		secondObserved.get(1).consumed();
+
+		assertThat(secondObserved).hasSize(4);
+		verify(store, times(2)).get(any());
+		verify(commandToBinaryConverter, times(2)).toCommand(any());
+	}
+
+	private static AID aid(int n) {
+		byte[] temp = new byte[AID.BYTES];
+		Ints.copyTo(n, temp, AID.BYTES - Integer.BYTES);
+		return AID.from(temp);
+	}
+}
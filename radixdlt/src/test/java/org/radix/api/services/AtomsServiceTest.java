@@ -17,19 +17,37 @@
 
 package org.radix.api.services;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableSet;
+
 import com.radixdlt.api.SubmissionErrorsRx;
 import com.radixdlt.consensus.Sha256Hasher;
+import com.radixdlt.atommodel.Atom;
+import com.radixdlt.consensus.VerifiedLedgerHeaderAndProof;
 import com.radixdlt.crypto.Hasher;
+import com.radixdlt.identifiers.EUID;
+import com.radixdlt.middleware2.ClientAtom;
 import com.radixdlt.mempool.SubmissionControl;
 import com.radixdlt.statecomputer.ClientAtomToBinaryConverter;
 import com.radixdlt.middleware2.store.CommandToBinaryConverter;
+import com.radixdlt.statecomputer.CommittedAtom;
 import com.radixdlt.statecomputer.RadixEngineStateComputer.CommittedAtomWithResult;
 import com.radixdlt.store.LedgerEntryStore;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.subjects.PublishSubject;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.radix.api.AtomQuery;
+import org.radix.api.observable.AtomEventDto;
+import org.radix.api.observable.Disposable;
+import org.radix.api.observable.ObservedAtomEvents;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -74,4 +92,93 @@ public class AtomsServiceTest {
 		CommittedAtomWithResult committedAtomWithResult = mock(CommittedAtomWithResult.class);
 		committedAtomsSubject.onNext(committedAtomWithResult);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void when_atom_committed__then_only_observers_of_its_destinations_are_notified() throws InterruptedException {
+		atomsService.start();
+		EUID dest1 = EUID.ONE;
+		EUID dest2 = EUID.TWO;
+		List<AtomEventDto> events1 = new CopyOnWriteArrayList<>();
+		List<AtomEventDto> events2 = new CopyOnWriteArrayList<>();
+		List<ObservedAtomEvents> heads = new CopyOnWriteArrayList<>();
+		atomsService.getAtomEvents(new AtomQuery(dest1)).subscribe(collect(events1, heads));
+		atomsService.getAtomEvents(new AtomQuery(dest2)).subscribe(collect(events2, heads));
+		awaitSize(heads, 2);
+
+		CommittedAtomWithResult committedAtomWithResult = committedAtomWithDestinations(ImmutableSet.of(dest1));
+		committedAtomsSubject.onNext(committedAtomWithResult);
+
+		awaitSize(events1, 1);
+		assertThat(events1).hasSize(1);
+		assertThat(events2).isEmpty();
+	}
+
+	@Test
+	public void when_atom_committed_to_several_observers__then_same_event_is_shared() throws InterruptedException {
+		atomsService.start();
+		EUID dest1 = EUID.ONE;
+		EUID dest2 = EUID.TWO;
+		List<AtomEventDto> events1 = new CopyOnWriteArrayList<>();
+		List<AtomEventDto> events2 = new CopyOnWriteArrayList<>();
+		List<ObservedAtomEvents> heads = new CopyOnWriteArrayList<>();
+		atomsService.getAtomEvents(new AtomQuery(dest1)).subscribe(collect(events1, heads));
+		atomsService.getAtomEvents(new AtomQuery(dest2)).subscribe(collect(events2, heads));
+		awaitSize(heads, 2);
+
+		CommittedAtomWithResult committedAtomWithResult = committedAtomWithDestinations(ImmutableSet.of(dest1, dest2));
+		committedAtomsSubject.onNext(committedAtomWithResult);
+
+		awaitSize(events1, 1);
+		awaitSize(events2, 1);
+		assertThat(events1.get(0)).isSameAs(events2.get(0));
+	}
+
+	@Test
+	public void when_observer_disposed__then_it_is_no_longer_counted() throws InterruptedException {
+		atomsService.start();
+		List<AtomEventDto> events = new CopyOnWriteArrayList<>();
+		List<ObservedAtomEvents> heads = new CopyOnWriteArrayList<>();
+		Disposable disposable = atomsService.getAtomEvents(new AtomQuery(EUID.ONE)).subscribe(collect(events, heads));
+		awaitSize(heads, 1);
+
+		disposable.dispose();
+
+		committedAtomsSubject.onNext(committedAtomWithDestinations(ImmutableSet.of(EUID.ONE)));
+		assertThat(atomsService.getWaitingCount()).isZero();
+		assertThat(events).isEmpty();
+	}
+
+	private CommittedAtomWithResult committedAtomWithDestinations(ImmutableSet<EUID> destinations) {
+		ClientAtom clientAtom = ClientAtom.convertFromApiAtom(new Atom(), hasher);
+		VerifiedLedgerHeaderAndProof proof = mock(VerifiedLedgerHeaderAndProof.class);
+		CommittedAtom committedAtom = mock(CommittedAtom.class);
+		when(committedAtom.getClientAtom()).thenReturn(clientAtom);
+		when(committedAtom.getAID()).thenReturn(clientAtom.getAID());
+		when(committedAtom.getStateAndProof()).thenReturn(proof);
+		CommittedAtomWithResult committedAtomWithResult = mock(CommittedAtomWithResult.class);
+		when(committedAtomWithResult.getCommittedAtom()).thenReturn(committedAtom);
+		doAnswer(invocation -> {
+			@SuppressWarnings("unchecked")
+			Consumer<ImmutableSet<EUID>> consumer = (Consumer<ImmutableSet<EUID>>) invocation.getArguments()[0];
+			consumer.accept(destinations);
+			return committedAtomWithResult;
+		}).when(committedAtomWithResult).ifSuccess(any());
+		return committedAtomWithResult;
+	}
+
+	private static Consumer<ObservedAtomEvents> collect(List<AtomEventDto> events, List<ObservedAtomEvents> heads) {
+		return observed -> {
+			if (observed.isHead()) {
+				heads.add(observed);
+			}
+			events.addAll(observed.atomEvents().collect(Collectors.toList()));
+		};
+	}
+
+	private static void awaitSize(List<?> list, int size) throws InterruptedException {
+		for (int i = 0; i < 100 && list.size() < size; i++) {
+			Thread.sleep(50L);
+		}
+		assertThat(list).hasSize(size);
+	}
+}
@@ -6,6 +6,7 @@ import com.radixdlt.network.addressbook.Peer;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
 import org.junit.Test;
+import org.radix.api.observable.AtomEventDto;
 import org.radix.network.messaging.Message;
 import org.radix.universe.system.LocalSystem;
 import org.reflections.Reflections;
@@ -26,6 +27,7 @@ public class BasicContainerSubTypesEqualsVerifierTest {
 
         final Map<Class<?>, List<String>> ignoredFieldsByClass = Map.of(
                 Message.class, List.of("instance"),
+                AtomEventDto.class, List.of("json"),
                 Peer.class, List.of("banReason", "timestamps"),
                 LocalSystem.class, List.of("infoSupplier"));
 